@@ -35,7 +35,7 @@ import java.util.function.Supplier;
 @SidedComponent
 public class Connectable<C> extends Component {
 
-	public final EventBus<Event> connectEvent = new EventBus<>();
+	public final EventBus<Event> connectEvent = new EventBus<>(Event.class);
 
 	/**
 	 * Can this connectable component connect to another component?
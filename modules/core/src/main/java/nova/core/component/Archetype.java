@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.component;
+
+import nova.core.component.exception.ComponentException;
+
+import java.util.Arrays;
+
+/**
+ * Dense columnar storage of all tracked providers with exactly the same component classes.
+ * Every component class has its own column, and every provider occupies one row.
+ * @see ArchetypeStorage
+ */
+final class Archetype {
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * The signature of the exact component classes, used as the archetype key.
+	 */
+	final ComponentSignature key;
+	/**
+	 * The signature including all super classes and interfaces, used to match queries.
+	 */
+	final ComponentSignature signature;
+	final Class<?>[] componentClasses;
+
+	ComponentMap[] maps = new ComponentMap[INITIAL_CAPACITY];
+	Component[][] columns;
+	int size;
+
+	Archetype(ComponentSignature key, Class<?>[] componentClasses) {
+		this.key = key;
+		this.componentClasses = componentClasses;
+		this.columns = new Component[componentClasses.length][INITIAL_CAPACITY];
+
+		ComponentSignature signature = ComponentSignature.EMPTY;
+		for (Class<?> componentClass : componentClasses) {
+			signature = signature.union(ComponentSignature.ofComponent(componentClass));
+		}
+		this.signature = signature;
+	}
+
+	/**
+	 * Finds the column holding components of the given type.
+	 * @param type The component class or interface
+	 * @return The column index, or -1 if there is no such column
+	 * @throws ComponentException if multiple columns match the type
+	 */
+	int column(Class<?> type) {
+		int column = -1;
+		for (int i = 0; i < componentClasses.length; i++) {
+			if (type.isAssignableFrom(componentClasses[i])) {
+				if (column != -1) {
+					throw new ComponentException("Ambiguous component search. For component/interface %s there are multiple components found: %s", type, Arrays.toString(componentClasses));
+				}
+				column = i;
+			}
+		}
+		return column;
+	}
+
+	void add(ComponentMap map) {
+		if (size == maps.length) {
+			int capacity = size * 2;
+			maps = Arrays.copyOf(maps, capacity);
+			for (int i = 0; i < columns.length; i++) {
+				columns[i] = Arrays.copyOf(columns[i], capacity);
+			}
+		}
+
+		maps[size] = map;
+		map.archetype = this;
+		map.archetypeRow = size;
+		size++;
+		update(map);
+	}
+
+	void update(ComponentMap map) {
+		int row = map.archetypeRow;
+		for (int i = 0; i < componentClasses.length; i++) {
+			columns[i][row] = map.get((Object) componentClasses[i]);
+		}
+	}
+
+	void remove(ComponentMap map) {
+		int row = map.archetypeRow;
+		int last = size - 1;
+
+		// Move the last row into the freed one to keep the storage dense.
+		maps[row] = maps[last];
+		maps[row].archetypeRow = row;
+		maps[last] = null;
+		for (Component[] column : columns) {
+			column[row] = column[last];
+			column[last] = null;
+		}
+
+		size = last;
+		map.archetype = null;
+		map.archetypeRow = -1;
+	}
+}
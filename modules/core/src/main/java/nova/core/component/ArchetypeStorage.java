@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Optional archetype storage of component providers.
+ *
+ * Tracked providers with the same set of component classes share an archetype,
+ * which stores their components in one dense array per component class.
+ * {@link ComponentQuery Queries} iterate those arrays directly, instead of
+ * going through the {@link ComponentMap} of every provider.
+ *
+ * The component map stays the authoritative storage. It notifies this storage
+ * whenever its components change. Changes made while a query is running are
+ * applied once all running queries have finished.
+ * @see ComponentManager#query(Class[])
+ */
+public class ArchetypeStorage {
+
+	private final Map<ComponentSignature, Archetype> archetypes = new HashMap<>();
+	private volatile Archetype[] archetypeList = new Archetype[0];
+
+	private final Set<ComponentMap> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+	private int iterating;
+
+	/**
+	 * Starts tracking a provider, so it can be found by queries.
+	 * Tracked providers are referenced by this storage until they are {@link #untrack(ComponentProvider) untracked}.
+	 * @param provider The provider
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized void track(ComponentProvider provider) {
+		ComponentMap map = provider.components;
+		if (map.storage == this) {
+			return;
+		}
+		if (map.storage != null) {
+			throw new IllegalStateException("Provider " + provider + " is already tracked by another storage");
+		}
+
+		map.storage = this;
+		onChange(map);
+	}
+
+	/**
+	 * Stops tracking a provider.
+	 * @param provider The provider
+	 */
+	@SuppressWarnings("rawtypes")
+	public synchronized void untrack(ComponentProvider provider) {
+		ComponentMap map = provider.components;
+		if (map.storage != this) {
+			return;
+		}
+
+		map.storage = null;
+		onChange(map);
+	}
+
+	/**
+	 * @param provider The provider
+	 * @return true if the provider is tracked by this storage
+	 */
+	@SuppressWarnings("rawtypes")
+	public boolean isTracked(ComponentProvider provider) {
+		return provider.components.storage == this;
+	}
+
+	/**
+	 * @return The number of tracked providers
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (Archetype archetype : archetypeList) {
+			size += archetype.size;
+		}
+		return size;
+	}
+
+	/**
+	 * @return The number of distinct component sets of the tracked providers
+	 */
+	public synchronized int archetypeCount() {
+		return archetypeList.length;
+	}
+
+	/**
+	 * Creates a query for tracked providers that have components of all the given types.
+	 * @param componentTypes The component classes or interfaces
+	 * @return The query
+	 */
+	public ComponentQuery query(Class<?>... componentTypes) {
+		return new ComponentQuery(this, componentTypes, false);
+	}
+
+	/**
+	 * Called by a tracked component map whenever its components change.
+	 * @param map The changed map
+	 */
+	synchronized void onChange(ComponentMap map) {
+		if (iterating > 0) {
+			pending.add(map);
+		} else {
+			apply(map);
+		}
+	}
+
+	/**
+	 * Marks the start of a query. Structural changes are deferred until the query ends.
+	 * @return The archetypes to iterate
+	 */
+	synchronized Archetype[] beginIteration() {
+		iterating++;
+		return archetypeList;
+	}
+
+	synchronized void endIteration() {
+		iterating--;
+		if (iterating == 0 && !pending.isEmpty()) {
+			pending.forEach(this::apply);
+			pending.clear();
+		}
+	}
+
+	private void apply(ComponentMap map) {
+		Archetype current = map.archetype;
+
+		if (map.storage != this) {
+			if (current != null) {
+				current.remove(map);
+			}
+			return;
+		}
+
+		Class<?>[] componentClasses = map.keySet().toArray(new Class<?>[0]);
+		ComponentSignature key = ComponentSignature.of(componentClasses);
+
+		if (current != null) {
+			if (current.key.equals(key)) {
+				current.update(map);
+				return;
+			}
+			current.remove(map);
+		}
+
+		Archetype target = archetypes.get(key);
+		if (target == null) {
+			target = new Archetype(key, componentClasses);
+			archetypes.put(key, target);
+			archetypeList = archetypes.values().toArray(new Archetype[0]);
+		}
+		target.add(map);
+	}
+}
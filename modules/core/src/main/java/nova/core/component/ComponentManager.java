@@ -23,10 +23,12 @@ package nova.core.component;
 import nova.core.component.exception.ComponentException;
 import nova.core.util.ClassLoaderUtil;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Used to instantiate components.
@@ -39,6 +41,7 @@ public class ComponentManager {
 
 	private Map<Class<? extends Component>, String> classToComponent = new HashMap<>();
 	private Map<Class<?>, Class<? extends Component>> passthroughComponents = new HashMap<>();
+	private final ArchetypeStorage storage = new ArchetypeStorage();
 
 	/**
 	 * Use this to register components tagged with {@link Passthrough}.
@@ -68,6 +71,89 @@ public class ComponentManager {
 		}
 	}
 
+	/**
+	 * Gets the dense integer ID of a component class or interface, assigning one on first use.
+	 * @param componentType The component class or interface
+	 * @return The type ID
+	 * @see ComponentSignature
+	 */
+	public int getTypeId(Class<?> componentType) {
+		return ComponentSignature.idOf(componentType);
+	}
+
+	/**
+	 * Gets the ID of a component class or interface without assigning one, for lookups that only query.
+	 * @param componentType The component class or interface
+	 * @return The type ID, or -1 if the type has none yet
+	 * @see #getTypeId(Class)
+	 */
+	public int findTypeId(Class<?> componentType) {
+		return ComponentSignature.findId(componentType);
+	}
+
+	/**
+	 * Builds a signature to query providers for components of all or any of the given types.
+	 * @param componentTypes The component classes or interfaces
+	 * @return The query signature
+	 * @see ComponentMap#hasAll(ComponentSignature)
+	 * @see ComponentMap#hasAny(ComponentSignature)
+	 */
+	public ComponentSignature signature(Class<?>... componentTypes) {
+		return ComponentSignature.of(componentTypes);
+	}
+
+	/**
+	 * Filters providers which have components of all the given types, only looking at their signatures.
+	 * @param providers The providers to filter
+	 * @param componentTypes The required component classes or interfaces
+	 * @param <P> The provider type
+	 * @return The providers that have all the components
+	 */
+	@SuppressWarnings("rawtypes")
+	public <P extends ComponentProvider> Stream<P> withAll(Collection<P> providers, Class<?>... componentTypes) {
+		ComponentSignature query = signature(componentTypes);
+		return providers.stream().filter(provider -> provider.components.hasAll(query));
+	}
+
+	/**
+	 * Starts tracking a provider in the archetype storage, so it can be found by {@link #query(Class[])}.
+	 * Tracked providers stay referenced until they are {@link #untrack(ComponentProvider) untracked}.
+	 * @param provider The provider
+	 */
+	@SuppressWarnings("rawtypes")
+	public void track(ComponentProvider provider) {
+		storage.track(provider);
+	}
+
+	/**
+	 * Stops tracking a provider in the archetype storage.
+	 * @param provider The provider
+	 */
+	@SuppressWarnings("rawtypes")
+	public void untrack(ComponentProvider provider) {
+		storage.untrack(provider);
+	}
+
+	/**
+	 * Queries all tracked providers which have components of all the given types.
+	 * Entities are tracked while they are loaded in a server world.
+	 * <pre>
+	 * Game.components().query(Updater.class, Category.class).forEach(Updater.class, Category.class, (updater, category) -&gt; ...);
+	 * </pre>
+	 * @param componentTypes The required component classes or interfaces
+	 * @return The query
+	 */
+	public ComponentQuery query(Class<?>... componentTypes) {
+		return storage.query(componentTypes);
+	}
+
+	/**
+	 * @return The archetype storage of tracked providers
+	 */
+	public ArchetypeStorage getStorage() {
+		return storage;
+	}
+
 	/**
 	 * Internal
 	 *
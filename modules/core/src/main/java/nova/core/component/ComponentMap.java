@@ -24,23 +24,79 @@ import nova.core.component.exception.ComponentException;
 import nova.internal.core.Game;
 import se.jbee.inject.Dependency;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * A class that contains all components.
  *
+ * Component lookups by type are cached per map, and the cache is
+ * invalidated whenever a component is added or removed.
+ *
  * @author Calclavia
  */
 public class ComponentMap extends HashMap<Class<? extends Component>, Component> {
 	private static final long serialVersionUID = 2017_02_12L;
 
+	private static final Lookup[] NO_QUERIES = new Lookup[0];
+	private static final int[] NO_COUNTS = new int[0];
+	private static final AtomicReferenceFieldUpdater<ComponentMap, Lookup[]> QUERY_CACHE =
+		AtomicReferenceFieldUpdater.newUpdater(ComponentMap.class, Lookup[].class, "queryCache");
+	/**
+	 * The number of query types the cache has room for when it is first filled.
+	 */
+	private static final int INITIAL_CACHED_QUERIES = 4;
+	/**
+	 * Most providers only hold a handful of components, so start with a smaller table than {@link HashMap}.
+	 */
+	private static final int INITIAL_CAPACITY = 4;
+
 	public final ComponentProvider<?> provider;
 
+	/**
+	 * The cached {@link Lookup} results, followed by empty slots.
+	 * Slots are only ever filled and the array is replaced when the components change,
+	 * so lookups don't need any locking.
+	 */
+	private transient volatile Lookup[] queryCache = NO_QUERIES;
+	/**
+	 * Incremented whenever the cache is cleared, so a lookup resolved concurrently with a change
+	 * can tell that it may be stale, even if the cache was empty before and after.
+	 */
+	private transient volatile int cacheVersion;
+
+	/**
+	 * The signature of all components in this map, null if it needs to be rebuilt.
+	 */
+	private transient volatile ComponentSignature signature = ComponentSignature.EMPTY;
+	/**
+	 * Pairs of a type ID and the number of components of that type, sorted by ID, so adding or removing
+	 * a component updates the signature without rebuilding it from all components.
+	 * Only the types this map holds take up space, however many types the game has.
+	 */
+	private transient int[] typeCounts = NO_COUNTS;
+	/**
+	 * The number of (ID, count) pairs in {@link #typeCounts}.
+	 */
+	private transient int countedTypes;
+
+	/**
+	 * The archetype storage tracking this map, its current archetype and its row in that archetype.
+	 */
+	transient ArchetypeStorage storage;
+	transient Archetype archetype;
+	transient int archetypeRow = -1;
+
 	public ComponentMap(ComponentProvider<?> provider) {
+		super(INITIAL_CAPACITY);
 		this.provider = provider;
 	}
 
@@ -68,13 +124,15 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 		}
 
 		//Place component into component map
-		put(component.getClass(), component);
+		putComponent(component);
 
 		//Set component's provider.
 		component.setProvider(provider);
 
-		//Publish component add event
-		provider.events.publish(new ComponentAdded(component));
+		//Publish component add event, only building it if someone listens
+		if (provider.events.hasListeners(ComponentAdded.class)) {
+			provider.events.publish(new ComponentAdded(component));
+		}
 		return component;
 	}
 
@@ -96,7 +154,189 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 * @return true if the component exists on the provider.
 	 */
 	public final boolean has(Class<?> componentType) {
-		return keySet().stream().anyMatch(componentType::isAssignableFrom);
+		return signature().has(componentType);
+	}
+
+	/**
+	 * Checks if components of all the given types exist in this provider.
+	 * @param componentTypes the component types to check.
+	 * @return true if every component type exists on the provider.
+	 */
+	public final boolean hasAll(Class<?>... componentTypes) {
+		for (Class<?> componentType : componentTypes) {
+			if (!has(componentType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if components of any of the given types exist in this provider.
+	 * @param componentTypes the component types to check.
+	 * @return true if at least one component type exists on the provider.
+	 */
+	public final boolean hasAny(Class<?>... componentTypes) {
+		for (Class<?> componentType : componentTypes) {
+			if (has(componentType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if components of all types of a precomputed signature exist in this provider.
+	 * @param query the signature built with {@link ComponentSignature#of(Class[])}.
+	 * @return true if every component type exists on the provider.
+	 */
+	public final boolean hasAll(ComponentSignature query) {
+		return signature().hasAll(query);
+	}
+
+	/**
+	 * Checks if components of any type of a precomputed signature exist in this provider.
+	 * @param query the signature built with {@link ComponentSignature#of(Class[])}.
+	 * @return true if at least one component type exists on the provider.
+	 */
+	public final boolean hasAny(ComponentSignature query) {
+		return signature().hasAny(query);
+	}
+
+	/**
+	 * Gets the signature of all components in this map, including their super classes and interfaces.
+	 * @return the signature.
+	 */
+	public final ComponentSignature signature() {
+		ComponentSignature result = signature;
+		if (result == null) {
+			typeCounts = NO_COUNTS;
+			countedTypes = 0;
+			result = ComponentSignature.EMPTY;
+			for (Component component : values()) {
+				result = count(result, component.getClass(), 1);
+			}
+			signature = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the type counts for a component class.
+	 * @param current The signature before the change
+	 * @param componentClass The class of the added or removed component
+	 * @param delta 1 if the component was added, -1 if it was removed
+	 * @return The signature after the change
+	 */
+	private ComponentSignature count(ComponentSignature current, Class<?> componentClass, int delta) {
+		ComponentSignature types = ComponentSignature.ofComponent(componentClass);
+		int[] ids = types.ids();
+		if (delta > 0) {
+			for (int id : ids) {
+				increment(id);
+			}
+			return current.union(types);
+		}
+
+		int[] removed = new int[ids.length];
+		int count = 0;
+		for (int id : ids) {
+			if (decrement(id)) {
+				removed[count++] = id;
+			}
+		}
+		return count == 0 ? current : current.without(removed, count);
+	}
+
+	/**
+	 * @param id The type ID
+	 * @return The number of components in this map of the type
+	 */
+	private int countOf(int id) {
+		int index = indexOf(id);
+		return index >= 0 ? typeCounts[index * 2 + 1] : 0;
+	}
+
+	private void increment(int id) {
+		int index = indexOf(id);
+		if (index >= 0) {
+			typeCounts[index * 2 + 1]++;
+			return;
+		}
+
+		index = -index - 1;
+		if (countedTypes * 2 == typeCounts.length) {
+			typeCounts = Arrays.copyOf(typeCounts, Math.max(8, typeCounts.length * 2));
+		}
+		System.arraycopy(typeCounts, index * 2, typeCounts, index * 2 + 2, (countedTypes - index) * 2);
+		typeCounts[index * 2] = id;
+		typeCounts[index * 2 + 1] = 1;
+		countedTypes++;
+	}
+
+	/**
+	 * @param id The type ID
+	 * @return true if no component of the type is left
+	 */
+	private boolean decrement(int id) {
+		int index = indexOf(id);
+		if (index < 0) {
+			return true;
+		}
+		if (--typeCounts[index * 2 + 1] > 0) {
+			return false;
+		}
+
+		countedTypes--;
+		System.arraycopy(typeCounts, index * 2 + 2, typeCounts, index * 2, (countedTypes - index) * 2);
+		return true;
+	}
+
+	/**
+	 * Binary searches the counted type IDs.
+	 * @param id The type ID
+	 * @return The pair index, or {@code -(insertion point) - 1} if the ID is not counted
+	 */
+	private int indexOf(int id) {
+		int low = 0;
+		int high = countedTypes - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int midId = typeCounts[mid * 2];
+			if (midId < id) {
+				low = mid + 1;
+			} else if (midId > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Stores a new component under its class, updating the signature incrementally.
+	 * @param component The component
+	 */
+	void putComponent(Component component) {
+		super.put(component.getClass(), component);
+		componentsChanged(component.getClass(), 1);
+	}
+
+	/**
+	 * Updates the signature after a single component was added or removed, and clears the lookup cache.
+	 * @param componentClass The class of the component
+	 * @param delta 1 if the component was added, -1 if it was removed
+	 */
+	private void componentsChanged(Class<?> componentClass, int delta) {
+		ComponentSignature current = signature;
+		// A pending rebuild already sees the change
+		if (current != null) {
+			current = count(current, componentClass, delta);
+		}
+		clearQueryCache();
+		signature = current;
+		notifyStorage();
 	}
 
 	/**
@@ -113,8 +353,10 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 		//Set provider on component to null
 		component.setProvider(null);
 
-		//Publish component event
-		provider.events.publish(new ComponentProvider.ComponentRemoved(component));
+		//Publish component event, only building it if someone listens
+		if (provider.events.hasListeners(ComponentProvider.ComponentRemoved.class)) {
+			provider.events.publish(new ComponentProvider.ComponentRemoved(component));
+		}
 		return component;
 	}
 
@@ -132,12 +374,19 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 		}
 
 		C component = (C) super.remove(componentType);
+		if (component == null) {
+			// Only a component of a sub type is present, which is not stored under this type
+			throw new ComponentException("Attempt to remove component that does not exist: %s", componentType);
+		}
+		componentsChanged(component.getClass(), -1);
 
 		//Set provider on component to null
 		component.setProvider(null);
 
-		//Publish component event
-		provider.events.publish(new ComponentProvider.ComponentRemoved(component));
+		//Publish component event, only building it if someone listens
+		if (provider.events.hasListeners(ComponentProvider.ComponentRemoved.class)) {
+			provider.events.publish(new ComponentProvider.ComponentRemoved(component));
+		}
 		return component;
 	}
 
@@ -150,20 +399,18 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 */
 	@SuppressWarnings("unchecked")
 	public final <C> Optional<C> getOp(Class<C> componentType) {
-		if (componentType.isAssignableFrom(Component.class)) {
-			Component component = get(componentType.asSubclass(Component.class));
-			if (component != null) {
-				return Optional.of((C) component);
-			}
+		Component exact = exactMatch(componentType);
+		if (exact != null) {
+			return Optional.of((C) exact);
 		}
 
-		Set<C> collect = getSet(componentType);
+		Lookup lookup = lookup(componentType);
 
-		if (collect.size() > 1) {
-			throw new ComponentException("Ambiguous component search. For component/interface %s there are multiple components found: %s", componentType, collect);
+		if (lookup.single == null) {
+			throw new ComponentException("Ambiguous component search. For component/interface %s there are multiple components found: %s", componentType, lookup.matches);
 		}
 
-		return collect.stream().findFirst();
+		return (Optional<C>) lookup.single;
 	}
 
 	/**
@@ -173,7 +420,12 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 * @return the component.
 	 * @throws ComponentException if the component doesn't exist.
 	 */
+	@SuppressWarnings("unchecked")
 	public final <C> C get(Class<C> componentType) {
+		Component exact = exactMatch(componentType);
+		if (exact != null) {
+			return (C) exact;
+		}
 		return getOp(componentType).orElseThrow(() -> new ComponentException("Attempt to get component that does not exist: %s", componentType));
 	}
 
@@ -183,10 +435,232 @@ public class ComponentMap extends HashMap<Class<? extends Component>, Component>
 	 * @param componentType the type to get.
 	 * @return the set of the components.
 	 */
+	@SuppressWarnings("unchecked")
 	public final <C> Set<C> getSet(Class<C> componentType) {
-		return Collections.unmodifiableSet(values().stream()
-			.filter(c -> componentType.isAssignableFrom(c.getClass()))
-			.map(componentType::cast)
-			.collect(Collectors.toSet()));
+		return (Set<C>) lookup(componentType).matches;
+	}
+
+	/**
+	 * Resolves the components assignable to a type, using the cache if possible.
+	 * @param componentType The type to look up.
+	 * @return The lookup result.
+	 */
+	private Lookup lookup(Class<?> componentType) {
+		int version = cacheVersion;
+		Lookup[] cache = queryCache;
+		int size = 0;
+		for (; size < cache.length; size++) {
+			Lookup cached = cache[size];
+			if (cached == null) {
+				break;
+			}
+			if (cached.type == componentType) {
+				return cached;
+			}
+		}
+
+		Lookup lookup = new Lookup(componentType, values());
+		// Filling a slot of an array that was replaced in the meantime is harmless, as nothing reads it anymore.
+		// Two lookups filling the same slot only means one of them is resolved again.
+		if (size < cache.length) {
+			cache[size] = lookup;
+		} else {
+			Lookup[] newCache = Arrays.copyOf(cache, Math.max(INITIAL_CACHED_QUERIES, cache.length * 2));
+			newCache[size] = lookup;
+			// Only publish if the cache wasn't replaced since, and retract if the components changed meanwhile
+			if (QUERY_CACHE.compareAndSet(this, cache, newCache) && cacheVersion != version) {
+				QUERY_CACHE.compareAndSet(this, newCache, NO_QUERIES);
+			}
+		}
+		return lookup;
+	}
+
+	/**
+	 * Gets the component stored under exactly its own class, if it is the only one assignable to that class.
+	 * This skips the lookup cache for the common case of getting a component by its concrete type.
+	 * @param componentType The type to look up.
+	 * @return The component, or null if the full lookup is needed.
+	 */
+	private Component exactMatch(Class<?> componentType) {
+		Component component = super.get(componentType);
+		if (component == null || component.getClass() != componentType) {
+			return null;
+		}
+		signature();
+		return countOf(ComponentSignature.findId(componentType)) == 1 ? component : null;
+	}
+
+	/**
+	 * Clears the lookup cache. Called whenever the components change.
+	 */
+	protected void invalidateCache() {
+		clearQueryCache();
+		signature = null;
+		notifyStorage();
+	}
+
+	private void clearQueryCache() {
+		cacheVersion++;
+		queryCache = NO_QUERIES;
+	}
+
+	private void notifyStorage() {
+		ArchetypeStorage storage = this.storage;
+		if (storage != null) {
+			storage.onChange(this);
+		}
+	}
+
+	@Override
+	public Component put(Class<? extends Component> key, Component value) {
+		Component previous = super.put(key, value);
+		invalidateCache();
+		return previous;
+	}
+
+	@Override
+	public void putAll(Map<? extends Class<? extends Component>, ? extends Component> m) {
+		super.putAll(m);
+		invalidateCache();
+	}
+
+	@Override
+	public Component putIfAbsent(Class<? extends Component> key, Component value) {
+		Component previous = super.putIfAbsent(key, value);
+		invalidateCache();
+		return previous;
+	}
+
+	@Override
+	public Component remove(Object key) {
+		Component previous = super.remove(key);
+		invalidateCache();
+		return previous;
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		boolean removed = super.remove(key, value);
+		invalidateCache();
+		return removed;
+	}
+
+	@Override
+	public boolean replace(Class<? extends Component> key, Component oldValue, Component newValue) {
+		boolean replaced = super.replace(key, oldValue, newValue);
+		invalidateCache();
+		return replaced;
+	}
+
+	@Override
+	public Component replace(Class<? extends Component> key, Component value) {
+		Component previous = super.replace(key, value);
+		invalidateCache();
+		return previous;
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> function) {
+		super.replaceAll(function);
+		invalidateCache();
+	}
+
+	@Override
+	public Component computeIfAbsent(Class<? extends Component> key, Function<? super Class<? extends Component>, ? extends Component> mappingFunction) {
+		Component component = super.computeIfAbsent(key, mappingFunction);
+		invalidateCache();
+		return component;
+	}
+
+	@Override
+	public Component computeIfPresent(Class<? extends Component> key, BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> remappingFunction) {
+		Component component = super.computeIfPresent(key, remappingFunction);
+		invalidateCache();
+		return component;
+	}
+
+	@Override
+	public Component compute(Class<? extends Component> key, BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> remappingFunction) {
+		Component component = super.compute(key, remappingFunction);
+		invalidateCache();
+		return component;
+	}
+
+	@Override
+	public Component merge(Class<? extends Component> key, Component value, BiFunction<? super Component, ? super Component, ? extends Component> remappingFunction) {
+		Component component = super.merge(key, value, remappingFunction);
+		invalidateCache();
+		return component;
+	}
+
+	/**
+	 * Copies the components. The copy rebuilds its own signature and lookup cache,
+	 * instead of sharing the mutable state of this map, and is not tracked by any archetype storage.
+	 */
+	@Override
+	public Object clone() {
+		ComponentMap clone = (ComponentMap) super.clone();
+		clone.queryCache = NO_QUERIES;
+		clone.signature = null;
+		clone.typeCounts = NO_COUNTS;
+		clone.countedTypes = 0;
+		clone.storage = null;
+		clone.archetype = null;
+		clone.archetypeRow = -1;
+		return clone;
+	}
+
+	@Override
+	public void clear() {
+		super.clear();
+		invalidateCache();
+	}
+
+	/**
+	 * The resolved components for a query type.
+	 */
+	private static final class Lookup {
+		/**
+		 * The query type.
+		 */
+		final Class<?> type;
+		/**
+		 * All components assignable to the query type.
+		 */
+		final Set<?> matches;
+		/**
+		 * The only matching component, empty if there is none, or null if the query is ambiguous.
+		 */
+		final Optional<?> single;
+
+		Lookup(Class<?> componentType, Iterable<Component> components) {
+			this.type = componentType;
+			Set<Object> matches = null;
+			Component first = null;
+			for (Component component : components) {
+				if (componentType.isAssignableFrom(component.getClass())) {
+					if (first == null) {
+						first = component;
+					} else {
+						if (matches == null) {
+							matches = new LinkedHashSet<>();
+							matches.add(first);
+						}
+						matches.add(component);
+					}
+				}
+			}
+
+			if (matches != null) {
+				this.matches = Collections.unmodifiableSet(matches);
+				this.single = null;
+			} else if (first != null) {
+				this.matches = Collections.singleton(first);
+				this.single = Optional.of(first);
+			} else {
+				this.matches = Collections.emptySet();
+				this.single = Optional.empty();
+			}
+		}
 	}
 }
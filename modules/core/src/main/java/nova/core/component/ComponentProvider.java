@@ -39,7 +39,11 @@ import java.util.Optional;
 @SuppressWarnings("rawtypes")
 public abstract class ComponentProvider<CM extends ComponentMap> {
 
-	public final EventBus<Event> events = new EventBus<>();
+	/**
+	 * The events of this provider. Until a listener is bound, the bus holds no listener state,
+	 * and publishing to it is a no-op.
+	 */
+	public final EventBus<Event> events = new EventBus<>(Event.class);
 
 	public final CM components;
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.component;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A query over the providers tracked by an {@link ArchetypeStorage}.
+ * Matches every provider that has components of all the query types, and
+ * iterates the component columns of each matching archetype directly.
+ */
+public final class ComponentQuery {
+	private final ArchetypeStorage storage;
+	private final Class<?>[] componentTypes;
+	private final ComponentSignature signature;
+	private final boolean parallel;
+
+	ComponentQuery(ArchetypeStorage storage, Class<?>[] componentTypes, boolean parallel) {
+		this.storage = storage;
+		this.componentTypes = componentTypes.clone();
+		this.signature = ComponentSignature.of(componentTypes);
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Gets a query that iterates the rows of each archetype in parallel.
+	 * The actions passed to this query have to be thread-safe.
+	 * @return The parallel query
+	 */
+	public ComponentQuery parallel() {
+		return new ComponentQuery(storage, componentTypes, true);
+	}
+
+	/**
+	 * Calls the action for every matching provider.
+	 * @param action The action
+	 */
+	public void forEach(Consumer<ComponentProvider<?>> action) {
+		iterate(signature, archetype -> row -> action.accept(archetype.maps[row].provider));
+	}
+
+	/**
+	 * Calls the action with the component of the given type of every matching provider.
+	 * @param typeA The component type
+	 * @param action The action
+	 * @param <A> The component type
+	 */
+	public <A> void forEach(Class<A> typeA, Consumer<? super A> action) {
+		iterate(signature.union(ComponentSignature.of(typeA)), archetype -> {
+			Component[] columnA = archetype.columns[archetype.column(typeA)];
+			return row -> action.accept(typeA.cast(columnA[row]));
+		});
+	}
+
+	/**
+	 * Calls the action with the components of the given types of every matching provider.
+	 * @param typeA The first component type
+	 * @param typeB The second component type
+	 * @param action The action
+	 * @param <A> The first component type
+	 * @param <B> The second component type
+	 */
+	public <A, B> void forEach(Class<A> typeA, Class<B> typeB, BiConsumer<? super A, ? super B> action) {
+		iterate(signature.union(ComponentSignature.of(typeA, typeB)), archetype -> {
+			Component[] columnA = archetype.columns[archetype.column(typeA)];
+			Component[] columnB = archetype.columns[archetype.column(typeB)];
+			return row -> action.accept(typeA.cast(columnA[row]), typeB.cast(columnB[row]));
+		});
+	}
+
+	/**
+	 * @return The number of matching providers
+	 */
+	public int count() {
+		int count = 0;
+		for (Archetype archetype : storage.beginIteration()) {
+			if (archetype.signature.hasAll(signature)) {
+				count += archetype.size;
+			}
+		}
+		storage.endIteration();
+		return count;
+	}
+
+	private void iterate(ComponentSignature query, ArchetypeAction action) {
+		Archetype[] archetypes = storage.beginIteration();
+		try {
+			for (Archetype archetype : archetypes) {
+				if (archetype.size == 0 || !archetype.signature.hasAll(query)) {
+					continue;
+				}
+
+				IntConsumer rowAction = action.forArchetype(archetype);
+				if (parallel) {
+					IntStream.range(0, archetype.size).parallel().forEach(rowAction);
+				} else {
+					for (int row = 0, size = archetype.size; row < size; row++) {
+						rowAction.accept(row);
+					}
+				}
+			}
+		} finally {
+			storage.endIteration();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ArchetypeAction {
+		IntConsumer forArchetype(Archetype archetype);
+	}
+}
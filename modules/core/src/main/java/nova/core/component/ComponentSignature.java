@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bitset of component type IDs.
+ *
+ * Every class and interface is assigned a dense integer ID on first use.
+ * The signature of a {@link ComponentMap} holds the IDs of its components
+ * and of all their super classes and interfaces, so checking if a map contains
+ * a component of a given type becomes a bit test.
+ * Signatures are immutable.
+ * @see ComponentManager#getTypeId(Class)
+ */
+public final class ComponentSignature {
+
+	public static final ComponentSignature EMPTY = new ComponentSignature(new long[0]);
+
+	private static final AtomicInteger nextId = new AtomicInteger();
+
+	/**
+	 * The assigned type IDs. A map instead of a {@link ClassValue}, so checking a type
+	 * that was never part of a signature doesn't assign it an ID.
+	 */
+	private static final Map<Class<?>, Integer> typeIds = new ConcurrentHashMap<>();
+
+	private static final ClassValue<ComponentSignature> typeSignatures = new ClassValue<ComponentSignature>() {
+		@Override
+		protected ComponentSignature computeValue(Class<?> type) {
+			Set<Class<?>> types = new HashSet<>();
+			Deque<Class<?>> queue = new ArrayDeque<>();
+			queue.add(type);
+			while (!queue.isEmpty()) {
+				Class<?> current = queue.poll();
+				if (types.add(current)) {
+					if (current.getSuperclass() != null) {
+						queue.add(current.getSuperclass());
+					}
+					queue.addAll(Arrays.asList(current.getInterfaces()));
+				}
+			}
+			return of(types.toArray(new Class<?>[0]));
+		}
+	};
+
+	private final long[] bits;
+	/**
+	 * The IDs in this signature, null until first needed.
+	 */
+	private volatile int[] ids;
+
+	private ComponentSignature(long[] bits) {
+		this.bits = bits;
+	}
+
+	/**
+	 * Gets the ID of a type, assigning a new one if needed.
+	 * @param type The component class or interface
+	 * @return The type ID
+	 */
+	public static int idOf(Class<?> type) {
+		Integer id = typeIds.get(type);
+		return id != null ? id : typeIds.computeIfAbsent(type, key -> nextId.getAndIncrement());
+	}
+
+	/**
+	 * Gets the ID of a type without assigning one.
+	 * @param type The component class or interface
+	 * @return The type ID, or -1 if the type has none yet
+	 */
+	public static int findId(Class<?> type) {
+		Integer id = typeIds.get(type);
+		return id != null ? id : -1;
+	}
+
+	/**
+	 * Creates a signature containing exactly the given types.
+	 * Use this to build queries.
+	 * @param types The component classes or interfaces
+	 * @return The signature
+	 */
+	public static ComponentSignature of(Class<?>... types) {
+		long[] bits = new long[0];
+		for (Class<?> type : types) {
+			int id = idOf(type);
+			if (id >> 6 >= bits.length) {
+				bits = Arrays.copyOf(bits, (id >> 6) + 1);
+			}
+			bits[id >> 6] |= 1L << id;
+		}
+		return new ComponentSignature(bits);
+	}
+
+	/**
+	 * Gets the signature of a component class, containing the class and all its super classes and interfaces.
+	 * @param componentClass The component class
+	 * @return The signature
+	 */
+	public static ComponentSignature ofComponent(Class<?> componentClass) {
+		return typeSignatures.get(componentClass);
+	}
+
+	/**
+	 * Checks if the signature contains a type.
+	 * @param type The type
+	 * @return true if the type is in the signature
+	 */
+	public boolean has(Class<?> type) {
+		int id = findId(type);
+		return id >= 0 && has(id);
+	}
+
+	/**
+	 * Checks if the signature contains a type ID.
+	 * @param id The type ID
+	 * @return true if the ID is in the signature
+	 */
+	public boolean has(int id) {
+		int index = id >> 6;
+		return index < bits.length && (bits[index] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Checks if this signature contains every type of another signature.
+	 * @param other The other signature
+	 * @return true if all types of the other signature are contained
+	 */
+	public boolean hasAll(ComponentSignature other) {
+		for (int i = 0; i < other.bits.length; i++) {
+			long word = i < bits.length ? bits[i] : 0;
+			if ((word & other.bits[i]) != other.bits[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if this signature contains any type of another signature.
+	 * @param other The other signature
+	 * @return true if at least one type of the other signature is contained
+	 */
+	public boolean hasAny(ComponentSignature other) {
+		int length = Math.min(bits.length, other.bits.length);
+		for (int i = 0; i < length; i++) {
+			if ((bits[i] & other.bits[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets a signature containing the types of both signatures.
+	 * @param other The other signature
+	 * @return The union
+	 */
+	public ComponentSignature union(ComponentSignature other) {
+		// Share an existing signature instead of allocating an equal one
+		if (hasAll(other)) {
+			return this;
+		} else if (other.hasAll(this)) {
+			return other;
+		}
+		long[] longer = bits.length >= other.bits.length ? bits : other.bits;
+		long[] shorter = longer == bits ? other.bits : bits;
+		long[] result = longer.clone();
+		for (int i = 0; i < shorter.length; i++) {
+			result[i] |= shorter[i];
+		}
+		return new ComponentSignature(result);
+	}
+
+	/**
+	 * Creates a copy of this signature without some IDs.
+	 * @param removed The IDs to remove
+	 * @param count The number of IDs to use from the array
+	 * @return The signature
+	 */
+	ComponentSignature without(int[] removed, int count) {
+		long[] result = bits.clone();
+		for (int i = 0; i < count; i++) {
+			int id = removed[i];
+			if (id >> 6 < result.length) {
+				result[id >> 6] &= ~(1L << id);
+			}
+		}
+		return new ComponentSignature(result);
+	}
+
+	/**
+	 * Gets the IDs in this signature in ascending order.
+	 * @return The IDs, which must not be modified
+	 */
+	int[] ids() {
+		int[] result = ids;
+		if (result == null) {
+			int count = 0;
+			for (long word : bits) {
+				count += Long.bitCount(word);
+			}
+			result = new int[count];
+			int index = 0;
+			for (int i = 0; i < bits.length; i++) {
+				long word = bits[i];
+				while (word != 0) {
+					result[index++] = (i << 6) + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+				}
+			}
+			ids = result;
+		}
+		return result;
+	}
+
+	public boolean isEmpty() {
+		for (long word : bits) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ComponentSignature)) {
+			return false;
+		}
+		long[] otherBits = ((ComponentSignature) obj).bits;
+		int length = Math.max(bits.length, otherBits.length);
+		for (int i = 0; i < length; i++) {
+			long word = i < bits.length ? bits[i] : 0;
+			long otherWord = i < otherBits.length ? otherBits[i] : 0;
+			if (word != otherWord) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int length = bits.length;
+		while (length > 0 && bits[length - 1] == 0) {
+			length--;
+		}
+		return Arrays.hashCode(Arrays.copyOf(bits, length));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("ComponentSignature[");
+		boolean first = true;
+		for (int i = 0; i < bits.length * 64; i++) {
+			if (has(i)) {
+				if (!first) {
+					builder.append(", ");
+				}
+				builder.append(i);
+				first = false;
+			}
+		}
+		return builder.append(']').toString();
+	}
+}
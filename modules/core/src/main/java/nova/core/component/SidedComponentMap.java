@@ -29,6 +29,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -44,43 +45,115 @@ import java.util.stream.Collectors;
 public class SidedComponentMap extends ComponentMap {
 	private static final long serialVersionUID = 2017_02_12L;
 
-	public final ComponentMap up = new ComponentMap(provider);
-	public final ComponentMap down = new ComponentMap(provider);
-
-	public final ComponentMap north = new ComponentMap(provider);
-	public final ComponentMap south = new ComponentMap(provider);
+	/**
+	 * Shared read-only view used for sides without components.
+	 */
+	private static final ComponentMap EMPTY = new EmptyComponentMap();
 
-	public final ComponentMap west = new ComponentMap(provider);
-	public final ComponentMap east = new ComponentMap(provider);
+	/**
+	 * The side maps, indexed by {@link Direction#ordinal()}. Allocated on first write.
+	 */
+	private transient ComponentMap[] sides;
 
 	public SidedComponentMap(ComponentProvider<?> provider) {
 		super(provider);
 	}
 
+	/**
+	 * Gets the components of all sides, allocating the side maps.
+	 * @return The components for each direction
+	 */
 	public final Map<Direction, ComponentMap> getComponentsForDirections() {
 		return Arrays.stream(Direction.values()).collect(Collectors.toMap(Function.identity(), this::getComponents));
 	}
 
+	/**
+	 * Gets the components of a side, allocating the side map if needed.
+	 * @param direction The side
+	 * @return The side map, or this map for {@link Direction#UNKNOWN}
+	 */
 	public final ComponentMap getComponents(Direction direction) {
-		switch (direction) {
-			case UP:
-				return up;
-			case DOWN:
-				return down;
-
-			case NORTH:
-				return north;
-			case SOUTH:
-				return south;
-
-			case WEST:
-				return west;
-			case EAST:
-				return east;
-
-			default:
-				return this;
+		if (direction == Direction.UNKNOWN) {
+			return this;
+		}
+
+		if (sides == null) {
+			sides = new ComponentMap[Direction.VALID_DIRECTIONS.length];
+		}
+
+		ComponentMap side = sides[direction.ordinal()];
+		if (side == null) {
+			side = sides[direction.ordinal()] = new ComponentMap(provider);
 		}
+		return side;
+	}
+
+	/**
+	 * @return The components of the UP side
+	 * @deprecated Replaced the public {@code up} field, use {@link #getComponents(Direction) getComponents(Direction.UP)}
+	 */
+	@Deprecated
+	public final ComponentMap up() {
+		return getComponents(Direction.UP);
+	}
+
+	/**
+	 * @return The components of the DOWN side
+	 * @deprecated Replaced the public {@code down} field, use {@link #getComponents(Direction) getComponents(Direction.DOWN)}
+	 */
+	@Deprecated
+	public final ComponentMap down() {
+		return getComponents(Direction.DOWN);
+	}
+
+	/**
+	 * @return The components of the NORTH side
+	 * @deprecated Replaced the public {@code north} field, use {@link #getComponents(Direction) getComponents(Direction.NORTH)}
+	 */
+	@Deprecated
+	public final ComponentMap north() {
+		return getComponents(Direction.NORTH);
+	}
+
+	/**
+	 * @return The components of the SOUTH side
+	 * @deprecated Replaced the public {@code south} field, use {@link #getComponents(Direction) getComponents(Direction.SOUTH)}
+	 */
+	@Deprecated
+	public final ComponentMap south() {
+		return getComponents(Direction.SOUTH);
+	}
+
+	/**
+	 * @return The components of the WEST side
+	 * @deprecated Replaced the public {@code west} field, use {@link #getComponents(Direction) getComponents(Direction.WEST)}
+	 */
+	@Deprecated
+	public final ComponentMap west() {
+		return getComponents(Direction.WEST);
+	}
+
+	/**
+	 * @return The components of the EAST side
+	 * @deprecated Replaced the public {@code east} field, use {@link #getComponents(Direction) getComponents(Direction.EAST)}
+	 */
+	@Deprecated
+	public final ComponentMap east() {
+		return getComponents(Direction.EAST);
+	}
+
+	/**
+	 * Gets the components of a side for reading, without allocating the side map.
+	 * @param direction The side
+	 * @return The side map, a shared empty view or this map for {@link Direction#UNKNOWN}
+	 */
+	ComponentMap peekComponents(Direction direction) {
+		if (direction == Direction.UNKNOWN) {
+			return this;
+		}
+
+		ComponentMap side = sides != null ? sides[direction.ordinal()] : null;
+		return side != null ? side : EMPTY;
 	}
 
 	/**
@@ -149,7 +222,7 @@ public class SidedComponentMap extends ComponentMap {
 	 * @return true if the component exists on the provider.
 	 */
 	public final boolean has(Class<?> componentType, Direction direction) {
-		return getComponents(direction).has(componentType) || this.has(componentType);
+		return peekComponents(direction).has(componentType) || this.has(componentType);
 	}
 
 	/**
@@ -159,7 +232,7 @@ public class SidedComponentMap extends ComponentMap {
 	 * @return true if the component exists on the provider.
 	 */
 	public final boolean canRemove(Class<?> componentType, Direction direction) {
-		return getComponents(direction).has(componentType);
+		return peekComponents(direction).has(componentType);
 	}
 
 	/**
@@ -171,7 +244,7 @@ public class SidedComponentMap extends ComponentMap {
 	 * @throws ComponentException when the component does not exist.
 	 */
 	public final <C extends Component> C remove(C component, Direction direction) {
-		return getComponents(direction).remove(component);
+		return peekComponents(direction).remove(component);
 	}
 
 	/**
@@ -184,7 +257,7 @@ public class SidedComponentMap extends ComponentMap {
 	 */
 	@SuppressWarnings("unchecked")
 	public final <C extends Component> C remove(Class<C> componentType, Direction direction) {
-		return getComponents(direction).remove(componentType);
+		return peekComponents(direction).remove(componentType);
 	}
 
 	/**
@@ -197,7 +270,7 @@ public class SidedComponentMap extends ComponentMap {
 	 */
 	@SuppressWarnings("unchecked")
 	public final <C> Optional<C> getOp(Class<C> componentType, Direction direction) {
-		Optional<C> c = getComponents(direction).getOp(componentType);
+		Optional<C> c = peekComponents(direction).getOp(componentType);
 		if (!c.isPresent())
 			c = this.getOp(componentType);
 		return c;
@@ -212,7 +285,7 @@ public class SidedComponentMap extends ComponentMap {
 	 * @throws ComponentException if the component doesn't exist.
 	 */
 	public final <C> C get(Class<C> componentType, Direction direction) {
-		return getComponents(direction).getOp(componentType).orElseGet(() -> this.get(componentType));
+		return peekComponents(direction).getOp(componentType).orElseGet(() -> this.get(componentType));
 	}
 
 	/**
@@ -223,7 +296,7 @@ public class SidedComponentMap extends ComponentMap {
 	 * @return the set of the components.
 	 */
 	public final <C> Set<C> getSet(Class<C> componentType, Direction direction) {
-		Set<C> c = new HashSet<>(getComponents(direction).getSet(componentType));
+		Set<C> c = new HashSet<>(peekComponents(direction).getSet(componentType));
 		c.addAll(this.getSet(componentType));
 		return c;
 	}
@@ -246,7 +319,7 @@ public class SidedComponentMap extends ComponentMap {
 	}
 
 	private <C extends Component> Class<C> ensureValid(Class<C> componentType, Direction direction) {
-		if (getComponents(direction) == this)
+		if (direction == Direction.UNKNOWN)
 			return componentType;
 
 		if (componentType.isAnnotationPresent(UnsidedComponent.class))
@@ -254,4 +327,50 @@ public class SidedComponentMap extends ComponentMap {
 
 		return componentType;
 	}
+
+	/**
+	 * An empty component map that can't be modified.
+	 */
+	private static final class EmptyComponentMap extends ComponentMap {
+		private static final long serialVersionUID = 2017_02_12L;
+
+		private EmptyComponentMap() {
+			super(null);
+		}
+
+		@Override
+		void putComponent(Component component) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Component put(Class<? extends Component> key, Component value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public void putAll(Map<? extends Class<? extends Component>, ? extends Component> m) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Component putIfAbsent(Class<? extends Component> key, Component value) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Component computeIfAbsent(Class<? extends Component> key, Function<? super Class<? extends Component>, ? extends Component> mappingFunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Component compute(Class<? extends Component> key, BiFunction<? super Class<? extends Component>, ? super Component, ? extends Component> remappingFunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Component merge(Class<? extends Component> key, Component value, BiFunction<? super Component, ? super Component, ? extends Component> remappingFunction) {
+			throw new UnsupportedOperationException();
+		}
+	}
 }
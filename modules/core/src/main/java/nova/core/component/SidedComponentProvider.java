@@ -45,6 +45,6 @@ public abstract class SidedComponentProvider extends ComponentProvider<SidedComp
 	}
 
 	public final Map<Direction, Collection<Component>> sidedComponents() {
-		return Arrays.stream(Direction.values()).collect(Collectors.toMap(Function.identity(), d -> new HashSet<>(components.getComponents(d).values())));
+		return Arrays.stream(Direction.values()).collect(Collectors.toMap(Function.identity(), d -> new HashSet<>(components.peekComponents(d).values())));
 	}
 }
@@ -26,6 +26,10 @@ import nova.core.event.bus.CancelableEvent;
 import nova.core.world.World;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
 /**
  * All events related to the block.
  */
@@ -57,18 +61,68 @@ public abstract class BlockEvent extends CancelableEvent {
 
 	/**
 	 * Event is triggered when a block in the world changes.
+	 * The old and new blocks may be created lazily, on first access.
 	 */
 	public static class Change extends BlockEvent {
 
 		//The block that was in this position previously
-		public final Block oldBlock;
+		private Block oldBlock;
+		private Supplier<Block> oldBlockSupplier;
 		//The block that was set to in this position
-		public final Block newBlock;
+		private Block newBlock;
+		private Supplier<Block> newBlockSupplier;
 
 		public Change(World world, Vector3D position, Block oldBlock, Block newBlock) {
 			super(world, position);
-			this.newBlock = newBlock;
 			this.oldBlock = oldBlock;
+			this.newBlock = newBlock;
+		}
+
+		public Change(World world, Vector3D position, Supplier<Block> oldBlock, Supplier<Block> newBlock) {
+			super(world, position);
+			this.oldBlockSupplier = oldBlock;
+			this.newBlockSupplier = newBlock;
+		}
+
+		/**
+		 * @return The block that was in this position previously
+		 */
+		public Block oldBlock() {
+			if (oldBlockSupplier != null) {
+				oldBlock = oldBlockSupplier.get();
+				oldBlockSupplier = null;
+			}
+			return oldBlock;
+		}
+
+		/**
+		 * @return The block that was set to in this position
+		 */
+		public Block newBlock() {
+			if (newBlockSupplier != null) {
+				newBlock = newBlockSupplier.get();
+				newBlockSupplier = null;
+			}
+			return newBlock;
+		}
+	}
+
+	/**
+	 * Event is triggered once per tick for every chunk that had blocks changed,
+	 * containing all changes of that chunk in the order they happened.
+	 * It is not a BlockEvent itself, so listeners of all block events don't receive each change twice.
+	 */
+	public static class ChangeBatch extends CancelableEvent {
+		//The world
+		public final World world;
+		//The lowest corner of the chunk
+		public final Vector3D position;
+		public final List<Change> changes;
+
+		public ChangeBatch(World world, Vector3D position, List<Change> changes) {
+			this.world = world;
+			this.position = position;
+			this.changes = Collections.unmodifiableList(changes);
 		}
 	}
 }
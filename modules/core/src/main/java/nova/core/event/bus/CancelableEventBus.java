@@ -27,10 +27,17 @@ package nova.core.event.bus;
  * @author Stan Hebben
  */
 public class CancelableEventBus<T extends CancelableEvent> extends EventBus<T> {
+	public CancelableEventBus() {
+	}
+
+	public CancelableEventBus(Class<? super T> eventType) {
+		super(eventType);
+	}
+
 	@Override
-	public synchronized void publish(T event) {
-		for (EventListenerNode node : getSortedListeners()) {
-			node.getListener().onEvent(event);
+	public void publish(T event) {
+		for (EventListenerNode node : getListenerSnapshot(event.getClass())) {
+			invoke(node, event);
 
 			if (event.isCanceled()) {
 				break;
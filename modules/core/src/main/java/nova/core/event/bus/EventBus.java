@@ -23,14 +23,42 @@ package nova.core.event.bus;
 import nova.internal.core.util.TopologicalSort;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 /**
  * A general purpose event bus. This class is thread-safe and listeners can be
  * added or removed concurrently, no external locking is ever needed.
+ *
+ * Publishing is lock-free: the sorted listeners are compiled into an immutable
+ * array snapshot which is swapped atomically whenever a listener is bound or
+ * closed. Listeners that are added or removed during a publish will only be
+ * visible to the events published after it.
+ *
+ * For every concrete event class that gets published, the bus additionally
+ * caches the ordered listeners whose type accepts that class, so dispatch
+ * only visits the listeners that actually match.
+ *
+ * A bus without listeners shares an empty snapshot and has no listener list,
+ * and allocates nothing when publishing, so it is cheap to give every object its own bus.
+ * Use {@link #hasListeners(Class)} to avoid building events nobody listens to.
  * @param <T> event type
  * @author Stan Hebben, Calclavia
  */
@@ -39,73 +67,178 @@ public class EventBus<T> {
 	public static final int PRIORITY_DEFAULT = 0;
 	public static final int PRIORITY_LOW = -100;
 
-	// TODO: actually test concurrency
-	protected final List<EventListenerNode> unsortedListeners = new ArrayList<>();
-	private List<EventListenerNode> sortedListeners;
+	@SuppressWarnings("rawtypes")
+	private static final Snapshot NO_LISTENERS = new Snapshot<>(new EventBus.EventListenerNode[0], Collections.emptySet());
+
+	/**
+	 * The bound listeners. Only allocated once the first listener is bound.
+	 */
+	protected List<EventListenerNode> unsortedListeners = Collections.emptyList();
+	@SuppressWarnings("unchecked")
+	private volatile Snapshot<EventListenerNode> snapshot = NO_LISTENERS;
+	private volatile boolean profiling;
+	private volatile long budgetNanos = Long.MAX_VALUE;
+	private final Class<?> eventType;
 
 	/**
-	 * Builds an ordered list cachedListeners. Sorts using topological sort algorithm.
+	 * Creates an event bus whose event type is unknown at runtime.
+	 * Subscribers passed to {@link #register(Object)} can't be checked against it.
 	 */
+	public EventBus() {
+		this(Object.class);
+	}
+
+	/**
+	 * Creates an event bus for the given event type.
+	 * Subscribers passed to {@link #register(Object)} are checked against it.
+	 * @param eventType The event type, or one of its super types
+	 */
+	public EventBus(Class<? super T> eventType) {
+		this.eventType = eventType;
+	}
+
+	/**
+	 * Builds an ordered snapshot of the listeners. Listeners are grouped into priority buckets,
+	 * each bucket is sorted using topological sort algorithm.
+	 */
+	@SuppressWarnings("unchecked")
 	protected synchronized void buildCache() {
-		TopologicalSort.DirectedGraph<EventListenerNode> graph = new TopologicalSort.DirectedGraph<>();
+		if (unsortedListeners.isEmpty()) {
+			snapshot = NO_LISTENERS;
+			return;
+		}
+
+		Map<String, EventListenerNode> namedListeners = new HashMap<>();
+		Set<EventListenerNode> ordered = new HashSet<>();
+		SortedMap<Integer, TopologicalSort.DirectedGraph<EventListenerNode>> buckets = new TreeMap<>(Comparator.reverseOrder());
 
-		unsortedListeners.forEach(graph::addNode);
+		unsortedListeners.forEach(
+			node -> {
+				if (node.name != null) {
+					namedListeners.putIfAbsent(node.name, node);
+				}
+				buckets.computeIfAbsent(node.priority, priority -> new TopologicalSort.DirectedGraph<>()).addNode(node);
+			}
+		);
 
 		//Create directed graph edges.
 		unsortedListeners.forEach(
 			node -> {
 				//Sort "after"
-				node.after.forEach(
-					name ->
-						unsortedListeners
-							.stream()
-							.filter(node2 -> node2.name.equals(name))
-							.findFirst()
-							.ifPresent(dependent -> graph.addEdge(dependent, node))
-				);
+				node.after.stream()
+					.map(namedListeners::get)
+					.filter(dependent -> dependent != null)
+					.forEach(dependent -> addEdge(buckets, ordered, dependent, node));
 
 				//Sort "before"
-				node.before.forEach(
-					name ->
-						unsortedListeners
-							.stream()
-							.filter(node2 -> node2.name.equals(name))
-							.findFirst()
-							.ifPresent(dependent -> graph.addEdge(node, dependent))
-				);
-
-				//Priority check
-				unsortedListeners
-					.stream()
-					.filter(compare -> node.priority < compare.priority)
-					.forEach(compare -> graph.addEdge(compare, node));
+				node.before.stream()
+					.map(namedListeners::get)
+					.filter(dependent -> dependent != null)
+					.forEach(dependent -> addEdge(buckets, ordered, node, dependent));
 			}
 		);
 
-		sortedListeners = TopologicalSort.topologicalSort(graph);
+		List<EventListenerNode> sortedListeners = new ArrayList<>(unsortedListeners.size());
+		buckets.values().forEach(bucket -> sortedListeners.addAll(TopologicalSort.topologicalSort(bucket)));
+		snapshot = new Snapshot<>(sortedListeners.toArray(newListenerArray(sortedListeners.size())), ordered.isEmpty() ? Collections.emptySet() : ordered);
+	}
+
+	/**
+	 * Creates an array of listeners. Arrays of the generic node class can't be created directly.
+	 * @param length The array length
+	 * @return The new array
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private EventListenerNode[] newListenerArray(int length) {
+		return new EventBus.EventListenerNode[length];
+	}
+
+	/**
+	 * Adds an ordering edge between two listeners. Higher priority listeners always run first,
+	 * so only edges within the same priority bucket need sorting.
+	 */
+	private void addEdge(Map<Integer, TopologicalSort.DirectedGraph<EventListenerNode>> buckets, Set<EventListenerNode> ordered, EventListenerNode from, EventListenerNode to) {
+		ordered.add(from);
+		ordered.add(to);
+		if (from.priority == to.priority) {
+			buckets.get(from.priority).addEdge(from, to);
+		} else if (from.priority < to.priority) {
+			throw new EventException("There was a cycle detected in the listener graph, sorting is not possible: %s (priority %d) can't run before %s (priority %d)",
+				from.name, from.priority, to.name, to.priority);
+		}
 	}
 
 	/**
 	 * Invalidates the sorted listeners. Call this after tweaking with unsortedListeners.
 	 */
 	protected synchronized void invalidateCache() {
-		sortedListeners = null;
+		snapshot = null;
 	}
 
 	/**
 	 * Retrieves the sorted listeners. Calls buildCache() if the listeners aren't sorted.
 	 * @return The sorted listeners.
 	 */
-	protected synchronized List<EventListenerNode> getSortedListeners() {
-		if (sortedListeners == null) {
-			buildCache();
+	protected List<EventListenerNode> getSortedListeners() {
+		return Collections.unmodifiableList(Arrays.asList(getListenerSnapshot()));
+	}
+
+	/**
+	 * Retrieves the current immutable snapshot of the sorted listeners.
+	 * Only takes the lock if the snapshot has to be rebuilt.
+	 * The returned array must not be modified.
+	 * @return The sorted listeners.
+	 */
+	protected EventListenerNode[] getListenerSnapshot() {
+		return currentSnapshot().listeners;
+	}
+
+	private Snapshot<EventListenerNode> currentSnapshot() {
+		Snapshot<EventListenerNode> current = snapshot;
+		if (current == null) {
+			synchronized (this) {
+				if (snapshot == null) {
+					buildCache();
+				}
+				current = snapshot;
+			}
 		}
 
-		return sortedListeners;
+		return current;
+	}
+
+	/**
+	 * Retrieves the sorted listeners that accept events of the given class.
+	 * The result is cached per event class in the snapshot it was derived from,
+	 * so it is dropped together with the snapshot once a listener is bound or closed.
+	 * The returned array must not be modified.
+	 * @param eventClass The concrete class of the published event
+	 * @return The sorted listeners accepting the event class.
+	 */
+	protected EventListenerNode[] getListenerSnapshot(Class<?> eventClass) {
+		return getListenerSnapshot(currentSnapshot(), eventClass);
+	}
+
+	private EventListenerNode[] getListenerSnapshot(Snapshot<EventListenerNode> current, Class<?> eventClass) {
+		if (current.listeners.length == 0) {
+			// Most buses never get a listener, don't allocate a dispatch table for them.
+			return current.listeners;
+		}
+
+		Map<Class<?>, EventListenerNode[]> table = current.dispatchTable();
+		EventListenerNode[] listeners = table.get(eventClass);
+		if (listeners == null) {
+			listeners = Arrays.stream(current.listeners)
+				.filter(node -> node.accepts(eventClass))
+				.toArray(this::newListenerArray);
+			table.put(eventClass, listeners);
+		}
+
+		return listeners;
 	}
 
 	public synchronized void clear() {
-		unsortedListeners.clear();
+		unsortedListeners = Collections.emptyList();
 		invalidateCache();
 	}
 
@@ -123,6 +256,16 @@ public class EventBus<T> {
 		return didRemove;
 	}
 
+	/**
+	 * Checks if any listener would be called for an event of the given class.
+	 * Publishers can use this to skip building expensive events nobody listens to.
+	 * @param eventClass The concrete class of the event
+	 * @return true if at least one listener accepts the event class
+	 */
+	public boolean hasListeners(Class<? extends T> eventClass) {
+		return getListenerSnapshot(eventClass).length > 0;
+	}
+
 	/**
 	 * Checks if there are any listeners in this list.
 	 * @return true if empty
@@ -131,7 +274,7 @@ public class EventBus<T> {
 		return count() == 0;
 	}
 
-	public int count() {
+	public synchronized int count() {
 		return unsortedListeners.size();
 	}
 
@@ -140,9 +283,214 @@ public class EventBus<T> {
 	 * @param event event to be published
 	 */
 	public void publish(T event) {
-		getSortedListeners()
-			.stream()
-			.forEachOrdered(node -> node.getListener().onEvent(event));
+		EventListenerNode[] listeners = getListenerSnapshot(event.getClass());
+		if (profiling) {
+			for (EventListenerNode node : listeners) {
+				invokeProfiled(node, event);
+			}
+		} else {
+			for (EventListenerNode node : listeners) {
+				node.handler.onEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * Calls a listener, recording its statistics if profiling is enabled.
+	 * @param node The listener
+	 * @param event The event
+	 */
+	protected final void invoke(EventListenerNode node, T event) {
+		if (profiling) {
+			invokeProfiled(node, event);
+		} else {
+			node.handler.onEvent(event);
+		}
+	}
+
+	private void invokeProfiled(EventListenerNode node, T event) {
+		long start = System.nanoTime();
+		try {
+			node.handler.onEvent(event);
+		} finally {
+			node.statistics().record(System.nanoTime() - start, budgetNanos);
+		}
+	}
+
+	/**
+	 * Enables recording the invocation count and latency of every listener.
+	 * While disabled, listeners are called without any timing.
+	 * @param budget The time a single invocation may take before the listener is flagged as slow
+	 * @param unit The unit of the budget
+	 */
+	public void enableProfiling(long budget, TimeUnit unit) {
+		budgetNanos = unit.toNanos(budget);
+		profiling = true;
+	}
+
+	/**
+	 * Disables profiling. Recorded statistics are kept until {@link #resetStatistics()} is called.
+	 */
+	public void disableProfiling() {
+		profiling = false;
+	}
+
+	public boolean isProfiling() {
+		return profiling;
+	}
+
+	/**
+	 * Clears the statistics of all listeners.
+	 */
+	public synchronized void resetStatistics() {
+		unsortedListeners.forEach(node -> node.statistics = null);
+	}
+
+	/**
+	 * Retrieves the statistics of all listeners that have been called while profiling.
+	 * Listeners are identified by their name, or by their class if they have none.
+	 * @return The statistics, ordered by the total time spent in the listener, highest first
+	 */
+	public synchronized List<ListenerStatistics> getStatistics() {
+		return unsortedListeners.stream()
+			.map(node -> node.statistics)
+			.filter(statistics -> statistics != null)
+			.sorted(Comparator.comparingLong(ListenerStatistics::getTotalNanos).reversed())
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Retrieves the statistics of the listeners which exceeded the time budget.
+	 * @return The statistics of slow listeners, ordered by the longest invocation, highest first
+	 */
+	public List<ListenerStatistics> getSlowListeners() {
+		return getStatistics().stream()
+			.filter(ListenerStatistics::isOverBudget)
+			.sorted(Comparator.comparingLong(ListenerStatistics::getMaxNanos).reversed())
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * Retrieves the statistics of a named listener.
+	 * @param name The listener name
+	 * @return The statistics, if the listener has been called while profiling
+	 */
+	public Optional<ListenerStatistics> getStatistics(String name) {
+		return getStatistics().stream()
+			.filter(statistics -> statistics.name.equals(name))
+			.findFirst();
+	}
+
+	/**
+	 * Publishes an event by calling all of the registered listeners.
+	 * Consecutive listeners of the same priority which were bound as {@link EventBinder#parallel() parallel}
+	 * and are not ordered against any other listener are called concurrently on the executor.
+	 * Every other listener acts as a barrier and is only called once all listeners before it have finished.
+	 *
+	 * The calling thread never blocks on listeners waiting in the executor's queue, it calls every listener
+	 * the executor hasn't started yet itself. Publishing from an executor thread therefore can't starve a bounded executor.
+	 * @param event event to be published
+	 * @param executor The executor running the parallel listeners
+	 */
+	protected void publishParallel(T event, Executor executor) {
+		Snapshot<EventListenerNode> current = currentSnapshot();
+		EventListenerNode[] listeners = getListenerSnapshot(current, event.getClass());
+		int start = 0;
+		while (start < listeners.length) {
+			EventListenerNode node = listeners[start];
+			int end = start + 1;
+			if (isConcurrent(current, node)) {
+				while (end < listeners.length && isConcurrent(current, listeners[end]) && listeners[end].priority == node.priority) {
+					end++;
+				}
+			}
+
+			if (end - start == 1) {
+				invoke(node, event);
+			} else {
+				List<ParallelInvocation> tasks = new ArrayList<>(end - start);
+				for (int i = start; i < end; i++) {
+					tasks.add(new ParallelInvocation(listeners[i], event));
+				}
+				// The first listener is always called by this thread
+				for (int i = 1; i < tasks.size(); i++) {
+					try {
+						executor.execute(tasks.get(i));
+					} catch (RejectedExecutionException e) {
+						// Called by this thread below
+					}
+				}
+				for (ParallelInvocation task : tasks) {
+					task.run();
+				}
+				// Only waits for listeners which are already running on another thread
+				for (ParallelInvocation task : tasks) {
+					try {
+						task.done.join();
+					} catch (CompletionException e) {
+						if (e.getCause() instanceof RuntimeException) {
+							throw (RuntimeException) e.getCause();
+						}
+						if (e.getCause() instanceof Error) {
+							throw (Error) e.getCause();
+						}
+						throw new EventException(e.getCause());
+					}
+				}
+			}
+			start = end;
+		}
+	}
+
+	/**
+	 * Checks if a listener can run concurrently with its neighbours of the same priority.
+	 * @param current The snapshot the listener was taken from
+	 * @param node The listener
+	 * @return true if the listener is parallel and not ordered against another listener in the snapshot
+	 */
+	private boolean isConcurrent(Snapshot<EventListenerNode> current, EventListenerNode node) {
+		return node.parallel && !current.ordered.contains(node);
+	}
+
+	/**
+	 * Binds all methods of the subscriber annotated with {@link Subscribe}.
+	 * Each method listens to the type of its only parameter, and is bound
+	 * through {@link #on(Class)} with the modifiers given by the annotation.
+	 * A default priority keeps the priority chosen by {@link #on(Class)}.
+	 * The methods of a class are only looked up once, and are invoked directly
+	 * through generated listeners.
+	 * @param subscriber The object to register
+	 * @return The handles of the bound listeners
+	 * @throws EventException if a method listens to a type that can't be an event of this bus.
+	 * No method is bound in that case.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public List<EventListenerHandle<T>> register(Object subscriber) {
+		List<EventSubscribers.SubscriberMethod> methods = EventSubscribers.forClass(subscriber.getClass());
+		for (EventSubscribers.SubscriberMethod method : methods) {
+			if (!eventType.isAssignableFrom(method.eventClass) && !method.eventClass.isAssignableFrom(eventType)) {
+				throw new EventException("Subscriber method %s listens to %s, which is not an event of this bus (%s)",
+					method.method, method.eventClass.getName(), eventType.getName());
+			}
+		}
+
+		List<EventListenerHandle<T>> handles = new ArrayList<>();
+		for (EventSubscribers.SubscriberMethod method : methods) {
+			EventBinder binder = on((Class) method.eventClass);
+			if (method.subscribe.priority() != PRIORITY_DEFAULT) {
+				binder.withPriority(method.subscribe.priority());
+			}
+			if (!method.subscribe.name().isEmpty()) {
+				binder.withName(method.subscribe.name());
+			}
+			Arrays.stream(method.subscribe.before()).forEach(binder::before);
+			Arrays.stream(method.subscribe.after()).forEach(binder::after);
+			if (method.subscribe.parallel()) {
+				binder.parallel();
+			}
+			handles.add(binder.bind(method.listener(subscriber)));
+		}
+		return handles;
 	}
 
 	/**
@@ -164,6 +512,7 @@ public class EventBus<T> {
 		private String name;
 		private Set<String> before = new HashSet<>();
 		private Set<String> after = new HashSet<>();
+		private boolean parallel;
 
 		public EventBinder(Optional<Class<E>> clazz) {
 			this.clazz = clazz;
@@ -210,25 +559,44 @@ public class EventBus<T> {
 			return this;
 		}
 
+		/**
+		 * Allows the listener to be called concurrently with other parallel listeners of the same priority,
+		 * if the bus publishes in parallel. Listeners that are ordered using {@link #before(String)} or
+		 * {@link #after(String)}, or that other listeners are ordered against, are always called sequentially.
+		 * The listener has to be thread-safe.
+		 * @return This
+		 */
+		public EventBinder<E> parallel() {
+			this.parallel = true;
+			return this;
+		}
+
 		/**
 		 * Binds the event to the {@link EventBus}, finalizing all modifiers on the event.
 		 * @param list Event listener
 		 * @return The event handler
 		 */
-		public synchronized EventListenerHandle<T> bind(EventListener<E> list) {
+		public EventListenerHandle<T> bind(EventListener<E> list) {
 			@SuppressWarnings("unchecked")
 			EventListener<T> listener = clazz.isPresent() ? new TypedEventListener<>(list, clazz.get()) : (EventListener) list;
+			@SuppressWarnings("unchecked")
+			EventListener<T> handler = (EventListener) list;
 
-			if (name != null && unsortedListeners.stream().filter(node -> node.name != null).anyMatch(node -> node.name.equals(name))) {
-				throw new EventException("Duplicate event listener name: " + name);
-			}
+			synchronized (EventBus.this) {
+				if (name != null && unsortedListeners.stream().filter(node -> node.name != null).anyMatch(node -> node.name.equals(name))) {
+					throw new EventException("Duplicate event listener name: " + name);
+				}
 
-			EventListenerNode node = new EventListenerNode(listener, name, priority, before, after);
+				EventListenerNode node = new EventListenerNode(listener, handler, clazz.orElse(null), name, priority, before, after, parallel);
 
-			unsortedListeners.add(node);
-			invalidateCache();
+				if (unsortedListeners.isEmpty()) {
+					unsortedListeners = new ArrayList<>();
+				}
+				unsortedListeners.add(node);
+				invalidateCache();
 
-			return node;
+				return node;
+			}
 		}
 	}
 
@@ -236,6 +604,39 @@ public class EventBus<T> {
 	// ### Protected classes ###
 	// #########################
 
+	/**
+	 * An immutable snapshot of the sorted listeners, together with the per-class dispatch
+	 * arrays filtered from it. A dispatch array is only ever cached in the snapshot it was
+	 * derived from, so a listener bound or closed concurrently can't leave a stale array behind.
+	 * @param <N> listener node type
+	 */
+	private static final class Snapshot<N> {
+		private final N[] listeners;
+		/**
+		 * The listeners with an ordering edge to another listener.
+		 */
+		private final Set<N> ordered;
+		private volatile Map<Class<?>, N[]> dispatchTable;
+
+		private Snapshot(N[] listeners, Set<N> ordered) {
+			this.listeners = listeners;
+			this.ordered = ordered;
+		}
+
+		private Map<Class<?>, N[]> dispatchTable() {
+			Map<Class<?>, N[]> table = dispatchTable;
+			if (table == null) {
+				synchronized (this) {
+					if (dispatchTable == null) {
+						dispatchTable = new ConcurrentHashMap<>();
+					}
+					table = dispatchTable;
+				}
+			}
+			return table;
+		}
+	}
+
 	/**
 	 * A wrapper for an event listener that only accepts a specific type of
 	 * event.
@@ -269,19 +670,96 @@ public class EventBus<T> {
 		}
 	}
 
+	/**
+	 * A parallel listener call, run either by the executor or by the publishing thread, whichever claims it first.
+	 */
+	private final class ParallelInvocation implements Runnable {
+		private final EventListenerNode node;
+		private final T event;
+		private final AtomicBoolean claimed = new AtomicBoolean();
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+		private ParallelInvocation(EventListenerNode node, T event) {
+			this.node = node;
+			this.event = event;
+		}
+
+		@Override
+		public void run() {
+			if (claimed.compareAndSet(false, true)) {
+				try {
+					invoke(node, event);
+					done.complete(null);
+				} catch (Throwable t) {
+					done.completeExceptionally(t);
+				}
+			}
+		}
+	}
+
 	protected class EventListenerNode implements EventListenerHandle<T> {
 		protected final EventListener<T> listener;
+		/**
+		 * The listener invoked on dispatch. Events passed to it are already known to be of {@link #eventClass}.
+		 */
+		protected final EventListener<T> handler;
+		/**
+		 * The event class accepted by the handler, or null if it accepts any event.
+		 */
+		protected final Class<?> eventClass;
 		protected final int priority;
 		protected final String name;
 		protected final Set<String> before;
 		protected final Set<String> after;
+		/**
+		 * If the listener may be called concurrently with other parallel listeners.
+		 */
+		protected final boolean parallel;
+		/**
+		 * The invocation statistics, created on the first profiled invocation.
+		 */
+		protected volatile ListenerStatistics statistics;
 
 		public EventListenerNode(EventListener<T> handler, String name, int priority, Set<String> before, Set<String> after) {
-			this.listener = handler;
+			this(handler, handler, null, name, priority, before, after, false);
+		}
+
+		public EventListenerNode(EventListener<T> listener, EventListener<T> handler, Class<?> eventClass, String name, int priority, Set<String> before, Set<String> after, boolean parallel) {
+			this.listener = listener;
+			this.handler = handler;
+			this.eventClass = eventClass;
 			this.name = name;
 			this.priority = priority;
 			this.before = before;
 			this.after = after;
+			this.parallel = parallel;
+		}
+
+		/**
+		 * Checks if this listener accepts events of the given class.
+		 * @param clazz The event class
+		 * @return true if the handler should be called for such events
+		 */
+		protected boolean accepts(Class<?> clazz) {
+			return eventClass == null || eventClass.isAssignableFrom(clazz);
+		}
+
+		/**
+		 * Gets the invocation statistics of this listener, creating them if needed.
+		 * @return The statistics
+		 */
+		protected ListenerStatistics statistics() {
+			ListenerStatistics result = statistics;
+			if (result == null) {
+				synchronized (this) {
+					result = statistics;
+					if (result == null) {
+						result = new ListenerStatistics(name != null ? name : handler.getClass().getName());
+						statistics = result;
+					}
+				}
+			}
+			return result;
 		}
 
 		@Override
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event.bus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the {@link Subscribe} methods of a class and creates direct invokers for them.
+ * The methods are resolved once per class.
+ */
+final class EventSubscribers {
+
+	private static final ClassValue<List<SubscriberMethod>> subscriberMethods = new ClassValue<List<SubscriberMethod>>() {
+		@Override
+		protected List<SubscriberMethod> computeValue(Class<?> type) {
+			return findSubscriberMethods(type);
+		}
+	};
+
+	private EventSubscribers() {}
+
+	/**
+	 * Gets the subscriber methods declared by a class and its super classes.
+	 * @param type The subscriber class
+	 * @return The subscriber methods
+	 */
+	static List<SubscriberMethod> forClass(Class<?> type) {
+		return subscriberMethods.get(type);
+	}
+
+	private static List<SubscriberMethod> findSubscriberMethods(Class<?> type) {
+		List<SubscriberMethod> methods = new ArrayList<>();
+		Set<String> overridden = new HashSet<>();
+
+		for (Class<?> clazz = type; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			for (Method method : clazz.getDeclaredMethods()) {
+				if (method.isBridge() || method.isSynthetic()) {
+					continue;
+				}
+
+				String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+				if (!overridden.add(signature)) {
+					continue;
+				}
+
+				Subscribe subscribe = method.getAnnotation(Subscribe.class);
+				if (subscribe != null) {
+					methods.add(new SubscriberMethod(method, subscribe));
+				}
+			}
+		}
+
+		return Collections.unmodifiableList(methods);
+	}
+
+	/**
+	 * Checks if a class can be resolved by name from the event bus' class loader.
+	 * Generated invokers are defined next to the event bus, and need to link against the subscriber.
+	 */
+	private static boolean isVisible(Class<?> type) {
+		try {
+			return Class.forName(type.getName(), false, EventSubscribers.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		for (Class<?> clazz = type; clazz != null; clazz = clazz.getEnclosingClass()) {
+			if (!Modifier.isPublic(clazz.getModifiers())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static final class SubscriberMethod {
+		final Method method;
+		final Subscribe subscribe;
+		final Class<?> eventClass;
+		/**
+		 * Creates an {@link EventListener} bound to a subscriber instance.
+		 */
+		private final MethodHandle factory;
+		private final MethodHandle handle;
+
+		private SubscriberMethod(Method method, Subscribe subscribe) {
+			if (Modifier.isStatic(method.getModifiers())) {
+				throw new EventException("Subscriber method %s must not be static", method);
+			}
+			if (method.getParameterCount() != 1 || method.getParameterTypes()[0].isPrimitive()) {
+				throw new EventException("Subscriber method %s must have exactly one event parameter", method);
+			}
+
+			this.method = method;
+			this.subscribe = subscribe;
+			this.eventClass = method.getParameterTypes()[0];
+
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle factory = null;
+			try {
+				if (Modifier.isPublic(method.getModifiers()) && isPublic(method.getDeclaringClass()) && isPublic(eventClass)
+					&& isVisible(method.getDeclaringClass()) && isVisible(eventClass)) {
+					CallSite site = LambdaMetafactory.metafactory(
+						lookup,
+						"onEvent",
+						MethodType.methodType(EventListener.class, method.getDeclaringClass()),
+						MethodType.methodType(void.class, Object.class),
+						lookup.unreflect(method),
+						MethodType.methodType(void.class, eventClass)
+					);
+					factory = site.getTarget();
+				}
+			} catch (Exception e) {
+				// Fall back to a method handle below
+				factory = null;
+			}
+			this.factory = factory;
+
+			if (factory == null) {
+				try {
+					method.setAccessible(true);
+					this.handle = lookup.unreflect(method)
+						.asType(MethodType.methodType(void.class, Object.class, Object.class));
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					throw new EventException("Failed to access subscriber method " + method, e);
+				}
+			} else {
+				this.handle = null;
+			}
+		}
+
+		/**
+		 * Creates a listener which calls this method on the subscriber.
+		 * @param subscriber The subscriber instance
+		 * @param <E> The event type
+		 * @return The listener
+		 */
+		@SuppressWarnings("unchecked")
+		<E> EventListener<E> listener(Object subscriber) {
+			if (factory != null) {
+				try {
+					return (EventListener<E>) factory.invoke(subscriber);
+				} catch (Throwable t) {
+					throw new EventException("Failed to create listener for subscriber method " + method, t);
+				}
+			}
+
+			MethodHandle bound = handle.bindTo(subscriber);
+			return event -> {
+				try {
+					bound.invokeExact((Object) event);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable t) {
+					throw new EventException(t);
+				}
+			};
+		}
+	}
+}
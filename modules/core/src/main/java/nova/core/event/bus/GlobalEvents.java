@@ -24,13 +24,75 @@ import nova.internal.core.launch.NovaLauncher;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Global event manager that handles general events that are not object specific.
+ *
+ * When parallel publishing is enabled, listeners that were bound as
+ * {@link EventBinder#parallel() parallel} may run concurrently on the executor.
+ * The publishing thread calls the listeners no executor thread has picked up itself,
+ * so the executor may be bounded, and may also run {@link #publishAsync(Event)}.
  * @author Calclavia
  */
 public class GlobalEvents extends EventBus<Event> {
 
+	private volatile Executor executor = ForkJoinPool.commonPool();
+	private volatile boolean parallel;
+
+	public GlobalEvents() {
+		super(Event.class);
+	}
+
+	/**
+	 * Sets the executor used for asynchronous publishing and parallel listeners.
+	 * Defaults to the common fork-join pool.
+	 * @param executor The executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Enables or disables parallel publishing.
+	 * @param parallel If parallel listeners may run concurrently
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	@Override
+	public void publish(Event event) {
+		if (parallel) {
+			publishParallel(event, executor);
+		} else {
+			super.publish(event);
+		}
+	}
+
+	/**
+	 * Publishes an event on the executor, without blocking the calling thread.
+	 * @param event event to be published
+	 * @param <E> The event type
+	 * @return A future which completes with the event once all listeners have been called.
+	 */
+	public <E extends Event> CompletableFuture<E> publishAsync(E event) {
+		return CompletableFuture.supplyAsync(() -> {
+			publish(event);
+			return event;
+		}, executor);
+	}
+
 	@Override
 	public <E extends Event> EventBinder<E> on() {
 		return forMod(super.on(), Optional.empty());
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event.bus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation statistics of a single event listener, collected while
+ * {@link EventBus#enableProfiling(long, java.util.concurrent.TimeUnit) profiling} is enabled.
+ * Latencies are recorded in a histogram with power-of-two nanosecond buckets.
+ */
+public class ListenerStatistics {
+	/**
+	 * Bucket i holds the invocations that took less than 2^i nanoseconds, but at least 2^(i-1).
+	 */
+	public static final int BUCKETS = 64;
+
+	public final String name;
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+	private final LongAdder overBudget = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	public ListenerStatistics(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Records a single invocation.
+	 * @param nanos The time the invocation took in nanoseconds
+	 * @param budgetNanos The time budget of a single invocation in nanoseconds
+	 */
+	public void record(long nanos, long budgetNanos) {
+		count.increment();
+		totalNanos.add(nanos);
+		histogram.incrementAndGet(Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0))));
+		if (nanos > budgetNanos) {
+			overBudget.increment();
+		}
+
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * @return The number of recorded invocations
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return The total time spent in the listener in nanoseconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	/**
+	 * @return The average time of an invocation in nanoseconds
+	 */
+	public double getAverageNanos() {
+		long count = getCount();
+		return count == 0 ? 0 : getTotalNanos() / (double) count;
+	}
+
+	/**
+	 * @return The longest invocation in nanoseconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * @return The number of invocations that exceeded the time budget
+	 */
+	public long getOverBudgetCount() {
+		return overBudget.sum();
+	}
+
+	/**
+	 * @return If any invocation exceeded the time budget
+	 */
+	public boolean isOverBudget() {
+		return getOverBudgetCount() > 0;
+	}
+
+	/**
+	 * @return A copy of the latency histogram, see {@link #BUCKETS}
+	 */
+	public long[] getHistogram() {
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			result[i] = histogram.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Estimates a latency percentile from the histogram.
+	 * @param percentile The percentile, between 0 and 1
+	 * @return The upper bound of the bucket containing the percentile in nanoseconds
+	 */
+	public long getPercentileNanos(double percentile) {
+		long[] buckets = getHistogram();
+		long total = 0;
+		for (long bucket : buckets) {
+			total += bucket;
+		}
+
+		long threshold = (long) Math.ceil(total * percentile);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets[i];
+			if (seen >= threshold && seen > 0) {
+				return i == BUCKETS - 1 ? Long.MAX_VALUE : 1L << i;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d calls, avg %.0f ns, max %d ns, %d over budget", name, getCount(), getAverageNanos(), getMaxNanos(), getOverBudgetCount());
+	}
+}
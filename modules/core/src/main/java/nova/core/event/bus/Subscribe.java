@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event.bus;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * An annotation applied to methods that listen to events.
+ * The annotated method must take a single event parameter, and is bound to
+ * the {@link EventBus} when its object is {@link EventBus#register(Object) registered}.
+ * The attributes match the modifiers of {@link EventBus.EventBinder}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Subscribe {
+	/**
+	 * @return The listener's numeric priority
+	 * @see EventBus.EventBinder#withPriority(int)
+	 */
+	int priority() default EventBus.PRIORITY_DEFAULT;
+
+	/**
+	 * @return The listener's name, or an empty string for no name
+	 * @see EventBus.EventBinder#withName(String)
+	 */
+	String name() default "";
+
+	/**
+	 * @return The names of the listeners this one must run before
+	 * @see EventBus.EventBinder#before(String)
+	 */
+	String[] before() default {};
+
+	/**
+	 * @return The names of the listeners this one must run after
+	 * @see EventBus.EventBinder#after(String)
+	 */
+	String[] after() default {};
+
+	/**
+	 * @return If the listener may run concurrently with other parallel listeners
+	 * @see EventBus.EventBinder#parallel()
+	 */
+	boolean parallel() default false;
+}
@@ -57,7 +57,6 @@ public interface Translatable {
 		Map<String, String> replacements = new HashMap<>();
 		ReflectionUtil.forEachRecursiveAnnotatedField(Translate.class, getClass(), (field, annotation) -> {
 			try {
-				field.setAccessible(true);
 				String key = annotation.value();
 				if (key.isEmpty()) {
 					key = field.getName();
@@ -69,7 +68,6 @@ public interface Translatable {
 					replacements.put(key, ((Translatable) value).getLocalizedName());
 				else
 					replacements.put(key, Objects.toString(value));
-				field.setAccessible(false);
 			} catch (Exception e) {
 				e.printStackTrace();
 			}
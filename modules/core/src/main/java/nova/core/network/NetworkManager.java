@@ -23,23 +23,37 @@ import nova.core.network.NetworkTarget.Side;
 import nova.core.network.handler.BlockPacket;
 import nova.core.network.handler.EntityPacket;
 import nova.core.network.handler.PacketHandler;
+import nova.internal.core.Game;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * A central network manager.
  *
+ * When batching is enabled, syncs are queued until {@link #flush()}, which the wrapper
+ * calls at the end of each tick. Repeated syncs of the same sender and packet ID
+ * are sent once, with the state the sender has when the queue is flushed.
+ *
  * @author Calclavia
  */
 public abstract class NetworkManager {
 
 	private final List<PacketHandler<?>> handlers = new ArrayList<>();
+	private final WeakIdentityMap<Object, SyncState> syncStates = new WeakIdentityMap<>();
+	private final Map<Side, Map<QueuedSync, Boolean>> queues = new EnumMap<>(Side.class);
+	private volatile boolean batching;
 
 	public NetworkManager() {
 		register(new BlockPacket());
 		register(new EntityPacket());
+		for (Side side : Side.values()) {
+			queues.put(side, new LinkedHashMap<>());
+		}
 	}
 
 	/**
@@ -105,6 +119,16 @@ public abstract class NetworkManager {
 	 */
 	public abstract void sendPacket(Packet packet);
 
+	/**
+	 * Sends the packets of the syncs queued during a tick.
+	 * Implementations may send them together as one packet.
+	 *
+	 * @param packets The packets to send, in the order they were queued
+	 */
+	public void sendPackets(List<Packet> packets) {
+		packets.forEach(this::sendPacket);
+	}
+
 	@SuppressWarnings("unchecked")
 	public Packet writePacket(Object sender, Packet packet) {
 		int packetTypeID = getPacketTypeID(getPacketType(sender));
@@ -130,9 +154,149 @@ public abstract class NetworkManager {
 	 * @param sender sender {@link Syncable}
 	 */
 	public void sync(int id, Object sender) {
+		if (batching) {
+			queue(id, sender, true);
+		} else {
+			sendPacket(newSyncPacket(id, sender));
+		}
+	}
+
+	/**
+	 * Syncs are sent to everyone, so the values they contain are also the last values sent as changes.
+	 */
+	private Packet newSyncPacket(int id, Object sender) {
 		Packet packet = newPacket();
 		packet.setID(id);
-		sendPacket(sender, packet);
+		writePacket(sender, packet);
+		SyncCodec.of(sender.getClass()).recordState(sender, id, getSyncState(sender));
+		return packet;
+	}
+
+	/**
+	 * Syncs the changes of a PacketHandler since they were last synced.
+	 *
+	 * @param sender sender {@link Syncable}
+	 */
+	public final void syncChanges(Object sender) {
+		syncChanges(0, sender);
+	}
+
+	/**
+	 * Syncs the {@link Sync @Sync} fields of a PacketHandler that changed since they were last synced
+	 * with this packet ID. Nothing is sent if no field changed.
+	 * The first changes contain all fields, and {@link #sync(int, Object)} still sends the full state,
+	 * for example to players that just joined.
+	 *
+	 * @param id The packet ID
+	 * @param sender sender {@link Syncable}
+	 * @see SyncState
+	 */
+	public void syncChanges(int id, Object sender) {
+		if (batching) {
+			queue(id, sender, false);
+		} else {
+			Packet packet = newChangesPacket(id, sender);
+			if (packet != null) {
+				sendPacket(packet);
+			}
+		}
+	}
+
+	private Packet newChangesPacket(int id, Object sender) {
+		SyncState state = getSyncState(sender);
+		if (!SyncCodec.of(sender.getClass()).hasChanges(sender, id, state)) {
+			return null;
+		}
+		Packet packet = newPacket();
+		packet.setID(id);
+		return writeChanges(sender, packet, state);
+	}
+
+	@SuppressWarnings("unchecked")
+	public Packet writeChanges(Object sender, Packet packet, SyncState state) {
+		PacketHandler<Object> type = (PacketHandler<Object>) getPacketType(sender);
+		packet.writeInt(getPacketTypeID(type));
+		packet.writeInt(packet.getID());
+		type.writeChanges(sender, packet, state);
+		return packet;
+	}
+
+	/**
+	 * Gets the state used to find the changes of a PacketHandler.
+	 * States are kept by the identity of the PacketHandler, until it is garbage collected.
+	 *
+	 * @param sender sender {@link Syncable}
+	 * @return The sync state of the sender
+	 */
+	public SyncState getSyncState(Object sender) {
+		return syncStates.computeIfAbsent(sender, key -> SyncCodec.of(key.getClass()).newState());
+	}
+
+	/**
+	 * Marks a field of a PacketHandler as changed, so it is sent with its next changes.
+	 * This is needed for fields holding objects that are modified in place.
+	 *
+	 * @param sender sender {@link Syncable}
+	 * @param field The name of the {@link Sync @Sync} field
+	 */
+	public void markDirty(Object sender, String field) {
+		getSyncState(sender).markDirty(field);
+	}
+
+	/**
+	 * @return True if syncs are queued until {@link #flush()}
+	 */
+	public boolean isBatching() {
+		return batching;
+	}
+
+	/**
+	 * Sets whether syncs are queued until {@link #flush()}, instead of being sent immediately.
+	 * Syncs that are already queued stay queued until the next flush.
+	 *
+	 * @param batching True to queue syncs
+	 */
+	public void setBatching(boolean batching) {
+		this.batching = batching;
+	}
+
+	private void queue(int id, Object sender, boolean full) {
+		Map<QueuedSync, Boolean> queue = queues.get(getSide());
+		synchronized (queue) {
+			queue.merge(new QueuedSync(sender, id), full, Boolean::logicalOr);
+		}
+	}
+
+	/**
+	 * Sends the syncs queued on the active side, with the current state of their senders.
+	 * A full sync and changes of the same sender and packet ID are sent as a full sync.
+	 */
+	public void flush() {
+		Map<QueuedSync, Boolean> queue = queues.get(getSide());
+		List<Map.Entry<QueuedSync, Boolean>> syncs;
+		synchronized (queue) {
+			if (queue.isEmpty()) {
+				return;
+			}
+			syncs = new ArrayList<>(queue.entrySet());
+			queue.clear();
+		}
+
+		List<Packet> packets = new ArrayList<>(syncs.size());
+		for (Map.Entry<QueuedSync, Boolean> sync : syncs) {
+			QueuedSync key = sync.getKey();
+			try {
+				Packet packet = sync.getValue() ? newSyncPacket(key.id, key.sender) : newChangesPacket(key.id, key.sender);
+				if (packet != null) {
+					packets.add(packet);
+				}
+			} catch (RuntimeException e) {
+				Game.logger().error("Failed to sync {} with packet ID {}", key.sender, key.id, e);
+			}
+		}
+		if (!packets.isEmpty()) {
+			sendPackets(packets);
+		}
 	}
 
 	public abstract void sendChat(Player player, String message);
@@ -161,4 +325,31 @@ public abstract class NetworkManager {
 	 * @return true if the active side is {@link Side#SERVER}
 	 */
 	public abstract boolean isServer();
+
+	/**
+	 * A sender and packet ID, compared by the identity of the sender.
+	 */
+	private static final class QueuedSync {
+		final Object sender;
+		final int id;
+
+		QueuedSync(Object sender, int id) {
+			this.sender = sender;
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof QueuedSync)) {
+				return false;
+			}
+			QueuedSync other = (QueuedSync) obj;
+			return sender == other.sender && id == other.id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(sender) + id;
+		}
+	}
 }
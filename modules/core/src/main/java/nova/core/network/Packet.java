@@ -21,21 +21,26 @@
 package nova.core.network;
 
 import nova.core.entity.component.Player;
+import nova.core.retention.BinaryData;
 import nova.core.retention.Data;
 import nova.core.retention.Storable;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.IntStream;
 
 /**
  * A packet of data that is writable or readable.
+ *
+ * A {@link #isCompact() compact} packet writes shorts, integers, longs and characters
+ * as zigzag variable length integers, strings through a {@link StringTable}, and enums by ordinal.
+ * Both sides of a connection must use packets of the same kind.
  * @author Calclavia
  */
 public interface Packet {
@@ -62,51 +67,13 @@ public interface Packet {
 	 * Writes an arbitrary object, automatically finding the relevant class.
 	 * @param data Object to write
 	 * @return This packet
+	 * @see PacketCodecs
 	 */
 	default Packet write(Object data) {
-		if (data instanceof Boolean) {
-			writeBoolean((boolean) data);
-		} else if (data instanceof Byte) {
-			writeByte((byte) data);
-		} else if (data instanceof Short) {
-			writeShort((short) data);
-		} else if (data instanceof Integer) {
-			writeInt((int) data);
-		} else if (data instanceof Long) {
-			writeLong((long) data);
-		} else if (data instanceof Character) {
-			writeChar((Character) data);
-		} else if (data instanceof Float) {
-			writeFloat((float) data);
-		} else if (data instanceof Double) {
-			writeDouble((double) data);
-		} else if (data instanceof String) {
-			writeString((String) data);
-		} else if (data instanceof Enum) {
-			writeEnum((Enum) data);
-		} else if (data instanceof Optional) {
-			writeOptional((Optional) data);
-		} else if (data instanceof Data) {
-			writeData((Data) data);
-		} else if (data instanceof Syncable) {
-			((Syncable) data).write(this);
-		} else if (data instanceof Storable) {
-			writeStorable((Storable) data);
-		} else if (data instanceof Collection) {
-			writeCollection((Collection) data);
-		} else if (data instanceof Collection) {
-			writeCollection((Collection) data);
-		} else if (data instanceof Vector3D) {
-			writeDouble(((Vector3D) data).getX());
-			writeDouble(((Vector3D) data).getY());
-			writeDouble(((Vector3D) data).getZ());
-		} else if (data instanceof Vector2D) {
-			writeDouble(((Vector2D) data).getX());
-			writeDouble(((Vector2D) data).getY());
-		} else {
-			throw new IllegalArgumentException("Packet attempt to write an invalid object: " + data);
+		if (data == null) {
+			throw new IllegalArgumentException("Packet attempt to write an invalid object: null");
 		}
-
+		PacketCodecs.resolve(data.getClass()).codec.write(this, data);
 		return this;
 	}
 
@@ -194,38 +161,92 @@ public interface Packet {
 
 	Packet writeString(String value);
 
+	/**
+	 * @return True if this packet uses the compact wire format
+	 */
+	default boolean isCompact() {
+		return false;
+	}
+
+	/**
+	 * Writes an integer as a zigzag encoded variable length integer,
+	 * which takes one byte for values from -64 to 63, and at most 5 bytes.
+	 * @param value Data to write
+	 * @return This packet
+	 */
+	default Packet writeVarInt(int value) {
+		int bits = (value << 1) ^ (value >> 31);
+		while ((bits & ~0x7F) != 0) {
+			writeByte((bits & 0x7F) | 0x80);
+			bits >>>= 7;
+		}
+		return writeByte(bits);
+	}
+
+	/**
+	 * Writes a long as a zigzag encoded variable length integer, which takes at most 10 bytes.
+	 * @param value Data to write
+	 * @return This packet
+	 */
+	default Packet writeVarLong(long value) {
+		long bits = (value << 1) ^ (value >> 63);
+		while ((bits & ~0x7FL) != 0) {
+			writeByte((int) (bits & 0x7F) | 0x80);
+			bits >>>= 7;
+		}
+		return writeByte((int) bits);
+	}
+
 	//TODO: Packet handler is bad at reading/writing enums for unknown reasons
 	default Packet writeEnum(Enum<?> data) {
-		writeString(data.getClass().getName());
-		writeString(data.name());
+		writeString(data.getDeclaringClass().getName());
+		if (isCompact()) {
+			writeVarInt(data.ordinal());
+		} else {
+			writeString(data.name());
+		}
 		return this;
 	}
 
+	/**
+	 * @param compare The class of a value
+	 * @return The type ID values of the class are prefixed with in collections and optionals
+	 * @throws IllegalArgumentException If the class can't be written
+	 */
 	default int getType(Class<?> compare) {
-		return IntStream
-			.range(0, Data.dataTypes.length)
-			.filter(i -> Data.dataTypes[i].isAssignableFrom(compare))
-			.findFirst()
-			.getAsInt();
+		int id = PacketCodecs.resolve(compare).id;
+		if (id < 0) {
+			throw new IllegalArgumentException("Packet attempt to write an invalid type: " + compare);
+		}
+		return id;
 	}
 
-	default Packet writeData(Data data) {
-		//Write the data size
-		writeInt(data.size());
-		//Write the data class
-		writeString(data.className);
-
-		data.forEach((k, v) -> {
-				int typeID = getType(v.getClass());
-				//Write key
-				writeString(k);
-				//Write data type
-				writeShort(typeID);
-				//Write value
-				write(v);
-			}
-		);
+	/**
+	 * Writes a value prefixed with its type ID.
+	 * @param value The value
+	 * @return This packet
+	 */
+	default Packet writeTyped(Object value) {
+		PacketCodecs.Resolved resolved = PacketCodecs.resolve(value.getClass());
+		if (resolved.id < 0) {
+			throw new IllegalArgumentException("Packet attempt to write an invalid type: " + value.getClass());
+		}
+		writeShort(resolved.id);
+		resolved.codec.write(this, value);
+		return this;
+	}
 
+	/**
+	 * Writes a {@link Data} type in the {@link BinaryData binary data} format.
+	 * @param data The data
+	 * @return This packet
+	 */
+	default Packet writeData(Data data) {
+		try {
+			BinaryData.write(data, new PacketDataStream(this));
+		} catch (IOException e) {
+			throw new NetworkException("Failed to write data.", e);
+		}
 		return this;
 	}
 
@@ -236,17 +257,15 @@ public interface Packet {
 
 	default Packet writeCollection(Collection<?> col) {
 		writeInt(col.size());
-		col.forEach(obj -> {
-			writeShort(getType(obj.getClass()));
-			write(obj);
-		});
+		for (Object obj : col) {
+			writeTyped(obj);
+		}
 		return this;
 	}
 
 	default Packet writeOptional(Optional<?> optional) {
 		if (optional.isPresent()) {
-			writeShort(getType(optional.get().getClass()));
-			write(optional.get());
+			writeTyped(optional.get());
 		} else {
 			writeShort(-1);
 		}
@@ -255,8 +274,19 @@ public interface Packet {
 
 	Packet writeBytes(byte[] array);
 
+	/**
+	 * Reads {@code length} bytes and increases the {@code readerIndex} by {@code length}.
+	 * @param length The number of bytes
+	 * @return Data read from this packet
+	 * @throws IndexOutOfBoundsException if {@code length} is negative or greater than {@code this.readableBytes}
+	 */
 	byte[] readBytes(int length);
 
+	/**
+	 * @return The number of bytes left to read in this packet
+	 */
+	int readableBytes();
+
 	/**
 	 * Gets a boolean at the current {@code readerIndex} and increases
 	 * the {@code readerIndex} by {@code 1} in this buffer.
@@ -339,6 +369,40 @@ public interface Packet {
 
 	String readString();
 
+	/**
+	 * Reads a zigzag encoded variable length integer.
+	 * @return Data read from this packet
+	 * @see #writeVarInt(int)
+	 */
+	default int readVarInt() {
+		int bits = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = readByte();
+			bits |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (bits >>> 1) ^ -(bits & 1);
+			}
+		}
+		throw new NetworkException("Variable length integer is too long");
+	}
+
+	/**
+	 * Reads a zigzag encoded variable length long.
+	 * @return Data read from this packet
+	 * @see #writeVarLong(long)
+	 */
+	default long readVarLong() {
+		long bits = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = readByte();
+			bits |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (bits >>> 1) ^ -(bits & 1);
+			}
+		}
+		throw new NetworkException("Variable length long is too long");
+	}
+
 	default <E extends Enum<E>> E readEnum() {
 		try {
 			String enumClassName = readString();
@@ -351,6 +415,9 @@ public interface Packet {
 	}
 
 	default <E extends Enum<E>> E readEnum(Class<E> type) {
+		if (isCompact()) {
+			return PacketCodecs.enumConstant(type, readVarInt());
+		}
 		return Enum.valueOf(type, readString());
 	}
 
@@ -364,18 +431,11 @@ public interface Packet {
 	 * @return The data type
 	 */
 	default Data readData() {
-		Data readData = new Data();
-		int size = readInt();
-		readData.className = readString();
-		IntStream
-			.range(0, size)
-			.forEach(i -> {
-				String key = readString();
-				short type = readShort();
-				Object value = read(Data.dataTypes[type]);
-				readData.put(key, value);
-			});
-		return readData;
+		try {
+			return BinaryData.read(new PacketDataStream(this));
+		} catch (IOException e) {
+			throw new NetworkException("Failed to read data.", e);
+		}
 	}
 
 	default Object readStorable() {
@@ -384,34 +444,21 @@ public interface Packet {
 	}
 
 	default <T> List<T> readList() {
-		ArrayList<T> arrayList = new ArrayList<>();
 		int size = readInt();
-
-		IntStream
-			.range(0, size)
-			.forEach(i -> {
-				short type = readShort();
-				@SuppressWarnings("unchecked")
-				T value = (T) read(Data.dataTypes[type]);
-				arrayList.add(value);
-			});
-
+		// Every element takes at least a byte, so a bogus size can not presize more than the packet holds
+		ArrayList<T> arrayList = new ArrayList<>(Math.max(0, Math.min(size, readableBytes())));
+		for (int i = 0; i < size; i++) {
+			arrayList.add(readTyped());
+		}
 		return arrayList;
 	}
 
 	default <T> Set<T> readSet() {
 		Set<T> set = new HashSet<>();
 		int size = readInt();
-
-		IntStream
-			.range(0, size)
-			.forEach(i -> {
-				short type = readShort();
-				@SuppressWarnings("unchecked")
-				T value = (T) read(Data.dataTypes[type]);
-				set.add(value);
-			});
-
+		for (int i = 0; i < size; i++) {
+			set.add(readTyped());
+		}
 		return set;
 	}
 
@@ -419,12 +466,22 @@ public interface Packet {
 	default <T> Optional<T> readOptional() {
 		short type = readShort();
 		if (type != -1) {
-			return (Optional<T>) Optional.of(read(Data.dataTypes[type]));
+			return (Optional<T>) Optional.of(PacketCodecs.read(this, type));
 		} else {
 			return Optional.empty();
 		}
 	}
 
+	/**
+	 * Reads a value prefixed with its type ID.
+	 * @return The value
+	 * @see #writeTyped(Object)
+	 */
+	@SuppressWarnings("unchecked")
+	default <T> T readTyped() {
+		return (T) PacketCodecs.read(this, readShort());
+	}
+
 	default Vector2D readVector2D() {
 		return new Vector2D(readDouble(), readDouble());
 	}
@@ -433,46 +490,14 @@ public interface Packet {
 		return new Vector3D(readDouble(), readDouble(), readDouble());
 	}
 
+	/**
+	 * Reads a value of a class, written with {@link #write(Object)}.
+	 * @param clazz The class
+	 * @return The value
+	 * @see PacketCodecs
+	 */
 	@SuppressWarnings("unchecked")
 	default <T> T read(Class<T> clazz) {
-		if (clazz == Boolean.class || clazz == boolean.class) {
-			return (T) Boolean.valueOf(readBoolean());
-		} else if (clazz == Byte.class || clazz == byte.class) {
-			return (T) Byte.valueOf(readByte());
-		} else if (clazz == Short.class || clazz == short.class) {
-			return (T) Short.valueOf(readShort());
-		} else if (clazz == Integer.class || clazz == int.class) {
-			return (T) Integer.valueOf(readInt());
-		} else if (clazz == Long.class || clazz == long.class) {
-			return (T) Long.valueOf(readLong());
-		} else if (clazz == Character.class || clazz == char.class) {
-			return (T) Character.valueOf(readChar());
-		} else if (clazz == Float.class || clazz == float.class) {
-			return (T) Float.valueOf(readFloat());
-		} else if (clazz == Double.class || clazz == double.class) {
-			return (T) Double.valueOf(readDouble());
-		} else if (clazz == String.class) {
-			return (T) readString();
-		} else if (clazz == Optional.class) {
-			return (T) readOptional();
-		}
-		//Special data types that all convert into Data.
-		else if (Syncable.class.isAssignableFrom(clazz)) {
-			throw new NetworkException("Attempt to read PacketHandler object by its class");
-		} else if (Enum.class.isAssignableFrom(clazz)) {
-			return (T) readEnum();
-		} else if (Data.class.isAssignableFrom(clazz)) {
-			return (T) readData();
-		} else if (Vector3D.class.isAssignableFrom(clazz)) {
-			return (T) readVector3D();
-		} else if (Vector2D.class.isAssignableFrom(clazz)) {
-			return (T) readVector2D();
-		} else if (List.class.isAssignableFrom(clazz)) {
-			return (T) readList();
-		} else if (Set.class.isAssignableFrom(clazz)) {
-			return (T) readSet();
-		} else {
-			return (T) readStorable();
-		}
+		return (T) PacketCodecs.reader(clazz).read(this, (Class<Object>) clazz);
 	}
 }
@@ -0,0 +1,331 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * The registry of codecs that {@link Packet#write(Object)} and {@link Packet#read(Class)} use to write and read values.
+ *
+ * The codec of a class is resolved once and cached.
+ * Values in collections and optionals are prefixed with a type ID.
+ * The built in types use their index in {@link Data#dataTypes} as type ID,
+ * IDs from {@value #CUSTOM_ID_START} on are free for mods to register their own value types.
+ * Custom codecs take precedence over the built in ones, and must be registered in the same way on both sides.
+ */
+public final class PacketCodecs {
+	public static final int CUSTOM_ID_START = 256;
+
+	/**
+	 * Writes and reads values of a type.
+	 * @param <T> The value type
+	 */
+	public interface Codec<T> {
+		void write(Packet packet, T value);
+
+		/**
+		 * @param packet The packet
+		 * @param type The requested type, which may be a subtype of the codec's type
+		 * @return The value
+		 */
+		T read(Packet packet, Class<T> type);
+
+		static <T> Codec<T> of(BiConsumer<Packet, T> writer, BiFunction<Packet, Class<T>, T> reader) {
+			return new Codec<T>() {
+				@Override
+				public void write(Packet packet, T value) {
+					writer.accept(packet, value);
+				}
+
+				@Override
+				public T read(Packet packet, Class<T> type) {
+					return reader.apply(packet, type);
+				}
+			};
+		}
+	}
+
+	/**
+	 * The codec of a runtime class, with the type ID it is written with.
+	 */
+	static final class Resolved {
+		final Codec<Object> codec;
+		final int id;
+
+		Resolved(Codec<Object> codec, int id) {
+			this.codec = codec;
+			this.id = id;
+		}
+	}
+
+	private static final class Entry {
+		final int id;
+		final Class<?> type;
+		final Codec<Object> codec;
+
+		@SuppressWarnings("unchecked")
+		Entry(int id, Class<?> type, Codec<?> codec) {
+			this.id = id;
+			this.type = type;
+			this.codec = (Codec<Object>) codec;
+		}
+	}
+
+	private static final Codec<Object> INVALID = Codec.of(
+		(packet, value) -> {
+			throw new IllegalArgumentException("Packet attempt to write an invalid object: " + value);
+		},
+		(packet, type) -> {
+			throw new IllegalArgumentException("Packet attempt to read an invalid type: " + type);
+		});
+
+	/**
+	 * Anything else is read as a storable, converted into data.
+	 */
+	private static final Codec<Object> STORABLE_READER = Codec.of(null, (packet, type) -> packet.readStorable());
+
+	/**
+	 * The built in codecs, in the order they are matched against the class of written values.
+	 */
+	private static final List<Entry> WRITERS = new ArrayList<>();
+	/**
+	 * The built in codecs of types read by exact class.
+	 */
+	private static final Map<Class<?>, Codec<Object>> EXACT_READERS = new HashMap<>();
+	/**
+	 * The built in codecs of types read by any subclass, in the order they are matched.
+	 */
+	private static final List<Entry> READERS = new ArrayList<>();
+
+	private static volatile List<Entry> custom = Collections.emptyList();
+	private static volatile Map<Integer, Entry> customIds = Collections.emptyMap();
+	private static volatile Cache cache = new Cache();
+
+	private static final ClassValue<Object[]> ENUM_CONSTANTS = new ClassValue<Object[]>() {
+		@Override
+		protected Object[] computeValue(Class<?> type) {
+			return type.getEnumConstants();
+		}
+	};
+
+	static {
+		primitive(Boolean.class, boolean.class, Codec.<Boolean>of((packet, value) -> packet.writeBoolean(value), (packet, type) -> packet.readBoolean()));
+		primitive(Byte.class, byte.class, Codec.<Byte>of((packet, value) -> packet.writeByte(value), (packet, type) -> packet.readByte()));
+		primitive(Short.class, short.class, Codec.<Short>of((packet, value) -> packet.writeShort(value), (packet, type) -> packet.readShort()));
+		primitive(Integer.class, int.class, Codec.<Integer>of((packet, value) -> packet.writeInt(value), (packet, type) -> packet.readInt()));
+		primitive(Long.class, long.class, Codec.<Long>of((packet, value) -> packet.writeLong(value), (packet, type) -> packet.readLong()));
+		primitive(Character.class, char.class, Codec.<Character>of((packet, value) -> packet.writeChar(value), (packet, type) -> packet.readChar()));
+		primitive(Float.class, float.class, Codec.<Float>of((packet, value) -> packet.writeFloat(value), (packet, type) -> packet.readFloat()));
+		primitive(Double.class, double.class, Codec.<Double>of((packet, value) -> packet.writeDouble(value), (packet, type) -> packet.readDouble()));
+		exact(String.class, Codec.of(Packet::writeString, (packet, type) -> packet.readString()));
+
+		writer(Enum.class, Codec.<Enum<?>>of(Packet::writeEnum, null));
+		exact(Optional.class, Codec.<Optional<?>>of(Packet::writeOptional, (packet, type) -> packet.readOptional()));
+		writer(Data.class, Codec.of(Packet::writeData, null));
+		writer(Syncable.class, Codec.<Syncable>of((packet, value) -> value.write(packet), null));
+		writer(Storable.class, Codec.of(Packet::writeStorable, null));
+		writer(Collection.class, Codec.<Collection<?>>of(Packet::writeCollection, null));
+		writer(Vector3D.class, Codec.<Vector3D>of((packet, value) -> {
+			packet.writeDouble(value.getX());
+			packet.writeDouble(value.getY());
+			packet.writeDouble(value.getZ());
+		}, null));
+		writer(Vector2D.class, Codec.<Vector2D>of((packet, value) -> {
+			packet.writeDouble(value.getX());
+			packet.writeDouble(value.getY());
+		}, null));
+
+		reader(Syncable.class, Codec.of(null, (packet, type) -> {
+			throw new NetworkException("Attempt to read PacketHandler object by its class");
+		}));
+		reader(Enum.class, Codec.of(null, (packet, type) -> packet.readEnum()));
+		reader(Data.class, Codec.of(null, (packet, type) -> packet.readData()));
+		reader(Vector3D.class, Codec.of(null, (packet, type) -> packet.readVector3D()));
+		reader(Vector2D.class, Codec.of(null, (packet, type) -> packet.readVector2D()));
+		reader(List.class, Codec.of(null, (packet, type) -> packet.readList()));
+		reader(Set.class, Codec.of(null, (packet, type) -> packet.readSet()));
+	}
+
+	private PacketCodecs() {
+	}
+
+	private static void primitive(Class<?> boxed, Class<?> primitive, Codec<?> codec) {
+		exact(boxed, codec);
+		EXACT_READERS.put(primitive, EXACT_READERS.get(boxed));
+	}
+
+	private static void exact(Class<?> type, Codec<?> codec) {
+		writer(type, codec);
+		EXACT_READERS.put(type, WRITERS.get(WRITERS.size() - 1).codec);
+	}
+
+	private static void writer(Class<?> type, Codec<?> codec) {
+		WRITERS.add(new Entry(dataTypeId(type), type, codec));
+	}
+
+	private static void reader(Class<?> type, Codec<?> codec) {
+		READERS.add(new Entry(dataTypeId(type), type, codec));
+	}
+
+	/**
+	 * Registers the codec of a custom value type.
+	 * @param id The type ID, at least {@value #CUSTOM_ID_START} and at most {@value Short#MAX_VALUE}
+	 * @param type The value type, also used for subtypes
+	 * @param codec The codec
+	 * @param <T> The value type
+	 * @throws IllegalArgumentException If the ID is out of range or already registered
+	 */
+	public static synchronized <T> void register(int id, Class<T> type, Codec<T> codec) {
+		if (id < CUSTOM_ID_START || id > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Custom type ID out of range: " + id);
+		}
+		if (customIds.containsKey(id)) {
+			throw new IllegalArgumentException("Type ID " + id + " is already registered for " + customIds.get(id).type);
+		}
+
+		Entry entry = new Entry(id, type, codec);
+		List<Entry> custom = new ArrayList<>(PacketCodecs.custom);
+		custom.add(entry);
+		Map<Integer, Entry> customIds = new HashMap<>(PacketCodecs.customIds);
+		customIds.put(id, entry);
+
+		PacketCodecs.custom = Collections.unmodifiableList(custom);
+		PacketCodecs.customIds = Collections.unmodifiableMap(customIds);
+		// Classes resolved so far may now have a different codec.
+		cache = new Cache();
+	}
+
+	/**
+	 * @param type The class of a value
+	 * @return The codec and type ID to write values of the class with
+	 */
+	static Resolved resolve(Class<?> type) {
+		return cache.writers.get(type);
+	}
+
+	/**
+	 * @param type The class to read
+	 * @return The codec to read the class with
+	 */
+	static Codec<Object> reader(Class<?> type) {
+		return cache.readers.get(type);
+	}
+
+	/**
+	 * Reads a value prefixed with its type ID.
+	 * @param packet The packet
+	 * @param id The type ID
+	 * @return The value
+	 */
+	static Object read(Packet packet, int id) {
+		if (id >= 0 && id < Data.dataTypes.length) {
+			return packet.read(Data.dataTypes[id]);
+		}
+		Entry entry = customIds.get(id);
+		if (entry == null) {
+			throw new NetworkException("Unknown packet type ID " + id);
+		}
+		@SuppressWarnings("unchecked")
+		Class<Object> type = (Class<Object>) entry.type;
+		return entry.codec.read(packet, type);
+	}
+
+	/**
+	 * @param type The enum class
+	 * @param ordinal The ordinal of the constant
+	 * @return The constant
+	 * @throws NetworkException If the enum has no constant with the ordinal
+	 */
+	@SuppressWarnings("unchecked")
+	static <E extends Enum<E>> E enumConstant(Class<E> type, int ordinal) {
+		Object[] constants = ENUM_CONSTANTS.get(type);
+		if (ordinal < 0 || ordinal >= constants.length) {
+			throw new NetworkException("Invalid ordinal " + ordinal + " of " + type);
+		}
+		return (E) constants[ordinal];
+	}
+
+	/**
+	 * @return The index of the first data type the class is assignable to, or -1 if there is none
+	 */
+	private static int dataTypeId(Class<?> type) {
+		for (int i = 0; i < Data.dataTypes.length; i++) {
+			if (Data.dataTypes[i].isAssignableFrom(type)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static final class Cache {
+		final ClassValue<Resolved> writers = new ClassValue<Resolved>() {
+			@Override
+			protected Resolved computeValue(Class<?> type) {
+				for (Entry entry : custom) {
+					if (entry.type.isAssignableFrom(type)) {
+						return new Resolved(entry.codec, entry.id);
+					}
+				}
+				for (Entry entry : WRITERS) {
+					if (entry.type.isAssignableFrom(type)) {
+						return new Resolved(entry.codec, dataTypeId(type));
+					}
+				}
+				return new Resolved(INVALID, -1);
+			}
+		};
+
+		final ClassValue<Codec<Object>> readers = new ClassValue<Codec<Object>>() {
+			@Override
+			protected Codec<Object> computeValue(Class<?> type) {
+				for (Entry entry : custom) {
+					if (entry.type.isAssignableFrom(type)) {
+						return entry.codec;
+					}
+				}
+				Codec<Object> exact = EXACT_READERS.get(type);
+				if (exact != null) {
+					return exact;
+				}
+				for (Entry entry : READERS) {
+					if (entry.type.isAssignableFrom(type)) {
+						return entry.codec;
+					}
+				}
+				return STORABLE_READER;
+			}
+		};
+	}
+}
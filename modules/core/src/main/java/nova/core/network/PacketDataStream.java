@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.BinaryData;
+
+import java.util.Arrays;
+
+/**
+ * Writes and reads {@link BinaryData binary data} through a packet.
+ */
+class PacketDataStream implements BinaryData.Sink, BinaryData.Source {
+	private final Packet packet;
+
+	PacketDataStream(Packet packet) {
+		this.packet = packet;
+	}
+
+	@Override
+	public void writeByte(int value) {
+		packet.writeByte(value);
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) {
+		packet.writeBytes(offset == 0 && length == bytes.length ? bytes : Arrays.copyOfRange(bytes, offset, offset + length));
+	}
+
+	@Override
+	public void writeInt(int value) {
+		packet.writeInt(value);
+	}
+
+	@Override
+	public void writeLong(long value) {
+		packet.writeLong(value);
+	}
+
+	@Override
+	public byte readByte() {
+		return packet.readByte();
+	}
+
+	@Override
+	public void readFully(byte[] bytes) {
+		System.arraycopy(packet.readBytes(bytes.length), 0, bytes, 0, bytes.length);
+	}
+
+	@Override
+	public int readInt() {
+		return packet.readInt();
+	}
+
+	@Override
+	public long readLong() {
+		return packet.readLong();
+	}
+
+	@Override
+	public int remaining() {
+		return packet.readableBytes();
+	}
+}
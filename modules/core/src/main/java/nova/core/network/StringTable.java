@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.BinaryData;
+import nova.core.retention.DataException;
+
+import java.io.IOException;
+
+/**
+ * A dictionary of the strings written to a stream of packets.
+ * Each string is written in full the first time, and as its index afterwards.
+ *
+ * The side writing and the side reading each keep their own table, which stay the same
+ * as long as both see the same strings in the same order, with the same capacity.
+ * Once the table is full, new strings are always written in full.
+ * <p>
+ * The strings are written by a {@link BinaryData.StringTable}, in the same format as binary data:
+ * <pre>
+ * string := 0:varint length:varint utf8:byte* | index + 1:varint
+ * </pre>
+ * @see Packet#isCompact()
+ */
+public final class StringTable {
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final BinaryData.StringTable table;
+
+	public StringTable() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity The maximum number of strings in the table
+	 */
+	public StringTable(int capacity) {
+		this.table = new BinaryData.StringTable(capacity);
+	}
+
+	/**
+	 * @return The number of strings in the table
+	 */
+	public int size() {
+		return table.size();
+	}
+
+	/**
+	 * Writes a string, or its index if it was written before.
+	 * @param packet The packet
+	 * @param value The string
+	 */
+	public void write(Packet packet, String value) {
+		try {
+			table.write(new PacketDataStream(packet), value);
+		} catch (IOException e) {
+			throw new NetworkException(e);
+		}
+	}
+
+	/**
+	 * Reads a string written by {@link #write(Packet, String)}.
+	 * @param packet The packet
+	 * @return The string
+	 * @throws NetworkException If the index is not in the table or the length exceeds the packet
+	 */
+	public String read(Packet packet) {
+		try {
+			return table.read(new PacketDataStream(packet));
+		} catch (IOException | DataException e) {
+			throw new NetworkException(e);
+		}
+	}
+}
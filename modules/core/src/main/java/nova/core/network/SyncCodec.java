@@ -0,0 +1,681 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.util.ReflectionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Writes and reads the {@link Sync @Sync} fields of a class.
+ *
+ * The fields of each packet ID are resolved once per class, and accessed through method handles
+ * of their exact type, so primitive fields are written and read without boxing.
+ *
+ * The fields of a packet are preceded by a bitmask with one bit per field of the packet ID,
+ * in the order of {@link #getFieldNames(int)}, and only the fields whose bit is set follow it.
+ * Each field is written the same way as with {@link Packet#write(Object)},
+ * except enum fields of {@link Packet#isCompact() compact} packets, which are written by ordinal.
+ * A full write sets every bit, while {@link #writeChanges(Object, Packet, SyncState)}
+ * only sets the bits of the fields that changed, so both are read by {@link #read(Object, Packet)}.
+ * @see Syncable
+ * @see SyncState
+ */
+public final class SyncCodec {
+	private static final FieldCodec[] NO_FIELDS = new FieldCodec[0];
+
+	private static final ClassValue<SyncCodec> CODECS = new ClassValue<SyncCodec>() {
+		@Override
+		protected SyncCodec computeValue(Class<?> type) {
+			return new SyncCodec(type);
+		}
+	};
+
+	private final Map<Integer, FieldCodec[]> fieldsById;
+	private final boolean customWrite;
+
+	private SyncCodec(Class<?> type) {
+		List<FieldCodec> fields = new ArrayList<>();
+		Set<Integer> ids = new LinkedHashSet<>();
+		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, type, (field, annotation) -> {
+			fields.add(FieldCodec.of(field, annotation.ids()));
+			for (int id : annotation.ids()) {
+				ids.add(id);
+			}
+		});
+
+		Map<Integer, FieldCodec[]> fieldsById = new HashMap<>();
+		for (int id : ids) {
+			fieldsById.put(id, fields.stream().filter(field -> field.hasId(id)).toArray(FieldCodec[]::new));
+		}
+		this.fieldsById = Collections.unmodifiableMap(fieldsById);
+		this.customWrite = overridesWrite(type);
+	}
+
+	/**
+	 * Classes that write themselves can't be written field by field.
+	 */
+	private static boolean overridesWrite(Class<?> type) {
+		if (!Syncable.class.isAssignableFrom(type)) {
+			return false;
+		}
+		try {
+			return type.getMethod("write", Packet.class).getDeclaringClass() != Syncable.class;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the codec of a class, building it on first use.
+	 * @param type The class
+	 * @return The codec
+	 */
+	public static SyncCodec of(Class<?> type) {
+		return CODECS.get(type);
+	}
+
+	/**
+	 * @param id The packet ID
+	 * @return The names of the fields synchronized with the packet ID, in the order they are written
+	 */
+	public List<String> getFieldNames(int id) {
+		List<String> names = new ArrayList<>();
+		for (FieldCodec field : fields(id)) {
+			names.add(field.field.getName());
+		}
+		return names;
+	}
+
+	/**
+	 * @return A new state to track the changes of an object of this class
+	 */
+	public SyncState newState() {
+		return new SyncState(this);
+	}
+
+	/**
+	 * Writes all {@link Sync @Sync} fields of an object for the ID of the packet.
+	 * @param syncable The object
+	 * @param packet The packet
+	 */
+	public void write(Object syncable, Packet packet) {
+		FieldCodec[] fields = fields(packet.getID());
+		if (fields.length == 0) {
+			return;
+		}
+		byte[] mask = new byte[maskLength(fields.length)];
+		for (int i = 0; i < fields.length; i++) {
+			mask[i >>> 3] |= 1 << (i & 7);
+		}
+		write(syncable, packet, fields, mask);
+	}
+
+	/**
+	 * Checks if an object has fields to write for a packet ID since the state was last written.
+	 * @param syncable The object
+	 * @param id The packet ID
+	 * @param state The state of the object
+	 * @return True if {@link #writeChanges(Object, Packet, SyncState)} would write any field
+	 */
+	public boolean hasChanges(Object syncable, int id, SyncState state) {
+		if (customWrite) {
+			return true;
+		}
+		FieldCodec[] fields = fields(id);
+		SyncState.Snapshot snapshot = state.snapshot(id);
+		if (snapshot == null) {
+			return fields.length > 0;
+		}
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				if (snapshot.dirty[i] || fields[i].changed(syncable, snapshot, i)) {
+					return true;
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+		return false;
+	}
+
+	/**
+	 * Writes the {@link Sync @Sync} fields of an object for the ID of the packet
+	 * that changed since the state was last written, and remembers their values in the state.
+	 * The first changes of each packet ID contain all fields.
+	 *
+	 * Objects that override {@link Syncable#write(Packet)} are always written completely.
+	 * @param syncable The object
+	 * @param packet The packet
+	 * @param state The state of the object
+	 */
+	public void writeChanges(Object syncable, Packet packet, SyncState state) {
+		if (state.codec() != this) {
+			throw new IllegalArgumentException("Sync state of another class: " + syncable.getClass());
+		}
+		if (customWrite) {
+			((Syncable) syncable).write(packet);
+			return;
+		}
+		FieldCodec[] fields = fields(packet.getID());
+		if (fields.length == 0) {
+			return;
+		}
+		SyncState.Snapshot snapshot = state.snapshot(packet.getID(), fields.length);
+		byte[] mask = new byte[maskLength(fields.length)];
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				if (fields[i].update(syncable, snapshot, i) || snapshot.dirty[i]) {
+					mask[i >>> 3] |= 1 << (i & 7);
+				}
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+		snapshot.clean();
+		write(syncable, packet, fields, mask);
+	}
+
+	/**
+	 * Remembers the current values of the fields of a packet ID in the state,
+	 * after they were written completely with {@link #write(Object, Packet)}.
+	 * @param syncable The object
+	 * @param id The packet ID
+	 * @param state The state of the object
+	 */
+	public void recordState(Object syncable, int id, SyncState state) {
+		if (state.codec() != this) {
+			throw new IllegalArgumentException("Sync state of another class: " + syncable.getClass());
+		}
+		FieldCodec[] fields = fields(id);
+		if (customWrite || fields.length == 0) {
+			return;
+		}
+		SyncState.Snapshot snapshot = state.snapshot(id, fields.length);
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				fields[i].update(syncable, snapshot, i);
+			}
+		} catch (RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+		snapshot.clean();
+	}
+
+	private void write(Object syncable, Packet packet, FieldCodec[] fields, byte[] mask) {
+		for (byte bits : mask) {
+			packet.writeByte(bits);
+		}
+		for (int i = 0; i < fields.length; i++) {
+			if (isSet(mask, i)) {
+				try {
+					fields[i].write(syncable, packet);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads all {@link Sync @Sync} fields of an object for the ID of the packet.
+	 * @param syncable The object
+	 * @param packet The packet
+	 */
+	public void read(Object syncable, Packet packet) {
+		FieldCodec[] fields = fields(packet.getID());
+		if (fields.length == 0) {
+			return;
+		}
+		byte[] mask = new byte[maskLength(fields.length)];
+		for (int i = 0; i < mask.length; i++) {
+			mask[i] = packet.readByte();
+		}
+		for (int i = 0; i < fields.length; i++) {
+			if (isSet(mask, i)) {
+				try {
+					fields[i].read(syncable, packet);
+				} catch (RuntimeException | Error e) {
+					throw e;
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	boolean hasField(String name) {
+		for (FieldCodec[] fields : fieldsById.values()) {
+			for (FieldCodec field : fields) {
+				if (field.field.getName().equals(name)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	int indexOf(int id, String name) {
+		FieldCodec[] fields = fields(id);
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i].field.getName().equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private FieldCodec[] fields(int id) {
+		FieldCodec[] fields = fieldsById.get(id);
+		return fields != null ? fields : NO_FIELDS;
+	}
+
+	private static int maskLength(int fields) {
+		return (fields + 7) >>> 3;
+	}
+
+	private static boolean isSet(byte[] mask, int index) {
+		return (mask[index >>> 3] & (1 << (index & 7))) != 0;
+	}
+
+	/**
+	 * Accesses a field through method handles of its exact type.
+	 */
+	private abstract static class FieldCodec {
+		final Field field;
+		final int[] ids;
+		final MethodHandle getter;
+		final MethodHandle setter;
+
+		FieldCodec(Field field, int[] ids, Class<?> type) {
+			this.field = field;
+			this.ids = ids.clone();
+
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			try {
+				MethodHandle getter = lookup.unreflectGetter(field);
+				if (isStatic) {
+					getter = MethodHandles.dropArguments(getter, 0, Object.class);
+				}
+				this.getter = getter.asType(MethodType.methodType(type, Object.class));
+			} catch (IllegalAccessException e) {
+				throw new ReflectionUtil.ReflectionException(e);
+			}
+
+			MethodHandle setter;
+			try {
+				setter = lookup.unreflectSetter(field);
+				if (isStatic) {
+					setter = MethodHandles.dropArguments(setter, 0, Object.class);
+				}
+				setter = setter.asType(MethodType.methodType(void.class, Object.class, type));
+			} catch (IllegalAccessException e) {
+				// Final fields can't be written, fail the same way reflection would once the field is read.
+				setter = MethodHandles.dropArguments(
+					MethodHandles.throwException(void.class, IllegalAccessException.class).bindTo(e),
+					0, Object.class, type);
+			}
+			this.setter = setter;
+		}
+
+		static FieldCodec of(Field field, int[] ids) {
+			Class<?> type = field.getType();
+			if (type == boolean.class) {
+				return new BooleanField(field, ids);
+			} else if (type == byte.class) {
+				return new ByteField(field, ids);
+			} else if (type == short.class) {
+				return new ShortField(field, ids);
+			} else if (type == int.class) {
+				return new IntField(field, ids);
+			} else if (type == long.class) {
+				return new LongField(field, ids);
+			} else if (type == char.class) {
+				return new CharField(field, ids);
+			} else if (type == float.class) {
+				return new FloatField(field, ids);
+			} else if (type == double.class) {
+				return new DoubleField(field, ids);
+			} else if (type.isEnum()) {
+				return new EnumField(field, ids);
+			}
+			return new ObjectField(field, ids);
+		}
+
+		boolean hasId(int id) {
+			for (int i : ids) {
+				if (i == id) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		abstract void write(Object syncable, Packet packet) throws Throwable;
+
+		abstract void read(Object syncable, Packet packet) throws Throwable;
+
+		/**
+		 * @return True if the value of the field differs from the snapshot
+		 */
+		abstract boolean changed(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable;
+
+		/**
+		 * Stores the value of the field in the snapshot.
+		 * @return True if the value of the field differed from the snapshot
+		 */
+		abstract boolean update(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable;
+	}
+
+	/**
+	 * Compares primitive fields by their raw bits.
+	 */
+	private abstract static class PrimitiveField extends FieldCodec {
+		PrimitiveField(Field field, int[] ids, Class<?> type) {
+			super(field, ids, type);
+		}
+
+		abstract long bits(Object syncable) throws Throwable;
+
+		@Override
+		boolean changed(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable {
+			return bits(syncable) != snapshot.bits[index];
+		}
+
+		@Override
+		boolean update(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable {
+			long bits = bits(syncable);
+			if (bits == snapshot.bits[index]) {
+				return false;
+			}
+			snapshot.bits[index] = bits;
+			return true;
+		}
+	}
+
+	private static final class BooleanField extends PrimitiveField {
+		BooleanField(Field field, int[] ids) {
+			super(field, ids, boolean.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeBoolean((boolean) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readBoolean());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (boolean) getter.invokeExact(syncable) ? 1 : 0;
+		}
+	}
+
+	private static final class ByteField extends PrimitiveField {
+		ByteField(Field field, int[] ids) {
+			super(field, ids, byte.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeByte((byte) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readByte());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (byte) getter.invokeExact(syncable);
+		}
+	}
+
+	private static final class ShortField extends PrimitiveField {
+		ShortField(Field field, int[] ids) {
+			super(field, ids, short.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeShort((short) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readShort());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (short) getter.invokeExact(syncable);
+		}
+	}
+
+	private static final class IntField extends PrimitiveField {
+		IntField(Field field, int[] ids) {
+			super(field, ids, int.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeInt((int) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readInt());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (int) getter.invokeExact(syncable);
+		}
+	}
+
+	private static final class LongField extends PrimitiveField {
+		LongField(Field field, int[] ids) {
+			super(field, ids, long.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeLong((long) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readLong());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (long) getter.invokeExact(syncable);
+		}
+	}
+
+	private static final class CharField extends PrimitiveField {
+		CharField(Field field, int[] ids) {
+			super(field, ids, char.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeChar((char) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readChar());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return (char) getter.invokeExact(syncable);
+		}
+	}
+
+	private static final class FloatField extends PrimitiveField {
+		FloatField(Field field, int[] ids) {
+			super(field, ids, float.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeFloat((float) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readFloat());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return Float.floatToRawIntBits((float) getter.invokeExact(syncable));
+		}
+	}
+
+	private static final class DoubleField extends PrimitiveField {
+		DoubleField(Field field, int[] ids) {
+			super(field, ids, double.class);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.writeDouble((double) getter.invokeExact(syncable));
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			setter.invokeExact(syncable, packet.readDouble());
+		}
+
+		@Override
+		long bits(Object syncable) throws Throwable {
+			return Double.doubleToRawLongBits((double) getter.invokeExact(syncable));
+		}
+	}
+
+	private static class ObjectField extends FieldCodec {
+		final Class<?> type;
+
+		ObjectField(Field field, int[] ids) {
+			super(field, ids, Object.class);
+			this.type = field.getType();
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			packet.write(getNonNull(syncable));
+		}
+
+		Object getNonNull(Object syncable) throws Throwable {
+			Object value = (Object) getter.invokeExact(syncable);
+			if (value == null) {
+				throw new NullPointerException(
+					String.format("Field %s in class: %s is null. Syncing nulls is not supported. Use Optional instead.",
+						field.getName(), syncable.getClass()));
+			}
+			return value;
+		}
+
+		@Override
+		void read(Object syncable, Packet packet) throws Throwable {
+			Object value = (Object) getter.invokeExact(syncable);
+			if (value instanceof Syncable) {
+				((Syncable) value).read(packet);
+			} else {
+				setter.invokeExact(syncable, (Object) packet.read(type));
+			}
+		}
+
+		/**
+		 * Nested syncables hold their own state, so they are always written.
+		 */
+		@Override
+		boolean changed(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable {
+			Object value = (Object) getter.invokeExact(syncable);
+			return value instanceof Syncable || !Objects.equals(value, snapshot.values[index]);
+		}
+
+		@Override
+		boolean update(Object syncable, SyncState.Snapshot snapshot, int index) throws Throwable {
+			Object value = (Object) getter.invokeExact(syncable);
+			boolean changed = value instanceof Syncable || !Objects.equals(value, snapshot.values[index]);
+			snapshot.values[index] = value;
+			return changed;
+		}
+	}
+
+	/**
+	 * Both sides know the type of enum fields, so compact packets only contain the ordinal.
+	 */
+	private static final class EnumField extends ObjectField {
+		EnumField(Field field, int[] ids) {
+			super(field, ids);
+		}
+
+		@Override
+		void write(Object syncable, Packet packet) throws Throwable {
+			if (!packet.isCompact()) {
+				super.write(syncable, packet);
+				return;
+			}
+			packet.writeVarInt(((Enum<?>) getNonNull(syncable)).ordinal());
+		}
+
+		@Override
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void read(Object syncable, Packet packet) throws Throwable {
+			if (!packet.isCompact()) {
+				super.read(syncable, packet);
+				return;
+			}
+			setter.invokeExact(syncable, (Object) packet.readEnum((Class) type));
+		}
+	}
+}
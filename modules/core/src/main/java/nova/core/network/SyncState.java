@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The state of an object as it was last sent with {@link SyncCodec#writeChanges(Object, Packet, SyncState)},
+ * or recorded after a full sync with {@link SyncCodec#recordState(Object, int, SyncState)}.
+ *
+ * Each packet ID keeps a copy of the {@link Sync @Sync} fields it last wrote,
+ * so the next packet only contains the fields that differ from it.
+ * Objects are compared with {@link Object#equals(Object)}, so fields holding
+ * mutable objects that are changed in place must be marked with {@link #markDirty(String)}.
+ * @see NetworkManager#syncChanges(int, Object)
+ */
+public final class SyncState {
+	private final SyncCodec codec;
+	private final Map<Integer, Snapshot> snapshots = new HashMap<>();
+
+	SyncState(SyncCodec codec) {
+		this.codec = codec;
+	}
+
+	/**
+	 * Marks a field as changed, so it is written with the next changes of every packet ID it is synchronized with.
+	 * @param field The name of the field
+	 * @throws IllegalArgumentException If the class has no {@link Sync @Sync} field with that name
+	 */
+	public void markDirty(String field) {
+		if (!codec.hasField(field)) {
+			throw new IllegalArgumentException("No @Sync field named " + field);
+		}
+		snapshots.forEach((id, snapshot) -> {
+			int index = codec.indexOf(id, field);
+			if (index >= 0) {
+				snapshot.dirty[index] = true;
+			}
+		});
+	}
+
+	/**
+	 * Forgets everything that was sent, so the next changes contain all fields.
+	 */
+	public void reset() {
+		snapshots.clear();
+	}
+
+	SyncCodec codec() {
+		return codec;
+	}
+
+	/**
+	 * @param id The packet ID
+	 * @return The snapshot of the packet ID, or null if nothing was written with it yet
+	 */
+	Snapshot snapshot(int id) {
+		return snapshots.get(id);
+	}
+
+	Snapshot snapshot(int id, int size) {
+		return snapshots.computeIfAbsent(id, key -> new Snapshot(size));
+	}
+
+	/**
+	 * The values last written for one packet ID.
+	 * Primitive fields are kept as raw bits, other fields as references.
+	 */
+	static final class Snapshot {
+		final long[] bits;
+		final Object[] values;
+		final boolean[] dirty;
+
+		Snapshot(int size) {
+			this.bits = new long[size];
+			this.values = new Object[size];
+			this.dirty = new boolean[size];
+			Arrays.fill(dirty, true);
+		}
+
+		void clean() {
+			Arrays.fill(dirty, false);
+		}
+	}
+}
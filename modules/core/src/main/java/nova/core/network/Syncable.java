@@ -20,11 +20,11 @@
 
 package nova.core.network;
 
-import nova.core.util.ReflectionUtil;
-
-import java.util.Arrays;
-
 /**
+ * An object that can write its state into a packet, and read it back on the other side.
+ *
+ * The default implementation synchronizes all fields tagged with {@link Sync @Sync}
+ * for the ID of the packet, using the {@link SyncCodec} of the class.
  * @author Calclavia
  */
 public interface Syncable {
@@ -35,22 +35,7 @@ public interface Syncable {
 	 * @param packet - data encoded into the packet.
 	 */
 	default void read(Packet packet) {
-		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, getClass(), (field, annotation) -> {
-			if (Arrays.stream(annotation.ids()).anyMatch(i -> i == packet.getID())) {
-				try {
-					field.setAccessible(true);
-					Object o = field.get(this);
-					if (o instanceof Syncable) {
-						((Syncable) o).read(packet);
-					} else {
-						field.set(this, packet.read(field.getType()));
-					}
-					field.setAccessible(false);
-				} catch (IllegalAccessException e) {
-					e.printStackTrace();
-				}
-			}
-		});
+		SyncCodec.of(getClass()).read(this, packet);
 	}
 
 	/**
@@ -59,24 +44,7 @@ public interface Syncable {
 	 * @param packet - data encoded into the packet
 	 */
 	default void write(Packet packet) {
-		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, getClass(), (field, annotation) -> {
-			if (Arrays.stream(annotation.ids()).anyMatch(i -> i == packet.getID())) {
-				try {
-					field.setAccessible(true);
-					Object value = field.get(this);
-					if(value != null) {
-						packet.write(value);
-					} else {
-						throw new NullPointerException(
-								String.format("Field %s in class: %s is null. Syncing nulls is not supported. Use Optional instead.",
-										field.getName(), getClass()));
-					}
-					field.setAccessible(false);
-				} catch (IllegalAccessException e) {
-					e.printStackTrace();
-				}
-			}
-		});
+		SyncCodec.of(getClass()).write(this, packet);
 	}
 
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A map with weakly referenced keys, compared by identity.
+ * Entries are removed once their key is garbage collected.
+ * @param <K> The key type
+ * @param <V> The value type
+ */
+final class WeakIdentityMap<K, V> {
+	private final Map<Key, V> map = new HashMap<>();
+	private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+	synchronized V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		expunge();
+		Key lookup = new Key(key, null);
+		V value = map.get(lookup);
+		if (value == null) {
+			value = function.apply(key);
+			map.put(new Key(key, queue), value);
+		}
+		return value;
+	}
+
+	synchronized int size() {
+		expunge();
+		return map.size();
+	}
+
+	private void expunge() {
+		for (Reference<?> ref; (ref = queue.poll()) != null; ) {
+			map.remove(ref);
+		}
+	}
+
+	private static final class Key extends WeakReference<Object> {
+		private final int hash;
+
+		Key(Object referent, ReferenceQueue<Object> queue) {
+			super(referent, queue);
+			this.hash = System.identityHashCode(referent);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Object referent = get();
+			return referent != null && referent == ((Key) obj).get();
+		}
+	}
+}
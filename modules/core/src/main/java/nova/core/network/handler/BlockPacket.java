@@ -22,6 +22,8 @@ import nova.core.block.Block;
 import nova.core.entity.Entity;
 import nova.core.network.NetworkException;
 import nova.core.network.Packet;
+import nova.core.network.SyncCodec;
+import nova.core.network.SyncState;
 import nova.core.network.Syncable;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
@@ -59,16 +61,24 @@ public class BlockPacket implements PacketHandler<Block> {
 
 	@Override
 	public void write(Block block, Packet packet) {
-		if (block instanceof Syncable) {
-			Vector3D position = block.position();
-			packet.writeInt((int) position.getX());
-			packet.writeInt((int) position.getY());
-			packet.writeInt((int) position.getZ());
-			((Syncable) block).write(packet);
-			return;
-		}
+		writePosition(block, packet);
+		((Syncable) block).write(packet);
+	}
+
+	@Override
+	public void writeChanges(Block block, Packet packet, SyncState state) {
+		writePosition(block, packet);
+		SyncCodec.of(block.getClass()).writeChanges(block, packet, state);
+	}
 
-		throw new NetworkException("Failed to send packet for block: " + block);
+	private void writePosition(Block block, Packet packet) {
+		if (!(block instanceof Syncable)) {
+			throw new NetworkException("Failed to send packet for block: " + block);
+		}
+		Vector3D position = block.position();
+		packet.writeInt((int) position.getX());
+		packet.writeInt((int) position.getY());
+		packet.writeInt((int) position.getZ());
 	}
 
 	@Override
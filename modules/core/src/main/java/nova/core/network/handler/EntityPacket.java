@@ -23,6 +23,8 @@ package nova.core.network.handler;
 import nova.core.entity.Entity;
 import nova.core.network.NetworkException;
 import nova.core.network.Packet;
+import nova.core.network.SyncCodec;
+import nova.core.network.SyncState;
 import nova.core.network.Syncable;
 
 import java.util.Optional;
@@ -57,13 +59,21 @@ public class EntityPacket implements PacketHandler<Entity> {
 
 	@Override
 	public void write(Entity entity, Packet packet) {
-		if (entity instanceof Syncable) {
-			packet.write(entity.getUniqueID());
-			((Syncable) entity).write(packet);
-			return;
-		}
+		writeID(entity, packet);
+		((Syncable) entity).write(packet);
+	}
+
+	@Override
+	public void writeChanges(Entity entity, Packet packet, SyncState state) {
+		writeID(entity, packet);
+		SyncCodec.of(entity.getClass()).writeChanges(entity, packet, state);
+	}
 
-		throw new NetworkException("Failed to send packet for entity: " + entity);
+	private void writeID(Entity entity, Packet packet) {
+		if (!(entity instanceof Syncable)) {
+			throw new NetworkException("Failed to send packet for entity: " + entity);
+		}
+		packet.write(entity.getUniqueID());
 	}
 
 	@Override
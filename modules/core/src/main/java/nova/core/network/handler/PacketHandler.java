@@ -19,6 +19,7 @@
  */package nova.core.network.handler;
 
 import nova.core.network.Packet;
+import nova.core.network.SyncState;
 
 /**
  * A packet handler handles a certain type of objects.
@@ -31,5 +32,17 @@ public interface PacketHandler<HANDLER> {
 
 	void write(HANDLER handler, Packet packet);
 
+	/**
+	 * Writes the changes of a handler since its state was last written.
+	 * Handlers that can't write changes write their full state.
+	 *
+	 * @param handler The handler
+	 * @param packet The packet
+	 * @param state The sync state of the handler
+	 */
+	default void writeChanges(HANDLER handler, Packet packet, SyncState state) {
+		write(handler, packet);
+	}
+
 	boolean isHandlerFor(Object handler);
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.internal.core.Game;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Writes files on a background thread, so that encoding and disk latency stay off the game thread.
+ *
+ * Every write goes to a temporary file next to the target, which is then atomically moved over the target,
+ * so a crash never leaves a half written file behind.
+ * Writes to a path that has not started yet are replaced by newer writes to the same path.
+ * At most {@code capacity} writes are pending at once, further writes block until the writer catches up.
+ */
+public class AsyncFileWriter implements AutoCloseable {
+
+	/**
+	 * When to force written data to the disk.
+	 */
+	public enum SyncPolicy {
+		/**
+		 * Leave flushing to the operating system. Fastest, but recent writes may be lost on power failure.
+		 */
+		NONE,
+		/**
+		 * Force the file contents to the disk before moving it over the target.
+		 */
+		FILE,
+		/**
+		 * Also force the directory to the disk after the move, so the move itself is durable.
+		 */
+		FILE_AND_DIRECTORY
+	}
+
+	/**
+	 * Encodes the contents of a file.
+	 */
+	@FunctionalInterface
+	public interface Output {
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Any other I/O that must be ordered with the writes to a path.
+	 */
+	@FunctionalInterface
+	public interface Task {
+		void run() throws IOException;
+	}
+
+	/**
+	 * Called on the writer thread when a write fails.
+	 */
+	@FunctionalInterface
+	public interface FailureHandler {
+		void failed(Path path, IOException e);
+	}
+
+	private final int capacity;
+	private final SyncPolicy syncPolicy;
+	private final FailureHandler failureHandler;
+	private final Thread thread;
+
+	private final Object lock = new Object();
+	private final Map<Path, Task> pending = new LinkedHashMap<>();
+	private Path writing;
+	private boolean closed;
+
+	private long written;
+	private long coalesced;
+	private long failed;
+
+	public AsyncFileWriter(String name, int capacity, SyncPolicy syncPolicy, FailureHandler failureHandler) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		this.syncPolicy = Objects.requireNonNull(syncPolicy);
+		this.failureHandler = failureHandler;
+		this.thread = new Thread(this::run, name);
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	public AsyncFileWriter(String name, int capacity, SyncPolicy syncPolicy) {
+		this(name, capacity, syncPolicy, null);
+	}
+
+	/**
+	 * Queues a file to be written.
+	 * Blocks while the queue is full.
+	 * @param path The file to write
+	 * @param output Encodes the contents, called on the writer thread
+	 * @throws IllegalStateException If the writer is closed
+	 */
+	public void write(Path path, Output output) {
+		Objects.requireNonNull(output);
+		Path absolute = path.toAbsolutePath();
+		submit(absolute, () -> writeFile(absolute, output));
+	}
+
+	/**
+	 * Queues a task that is run on the writer thread, in place of writing a file.
+	 * Tasks are coalesced, ordered and bounded by their path just like writes, but the path is only used as a key.
+	 * @param path The path identifying what the task writes
+	 * @param task The task
+	 * @throws IllegalStateException If the writer is closed
+	 */
+	public void submit(Path path, Task task) {
+		Objects.requireNonNull(task);
+		path = path.toAbsolutePath();
+		synchronized (lock) {
+			if (pending.containsKey(path)) {
+				pending.put(path, task);
+				coalesced++;
+				return;
+			}
+
+			boolean interrupted = false;
+			while (pending.size() >= capacity && !closed) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (closed) {
+				throw new IllegalStateException("Writer is closed");
+			}
+			pending.put(path, task);
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Blocks until all writes queued so far are done.
+	 */
+	public void flush() {
+		awaitWhile(() -> !pending.isEmpty() || writing != null);
+	}
+
+	/**
+	 * Blocks until no write to a file is pending, so it can be read.
+	 * @param path The file
+	 */
+	public void flush(Path path) {
+		Path absolute = path.toAbsolutePath();
+		awaitWhile(() -> pending.containsKey(absolute) || absolute.equals(writing));
+	}
+
+	private void awaitWhile(BooleanSupplier condition) {
+		if (Thread.currentThread() == thread) {
+			throw new IllegalStateException("Cannot flush from the writer thread");
+		}
+		boolean interrupted = false;
+		synchronized (lock) {
+			while (condition.getAsBoolean() && thread.isAlive()) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes all pending files and stops the writer thread.
+	 */
+	@Override
+	public void close() {
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public SyncPolicy getSyncPolicy() {
+		return syncPolicy;
+	}
+
+	/**
+	 * @return The number of writes that are queued or in progress
+	 */
+	public int getPendingCount() {
+		synchronized (lock) {
+			return pending.size() + (writing != null ? 1 : 0);
+		}
+	}
+
+	/**
+	 * @return The number of files written
+	 */
+	public long getWrittenCount() {
+		synchronized (lock) {
+			return written;
+		}
+	}
+
+	/**
+	 * @return The number of writes that were replaced by a newer write before they started
+	 */
+	public long getCoalescedCount() {
+		synchronized (lock) {
+			return coalesced;
+		}
+	}
+
+	/**
+	 * @return The number of writes that failed
+	 */
+	public long getFailedCount() {
+		synchronized (lock) {
+			return failed;
+		}
+	}
+
+	private void run() {
+		while (true) {
+			Path path;
+			Task task;
+			synchronized (lock) {
+				while (pending.isEmpty() && !closed) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						// Only close() stops the writer, so pending writes are never lost.
+					}
+				}
+				if (pending.isEmpty()) {
+					lock.notifyAll();
+					return;
+				}
+				Iterator<Map.Entry<Path, Task>> iterator = pending.entrySet().iterator();
+				Map.Entry<Path, Task> next = iterator.next();
+				iterator.remove();
+				path = next.getKey();
+				task = next.getValue();
+				writing = path;
+				lock.notifyAll();
+			}
+
+			IOException error = null;
+			try {
+				task.run();
+			} catch (IOException e) {
+				error = e;
+			} catch (RuntimeException e) {
+				error = new IOException(e);
+			}
+
+			if (error != null) {
+				Game.logger().error("Failed to write {}!", path, error);
+				if (failureHandler != null) {
+					try {
+						failureHandler.failed(path, error);
+					} catch (RuntimeException e) {
+						Game.logger().error("Failure handler of {} failed", path, e);
+					}
+				}
+			}
+
+			synchronized (lock) {
+				if (error != null) {
+					failed++;
+				} else {
+					written++;
+				}
+				writing = null;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	private void writeFile(Path path, Output output) throws IOException {
+		Path directory = path.getParent();
+		if (directory != null) {
+			Files.createDirectories(directory);
+		}
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+			output.write(new UnclosableOutputStream(out));
+			out.flush();
+			if (syncPolicy != SyncPolicy.NONE) {
+				channel.force(true);
+			}
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+
+		try {
+			Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+		}
+
+		if (syncPolicy == SyncPolicy.FILE_AND_DIRECTORY && directory != null) {
+			try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+				channel.force(true);
+			} catch (IOException e) {
+				// Not every platform can open directories, the file itself is already on disk.
+			}
+		}
+	}
+
+	/**
+	 * Keeps encoders that close their stream, such as GZIP streams, from closing the channel before it is forced.
+	 */
+	private static final class UnclosableOutputStream extends FilterOutputStream {
+		UnclosableOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
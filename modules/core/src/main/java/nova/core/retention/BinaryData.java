@@ -0,0 +1,738 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary format for {@link Data}.
+ * <p>
+ * Every entry is written as its key, a type tag and its value. Type tags are
+ * the indices of the value types in {@link Data#dataTypes}. Integers are written
+ * as variable length integers, and every distinct string, key or value, is
+ * only written once per stream and referenced by its index afterwards.
+ * <p>
+ * Format:
+ * <pre>
+ * stream := version:byte data
+ * data   := size:varint (key:string tag:byte value)*
+ * string := 0:varint length:varint utf8:byte* | index + 1:varint
+ * </pre>
+ * @see Data#toBinary()
+ * @see Data#fromBinary(byte[])
+ */
+public final class BinaryData {
+	/**
+	 * The version of the format, written at the start of every stream.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Sources that can not tell how much is left are read in chunks of this size,
+	 * so a bogus length fails at the end of the input instead of allocating up front.
+	 */
+	private static final int CHUNK_SIZE = 8192;
+
+	private static final int TAG_BOOLEAN = tag(Boolean.class);
+	private static final int TAG_BYTE = tag(Byte.class);
+	private static final int TAG_SHORT = tag(Short.class);
+	private static final int TAG_INTEGER = tag(Integer.class);
+	private static final int TAG_LONG = tag(Long.class);
+	private static final int TAG_CHARACTER = tag(Character.class);
+	private static final int TAG_FLOAT = tag(Float.class);
+	private static final int TAG_DOUBLE = tag(Double.class);
+	private static final int TAG_STRING = tag(String.class);
+	private static final int TAG_BIG_INTEGER = tag(BigInteger.class);
+	private static final int TAG_BIG_DECIMAL = tag(BigDecimal.class);
+	private static final int TAG_DATA = tag(Data.class);
+
+	private BinaryData() {
+	}
+
+	private static int tag(Class<?> type) {
+		int tag = Arrays.asList(Data.dataTypes).indexOf(type);
+		if (tag < 0) {
+			throw new IllegalStateException("Missing data type " + type);
+		}
+		return tag;
+	}
+
+	public static void write(Data data, DataOutput out) throws IOException {
+		write(data, new DataOutputSink(out));
+	}
+
+	public static Data read(DataInput in) throws IOException {
+		return read(new DataInputSource(in));
+	}
+
+	/**
+	 * Writes data to a buffer.
+	 * @param data The data
+	 * @param buffer The buffer to write to
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough space left
+	 */
+	public static void write(Data data, ByteBuffer buffer) {
+		try {
+			write(data, new ByteBufferSink(buffer));
+		} catch (IOException e) {
+			throw new DataException(e);
+		}
+	}
+
+	/**
+	 * Reads data from a buffer.
+	 * @param buffer The buffer to read from
+	 * @return The data
+	 * @throws java.nio.BufferUnderflowException if the buffer ends before the data does
+	 */
+	public static Data read(ByteBuffer buffer) {
+		try {
+			return read(new ByteBufferSource(buffer));
+		} catch (IOException e) {
+			throw new DataException(e);
+		}
+	}
+
+	public static byte[] toBytes(Data data) {
+		ByteArraySink bytes = new ByteArraySink();
+		try {
+			write(data, bytes);
+		} catch (IOException e) {
+			throw new DataException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	public static Data fromBytes(byte[] bytes) {
+		try {
+			return read(ByteBuffer.wrap(bytes));
+		} catch (BufferUnderflowException e) {
+			throw new DataException("Unexpected end of data", e);
+		}
+	}
+
+	/**
+	 * Writes data to any byte sink, for example a network packet.
+	 * @param data The data
+	 * @param out The sink
+	 * @throws IOException if the sink fails
+	 */
+	public static void write(Data data, Sink out) throws IOException {
+		out.writeByte(VERSION);
+		new Writer(out).writeData(data);
+	}
+
+	/**
+	 * Reads data from any byte source, for example a network packet.
+	 * @param in The source
+	 * @return The data
+	 * @throws IOException if the source fails
+	 */
+	public static Data read(Source in) throws IOException {
+		int version = in.readByte();
+		if (version != VERSION) {
+			throw new DataException("Unsupported binary data version %s", version);
+		}
+		return new Reader(in).readData();
+	}
+
+	/**
+	 * A destination of bytes.
+	 */
+	public interface Sink {
+		void writeByte(int value) throws IOException;
+
+		void write(byte[] bytes, int offset, int length) throws IOException;
+
+		void writeInt(int value) throws IOException;
+
+		void writeLong(long value) throws IOException;
+	}
+
+	/**
+	 * A source of bytes.
+	 */
+	public interface Source {
+		byte readByte() throws IOException;
+
+		void readFully(byte[] bytes) throws IOException;
+
+		int readInt() throws IOException;
+
+		long readLong() throws IOException;
+
+		/**
+		 * @return The number of bytes left to read, or {@code -1} if unknown
+		 */
+		default int remaining() {
+			return -1;
+		}
+	}
+
+	private static final class Writer {
+		private final Sink out;
+		private final StringTable strings = new StringTable();
+
+		Writer(Sink out) {
+			this.out = out;
+		}
+
+		void writeData(Data data) throws IOException {
+			writeVarInt(data.size());
+			for (Map.Entry<String, Object> entry : data.mapEntries()) {
+				writeString(entry.getKey());
+				writeValue(entry.getKey(), entry.getValue());
+			}
+			data.forEachSlot(this::writeSlot);
+		}
+
+		private void writeSlot(String key, byte type, long value, Object reference) throws IOException {
+			writeString(key);
+			switch (type) {
+				case DataSlots.INT:
+					out.writeByte(TAG_INTEGER);
+					writeVarInt(zigZag((int) value));
+					break;
+				case DataSlots.LONG:
+					out.writeByte(TAG_LONG);
+					writeVarLong(zigZag(value));
+					break;
+				case DataSlots.FLOAT:
+					out.writeByte(TAG_FLOAT);
+					out.writeInt(Float.floatToIntBits(Float.intBitsToFloat((int) value)));
+					break;
+				case DataSlots.DOUBLE:
+					out.writeByte(TAG_DOUBLE);
+					out.writeLong(Double.doubleToLongBits(Double.longBitsToDouble(value)));
+					break;
+				case DataSlots.BOOLEAN:
+					out.writeByte(TAG_BOOLEAN);
+					out.writeByte((int) value);
+					break;
+				case DataSlots.VECTOR3D:
+					out.writeByte(TAG_DATA);
+					writeData(Data.vectorData((Vector3D) reference));
+					break;
+				case DataSlots.VECTOR2D:
+					out.writeByte(TAG_DATA);
+					writeData(Data.vectorData((Vector2D) reference));
+					break;
+				default:
+					throw new DataException("Unsupported slot of type %s for key %s", type, key);
+			}
+		}
+
+		private void writeValue(String key, Object value) throws IOException {
+			if (value instanceof Boolean) {
+				out.writeByte(TAG_BOOLEAN);
+				out.writeByte((Boolean) value ? 1 : 0);
+			} else if (value instanceof Byte) {
+				out.writeByte(TAG_BYTE);
+				out.writeByte((Byte) value);
+			} else if (value instanceof Short) {
+				out.writeByte(TAG_SHORT);
+				writeVarInt(zigZag((Short) value));
+			} else if (value instanceof Integer) {
+				out.writeByte(TAG_INTEGER);
+				writeVarInt(zigZag((Integer) value));
+			} else if (value instanceof Long) {
+				out.writeByte(TAG_LONG);
+				writeVarLong(zigZag((Long) value));
+			} else if (value instanceof Character) {
+				out.writeByte(TAG_CHARACTER);
+				writeVarInt((Character) value);
+			} else if (value instanceof Float) {
+				out.writeByte(TAG_FLOAT);
+				out.writeInt(Float.floatToIntBits((Float) value));
+			} else if (value instanceof Double) {
+				out.writeByte(TAG_DOUBLE);
+				out.writeLong(Double.doubleToLongBits((Double) value));
+			} else if (value instanceof String) {
+				out.writeByte(TAG_STRING);
+				writeString((String) value);
+			} else if (value instanceof BigInteger) {
+				out.writeByte(TAG_BIG_INTEGER);
+				writeBigInteger((BigInteger) value);
+			} else if (value instanceof BigDecimal) {
+				out.writeByte(TAG_BIG_DECIMAL);
+				writeVarInt(zigZag(((BigDecimal) value).scale()));
+				writeBigInteger(((BigDecimal) value).unscaledValue());
+			} else if (value instanceof Data) {
+				out.writeByte(TAG_DATA);
+				writeData((Data) value);
+			} else {
+				throw new DataException("Unsupported value of type %s for key %s", value == null ? null : value.getClass(), key);
+			}
+		}
+
+		private void writeString(String value) throws IOException {
+			strings.write(out, value);
+		}
+
+		private void writeBigInteger(BigInteger value) throws IOException {
+			byte[] bytes = value.toByteArray();
+			writeVarInt(bytes.length);
+			out.write(bytes, 0, bytes.length);
+		}
+
+		private void writeVarInt(int value) throws IOException {
+			BinaryData.writeVarInt(out, value);
+		}
+
+		private void writeVarLong(long value) throws IOException {
+			while ((value & ~0x7FL) != 0) {
+				out.writeByte(((int) value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			out.writeByte((int) value);
+		}
+
+		private static int zigZag(int value) {
+			return (value << 1) ^ (value >> 31);
+		}
+
+		private static long zigZag(long value) {
+			return (value << 1) ^ (value >> 63);
+		}
+	}
+
+	private static final class Reader {
+		/**
+		 * The deepest nesting of data accepted, so malformed input can not overflow the stack.
+		 */
+		private static final int MAX_DEPTH = 512;
+
+		private final Source in;
+		private final StringTable strings = new StringTable();
+		private int depth;
+
+		Reader(Source in) {
+			this.in = in;
+		}
+
+		Data readData() throws IOException {
+			if (++depth > MAX_DEPTH) {
+				throw new DataException("Data nested deeper than %s", MAX_DEPTH);
+			}
+			Data data = new Data();
+			int size = readVarInt();
+			for (int i = 0; i < size; i++) {
+				String key = readString();
+				int tag = in.readByte();
+				if (tag == TAG_INTEGER) {
+					data.putInt(key, unZigZag(readVarInt()));
+				} else if (tag == TAG_LONG) {
+					data.putLong(key, unZigZag(readVarLong()));
+				} else if (tag == TAG_FLOAT) {
+					data.putFloat(key, Float.intBitsToFloat(in.readInt()));
+				} else if (tag == TAG_DOUBLE) {
+					data.putDouble(key, Double.longBitsToDouble(in.readLong()));
+				} else if (tag == TAG_BOOLEAN) {
+					data.putBoolean(key, in.readByte() != 0);
+				} else if ("class".equals(key)) {
+					data.setClassName((String) readValue(tag));
+				} else {
+					data.put(key, readValue(tag));
+				}
+			}
+			depth--;
+			return data;
+		}
+
+		private Object readValue(int tag) throws IOException {
+			if (tag == TAG_BOOLEAN) {
+				return in.readByte() != 0;
+			} else if (tag == TAG_BYTE) {
+				return in.readByte();
+			} else if (tag == TAG_SHORT) {
+				return (short) unZigZag(readVarInt());
+			} else if (tag == TAG_INTEGER) {
+				return unZigZag(readVarInt());
+			} else if (tag == TAG_LONG) {
+				return unZigZag(readVarLong());
+			} else if (tag == TAG_CHARACTER) {
+				return (char) readVarInt();
+			} else if (tag == TAG_FLOAT) {
+				return Float.intBitsToFloat(in.readInt());
+			} else if (tag == TAG_DOUBLE) {
+				return Double.longBitsToDouble(in.readLong());
+			} else if (tag == TAG_STRING) {
+				return readString();
+			} else if (tag == TAG_BIG_INTEGER) {
+				return readBigInteger();
+			} else if (tag == TAG_BIG_DECIMAL) {
+				int scale = unZigZag(readVarInt());
+				return new BigDecimal(readBigInteger(), scale);
+			} else if (tag == TAG_DATA) {
+				return readData();
+			} else {
+				throw new DataException("Unknown type tag %s", tag);
+			}
+		}
+
+		private String readString() throws IOException {
+			return strings.read(in);
+		}
+
+		private BigInteger readBigInteger() throws IOException {
+			byte[] bytes = readBytes();
+			if (bytes.length == 0) {
+				throw new DataException("Empty big integer");
+			}
+			return new BigInteger(bytes);
+		}
+
+		private byte[] readBytes() throws IOException {
+			return BinaryData.readBytes(in);
+		}
+
+		private int readVarInt() throws IOException {
+			return BinaryData.readVarInt(in);
+		}
+
+		private long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 70; shift += 7) {
+				byte b = in.readByte();
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new DataException("Malformed variable length integer");
+		}
+
+		private static int unZigZag(int value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		private static long unZigZag(long value) {
+			return (value >>> 1) ^ -(value & 1);
+		}
+	}
+
+	/**
+	 * A dictionary of the strings written to a stream, in the {@code string} format above.
+	 * Each string is written in full the first time, and as its index afterwards.
+	 * Binary data and compact {@link nova.core.network.Packet packets} both write their strings through it.
+	 *
+	 * The side writing and the side reading each keep their own table, which stay the same
+	 * as long as both see the same strings in the same order, with the same capacity.
+	 * Once the table is full, new strings are always written in full.
+	 */
+	public static final class StringTable {
+		private final int capacity;
+		private final Map<String, Integer> indices = new HashMap<>();
+		private final List<String> strings = new ArrayList<>();
+
+		/**
+		 * Creates a table without a capacity, as used by every binary data stream.
+		 */
+		public StringTable() {
+			this(Integer.MAX_VALUE);
+		}
+
+		/**
+		 * @param capacity The maximum number of strings in the table
+		 */
+		public StringTable(int capacity) {
+			this.capacity = capacity;
+		}
+
+		/**
+		 * @return The number of strings in the table
+		 */
+		public int size() {
+			return strings.size();
+		}
+
+		/**
+		 * Writes a string, or its index if it was written before.
+		 * @param out The sink
+		 * @param value The string
+		 * @throws IOException if the sink fails
+		 */
+		public void write(Sink out, String value) throws IOException {
+			Integer index = indices.get(value);
+			if (index != null) {
+				writeVarInt(out, index + 1);
+				return;
+			}
+
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(out, 0);
+			writeVarInt(out, bytes.length);
+			out.write(bytes, 0, bytes.length);
+			if (strings.size() < capacity) {
+				indices.put(value, strings.size());
+				strings.add(value);
+			}
+		}
+
+		/**
+		 * Reads a string written by {@link #write(Sink, String)}.
+		 * @param in The source
+		 * @return The string
+		 * @throws IOException if the source fails
+		 * @throws DataException if the index is not in the table or the length exceeds the source
+		 */
+		public String read(Source in) throws IOException {
+			int index = readVarInt(in);
+			if (index != 0) {
+				if (index < 0 || index > strings.size()) {
+					throw new DataException("Unknown string reference %s", index);
+				}
+				return strings.get(index - 1);
+			}
+
+			String value = new String(readBytes(in), StandardCharsets.UTF_8);
+			if (strings.size() < capacity) {
+				strings.add(value);
+			}
+			return value;
+		}
+	}
+
+	private static void writeVarInt(Sink out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(Source in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = in.readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new DataException("Malformed variable length integer");
+	}
+
+	private static byte[] readBytes(Source in) throws IOException {
+		int length = readVarInt(in);
+		int remaining = in.remaining();
+		if (length < 0 || (remaining >= 0 && length > remaining)) {
+			throw new DataException("Invalid length %s", length);
+		}
+
+		if (remaining >= 0 || length <= CHUNK_SIZE) {
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return bytes;
+		}
+
+		byte[] bytes = new byte[CHUNK_SIZE];
+		byte[] chunk = new byte[CHUNK_SIZE];
+		for (int read = 0; read < length; read += chunk.length) {
+			if (length - read < chunk.length) {
+				chunk = new byte[length - read];
+			}
+			in.readFully(chunk);
+			if (read + chunk.length > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.min(length, bytes.length * 2));
+			}
+			System.arraycopy(chunk, 0, bytes, read, chunk.length);
+		}
+		return bytes;
+	}
+
+	private static final class DataOutputSink implements Sink {
+		private final DataOutput out;
+
+		DataOutputSink(DataOutput out) {
+			this.out = out;
+		}
+
+		@Override
+		public void writeByte(int value) throws IOException {
+			out.writeByte(value);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			out.write(bytes, offset, length);
+		}
+
+		@Override
+		public void writeInt(int value) throws IOException {
+			out.writeInt(value);
+		}
+
+		@Override
+		public void writeLong(long value) throws IOException {
+			out.writeLong(value);
+		}
+	}
+
+	private static final class DataInputSource implements Source {
+		private final DataInput in;
+
+		DataInputSource(DataInput in) {
+			this.in = in;
+		}
+
+		@Override
+		public byte readByte() throws IOException {
+			return in.readByte();
+		}
+
+		@Override
+		public void readFully(byte[] bytes) throws IOException {
+			in.readFully(bytes);
+		}
+
+		@Override
+		public int readInt() throws IOException {
+			return in.readInt();
+		}
+
+		@Override
+		public long readLong() throws IOException {
+			return in.readLong();
+		}
+	}
+
+	private static final class ByteArraySink implements Sink {
+		private byte[] bytes = new byte[256];
+		private int size;
+
+		private void ensureCapacity(int extra) {
+			if (size + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+			}
+		}
+
+		@Override
+		public void writeByte(int value) {
+			ensureCapacity(1);
+			bytes[size++] = (byte) value;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			ensureCapacity(length);
+			System.arraycopy(bytes, offset, this.bytes, size, length);
+			size += length;
+		}
+
+		@Override
+		public void writeInt(int value) {
+			writeLong(value, 4);
+		}
+
+		@Override
+		public void writeLong(long value) {
+			writeLong(value, 8);
+		}
+
+		private void writeLong(long value, int length) {
+			ensureCapacity(length);
+			for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+				bytes[size++] = (byte) (value >>> shift);
+			}
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, size);
+		}
+	}
+
+	private static final class ByteBufferSink implements Sink {
+		private final ByteBuffer buffer;
+
+		ByteBufferSink(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void writeByte(int value) {
+			buffer.put((byte) value);
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			buffer.put(bytes, offset, length);
+		}
+
+		@Override
+		public void writeInt(int value) {
+			buffer.putInt(value);
+		}
+
+		@Override
+		public void writeLong(long value) {
+			buffer.putLong(value);
+		}
+	}
+
+	private static final class ByteBufferSource implements Source {
+		private final ByteBuffer buffer;
+
+		ByteBufferSource(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public byte readByte() {
+			return buffer.get();
+		}
+
+		@Override
+		public void readFully(byte[] bytes) {
+			buffer.get(bytes);
+		}
+
+		@Override
+		public int readInt() {
+			return buffer.getInt();
+		}
+
+		@Override
+		public long readLong() {
+			return buffer.getLong();
+		}
+
+		@Override
+		public int remaining() {
+			return buffer.remaining();
+		}
+	}
+}
@@ -28,8 +28,8 @@ import javax.json.JsonValue;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonParser;
 
+import java.io.IOException;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -37,12 +37,14 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.LongStream;
 
@@ -107,11 +109,21 @@ public class Data extends HashMap<String, Object> {
 
 	public String className;
 
+	/**
+	 * Values stored through the typed accessors, without boxing.
+	 * Moved into the map as soon as the map is iterated or modified in bulk.
+	 */
+	private transient DataSlots slots;
+
 	public Data() {
 	}
 
 	public Data(Class<?> clazz) {
-		className = clazz.getName();
+		setClassName(clazz.getName());
+	}
+
+	void setClassName(String className) {
+		this.className = className;
 		super.put("class", className);
 	}
 
@@ -239,32 +251,51 @@ public class Data extends HashMap<String, Object> {
 	}
 
 	public void putAll(Data m) {
+		inflate();
 		super.putAll(m);
 	}
 
+	private static boolean isDataType(Class<?> type) {
+		for (Class<?> dataType : dataTypes) {
+			if (dataType.isAssignableFrom(type)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	static Data vectorData(Vector3D vector) {
+		Data vectorData = new Data(Vector3D.class);
+		vectorData.put("x", vector.getX());
+		vectorData.put("y", vector.getY());
+		vectorData.put("z", vector.getZ());
+		return vectorData;
+	}
+
+	static Data vectorData(Vector2D vector) {
+		Data vectorData = new Data(Vector2D.class);
+		vectorData.put("x", vector.getX());
+		vectorData.put("y", vector.getY());
+		return vectorData;
+	}
+
 	@Override
 	@SuppressWarnings({"unchecked", "rawtypes"})
 	public Object put(String key, Object value) {
 		assert key != null && value != null;
 		assert !key.equals("class");
-		final Object check = value;
-		assert Arrays.stream(dataTypes).anyMatch(clazz -> clazz.isAssignableFrom(check.getClass()));
+		assert isDataType(value.getClass());
+
+		Object previous = removeSlot(key);
 
 		if (value instanceof Enum) {
 			Data enumData = new Data(value.getClass());
 			enumData.put("value", ((Enum) value).name());
 			value = enumData;
 		} else if (value instanceof Vector3D) {
-			Data vectorData = new Data(Vector3D.class);
-			vectorData.put("x", ((Vector3D) value).getX());
-			vectorData.put("y", ((Vector3D) value).getY());
-			vectorData.put("z", ((Vector3D) value).getZ());
-			value = vectorData;
+			value = vectorData((Vector3D) value);
 		} else if (value instanceof Vector2D) {
-			Data vectorData = new Data(Vector2D.class);
-			vectorData.put("x", ((Vector2D) value).getX());
-			vectorData.put("y", ((Vector2D) value).getY());
-			value = vectorData;
+			value = vectorData((Vector2D) value);
 		} else if (value instanceof UUID) {
 			Data uuidData = new Data(UUID.class);
 			uuidData.put("uuid", value.toString());
@@ -284,7 +315,367 @@ public class Data extends HashMap<String, Object> {
 			value = serialize((Storable) value);
 		}
 
-		return super.put(key, value);
+		Object replaced = super.put(key, value);
+		return previous != null ? previous : replaced;
+	}
+
+	/**
+	 * Stores an int without boxing it.
+	 * In the map view, the value is an {@link Integer}.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putInt(String key, int value) {
+		putSlot(key, DataSlots.INT, value);
+	}
+
+	/**
+	 * Stores a long without boxing it.
+	 * In the map view, the value is a {@link Long}.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putLong(String key, long value) {
+		putSlot(key, DataSlots.LONG, value);
+	}
+
+	/**
+	 * Stores a float without boxing it.
+	 * In the map view, the value is a {@link Float}.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putFloat(String key, float value) {
+		putSlot(key, DataSlots.FLOAT, Float.floatToRawIntBits(value));
+	}
+
+	/**
+	 * Stores a double without boxing it.
+	 * In the map view, the value is a {@link Double}.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putDouble(String key, double value) {
+		putSlot(key, DataSlots.DOUBLE, Double.doubleToRawLongBits(value));
+	}
+
+	/**
+	 * Stores a boolean without boxing it.
+	 * In the map view, the value is a {@link Boolean}.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putBoolean(String key, boolean value) {
+		putSlot(key, DataSlots.BOOLEAN, value ? 1 : 0);
+	}
+
+	/**
+	 * Stores a vector without converting it into data.
+	 * In the map view, the value is the same data {@link #put(String, Object)} would store.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putVector3D(String key, Vector3D value) {
+		checkKey(key);
+		super.remove(key);
+		slots().putReference(key, DataSlots.VECTOR3D, Objects.requireNonNull(value));
+	}
+
+	/**
+	 * Stores a vector without converting it into data.
+	 * In the map view, the value is the same data {@link #put(String, Object)} would store.
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void putVector2D(String key, Vector2D value) {
+		checkKey(key);
+		super.remove(key);
+		slots().putReference(key, DataSlots.VECTOR2D, Objects.requireNonNull(value));
+	}
+
+	public int getInt(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.INT) {
+			return (int) slots.values[i];
+		}
+		return getNumber(key).intValue();
+	}
+
+	public long getLong(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] <= DataSlots.LONG) {
+			return slots.values[i];
+		}
+		return getNumber(key).longValue();
+	}
+
+	public float getFloat(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.FLOAT) {
+			return Float.intBitsToFloat((int) slots.values[i]);
+		}
+		return getNumber(key).floatValue();
+	}
+
+	public double getDouble(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.DOUBLE) {
+			return Double.longBitsToDouble(slots.values[i]);
+		}
+		return getNumber(key).doubleValue();
+	}
+
+	public boolean getBoolean(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.BOOLEAN) {
+			return slots.values[i] != 0;
+		}
+		Object value = get(key);
+		if (!(value instanceof Boolean)) {
+			throw new DataException("Value for key %s is not a boolean: %s", key, value);
+		}
+		return (Boolean) value;
+	}
+
+	private Number getNumber(String key) {
+		Object value = get(key);
+		if (!(value instanceof Number)) {
+			throw new DataException("Value for key %s is not a number: %s", key, value);
+		}
+		return (Number) value;
+	}
+
+	private static void checkKey(String key) {
+		assert key != null;
+		assert !key.equals("class");
+	}
+
+	private DataSlots slots() {
+		if (slots == null) {
+			slots = new DataSlots();
+		}
+		return slots;
+	}
+
+	private void putSlot(String key, byte type, long value) {
+		checkKey(key);
+		super.remove(key);
+		slots().putLong(key, type, value);
+	}
+
+	private int slotIndex(Object key) {
+		return slots != null && slots.size > 0 && key instanceof String ? slots.indexOf(key) : -1;
+	}
+
+	/**
+	 * Removes the slot of a key.
+	 * @return The boxed value of the slot, or null if there is none
+	 */
+	private Object removeSlot(Object key) {
+		int i = slotIndex(key);
+		if (i < 0) {
+			return null;
+		}
+		Object value = slots.box(i);
+		slots.remove(i);
+		return value;
+	}
+
+	/**
+	 * Moves all slots into the map, so the map can be iterated or modified directly.
+	 */
+	private void inflate() {
+		DataSlots slots = this.slots;
+		if (slots != null && slots.size > 0) {
+			for (int i = 0; i < slots.keys.length; i++) {
+				if (slots.keys[i] != null) {
+					super.put(slots.keys[i], slots.box(i));
+				}
+			}
+			slots.clear();
+		}
+	}
+
+	/**
+	 * Visits the slots without boxing their values.
+	 */
+	void forEachSlot(SlotVisitor visitor) throws IOException {
+		DataSlots slots = this.slots;
+		if (slots != null && slots.size > 0) {
+			for (int i = 0; i < slots.keys.length; i++) {
+				if (slots.keys[i] != null) {
+					visitor.visit(slots.keys[i], slots.types[i], slots.values[i], slots.references != null ? slots.references[i] : null);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return The entries of the map, excluding the slots
+	 */
+	Set<Map.Entry<String, Object>> mapEntries() {
+		return super.entrySet();
+	}
+
+	@FunctionalInterface
+	interface SlotVisitor {
+		void visit(String key, byte type, long value, Object reference) throws IOException;
+	}
+
+	@Override
+	public int size() {
+		return slots != null ? super.size() + slots.size : super.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return slotIndex(key) >= 0 || super.containsKey(key);
+	}
+
+	@Override
+	public Object get(Object key) {
+		int i = slotIndex(key);
+		return i >= 0 ? slots.box(i) : super.get(key);
+	}
+
+	@Override
+	public Object getOrDefault(Object key, Object defaultValue) {
+		int i = slotIndex(key);
+		return i >= 0 ? slots.box(i) : super.getOrDefault(key, defaultValue);
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Object value = removeSlot(key);
+		return value != null ? value : super.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		if (slots != null) {
+			slots.clear();
+		}
+		super.clear();
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		inflate();
+		return super.containsValue(value);
+	}
+
+	@Override
+	public Set<String> keySet() {
+		inflate();
+		return super.keySet();
+	}
+
+	@Override
+	public Collection<Object> values() {
+		inflate();
+		return super.values();
+	}
+
+	@Override
+	public Set<Map.Entry<String, Object>> entrySet() {
+		inflate();
+		return super.entrySet();
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super String, ? super Object> action) {
+		inflate();
+		super.forEach(action);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+		inflate();
+		super.replaceAll(function);
+	}
+
+	@Override
+	public Object putIfAbsent(String key, Object value) {
+		inflate();
+		return super.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		inflate();
+		return super.remove(key, value);
+	}
+
+	@Override
+	public boolean replace(String key, Object oldValue, Object newValue) {
+		inflate();
+		return super.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public Object replace(String key, Object value) {
+		inflate();
+		return super.replace(key, value);
+	}
+
+	@Override
+	public Object computeIfAbsent(String key, Function<? super String, ?> mappingFunction) {
+		inflate();
+		return super.computeIfAbsent(key, mappingFunction);
+	}
+
+	@Override
+	public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+		inflate();
+		return super.computeIfPresent(key, remappingFunction);
+	}
+
+	@Override
+	public Object compute(String key, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+		inflate();
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+		inflate();
+		return super.merge(key, value, remappingFunction);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		inflate();
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		inflate();
+		return super.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		inflate();
+		return super.toString();
+	}
+
+	@Override
+	public Object clone() {
+		inflate();
+		Data clone = (Data) super.clone();
+		clone.slots = null;
+		return clone;
+	}
+
+	private Object writeReplace() {
+		inflate();
+		return this;
 	}
 
 	/**
@@ -296,7 +687,7 @@ public class Data extends HashMap<String, Object> {
 	 */
 	@SuppressWarnings("unchecked")
 	public <T> T get(String key) {
-		return (T) super.get(key);
+		return (T) get((Object) key);
 	}
 
 	public <T extends Enum<T>> T getEnum(String key) {
@@ -311,11 +702,19 @@ public class Data extends HashMap<String, Object> {
 	}
 
 	public Vector3D getVector3D(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.VECTOR3D) {
+			return (Vector3D) slots.references[i];
+		}
 		Data data = get(key);
 		return new Vector3D(data.get("x"), data.get("y"), data.get("z"));
 	}
 
 	public Vector2D getVector2D(String key) {
+		int i = slotIndex(key);
+		if (i >= 0 && slots.types[i] == DataSlots.VECTOR2D) {
+			return (Vector2D) slots.references[i];
+		}
 		Data data = get(key);
 		return new Vector2D(data.get("x"), (double) data.get("y"));
 	}
@@ -357,6 +756,25 @@ public class Data extends HashMap<String, Object> {
 		return UUID.fromString(data.get("uuid"));
 	}
 
+	/**
+	 * Encodes this data in the compact binary format.
+	 * @return The encoded data
+	 * @see BinaryData
+	 */
+	public byte[] toBinary() {
+		return BinaryData.toBytes(this);
+	}
+
+	/**
+	 * Decodes data from the compact binary format.
+	 * @param bytes The encoded data
+	 * @return The data
+	 * @see BinaryData
+	 */
+	public static Data fromBinary(byte[] bytes) {
+		return BinaryData.fromBytes(bytes);
+	}
+
 	public void toJson(JsonGenerator writer) {
 		toJSON(this, writer);
 	}
@@ -369,91 +787,104 @@ public class Data extends HashMap<String, Object> {
 		writeData(writer, Objects.requireNonNull(data), null);
 	}
 
+	/**
+	 * Writes data as JSON. The output is the same as writing it through {@link #toJSON(Data, JsonGenerator)},
+	 * without the overhead of a generator.
+	 * @param data The data
+	 * @return The JSON string
+	 */
 	public static String toJSON(Data data) {
-		StringWriter writer = new StringWriter();
-		try (JsonGenerator gen = Json.createGenerator(writer)) {
-			toJSON(data, gen);
-		}
-		return writer.toString();
+		StringBuilder json = new StringBuilder(256);
+		new DataJsonWriter(json).writeData(Objects.requireNonNull(data));
+		return json.toString();
 	}
 
+	/**
+	 * Reads data from a JSON parser. Objects are read as data, and arrays as collection data.
+	 * @param reader The parser
+	 * @return The data, or collection data if there are multiple root values
+	 */
 	public static Data fromJSON(JsonParser reader) {
 		Set<Data> rootDatas = new HashSet<>();
-		LinkedList<Data> dataStack = new LinkedList<>();
-		LinkedList<String> nameStack = new LinkedList<>();
-		LinkedList<Boolean> arrayStack = new LinkedList<>();
+		Data[] dataStack = new Data[16];
+		// The key of every open container in its parent, and the next index of open arrays, -1 for objects.
+		String[] keyStack = new String[16];
+		long[] indexStack = new long[16];
+		int depth = 0;
+		String name = null;
+
 		while (reader.hasNext()) {
-			switch (reader.next()) {
-				case START_ARRAY: {
-					arrayStack.push(true);
-					dataStack.push(new Data());
-					dataStack.peek().put("isCollection", true);
-					nameStack.push("0");
-					break;
-				} case START_OBJECT: {
-					arrayStack.push(false);
-					dataStack.push(new Data());
+			JsonParser.Event event = reader.next();
+			switch (event) {
+				case START_ARRAY:
+				case START_OBJECT: {
+					String key = depth > 0 ? nextKey(indexStack, depth, name) : null;
+					if (depth == dataStack.length) {
+						dataStack = Arrays.copyOf(dataStack, depth * 2);
+						keyStack = Arrays.copyOf(keyStack, depth * 2);
+						indexStack = Arrays.copyOf(indexStack, depth * 2);
+					}
+					Data data = new Data();
+					if (event == JsonParser.Event.START_ARRAY) {
+						data.put("isCollection", true);
+						indexStack[depth] = 0;
+					} else {
+						indexStack[depth] = -1;
+					}
+					dataStack[depth] = data;
+					keyStack[depth] = key;
+					depth++;
 					break;
 				} case KEY_NAME: {
-					nameStack.push(reader.getString());
+					name = reader.getString();
 					break;
 				} case VALUE_STRING: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, reader.getString());
-					break;
-				} case VALUE_NUMBER: {
-					String key = getKey(nameStack, arrayStack);
-					BigDecimal number = reader.getBigDecimal();
-					if (reader.isIntegralNumber()) {
-						try {
-							dataStack.peek().put(key, number.intValueExact());
-						} catch (ArithmeticException ex) {
-							try {
-								dataStack.peek().put(key, number.longValueExact());
-							} catch (ArithmeticException ex1) {
-								dataStack.peek().put(key, number.toBigInteger());
-							}
-						}
+					requireContainer(depth);
+					String key = nextKey(indexStack, depth, name);
+					if (indexStack[depth - 1] < 0 && "class".equals(key)) {
+						dataStack[depth - 1].setClassName(reader.getString());
 					} else {
-						double d = number.doubleValue();
-						if (d == Double.POSITIVE_INFINITY || d == Double.NEGATIVE_INFINITY)
-							dataStack.peek().put(key, number);
-						else
-							dataStack.peek().put(key, d);
+						dataStack[depth - 1].put(key, reader.getString());
 					}
 					break;
+				} case VALUE_NUMBER: {
+					requireContainer(depth);
+					dataStack[depth - 1].put(nextKey(indexStack, depth, name), readNumber(reader));
+					break;
 				} case VALUE_TRUE: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, true);
+					requireContainer(depth);
+					dataStack[depth - 1].put(nextKey(indexStack, depth, name), true);
 					break;
 				} case VALUE_FALSE: {
-					String key = getKey(nameStack, arrayStack);
-					dataStack.peek().put(key, false);
+					requireContainer(depth);
+					dataStack[depth - 1].put(nextKey(indexStack, depth, name), false);
 					break;
 				} case VALUE_NULL: { // Ignore nulls
-					getKey(nameStack, arrayStack);
+					requireContainer(depth);
+					nextKey(indexStack, depth, name);
 					break;
 				} case END_OBJECT: case END_ARRAY: {
-					arrayStack.pop();
-					Data data = dataStack.pop();
-					if (!dataStack.isEmpty())
-						dataStack.peek().put(nameStack.pop(), data);
+					depth--;
+					Data data = dataStack[depth];
+					dataStack[depth] = null;
+					if (depth > 0)
+						dataStack[depth - 1].put(keyStack[depth], data);
 					else
 						rootDatas.add(data);
 					break;
 				} default:
-					throw new AssertionError(reader.next().name());
+					throw new AssertionError(event.name());
 			}
 		}
 		if (!rootDatas.isEmpty()) {
 			if (rootDatas.size() == 1) {
-				return rootDatas.stream().findFirst().get();
+				return rootDatas.iterator().next();
 			} else {
 				Data root = new Data();
 				root.put("isCollection", true);
 				long l = 0;
 				for (Data data : rootDatas)
-					root.put(Long.toUnsignedString(l++), data);
+					root.put(indexKey(l++), data);
 				return root;
 			}
 		}
@@ -466,14 +897,69 @@ public class Data extends HashMap<String, Object> {
 		}
 	}
 
-	private static String getKey(LinkedList<String> nameStack, LinkedList<Boolean> arrayStack) {
-		if (arrayStack.peek()) {
-			long name = Long.parseUnsignedLong(nameStack.pop());
-			nameStack.push(Long.toUnsignedString(name + 1));
-			return Long.toUnsignedString(name);
+	private static final String[] INDEX_KEYS = LongStream.range(0, 256).mapToObj(Long::toUnsignedString).toArray(String[]::new);
+
+	/**
+	 * Gets the key of an element of collection data.
+	 * @param index The index
+	 * @return The key
+	 */
+	static String indexKey(long index) {
+		return index >= 0 && index < INDEX_KEYS.length ? INDEX_KEYS[(int) index] : Long.toUnsignedString(index);
+	}
+
+	private static String nextKey(long[] indexStack, int depth, String name) {
+		long index = indexStack[depth - 1];
+		if (index < 0) {
+			return name;
+		}
+		indexStack[depth - 1] = index + 1;
+		return indexKey(index);
+	}
+
+	private static void requireContainer(int depth) {
+		if (depth == 0) {
+			throw new DataException("JSON values must be inside an object or an array");
+		}
+	}
+
+	/**
+	 * Reads a number as the smallest of int, long and BigInteger for integral numbers,
+	 * or as a double, falling back to BigDecimal for numbers out of double range.
+	 */
+	private static Object readNumber(JsonParser reader) {
+		String number = reader.getString();
+		if (reader.isIntegralNumber()) {
+			int digits = plainDigits(number);
+			if (digits > 0 && digits <= 9) {
+				return Integer.parseInt(number);
+			} else if (digits > 0 && digits <= 18) {
+				long value = Long.parseLong(number);
+				return (int) value == value ? (Object) (int) value : (Object) value;
+			}
+			// Very long numbers, or integral numbers with a fraction or an exponent, such as 1.0e2
+			BigInteger value = new BigDecimal(number).toBigInteger();
+			return value.bitLength() < 32 ? (Object) value.intValue() : value.bitLength() < 64 ? (Object) value.longValue() : value;
 		} else {
-			return nameStack.pop();
+			double d = Double.parseDouble(number);
+			if (d == Double.POSITIVE_INFINITY || d == Double.NEGATIVE_INFINITY)
+				return new BigDecimal(number);
+			return d;
+		}
+	}
+
+	/**
+	 * @return The number of digits of a number without fraction or exponent, or -1 if it has one
+	 */
+	private static int plainDigits(String number) {
+		int start = number.charAt(0) == '-' ? 1 : 0;
+		for (int i = start; i < number.length(); i++) {
+			char c = number.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
 		}
+		return number.length() - start;
 	}
 
 	private static void writeData(JsonGenerator writer, Data data, String key) {
@@ -527,7 +1013,7 @@ public class Data extends HashMap<String, Object> {
 				}
 			});
 		else
-			LongStream.range(0, data.size()).mapToObj(l -> data.get(Long.toUnsignedString(l))).forEachOrdered(v -> {
+			LongStream.range(0, data.size()).mapToObj(l -> data.get(indexKey(l))).forEachOrdered(v -> {
 				if (v instanceof Data) {
 					writeData(writer, (Data) v, null);
 				} else if (v instanceof Number) {
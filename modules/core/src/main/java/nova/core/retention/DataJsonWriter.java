@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import javax.json.JsonValue;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Map;
+
+/**
+ * Writes {@link Data} as JSON directly into a {@link StringBuilder}.
+ * The output is identical to writing the data through a {@link javax.json.stream.JsonGenerator}.
+ */
+final class DataJsonWriter {
+	private final StringBuilder out;
+
+	DataJsonWriter(StringBuilder out) {
+		this.out = out;
+	}
+
+	void writeData(Data data) {
+		if (Boolean.TRUE.equals(data.get("isCollection"))) {
+			out.append('[');
+			boolean first = true;
+			for (long i = 0, size = data.size(); i < size; i++) {
+				Object value = data.get(Data.indexKey(i));
+				if (isWritable(value)) {
+					if (!first) {
+						out.append(',');
+					}
+					first = false;
+					writeValue(value);
+				}
+			}
+			out.append(']');
+		} else {
+			out.append('{');
+			boolean first = true;
+			for (Map.Entry<String, Object> entry : data.entrySet()) {
+				Object value = entry.getValue();
+				if (isWritable(value)) {
+					if (!first) {
+						out.append(',');
+					}
+					first = false;
+					writeString(entry.getKey());
+					out.append(':');
+					writeValue(value);
+				}
+			}
+			out.append('}');
+		}
+	}
+
+	private static boolean isWritable(Object value) {
+		return value instanceof Data
+			|| value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long
+			|| value instanceof Float || value instanceof Double || value instanceof BigInteger || value instanceof BigDecimal
+			|| value instanceof Boolean || value instanceof Character || value instanceof String || value instanceof JsonValue;
+	}
+
+	private void writeValue(Object value) {
+		if (value instanceof Data) {
+			writeData((Data) value);
+		} else if (value instanceof Byte || value instanceof Short || value instanceof Integer) {
+			out.append(((Number) value).intValue());
+		} else if (value instanceof Long) {
+			out.append((long) (Long) value);
+		} else if (value instanceof Float || value instanceof Double) {
+			double d = ((Number) value).doubleValue();
+			if (Double.isNaN(d) || Double.isInfinite(d)) {
+				throw new NumberFormatException("Non-finite numbers are not allowed in JSON");
+			}
+			out.append(String.valueOf(d));
+		} else if (value instanceof BigInteger || value instanceof BigDecimal) {
+			out.append(value.toString());
+		} else if (value instanceof Boolean) {
+			out.append((boolean) (Boolean) value);
+		} else if (value instanceof Character) {
+			// Characters are written as their code, like JsonGenerator.write(int) does.
+			out.append((int) (Character) value);
+		} else if (value instanceof String) {
+			writeString((String) value);
+		} else {
+			out.append(value.toString());
+		}
+	}
+
+	private void writeString(String string) {
+		out.append('"');
+		int length = string.length();
+		int begin = 0;
+		for (int i = 0; i < length; i++) {
+			char c = string.charAt(i);
+			if (c >= 0x20 && c != '"' && c != '\\') {
+				continue;
+			}
+
+			out.append(string, begin, i);
+			begin = i + 1;
+			switch (c) {
+				case '"':
+				case '\\':
+					out.append('\\').append(c);
+					break;
+				case '\b':
+					out.append("\\b");
+					break;
+				case '\f':
+					out.append("\\f");
+					break;
+				case '\n':
+					out.append("\\n");
+					break;
+				case '\r':
+					out.append("\\r");
+					break;
+				case '\t':
+					out.append("\\t");
+					break;
+				default:
+					String hex = "000" + Integer.toHexString(c);
+					out.append("\\u").append(hex, hex.length() - 4, hex.length());
+			}
+		}
+		out.append(string, begin, length);
+		out.append('"');
+	}
+}
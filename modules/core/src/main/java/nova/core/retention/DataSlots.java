@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing table of primitive values of a {@link Data}, stored without boxing.
+ * Uses linear probing with backward shift deletion, so it never needs tombstones.
+ */
+final class DataSlots {
+	static final byte INT = 1;
+	static final byte LONG = 2;
+	static final byte FLOAT = 3;
+	static final byte DOUBLE = 4;
+	static final byte BOOLEAN = 5;
+	static final byte VECTOR3D = 6;
+	static final byte VECTOR2D = 7;
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	String[] keys = new String[INITIAL_CAPACITY];
+	byte[] types = new byte[INITIAL_CAPACITY];
+	long[] values = new long[INITIAL_CAPACITY];
+	/**
+	 * Vector values, allocated on first use.
+	 */
+	Object[] references;
+	int size;
+
+	private static int hash(String key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @param key The key
+	 * @return The slot of the key, or -1 if it isn't present
+	 */
+	int indexOf(Object key) {
+		int mask = keys.length - 1;
+		for (int i = hash((String) key) & mask; keys[i] != null; i = (i + 1) & mask) {
+			if (keys[i].equals(key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	void putLong(String key, byte type, long value) {
+		int i = insert(key, type);
+		values[i] = value;
+		if (references != null) {
+			references[i] = null;
+		}
+	}
+
+	void putReference(String key, byte type, Object value) {
+		int i = insert(key, type);
+		if (references == null) {
+			references = new Object[keys.length];
+		}
+		references[i] = value;
+	}
+
+	private int insert(String key, byte type) {
+		if ((size + 1) * 2 > keys.length) {
+			resize(keys.length * 2);
+		}
+
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (keys[i] != null && !keys[i].equals(key)) {
+			i = (i + 1) & mask;
+		}
+		if (keys[i] == null) {
+			keys[i] = key;
+			size++;
+		}
+		types[i] = type;
+		return i;
+	}
+
+	private void resize(int capacity) {
+		String[] oldKeys = keys;
+		byte[] oldTypes = types;
+		long[] oldValues = values;
+		Object[] oldReferences = references;
+
+		keys = new String[capacity];
+		types = new byte[capacity];
+		values = new long[capacity];
+		references = oldReferences != null ? new Object[capacity] : null;
+
+		int mask = capacity - 1;
+		for (int j = 0; j < oldKeys.length; j++) {
+			if (oldKeys[j] != null) {
+				int i = hash(oldKeys[j]) & mask;
+				while (keys[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				types[i] = oldTypes[j];
+				values[i] = oldValues[j];
+				if (oldReferences != null) {
+					references[i] = oldReferences[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the slot, moving later entries of the probe sequence back into the gap.
+	 * @param i The slot
+	 */
+	void remove(int i) {
+		int mask = keys.length - 1;
+		int gap = i;
+		for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			// Move the entry if its home slot is not between the gap and itself.
+			if (((j - home) & mask) >= ((j - gap) & mask)) {
+				keys[gap] = keys[j];
+				types[gap] = types[j];
+				values[gap] = values[j];
+				if (references != null) {
+					references[gap] = references[j];
+				}
+				gap = j;
+			}
+		}
+		keys[gap] = null;
+		types[gap] = 0;
+		values[gap] = 0;
+		if (references != null) {
+			references[gap] = null;
+		}
+		size--;
+	}
+
+	void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(types, (byte) 0);
+		if (references != null) {
+			Arrays.fill(references, null);
+		}
+		size = 0;
+	}
+
+	/**
+	 * Boxes the value of a slot into the value the {@link java.util.Map} view of the data holds.
+	 * @param i The slot
+	 * @return The boxed value
+	 */
+	Object box(int i) {
+		switch (types[i]) {
+			case INT:
+				return (int) values[i];
+			case LONG:
+				return values[i];
+			case FLOAT:
+				return Float.intBitsToFloat((int) values[i]);
+			case DOUBLE:
+				return Double.longBitsToDouble(values[i]);
+			case BOOLEAN:
+				return values[i] != 0;
+			case VECTOR3D:
+				return Data.vectorData((Vector3D) references[i]);
+			case VECTOR2D:
+				return Data.vectorData((Vector2D) references[i]);
+			default:
+				throw new IllegalStateException("Unknown slot type " + types[i]);
+		}
+	}
+}
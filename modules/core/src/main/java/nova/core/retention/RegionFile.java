@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * A single region file, holding the records of many keys.
+ *
+ * The file is divided into sectors of {@value #SECTOR_SIZE} bytes.
+ * The first sector holds the file header, followed by an index of {@value #SLOTS} slots.
+ * The index is kept in memory and written through to the file with positional writes,
+ * so no mapping of the file outlives {@link #close()}.
+ * Each slot holds the 64 bit hash of a key and the sectors of its record, and is found by linear probing.
+ * A record holds its length, its compression, its key and its payload.
+ *
+ * Records are always written to free sectors before the slot is switched over to them,
+ * so an interrupted write leaves the previous record intact.
+ * Unless the sync policy is {@link AsyncFileWriter.SyncPolicy#NONE NONE}, a record is forced to the disk before its slot is switched.
+ * The sectors of a replaced record are only reused once the index is forced,
+ * as the index on the disk may still point to them until then.
+ *
+ * A region file holds at most {@value #MAX_ENTRIES} keys, the {@link RegionStore} moves further keys to overflow files.
+ * @see RegionStore
+ */
+final class RegionFile implements Closeable {
+	static final int SECTOR_SIZE = 512;
+	static final int SLOTS = 4096;
+
+	private static final int MAGIC = 0x4E525247; // NRRG
+	private static final int VERSION = 1;
+	private static final int SLOT_SIZE = 16;
+	private static final int INDEX_OFFSET = SECTOR_SIZE;
+	private static final int HEADER_SECTORS = 1 + SLOTS * SLOT_SIZE / SECTOR_SIZE;
+	static final int MAX_ENTRIES = SLOTS * 3 / 4;
+	/**
+	 * Length, compression and key length.
+	 */
+	private static final int RECORD_HEADER = 4 + 1 + 2;
+
+	private final Path path;
+	private final AsyncFileWriter.SyncPolicy syncPolicy;
+	private final FileChannel channel;
+	private final ByteBuffer index = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+	private final BitSet usedSectors = new BitSet();
+	/**
+	 * Sectors of replaced records, which are still in use until the index is forced.
+	 */
+	private final BitSet freedSectors = new BitSet();
+	private int freedCount;
+	private int entries;
+
+	RegionFile(Path path) throws IOException {
+		this(path, AsyncFileWriter.SyncPolicy.NONE);
+	}
+
+	/**
+	 * @param path The file
+	 * @param syncPolicy When to force written records to the disk
+	 */
+	RegionFile(Path path, AsyncFileWriter.SyncPolicy syncPolicy) throws IOException {
+		this.path = path;
+		this.syncPolicy = syncPolicy;
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			boolean created = channel.size() == 0;
+			if (!created && channel.size() < HEADER_SECTORS * SECTOR_SIZE) {
+				throw new IOException("Truncated region file " + path);
+			}
+			if (created) {
+				index.putInt(0, MAGIC);
+				index.putInt(4, VERSION);
+				index.putInt(8, SLOTS);
+				writeFully(index.duplicate(), 0);
+			} else {
+				readFully(index.duplicate(), 0);
+			}
+			if (index.getInt(0) != MAGIC || index.getInt(4) != VERSION || index.getInt(8) != SLOTS) {
+				throw new IOException("Not a region file " + path);
+			}
+
+			usedSectors.set(0, HEADER_SECTORS);
+			for (int slot = 0; slot < SLOTS; slot++) {
+				if (hashAt(slot) != 0) {
+					usedSectors.set(sectorAt(slot), sectorAt(slot) + sectorCountAt(slot));
+					entries++;
+				}
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The number of keys in this region
+	 */
+	synchronized int size() {
+		return entries;
+	}
+
+	/**
+	 * @return The number of sectors in use, including the header and the sectors waiting for the index to be forced
+	 */
+	synchronized int usedSectors() {
+		return usedSectors.cardinality();
+	}
+
+	/**
+	 * @return True if no further key fits into this region
+	 */
+	synchronized boolean isFull() {
+		return entries >= MAX_ENTRIES;
+	}
+
+	synchronized boolean contains(String key) throws IOException {
+		return find(key, hash(key)) >= 0;
+	}
+
+	/**
+	 * Reads the record of a key.
+	 * @param key The key
+	 * @return The record, or null if the key has none
+	 */
+	synchronized Record read(String key) throws IOException {
+		int slot = find(key, hash(key));
+		if (slot < 0) {
+			return null;
+		}
+		ByteBuffer buffer = readRecord(slot);
+		int length = buffer.getInt();
+		byte compression = buffer.get();
+		buffer.position(RECORD_HEADER + (buffer.getShort() & 0xFFFF));
+		byte[] payload = new byte[length - buffer.position()];
+		buffer.get(payload);
+		return new Record(compression, payload);
+	}
+
+	/**
+	 * Writes the record of a key, replacing its previous record.
+	 * @param key The key
+	 * @param compression The compression of the payload
+	 * @param payload The payload
+	 */
+	synchronized void write(String key, byte compression, byte[] payload) throws IOException {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		if (keyBytes.length > 0xFFFF) {
+			throw new IOException("Key too long: " + key);
+		}
+
+		long hash = hash(key);
+		int slot = find(key, hash);
+		if (slot < 0) {
+			if (entries >= MAX_ENTRIES) {
+				throw new IOException("Region file is full: " + path);
+			}
+			slot = -slot - 1;
+		}
+
+		int length = RECORD_HEADER + keyBytes.length + payload.length;
+		int sectorCount = (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+		int sector = allocate(sectorCount);
+
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.putInt(length);
+		buffer.put(compression);
+		buffer.putShort((short) keyBytes.length);
+		buffer.put(keyBytes);
+		buffer.put(payload);
+		buffer.flip();
+		writeFully(buffer, (long) sector * SECTOR_SIZE);
+		if (syncPolicy != AsyncFileWriter.SyncPolicy.NONE) {
+			// The record has to be on the disk before the index points to it
+			channel.force(false);
+		}
+
+		boolean replaced = hashAt(slot) != 0;
+		if (replaced) {
+			freedSectors.set(sectorAt(slot), sectorAt(slot) + sectorCountAt(slot));
+			freedCount += sectorCountAt(slot);
+		} else {
+			entries++;
+		}
+		int offset = INDEX_OFFSET + slot * SLOT_SIZE;
+		index.putInt(offset + 8, sector);
+		index.putInt(offset + 12, sectorCount);
+		index.putLong(offset, hash);
+		writeFully(ByteBuffer.wrap(index.array(), offset, SLOT_SIZE), offset);
+
+		if (syncPolicy == AsyncFileWriter.SyncPolicy.FILE_AND_DIRECTORY) {
+			force();
+		}
+	}
+
+	/**
+	 * Forces the records and the index to the disk, after which the sectors of replaced records can be reused.
+	 */
+	synchronized void force() throws IOException {
+		channel.force(false);
+		usedSectors.andNot(freedSectors);
+		freedSectors.clear();
+		freedCount = 0;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Finds the first run of free sectors that is long enough, growing the file if there is none.
+	 * If many sectors wait for the index to be forced, the records and the index are forced first, to reuse them.
+	 */
+	private int allocate(int sectorCount) throws IOException {
+		int start = usedSectors.nextClearBit(HEADER_SECTORS);
+		while (true) {
+			int end = usedSectors.nextSetBit(start);
+			if (end < 0 && freedCount >= sectorCount && freedCount > (usedSectors.cardinality() - HEADER_SECTORS) / 4) {
+				force();
+				start = usedSectors.nextClearBit(HEADER_SECTORS);
+				continue;
+			}
+			if (end < 0 || end - start >= sectorCount) {
+				usedSectors.set(start, start + sectorCount);
+				return start;
+			}
+			start = usedSectors.nextClearBit(end);
+		}
+	}
+
+	/**
+	 * @return The slot of the key, or {@code -slot - 1} of the empty slot it would go in
+	 */
+	private int find(String key, long hash) throws IOException {
+		int mask = SLOTS - 1;
+		for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+			long slotHash = hashAt(slot);
+			if (slotHash == 0) {
+				return -slot - 1;
+			}
+			if (slotHash == hash && key.equals(keyAt(slot))) {
+				return slot;
+			}
+		}
+	}
+
+	private String keyAt(int slot) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER);
+		readFully(header, (long) sectorAt(slot) * SECTOR_SIZE);
+		byte[] key = new byte[header.getShort(5) & 0xFFFF];
+		readFully(ByteBuffer.wrap(key), (long) sectorAt(slot) * SECTOR_SIZE + RECORD_HEADER);
+		return new String(key, StandardCharsets.UTF_8);
+	}
+
+	private ByteBuffer readRecord(int slot) throws IOException {
+		long position = (long) sectorAt(slot) * SECTOR_SIZE;
+		ByteBuffer length = ByteBuffer.allocate(4);
+		readFully(length, position);
+		int recordLength = length.getInt(0);
+		if (recordLength < RECORD_HEADER || recordLength > sectorCountAt(slot) * SECTOR_SIZE) {
+			throw new IOException("Corrupt record in region file " + path);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(recordLength);
+		readFully(buffer, position);
+		buffer.flip();
+		return buffer;
+	}
+
+	private void writeFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int read = channel.read(buffer, position);
+			if (read < 0) {
+				throw new IOException("Unexpected end of region file " + path);
+			}
+			position += read;
+		}
+	}
+
+	private long hashAt(int slot) {
+		return index.getLong(INDEX_OFFSET + slot * SLOT_SIZE);
+	}
+
+	private int sectorAt(int slot) {
+		return index.getInt(INDEX_OFFSET + slot * SLOT_SIZE + 8);
+	}
+
+	private int sectorCountAt(int slot) {
+		return index.getInt(INDEX_OFFSET + slot * SLOT_SIZE + 12);
+	}
+
+	/**
+	 * A 64 bit FNV-1a hash of the key, never 0 as that marks empty slots.
+	 */
+	private static long hash(String key) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < key.length(); i++) {
+			hash ^= key.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * The payload of a key, as it is stored in the file.
+	 */
+	static final class Record {
+		final byte compression;
+		final byte[] payload;
+
+		Record(byte compression, byte[] payload) {
+			this.compression = compression;
+			this.payload = payload;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves loose GZIP compressed {@code .nbt} files, one per key, into a {@link RegionStore}.
+ *
+ * The files are stored as they are, so their contents are not decoded.
+ * Only the files directly in the directory are migrated, as other files may belong to the game.
+ * The key of a file is its name without the extension.
+ *
+ * Can be run on a save directory with {@code RegionMigration <directory> [region directory] [--delete]}.
+ */
+public final class RegionMigration {
+	public static final String LOOSE_EXTENSION = ".nbt";
+	/**
+	 * The directory next to the loose files that regions are kept in by default.
+	 */
+	public static final String DEFAULT_DIRECTORY = "nova_regions";
+
+	private RegionMigration() {
+	}
+
+	/**
+	 * Migrates all loose files of a directory.
+	 * @param directory The directory with the loose files
+	 * @param store The store to move them into
+	 * @param delete True to delete each file once it is stored
+	 * @return The number of migrated files
+	 * @throws IOException If a file could not be read or stored
+	 */
+	public static int migrate(Path directory, RegionStore store, boolean delete) throws IOException {
+		List<Path> files;
+		try (Stream<Path> list = Files.list(directory)) {
+			files = list
+				.filter(Files::isRegularFile)
+				.filter(file -> file.getFileName().toString().endsWith(LOOSE_EXTENSION))
+				.collect(Collectors.toCollection(ArrayList::new));
+		}
+
+		for (Path file : files) {
+			store.write(key(file), Files.readAllBytes(file), RegionStore.Compression.GZIP);
+		}
+		// Only delete the files once all of them are safely in the regions.
+		store.force();
+		if (delete) {
+			for (Path file : files) {
+				Files.delete(file);
+			}
+		}
+		return files.size();
+	}
+
+	/**
+	 * @return The key a loose file is stored as
+	 */
+	public static String key(Path file) {
+		String name = file.getFileName().toString();
+		return name.substring(0, name.length() - LOOSE_EXTENSION.length());
+	}
+
+	public static void main(String[] args) throws IOException {
+		List<String> arguments = new ArrayList<>();
+		boolean delete = false;
+		for (String arg : args) {
+			if (arg.equals("--delete")) {
+				delete = true;
+			} else {
+				arguments.add(arg);
+			}
+		}
+		if (arguments.isEmpty() || arguments.size() > 2) {
+			System.err.println("Usage: RegionMigration <directory> [region directory] [--delete]");
+			System.exit(1);
+			return;
+		}
+
+		Path directory = Paths.get(arguments.get(0));
+		Path regions = arguments.size() > 1 ? Paths.get(arguments.get(1)) : directory.resolve(DEFAULT_DIRECTORY);
+		try (RegionStore store = new RegionStore(regions)) {
+			int count = migrate(directory, store, delete);
+			System.out.println("Migrated " + count + " files into " + regions);
+		}
+	}
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the data of many keys in a few region files, instead of one file per key.
+ *
+ * Keys are spread over a fixed number of region files by their hash,
+ * and every record is compressed on its own, so it can be read and replaced without touching the others.
+ * Region files are opened on first use, and stay open until the store is closed.
+ * Once a region file is full, new keys of that region go to an overflow file next to it.
+ * @see RegionMigration
+ */
+public class RegionStore implements Closeable {
+
+	/**
+	 * The compression of a stored record.
+	 */
+	public enum Compression {
+		NONE,
+		DEFLATE,
+		GZIP
+	}
+
+	public static final String EXTENSION = ".nrg";
+
+	private final Path directory;
+	private final AsyncFileWriter.SyncPolicy syncPolicy;
+	/**
+	 * The files of each region, the first one followed by its overflow files.
+	 * Null until the region is first used.
+	 */
+	private final List<List<RegionFile>> regions;
+
+	/**
+	 * @param directory The directory to keep the region files in
+	 * @param regionCount The number of region files to spread the keys over, a power of two
+	 * @param syncPolicy When to force written records to the disk. Records are always forced by {@link #force()}.
+	 */
+	public RegionStore(Path directory, int regionCount, AsyncFileWriter.SyncPolicy syncPolicy) {
+		if (regionCount <= 0 || Integer.bitCount(regionCount) != 1) {
+			throw new IllegalArgumentException("Region count must be a power of two: " + regionCount);
+		}
+		this.directory = directory;
+		this.syncPolicy = Objects.requireNonNull(syncPolicy);
+		this.regions = new ArrayList<>(Collections.nCopies(regionCount, null));
+	}
+
+	public RegionStore(Path directory, int regionCount) {
+		this(directory, regionCount, AsyncFileWriter.SyncPolicy.NONE);
+	}
+
+	public RegionStore(Path directory, AsyncFileWriter.SyncPolicy syncPolicy) {
+		this(directory, 16, syncPolicy);
+	}
+
+	public RegionStore(Path directory) {
+		this(directory, 16);
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Compresses and stores the data of a key.
+	 * @param key The key
+	 * @param data The uncompressed data
+	 * @throws IOException If the data could not be written
+	 */
+	public void write(String key, byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 2 + 16);
+		try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+			out.write(data);
+		}
+		write(key, bytes.toByteArray(), Compression.DEFLATE);
+	}
+
+	/**
+	 * Stores data that is already compressed, as is.
+	 * @param key The key
+	 * @param payload The compressed data
+	 * @param compression The compression of the data
+	 * @throws IOException If the data could not be written
+	 */
+	public void write(String key, byte[] payload, Compression compression) throws IOException {
+		int region = regionIndex(key);
+		List<RegionFile> files = region(region);
+		synchronized (files) {
+			RegionFile target = null;
+			for (RegionFile file : files) {
+				if (file.contains(key)) {
+					target = file;
+					break;
+				}
+				if (target == null && !file.isFull()) {
+					target = file;
+				}
+			}
+			if (target == null) {
+				target = openOverflow(region, files);
+			}
+			target.write(key, (byte) compression.ordinal(), payload);
+		}
+	}
+
+	/**
+	 * Reads and decompresses the data of a key.
+	 * @param key The key
+	 * @return The uncompressed data, or null if the key is not stored
+	 * @throws IOException If the data could not be read
+	 */
+	public byte[] read(String key) throws IOException {
+		RegionFile.Record record = null;
+		for (RegionFile file : region(regionIndex(key))) {
+			record = file.read(key);
+			if (record != null) {
+				break;
+			}
+		}
+		if (record == null) {
+			return null;
+		}
+
+		if (record.compression == Compression.NONE.ordinal()) {
+			return record.payload;
+		} else if (record.compression == Compression.DEFLATE.ordinal()) {
+			return readFully(new InflaterInputStream(new ByteArrayInputStream(record.payload)), record.payload.length * 4);
+		} else if (record.compression == Compression.GZIP.ordinal()) {
+			return readFully(new GZIPInputStream(new ByteArrayInputStream(record.payload)), record.payload.length * 4);
+		}
+		throw new IOException("Unknown compression " + record.compression + " of " + key);
+	}
+
+	public boolean contains(String key) throws IOException {
+		for (RegionFile file : region(regionIndex(key))) {
+			if (file.contains(key)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The number of keys in the region files opened so far
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (List<RegionFile> files : regions) {
+			if (files != null) {
+				for (RegionFile file : files) {
+					size += file.size();
+				}
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Forces all open region files to the disk.
+	 * @throws IOException If a region file could not be forced
+	 */
+	public synchronized void force() throws IOException {
+		for (List<RegionFile> files : regions) {
+			if (files != null) {
+				for (RegionFile file : files) {
+					file.force();
+				}
+			}
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		IOException error = null;
+		for (int i = 0; i < regions.size(); i++) {
+			if (regions.get(i) != null) {
+				for (RegionFile file : regions.get(i)) {
+					try {
+						file.close();
+					} catch (IOException e) {
+						error = e;
+					}
+				}
+				regions.set(i, null);
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+
+	/**
+	 * Opens the files of the region of a key, the region file itself followed by the overflow files that exist.
+	 */
+	private synchronized List<RegionFile> region(int i) throws IOException {
+		List<RegionFile> files = regions.get(i);
+		if (files == null) {
+			Files.createDirectories(directory);
+			files = new CopyOnWriteArrayList<>();
+			files.add(new RegionFile(regionPath(i, 0), syncPolicy));
+			for (int overflow = 1; Files.exists(regionPath(i, overflow)); overflow++) {
+				files.add(new RegionFile(regionPath(i, overflow), syncPolicy));
+			}
+			regions.set(i, files);
+		}
+		return files;
+	}
+
+	private int regionIndex(String key) {
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & (regions.size() - 1);
+	}
+
+	private RegionFile openOverflow(int region, List<RegionFile> files) throws IOException {
+		RegionFile file = new RegionFile(regionPath(region, files.size()), syncPolicy);
+		files.add(file);
+		return file;
+	}
+
+	private Path regionPath(int region, int overflow) {
+		return directory.resolve(overflow == 0 ? "region." + region + EXTENSION : "region." + region + "." + overflow + EXTENSION);
+	}
+
+	private static byte[] readFully(InputStream in, int sizeHint) throws IOException {
+		try (InputStream input = in) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint);
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = input.read(buffer)) >= 0) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -20,14 +20,6 @@
 
 package nova.core.retention;
 
-import nova.core.util.ReflectionUtil;
-
-import java.math.BigDecimal;
-import java.math.BigInteger;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
-
 /**
  * Classes with this interface declare ability to store and load itself.
  * Therefore, classes using this interface must have an empty constructor for new instantiation from load.
@@ -38,87 +30,45 @@ public interface Storable {
 	 * Saves all the data of this object.
 	 * See {@link Data} for what data is storable.
 	 *
-	 * The default implementation saves all fields tagged with {@link Store @Store}.
+	 * The default implementation saves all fields tagged with {@link Store @Store},
+	 * using the {@link StorableCodec} of the class.
 	 *
 	 * @param data The data object to put values in.
 	 */
 	default void save(Data data) {
-		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, getClass(), (field, annotation) -> {
-			try {
-				field.setAccessible(true);
-				String name = annotation.key();
-				if (name.isEmpty()) {
-					name = field.getName();
-					assert !Data.ILLEGAL_SUFFIX.matcher(name).find();
-				}
-				data.put(name, field.get(this));
-				field.setAccessible(false);
-			} catch (Exception e) {
-				e.printStackTrace();
-			}
-		});
+		StorableCodec.of(getClass()).save(this, data);
 	}
 
 	/**
 	 * Loads all the data for this object.
 	 * See {@link Data} for what data is storable.
 	 *
-	 * The default implementation loads all fields tagged with {@link Store @Store}.
+	 * The default implementation loads all fields tagged with {@link Store @Store},
+	 * using the {@link StorableCodec} of the class.
 	 *
 	 * @param data The data object to load values from.
 	 */
 	default void load(Data data) {
-		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, getClass(), (field, annotation) -> {
-			String name = annotation.key();
-			if (name.isEmpty()) {
-				name = field.getName();
-				assert !Data.ILLEGAL_SUFFIX.matcher(name).find();
-			}
-			if (data.containsKey(name)) {
-				try {
-					field.setAccessible(true);
-					Class<?> type = field.getType();
-					Object fieldValue = field.get(this);
-					Object value = data.get(name);
-					if (Storable.class.isAssignableFrom(type) || value instanceof Data) {
-						if (fieldValue instanceof Storable && value instanceof Data) {
-							//We already have an instance. Don't need to create the object.
-							((Storable) fieldValue).load((Data) value);
-						} else if (Collection.class.isAssignableFrom(type)) {
-							if (List.class.isAssignableFrom(type)) {
-								field.set(this, Data.unserialize((Data) value));
-							} else {
-								Collection<?> collection = (Collection) type.getDeclaredConstructor().newInstance();
-								field.set(this, collection.addAll(Data.unserialize((Data) value)));
-							}
-						} else {
-							field.set(this, Data.unserialize((Data) value));
-						}
-					} else if (BigInteger.class.isAssignableFrom(type)) {
-						if (value instanceof BigInteger)
-							field.set(this, value);
-						else
-							field.set(this, new BigInteger(Objects.toString(value)));
-					} else if (BigDecimal.class.isAssignableFrom(type)) {
-						if (value instanceof BigDecimal)
-							field.set(this, value);
-						else
-							field.set(this, new BigDecimal(Objects.toString(value)));
-					} else if (value instanceof BigInteger) {
-						if (int.class.isAssignableFrom(type) || Integer.class.isAssignableFrom(type))
-							field.set(this, ((BigInteger) value).intValue());
-						else
-							field.set(this, ((BigInteger) value).longValue());
-					} else if (value instanceof BigDecimal) {
-						field.set(this, ((BigDecimal) value).doubleValue());
-					} else {
-						field.set(this, value);
-					}
-					field.setAccessible(false);
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-		});
+		StorableCodec.of(getClass()).load(this, data);
+	}
+
+	/**
+	 * Checks if this object changed since it was last saved.
+	 * A {@link nova.core.util.registry.RetentionManager} skips objects that are not dirty when saving.
+	 *
+	 * The default implementation always returns true, so the object is saved every time.
+	 * Objects that track their changes should override both this and {@link #markClean()}.
+	 *
+	 * @return True if this object needs to be saved.
+	 */
+	default boolean isDirty() {
+		return true;
+	}
+
+	/**
+	 * Called once this object has been saved, so that {@link #isDirty()} returns false until it changes again.
+	 */
+	default void markClean() {
+
 	}
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.ReflectionUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Saves and loads the {@link Store @Store} fields of a class.
+ *
+ * The fields are resolved once per class, and accessed through method handles
+ * instead of reflection on every call. Primitive fields are saved with the typed
+ * puts of {@link Data}, without boxing. The resulting {@link Data} is the same as
+ * the one produced by reflectively iterating the fields.
+ * @see Storable
+ */
+public final class StorableCodec {
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final ClassValue<StorableCodec> CODECS = new ClassValue<StorableCodec>() {
+		@Override
+		protected StorableCodec computeValue(Class<?> type) {
+			return new StorableCodec(type);
+		}
+	};
+
+	private final FieldCodec[] fields;
+
+	private StorableCodec(Class<?> type) {
+		List<FieldCodec> fields = new ArrayList<>();
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, type, (field, annotation) -> {
+			String name = annotation.key();
+			if (name.isEmpty()) {
+				name = field.getName();
+				assert !Data.ILLEGAL_SUFFIX.matcher(name).find();
+			}
+			fields.add(new FieldCodec(field, name));
+		});
+		this.fields = fields.toArray(new FieldCodec[0]);
+	}
+
+	/**
+	 * Gets the codec of a class, building it on first use.
+	 * @param type The class
+	 * @return The codec
+	 */
+	public static StorableCodec of(Class<?> type) {
+		return CODECS.get(type);
+	}
+
+	/**
+	 * Saves all {@link Store @Store} fields of an object.
+	 * @param storable The object
+	 * @param data The data to put the values in
+	 */
+	public void save(Object storable, Data data) {
+		for (FieldCodec field : fields) {
+			try {
+				field.save(storable, data);
+			} catch (Error e) {
+				throw e;
+			} catch (Throwable e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Loads all {@link Store @Store} fields of an object that are present in the data.
+	 * @param storable The object
+	 * @param data The data to load the values from
+	 */
+	public void load(Object storable, Data data) {
+		for (FieldCodec field : fields) {
+			if (data.containsKey(field.name)) {
+				try {
+					field.load(storable, data.get(field.name));
+				} catch (Error e) {
+					throw e;
+				} catch (Throwable e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static final class FieldCodec {
+		final String name;
+		final Class<?> type;
+		final MethodHandle getter;
+		/**
+		 * The getter returning the primitive type of the field, if {@link Data} has a typed put for it.
+		 */
+		final MethodHandle primitiveGetter;
+		final MethodHandle setter;
+		final boolean storable;
+		final boolean integer;
+
+		FieldCodec(Field field, String name) {
+			this.name = name;
+			this.type = field.getType();
+			this.storable = Storable.class.isAssignableFrom(type);
+			this.integer = type == int.class || type == Integer.class;
+
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+			MethodHandle getter;
+			try {
+				getter = lookup.unreflectGetter(field);
+				if (isStatic) {
+					getter = MethodHandles.dropArguments(getter, 0, Object.class);
+				}
+			} catch (IllegalAccessException e) {
+				throw new ReflectionUtil.ReflectionException(e);
+			}
+			this.getter = getter.asType(GETTER_TYPE);
+			this.primitiveGetter = type == int.class || type == long.class || type == float.class || type == double.class || type == boolean.class
+				? getter.asType(MethodType.methodType(type, Object.class))
+				: null;
+
+			MethodHandle setter;
+			try {
+				setter = lookup.unreflectSetter(field);
+				MethodHandle widen = widening(type);
+				if (widen != null) {
+					setter = MethodHandles.filterArguments(setter, isStatic ? 0 : 1, widen);
+				}
+				if (isStatic) {
+					setter = MethodHandles.dropArguments(setter, 0, Object.class);
+				}
+				setter = setter.asType(SETTER_TYPE);
+			} catch (IllegalAccessException e) {
+				// Static final fields can't be written, fail the same way reflection would once the field is loaded.
+				setter = MethodHandles.dropArguments(
+					MethodHandles.throwException(void.class, IllegalAccessException.class).bindTo(e),
+					0, Object.class, Object.class);
+			}
+			this.setter = setter;
+		}
+
+		void save(Object storable, Data data) throws Throwable {
+			if (primitiveGetter == null) {
+				data.put(name, (Object) getter.invokeExact(storable));
+			} else if (type == int.class) {
+				data.putInt(name, (int) primitiveGetter.invokeExact(storable));
+			} else if (type == long.class) {
+				data.putLong(name, (long) primitiveGetter.invokeExact(storable));
+			} else if (type == float.class) {
+				data.putFloat(name, (float) primitiveGetter.invokeExact(storable));
+			} else if (type == double.class) {
+				data.putDouble(name, (double) primitiveGetter.invokeExact(storable));
+			} else {
+				data.putBoolean(name, (boolean) primitiveGetter.invokeExact(storable));
+			}
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		void load(Object storable, Object value) throws Throwable {
+			if (this.storable || value instanceof Data) {
+				Object fieldValue = (Object) getter.invokeExact(storable);
+				if (fieldValue instanceof Storable && value instanceof Data) {
+					//We already have an instance. Don't need to create the object.
+					((Storable) fieldValue).load((Data) value);
+				} else if (Collection.class.isAssignableFrom(type)) {
+					if (List.class.isAssignableFrom(type)) {
+						set(storable, Data.unserialize((Data) value));
+					} else {
+						Collection collection = (Collection) type.getDeclaredConstructor().newInstance();
+						collection.addAll(Data.unserialize((Data) value));
+						set(storable, collection);
+					}
+				} else {
+					set(storable, Data.unserialize((Data) value));
+				}
+			} else if (BigInteger.class.isAssignableFrom(type)) {
+				set(storable, value instanceof BigInteger ? value : new BigInteger(Objects.toString(value)));
+			} else if (BigDecimal.class.isAssignableFrom(type)) {
+				set(storable, value instanceof BigDecimal ? value : new BigDecimal(Objects.toString(value)));
+			} else if (value instanceof BigInteger) {
+				set(storable, integer ? (Object) ((BigInteger) value).intValue() : (Object) ((BigInteger) value).longValue());
+			} else if (value instanceof BigDecimal) {
+				set(storable, ((BigDecimal) value).doubleValue());
+			} else {
+				set(storable, value);
+			}
+		}
+
+		private void set(Object storable, Object value) throws Throwable {
+			setter.invokeExact(storable, value);
+		}
+	}
+
+	/**
+	 * Gets a handle that applies the widening conversions reflection would,
+	 * such as an Integer into a long field.
+	 * @param type The type of the field
+	 * @return The conversion from any value to the primitive type, or null if nothing widens to it
+	 */
+	private static MethodHandle widening(Class<?> type) {
+		if (type != short.class && type != int.class && type != long.class && type != float.class && type != double.class) {
+			return null;
+		}
+		String name = "widenTo" + Character.toUpperCase(type.getName().charAt(0)) + type.getName().substring(1);
+		try {
+			return MethodHandles.lookup().findStatic(StorableCodec.class, name, MethodType.methodType(type, Object.class));
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			throw new ReflectionUtil.ReflectionException(e);
+		}
+	}
+
+	private static short widenToShort(Object value) {
+		if (value instanceof Short || value instanceof Byte) {
+			return ((Number) value).shortValue();
+		}
+		throw cannotWiden(value, short.class);
+	}
+
+	private static int widenToInt(Object value) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).intValue();
+		} else if (value instanceof Character) {
+			return (Character) value;
+		}
+		throw cannotWiden(value, int.class);
+	}
+
+	private static long widenToLong(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		} else if (value instanceof Character) {
+			return (Character) value;
+		}
+		throw cannotWiden(value, long.class);
+	}
+
+	private static float widenToFloat(Object value) {
+		if (value instanceof Float || value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).floatValue();
+		} else if (value instanceof Character) {
+			return (Character) value;
+		}
+		throw cannotWiden(value, float.class);
+	}
+
+	private static double widenToDouble(Object value) {
+		if (value instanceof Double || value instanceof Float || value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).doubleValue();
+		} else if (value instanceof Character) {
+			return (Character) value;
+		}
+		throw cannotWiden(value, double.class);
+	}
+
+	private static IllegalArgumentException cannotWiden(Object value, Class<?> type) {
+		return new IllegalArgumentException("Can not set " + type + " field to " + (value == null ? "null" : value.getClass().getName()));
+	}
+}
@@ -26,12 +26,16 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 public class ReflectionUtil {
 
@@ -285,6 +289,65 @@ public class ReflectionUtil {
 		}
 	}
 
+	/**
+	 * The annotated fields declared by a class, per annotation type.
+	 */
+	private static final ClassValue<Map<Class<? extends Annotation>, List<AnnotatedField<?>>>> DECLARED_ANNOTATED_FIELDS = new ClassValue<Map<Class<? extends Annotation>, List<AnnotatedField<?>>>>() {
+		@Override
+		protected Map<Class<? extends Annotation>, List<AnnotatedField<?>>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * The annotated fields of a class and all its super classes, per annotation type.
+	 */
+	private static final ClassValue<Map<Class<? extends Annotation>, List<AnnotatedField<?>>>> RECURSIVE_ANNOTATED_FIELDS = new ClassValue<Map<Class<? extends Annotation>, List<AnnotatedField<?>>>>() {
+		@Override
+		protected Map<Class<? extends Annotation>, List<AnnotatedField<?>>> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	/**
+	 * Gets the fields declared by a class that are annotated with the specified annotation.
+	 * The fields are resolved once per class and annotation, and are already accessible.
+	 *
+	 * @param <T> The annotation type
+	 * @param annotation The annotation type
+	 * @param clazz The class to scan
+	 * @return An unmodifiable list of the annotated fields in declaration order
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <T extends Annotation> List<AnnotatedField<T>> getDeclaredAnnotatedFields(Class<T> annotation, Class<?> clazz) {
+		return (List) DECLARED_ANNOTATED_FIELDS.get(clazz).computeIfAbsent(annotation, type -> Collections.unmodifiableList(
+			Arrays.stream(clazz.getDeclaredFields())
+				.filter(f -> f.isAnnotationPresent(annotation) && !f.isSynthetic())
+				.map(f -> new AnnotatedField<>(f, f.getAnnotation(annotation)))
+				.collect(Collectors.toList())));
+	}
+
+	/**
+	 * Gets the fields of a class and all its super classes that are annotated with the specified annotation.
+	 * The fields are resolved once per class and annotation, and are already accessible.
+	 *
+	 * @param <T> The annotation type
+	 * @param annotation The annotation type
+	 * @param clazz The class to scan
+	 * @return An unmodifiable list of the annotated fields, from the most sub class to the most super class
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <T extends Annotation> List<AnnotatedField<T>> getRecursiveAnnotatedFields(Class<T> annotation, Class<?> clazz) {
+		return (List) RECURSIVE_ANNOTATED_FIELDS.get(clazz).computeIfAbsent(annotation, type -> {
+			List<AnnotatedField<T>> fields = new ArrayList<>(getDeclaredAnnotatedFields(annotation, clazz));
+			Class<?> superClass = clazz.getSuperclass();
+			if (superClass != null) {
+				fields.addAll(getRecursiveAnnotatedFields(annotation, superClass));
+			}
+			return Collections.unmodifiableList(fields);
+		});
+	}
+
 	/**
 	 * Invokes an action on each field annotated with specified annotation of
 	 * given object
@@ -294,10 +357,11 @@ public class ReflectionUtil {
 	 * @param clazz Class to scan
 	 * @param action Action to invoke
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T extends Annotation> void forEachAnnotatedField(Class<? extends T> annotation, Class<?> clazz, BiConsumer<Field, T> action) {
-		Arrays.stream(clazz.getDeclaredFields())
-			.filter(f -> f.isAnnotationPresent(annotation) && !f.isSynthetic())
-			.forEachOrdered(f -> action.accept(f, f.getAnnotation(annotation)));
+		for (AnnotatedField<? extends T> field : getDeclaredAnnotatedFields(annotation, clazz)) {
+			action.accept(field.field, field.annotation);
+		}
 	}
 
 	/**
@@ -316,16 +380,41 @@ public class ReflectionUtil {
 		return fields;
 	}
 
-	// TODO: Cache this?
+	/**
+	 * Invokes an action on each field annotated with specified annotation of
+	 * given class and all its super classes.
+	 *
+	 * @param <T> Annotation type
+	 * @param annotation Annotation type
+	 * @param clazz Class to scan
+	 * @param action Action to invoke
+	 * @see #getRecursiveAnnotatedFields(Class, Class)
+	 */
 	public static <T extends Annotation> void forEachRecursiveAnnotatedField(Class<T> annotation, Class<?> clazz, BiConsumer<Field, T> action) {
-		Arrays.stream(clazz.getDeclaredFields())
-			.filter(f -> f.isAnnotationPresent(annotation) && !f.isSynthetic())
-			.forEachOrdered(f -> action.accept(f, f.getAnnotation(annotation)));
+		for (AnnotatedField<T> field : getRecursiveAnnotatedFields(annotation, clazz)) {
+			action.accept(field.field, field.annotation);
+		}
+	}
 
-		Class<?> superClass = clazz.getSuperclass();
+	/**
+	 * A field together with its annotation. The field is accessible, and
+	 * is shared between all users, so its accessibility must not be changed.
+	 *
+	 * @param <T> The annotation type
+	 */
+	public static final class AnnotatedField<T extends Annotation> {
+		public final Field field;
+		public final T annotation;
+
+		AnnotatedField(Field field, T annotation) {
+			field.setAccessible(true);
+			this.field = field;
+			this.annotation = annotation;
+		}
 
-		if (superClass != null) {
-			forEachRecursiveAnnotatedField(annotation, superClass, action);
+		@Override
+		public String toString() {
+			return field.toString();
 		}
 	}
 
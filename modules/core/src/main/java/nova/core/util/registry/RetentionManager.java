@@ -20,14 +20,24 @@
 
 package nova.core.util.registry;
 
+import nova.core.retention.Data;
 import nova.core.retention.Storable;
+import nova.internal.core.Game;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A manager that handles external file saving.
+ *
+ * Queued objects are saved by {@link #saveAll()}, which skips objects that are not
+ * {@link Storable#isDirty() dirty}. With content hashing enabled, objects whose
+ * saved data did not change since the last save are skipped as well.
+ * The hashes belong to the current {@link #getSaveDirectory() save directory}, and are dropped when it changes.
  * @author Calclavia
  */
 public abstract class RetentionManager extends Manager<RetentionManager> {
@@ -37,6 +47,26 @@ public abstract class RetentionManager extends Manager<RetentionManager> {
 	 */
 	protected Map<String, Storable> saveQueue = new HashMap<>();
 
+	/**
+	 * The content hashes of the last data written for each file name.
+	 * Writes may fail on another thread, which then invalidates the hash.
+	 */
+	private final Map<String, Long> contentHashes = new ConcurrentHashMap<>();
+
+	/**
+	 * Storables whose write failed, possibly on another thread. They are saved again by the next cycle.
+	 */
+	private final Map<String, Storable> failedSaves = new ConcurrentHashMap<>();
+
+	/**
+	 * The save directory the content hashes and failed saves belong to.
+	 */
+	private volatile Path hashedDirectory;
+
+	private boolean contentHashing = false;
+
+	private SaveReport lastReport = new SaveReport(0, 0, 0);
+
 	/**
 	 * Saves a storable into the appropriate directory.
 	 * @param filename - The file name to save the data as.
@@ -44,6 +74,41 @@ public abstract class RetentionManager extends Manager<RetentionManager> {
 	 */
 	public abstract void save(String filename, Storable storable);
 
+	/**
+	 * Writes data that has already been saved from a storable.
+	 *
+	 * The default implementation passes the data through {@link #save(String, Storable)}.
+	 * Managers should override it to write the data directly.
+	 * @param filename - The file name to save the data as.
+	 * @param data - The data to write.
+	 * @return True on success.
+	 */
+	protected boolean saveData(String filename, Data data) {
+		save(filename, new Storable() {
+			@Override
+			public void save(Data saveData) {
+				saveData.putAll(data);
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Writes data that has already been saved from a storable, reporting a failure that happens later.
+	 *
+	 * Managers that write in the background may return before the data is written.
+	 * They must override this method, and run {@code onFailure} if the write fails afterwards.
+	 * It may be run on any thread, and makes the next {@link #saveAll()} save the storable again.
+	 * The default implementation writes synchronously through {@link #saveData(String, Data)}.
+	 * @param filename - The file name to save the data as.
+	 * @param data - The data to write.
+	 * @param onFailure - Called if the write fails after this method returned.
+	 * @return True if the data was written or queued to be written.
+	 */
+	protected boolean saveData(String filename, Data data, Runnable onFailure) {
+		return saveData(filename, data);
+	}
+
 	/**
 	 * Loads a specific storable data based on the filename.
 	 * @param filename - The file name the data was saved.
@@ -60,8 +125,189 @@ public abstract class RetentionManager extends Manager<RetentionManager> {
 		saveQueue.put(filename, storable);
 	}
 
+	/**
+	 * Saves all queued storables that changed, and clears the queue.
+	 * Storables whose last write failed are saved again, even if they are not queued.
+	 * @return The number of saved and skipped storables.
+	 */
+	public SaveReport saveAll() {
+		File saveDirectory = getSaveDirectory();
+		Path directory = saveDirectory != null ? saveDirectory.toPath().toAbsolutePath().normalize() : null;
+		if (!Objects.equals(directory, hashedDirectory)) {
+			// The hashes and failed saves describe the files of another world.
+			contentHashes.clear();
+			failedSaves.clear();
+			hashedDirectory = directory;
+		}
+		failedSaves.forEach(saveQueue::putIfAbsent);
+
+		int saved = 0;
+		int skipped = 0;
+		int failed = 0;
+		for (Map.Entry<String, Storable> entry : saveQueue.entrySet()) {
+			switch (saveIfChanged(entry.getKey(), entry.getValue())) {
+				case SAVED:
+					saved++;
+					break;
+				case SKIPPED:
+					skipped++;
+					break;
+				default:
+					failed++;
+			}
+		}
+		saveQueue.clear();
+
+		lastReport = new SaveReport(saved, skipped, failed);
+		if (saved + skipped + failed > 0) {
+			Game.logger().debug("Save cycle: {}", lastReport);
+		}
+		return lastReport;
+	}
+
+	/**
+	 * Saves a storable if it is dirty and, with content hashing enabled, if its data changed since it was last written.
+	 * @param filename - The file name to save the data as.
+	 * @param storable - The storable object instance.
+	 * @return What happened to the storable.
+	 */
+	protected SaveResult saveIfChanged(String filename, Storable storable) {
+		// A storable whose write failed was already marked clean, but still has to be saved.
+		boolean retry = failedSaves.remove(filename, storable);
+		if (!retry && !storable.isDirty()) {
+			return SaveResult.SKIPPED;
+		}
+
+		Data data = new Data();
+		storable.save(data);
+
+		long hash = 0;
+		if (contentHashing) {
+			hash = contentHash(data);
+			Long previous = contentHashes.get(filename);
+			if (previous != null && previous == hash) {
+				storable.markClean();
+				return SaveResult.SKIPPED;
+			}
+			// Record the hash before the write starts, so a write failing right away can't be overwritten by it.
+			contentHashes.put(filename, hash);
+		}
+
+		long writtenHash = hash;
+		Path directory = hashedDirectory;
+		if (!saveData(filename, data, () -> saveFailed(directory, filename, storable, writtenHash))) {
+			saveFailed(directory, filename, storable, hash);
+			return SaveResult.FAILED;
+		}
+
+		storable.markClean();
+		return SaveResult.SAVED;
+	}
+
+	/**
+	 * Forgets the hash of a failed write, and queues the storable to be saved again.
+	 * Failures of writes to a previous save directory are ignored.
+	 */
+	private void saveFailed(Path directory, String filename, Storable storable, long hash) {
+		if (Objects.equals(directory, hashedDirectory)) {
+			contentHashes.remove(filename, hash);
+			failedSaves.put(filename, storable);
+		}
+	}
+
+	/**
+	 * Computes a 64 bit FNV-1a hash of the binary form of the data.
+	 * @param data The data
+	 * @return The hash
+	 */
+	protected static long contentHash(Data data) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : data.toBinary()) {
+			hash ^= b & 0xFF;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * Sets if the data of each storable should be hashed, so data equal to the last written data is not written again.
+	 * @param contentHashing - True to enable hashing.
+	 */
+	public void setContentHashing(boolean contentHashing) {
+		this.contentHashing = contentHashing;
+		if (!contentHashing) {
+			contentHashes.clear();
+		}
+	}
+
+	public boolean isContentHashing() {
+		return contentHashing;
+	}
+
+	/**
+	 * Blocks until all saves handed to this manager are written to disk.
+	 * Managers that write in the background must override this, the default implementation does nothing.
+	 */
+	public void flush() {
+
+	}
+
+	/**
+	 * Flushes and releases the files held open for the current world, for example when the server stops,
+	 * so the world folder can be deleted or renamed. They are opened again when the manager is used again.
+	 * The default implementation only flushes.
+	 */
+	public void close() {
+		flush();
+	}
+
+	/**
+	 * Forgets the content hash of a file, so it is written on the next save even if its data did not change.
+	 * Should be called when the file is changed or deleted by something else.
+	 * @param filename - The file name.
+	 */
+	public void invalidate(String filename) {
+		contentHashes.remove(filename);
+	}
+
+	/**
+	 * @return The report of the last {@link #saveAll()} cycle.
+	 */
+	public SaveReport getLastReport() {
+		return lastReport;
+	}
+
 	/**
 	 * @return Gets the default directory in where game files are saved.
 	 */
 	public abstract File getSaveDirectory();
+
+	/**
+	 * The outcome of saving a single storable.
+	 */
+	protected enum SaveResult {
+		SAVED,
+		SKIPPED,
+		FAILED
+	}
+
+	/**
+	 * The number of storables saved and skipped in a save cycle.
+	 */
+	public static final class SaveReport {
+		public final int saved;
+		public final int skipped;
+		public final int failed;
+
+		public SaveReport(int saved, int skipped, int failed) {
+			this.saved = saved;
+			this.skipped = skipped;
+			this.failed = failed;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d saved, %d skipped, %d failed", saved, skipped, failed);
+		}
+	}
 }
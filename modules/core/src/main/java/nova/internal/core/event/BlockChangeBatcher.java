@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.internal.core.event;
+
+import nova.core.event.BlockEvent;
+import nova.core.event.bus.EventBus;
+import nova.core.world.World;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects block changes and publishes them as one {@link BlockEvent.ChangeBatch} per chunk.
+ * Wrappers keep one batcher per side, queue changes from their chunk hook,
+ * and flush a side's batcher at the end of that side's tick.
+ */
+public class BlockChangeBatcher {
+
+	private Map<World, Map<Long, List<BlockEvent.Change>>> pending = new LinkedHashMap<>();
+
+	/**
+	 * Queues a block change until the next flush.
+	 * @param change The block change
+	 */
+	public synchronized void queue(BlockEvent.Change change) {
+		int chunkX = (int) Math.floor(change.position.getX()) >> 4;
+		int chunkZ = (int) Math.floor(change.position.getZ()) >> 4;
+		long chunk = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+		pending
+			.computeIfAbsent(change.world, world -> new LinkedHashMap<>())
+			.computeIfAbsent(chunk, key -> new ArrayList<>())
+			.add(change);
+	}
+
+	/**
+	 * Publishes all queued changes, one batch per chunk.
+	 * @param events The event bus to publish to
+	 */
+	public void flush(EventBus<? super BlockEvent.ChangeBatch> events) {
+		Map<World, Map<Long, List<BlockEvent.Change>>> batches;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			batches = pending;
+			pending = new LinkedHashMap<>();
+		}
+
+		batches.forEach((world, chunks) ->
+			chunks.forEach((chunk, changes) -> {
+				int chunkX = (int) (chunk >> 32);
+				int chunkZ = (int) (long) chunk;
+				Vector3D position = new Vector3D(chunkX << 4, 0, chunkZ << 4);
+				events.publish(new BlockEvent.ChangeBatch(world, position, changes));
+			})
+		);
+	}
+}
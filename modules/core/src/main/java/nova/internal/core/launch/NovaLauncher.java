@@ -128,15 +128,15 @@ public class NovaLauncher extends ModLoader<Mod> {
 			throw new InitializationException("Mods with duplicate IDs");
 		}
 
+		Map<String, Mod> modsById = new HashMap<>();
+		mods.keySet().forEach(mod -> modsById.putIfAbsent(mod.id(), mod));
+
 		// Create directed graph edges.
 		mods.keySet().forEach(
 			mod -> {
 				Map<String, String> depMap = dependencyToMap(mod.dependencies());
 				depMap.forEach((id, version) -> {
-					Optional<Mod> dependent = mods.keySet()
-						.stream()
-						.filter(m2 -> m2.id().equals(id))
-						.findFirst();
+					Optional<Mod> dependent = Optional.ofNullable(modsById.get(id));
 
 					final boolean forced = version.endsWith("f") || version.endsWith("F");
 					if (forced) version = version.substring(0, version.length() - 1);
@@ -5,35 +5,98 @@ import nova.core.util.exception.NovaException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 public class TopologicalSort {
+	private static final byte UNVISITED = 0;
+	private static final byte VISITING = 1;
+	private static final byte EXPANDED = 2;
+
 	/**
 	 * Sort the input graph into a topologically sorted list
 	 *
 	 * Uses the reverse depth first search as outlined in ...
+	 * Nodes are visited in insertion order, and the inbound edges of a node
+	 * are explored in the insertion order of their source nodes.
+	 * Runs in O(V+E) using an index-based, iterative search.
 	 * @param <T> The type
 	 * @param graph The graph to sort
 	 * @return The sorted list.
 	 */
+	@SuppressWarnings("unchecked")
 	public static <T> List<T> topologicalSort(DirectedGraph<T> graph) {
-		DirectedGraph<T> rGraph = reverse(graph);
-		List<T> sortedResult = new ArrayList<>();
-		Set<T> visitedNodes = new HashSet<>();
-		// A list of "fully explored" nodes. Leftovers in here indicate cycles in the graph
-		Set<T> expandedNodes = new HashSet<>();
+		int size = graph.size();
+		Object[] nodes = graph.graph.keySet().toArray();
+		Map<T, Integer> indices = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) {
+			indices.put((T) nodes[i], i);
+		}
+
+		// Build the inbound edges of every node. Sources are visited in index order, so every list ends up sorted.
+		int[] inboundCount = new int[size];
+		for (Set<T> edges : graph.graph.values()) {
+			for (T to : edges) {
+				inboundCount[indices.get(to)]++;
+			}
+		}
 
-		for (T node : rGraph) {
-			explore(node, rGraph, sortedResult, visitedNodes, expandedNodes);
+		int[][] inbound = new int[size][];
+		for (int i = 0; i < size; i++) {
+			inbound[i] = new int[inboundCount[i]];
+			inboundCount[i] = 0;
+		}
+
+		for (int from = 0; from < size; from++) {
+			for (T to : graph.graph.get(nodes[from])) {
+				int index = indices.get(to);
+				inbound[index][inboundCount[index]++] = from;
+			}
+		}
+
+		List<T> sortedResult = new ArrayList<>(size);
+		byte[] state = new byte[size];
+		int[] stack = new int[size];
+		int[] cursor = new int[size];
+
+		for (int root = 0; root < size; root++) {
+			if (state[root] != UNVISITED) {
+				continue;
+			}
+
+			int depth = 0;
+			stack[0] = root;
+			state[root] = VISITING;
+
+			while (depth >= 0) {
+				int node = stack[depth];
+
+				if (cursor[node] < inbound[node].length) {
+					int next = inbound[node][cursor[node]++];
+
+					if (state[next] == UNVISITED) {
+						state[next] = VISITING;
+						stack[++depth] = next;
+					} else if (state[next] == VISITING) {
+						// A node that was visited but not fully explored indicates a cycle in the graph
+						throw new NovaException("There was a cycle detected in the input graph, sorting is not possible", nodes[next]) {
+							private static final long serialVersionUID = 1L;
+						};
+					}
+				} else {
+					// All inbound edges explored, add ourselves now
+					sortedResult.add((T) nodes[node]);
+					state[node] = EXPANDED;
+					depth--;
+				}
+			}
 		}
 
 		return sortedResult;
@@ -55,37 +118,8 @@ public class TopologicalSort {
 		return result;
 	}
 
-	public static <T> void explore(T node, DirectedGraph<T> graph, List<T> sortedResult, Set<T> visitedNodes, Set<T> expandedNodes) {
-		// Have we been here before?
-		if (visitedNodes.contains(node)) {
-			// And have completed this node before
-			if (expandedNodes.contains(node)) {
-				// Then we're fine
-				return;
-			}
-
-			throw new NovaException("There was a cycle detected in the input graph, sorting is not possible", node) {
-				private static final long serialVersionUID = 1L;
-			};
-		}
-
-		// Visit this node
-		visitedNodes.add(node);
-
-		// Recursively explore inbound edges
-		for (T inbound : graph.edgesFrom(node)) {
-			explore(inbound, graph, sortedResult, visitedNodes, expandedNodes);
-		}
-
-		// Add ourselves now
-		sortedResult.add(node);
-		// And mark ourselves as explored
-		expandedNodes.add(node);
-	}
-
 	public static class DirectedGraph<T> implements Iterable<T> {
-		private final Map<T, SortedSet<T>> graph = new HashMap<>();
-		private List<T> orderedNodes = new ArrayList<>();
+		private final Map<T, Set<T>> graph = new LinkedHashMap<>();
 
 		public boolean addNode(T node) {
 			// Ignore nodes already added
@@ -93,8 +127,7 @@ public class TopologicalSort {
 				return false;
 			}
 
-			orderedNodes.add(node);
-			graph.put(node, new TreeSet<>((o1, o2) -> orderedNodes.indexOf(o1) - orderedNodes.indexOf(o2)));
+			graph.put(node, new LinkedHashSet<>());
 			return true;
 		}
 
@@ -104,8 +137,8 @@ public class TopologicalSort {
 				return false;
 			}
 
-			orderedNodes.remove(node);
 			graph.remove(node);
+			graph.values().forEach(edges -> edges.remove(node));
 			return true;
 		}
 
@@ -138,12 +171,12 @@ public class TopologicalSort {
 				throw new NoSuchElementException("Missing node from graph");
 			}
 
-			return Collections.unmodifiableSortedSet(graph.get(from));
+			return Collections.unmodifiableSet(graph.get(from));
 		}
 
 		@Override
 		public Iterator<T> iterator() {
-			return orderedNodes.iterator();
+			return Collections.unmodifiableSet(graph.keySet()).iterator();
 		}
 
 		public Stream<T> stream() {
@@ -163,4 +196,4 @@ public class TopologicalSort {
 			return graph.toString();
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.block;
+
+import nova.core.component.Category;
+import nova.core.component.Component;
+import nova.core.component.SidedComponentMap;
+import nova.core.util.Direction;
+import nova.internal.core.Game;
+
+import java.util.function.Consumer;
+
+/**
+ * Reports the retained heap size of a {@link Block}, with and without allocated side component maps.
+ */
+public class BlockMemoryEfficiencyTest {
+	private static final int BLOCKS = 200_000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		for (int round = 0; round < ROUNDS; round++) {
+			Game.logger().info("Round " + round);
+			measure("Empty block", block -> {
+			});
+			measure("Block with 2 components", block -> {
+				block.components.add(new Category("test"));
+				block.components.add(new Marker());
+			});
+			measure("Block with 2 components and all side maps", block -> {
+				block.components.add(new Category("test"));
+				block.components.add(new Marker());
+				for (Direction direction : Direction.VALID_DIRECTIONS) {
+					block.components.getComponents(direction);
+				}
+			});
+		}
+	}
+
+	private static void measure(String name, Consumer<Block> setup) {
+		Block[] blocks = new Block[BLOCKS];
+		long before = usedMemory();
+		for (int i = 0; i < BLOCKS; i++) {
+			Block block = new Block();
+			setup.accept(block);
+			blocks[i] = block;
+		}
+		long after = usedMemory();
+
+		Game.logger().info(String.format("%s: %d bytes per block", name, (after - before) / blocks.length));
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	public static class Marker extends Component {
+	}
+}
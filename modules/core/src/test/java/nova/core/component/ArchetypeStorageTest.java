@@ -0,0 +1,133 @@
+package nova.core.component;
+
+import nova.core.component.ComponentProviderTest.First;
+import nova.core.component.ComponentProviderTest.Second;
+import nova.core.component.ComponentProviderTest.Shape;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+/**
+ * Tests the archetype storage and component queries
+ */
+public class ArchetypeStorageTest {
+
+	private ArchetypeStorage storage;
+
+	@Before
+	public void setUp() throws Exception {
+		storage = new ArchetypeStorage();
+	}
+
+	private ComponentProvider<ComponentMap> track(Component... components) {
+		ComponentProvider<ComponentMap> provider = new ComponentProvider<ComponentMap>() {};
+		for (Component component : components) {
+			provider.components.add(component);
+		}
+		storage.track(provider);
+		return provider;
+	}
+
+	@Test
+	public void testQuery() throws Exception {
+		ComponentProvider<ComponentMap> a = track(new First(), new Category("a"));
+		ComponentProvider<ComponentMap> b = track(new Second(), new Category("b"));
+		track(new First());
+
+		assertThat(storage.size()).isEqualTo(3);
+		assertThat(storage.archetypeCount()).isEqualTo(3);
+		assertThat(storage.query(Shape.class).count()).isEqualTo(3);
+		assertThat(storage.query(First.class, Category.class).count()).isEqualTo(1);
+
+		List<ComponentProvider<?>> found = new ArrayList<>();
+		storage.query(Shape.class, Category.class).forEach(found::add);
+		assertThat(found).containsOnly(a, b);
+
+		List<String> names = new ArrayList<>();
+		storage.query().forEach(Shape.class, Category.class, (shape, category) -> names.add(category.name));
+		assertThat(names).containsOnly("a", "b");
+	}
+
+	@Test
+	public void testCloneIsUntracked() throws Exception {
+		ComponentProvider<ComponentMap> provider = track(new First());
+		ComponentMap clone = (ComponentMap) provider.components.clone();
+		clone.add(new Category("Clone"));
+		clone.remove(First.class);
+
+		assertThat(storage.size()).isEqualTo(1);
+		assertThat(storage.query(First.class).count()).isEqualTo(1);
+		assertThat(storage.query(Category.class).count()).isEqualTo(0);
+	}
+
+	@Test
+	public void testComponentChanges() throws Exception {
+		ComponentProvider<ComponentMap> provider = track(new First());
+		assertThat(storage.query(Category.class).count()).isEqualTo(0);
+
+		provider.components.add(new Category("Test"));
+		assertThat(storage.query(Category.class).count()).isEqualTo(1);
+		assertThat(storage.query(First.class).count()).isEqualTo(1);
+
+		provider.components.remove(First.class);
+		assertThat(storage.query(First.class).count()).isEqualTo(0);
+		assertThat(storage.query(Category.class).count()).isEqualTo(1);
+
+		storage.untrack(provider);
+		assertThat(storage.isTracked(provider)).isFalse();
+		assertThat(storage.query(Category.class).count()).isEqualTo(0);
+	}
+
+	@Test
+	public void testSwapRemove() throws Exception {
+		List<ComponentProvider<ComponentMap>> providers = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			providers.add(track(new First(), new Category(Integer.toString(i))));
+		}
+
+		for (int i = 0; i < 50; i += 2) {
+			storage.untrack(providers.get(i));
+		}
+
+		List<String> names = new ArrayList<>();
+		storage.query(First.class).forEach(Category.class, category -> names.add(category.name));
+		assertThat(names).hasSize(25);
+		for (int i = 1; i < 50; i += 2) {
+			assertThat(names).contains(Integer.toString(i));
+		}
+	}
+
+	@Test
+	public void testChangesDuringQuery() throws Exception {
+		for (int i = 0; i < 10; i++) {
+			track(new First(), new Category("Test"));
+		}
+
+		AtomicInteger visited = new AtomicInteger();
+		storage.query(First.class).forEach(provider -> {
+			provider.components.remove(First.class);
+			visited.incrementAndGet();
+		});
+
+		assertThat(visited.get()).isEqualTo(10);
+		assertThat(storage.query(First.class).count()).isEqualTo(0);
+		assertThat(storage.query(Category.class).count()).isEqualTo(10);
+	}
+
+	@Test
+	public void testParallelQuery() throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			track(new First(), new Category("Test"));
+		}
+
+		List<First> found = Collections.synchronizedList(new ArrayList<>());
+		storage.query(Category.class).parallel().forEach(First.class, found::add);
+		assertThat(found).hasSize(1000).doesNotHaveDuplicates();
+	}
+}
@@ -4,7 +4,12 @@ import nova.core.component.exception.ComponentException;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests the component provider's addition and extraction of components
@@ -47,4 +52,180 @@ public class ComponentProviderTest {
 		assertThat(provider.components).hasSize(1);
 	}
 
+	@Test
+	public void testComponentInterfaceGet() throws Exception {
+		First first = provider.components.add(new First());
+		assertThat(provider.components.has(Shape.class)).isTrue();
+		assertThat(provider.components.get(Shape.class)).isSameAs(first);
+		assertThat(provider.components.getSet(Shape.class)).containsExactly(first);
+		assertThat(provider.components.has(Second.class)).isFalse();
+
+		Second second = provider.components.add(new Second());
+		assertThat(provider.components.get(Second.class)).isSameAs(second);
+		assertThat(provider.components.getSet(Shape.class)).containsOnly(first, second);
+
+		provider.components.remove(First.class);
+		assertThat(provider.components.get(Shape.class)).isSameAs(second);
+		assertThat(provider.components.has(First.class)).isFalse();
+	}
+
+	@Test(expected = ComponentException.class)
+	public void testComponentAmbiguousGet() throws Exception {
+		provider.components.add(new First());
+		assertThat(provider.components.getOp(Shape.class)).isPresent();
+		provider.components.add(new Second());
+		provider.components.getOp(Shape.class);
+	}
+
+	@Test
+	public void testComponentExactGet() throws Exception {
+		First first = provider.components.add(new First());
+		assertThat(provider.components.get(First.class)).isSameAs(first);
+
+		// A sub class makes the exact type ambiguous
+		Third third = provider.components.add(new Third());
+		assertThat(provider.components.getSet(First.class)).containsOnly(first, third);
+		assertThat(provider.components.get(Third.class)).isSameAs(third);
+		assertThatThrownBy(() -> provider.components.get(First.class)).isInstanceOf(ComponentException.class);
+
+		provider.components.remove(Third.class);
+		assertThat(provider.components.get(First.class)).isSameAs(first);
+	}
+
+	@Test
+	public void testConcurrentChangeDoesNotCacheStaleLookup() throws Exception {
+		ComponentProvider<RacingMap> racing = new ComponentProvider<RacingMap>(RacingMap.class) {};
+		racing.components.add(new First());
+
+		// The component is removed while the lookup is resolved from the old components
+		racing.components.race = () -> racing.components.remove(First.class);
+		assertThat(racing.components.getSet(Shape.class)).hasSize(1);
+		assertThat(racing.components.getSet(Shape.class)).isEmpty();
+		assertThat(racing.components.getOp(Shape.class)).isEmpty();
+	}
+
+	@Test
+	public void testManyQueryTypes() throws Exception {
+		First first = provider.components.add(new First());
+		Class<?>[] queries = { Shape.class, Component.class, Object.class, First.class, Second.class, Third.class, Category.class, Unused.class };
+		for (int round = 0; round < 2; round++) {
+			for (Class<?> query : queries) {
+				boolean matches = query.isInstance(first);
+				assertThat(provider.components.getSet(query)).hasSize(matches ? 1 : 0);
+			}
+		}
+
+		Second second = provider.components.add(new Second());
+		assertThat(provider.components.getSet(Shape.class)).containsOnly(first, second);
+		assertThat(provider.components.getSet(Second.class)).containsExactly(second);
+	}
+
+	@Test
+	public void testComponentSignature() throws Exception {
+		ComponentSignature firstAndSecond = ComponentSignature.of(First.class, Second.class);
+		assertThat(provider.components.hasAny(Shape.class, Category.class)).isFalse();
+		assertThat(provider.components.hasAll(ComponentSignature.EMPTY)).isTrue();
+
+		provider.components.add(new First());
+		assertThat(provider.components.has(Shape.class)).isTrue();
+		assertThat(provider.components.has(Component.class)).isTrue();
+		assertThat(provider.components.hasAny(firstAndSecond)).isTrue();
+		assertThat(provider.components.hasAll(firstAndSecond)).isFalse();
+		assertThat(provider.components.hasAll(First.class, Shape.class)).isTrue();
+
+		provider.components.add(new Second());
+		assertThat(provider.components.hasAll(firstAndSecond)).isTrue();
+		assertThat(provider.components.signature()).isEqualTo(ComponentSignature.ofComponent(First.class).union(ComponentSignature.ofComponent(Second.class)));
+
+		provider.components.remove(First.class);
+		assertThat(provider.components.hasAll(firstAndSecond)).isFalse();
+		assertThat(provider.components.has(Shape.class)).isTrue();
+		assertThat(provider.components.signature()).isEqualTo(ComponentSignature.ofComponent(Second.class));
+
+		provider.components.remove(Second.class);
+		assertThat(provider.components.has(Shape.class)).isFalse();
+		assertThat(provider.components.signature().isEmpty()).isTrue();
+
+		// Generic map operations rebuild the signature instead
+		provider.components.put(First.class, new First());
+		assertThat(provider.components.signature()).isEqualTo(ComponentSignature.ofComponent(First.class));
+		provider.components.add(new Second());
+		provider.components.clear();
+		assertThat(provider.components.has(Shape.class)).isFalse();
+	}
+
+	@Test
+	public void testClonedMapKeepsOwnSignature() throws Exception {
+		First first = provider.components.add(new First());
+		provider.components.add(new Second());
+		assertThat(provider.components.has(Shape.class)).isTrue();
+
+		ComponentMap clone = (ComponentMap) provider.components.clone();
+		clone.remove(Second.class);
+		clone.remove(First.class);
+		assertThat(clone.has(Shape.class)).isFalse();
+
+		provider.components.remove(Second.class);
+		assertThat(provider.components.has(Shape.class)).isTrue();
+		assertThat(provider.components.get(Shape.class)).isSameAs(first);
+	}
+
+	@Test
+	public void testQueryDoesNotAssignTypeId() throws Exception {
+		assertThat(provider.components.has(Unused.class)).isFalse();
+		assertThat(ComponentSignature.findId(Unused.class)).isEqualTo(-1);
+		assertThat(ComponentSignature.idOf(Unused.class)).isEqualTo(ComponentSignature.findId(Unused.class));
+	}
+
+	@Test
+	public void testComponentEvents() throws Exception {
+		List<Component> added = new ArrayList<>();
+		List<Component> removed = new ArrayList<>();
+		provider.components.add(new Category("Test"));
+
+		provider.events.on(ComponentProvider.ComponentAdded.class).bind(evt -> added.add(evt.component));
+		provider.events.on(ComponentProvider.ComponentRemoved.class).bind(evt -> removed.add(evt.component));
+		First first = provider.components.add(new First());
+		assertThat(added).containsExactly(first);
+		assertThat(removed).isEmpty();
+
+		provider.components.remove(First.class);
+		assertThat(removed).containsExactly(first);
+	}
+
+	public interface Shape {
+	}
+
+	public static class First extends Component implements Shape {
+	}
+
+	public static class Second extends Component implements Shape {
+	}
+
+	public static class Third extends First {
+	}
+
+	public static class RacingMap extends ComponentMap {
+		private static final long serialVersionUID = 1L;
+
+		Runnable race;
+
+		public RacingMap(ComponentProvider<?> provider) {
+			super(provider);
+		}
+
+		@Override
+		public Collection<Component> values() {
+			Collection<Component> values = new ArrayList<>(super.values());
+			Runnable race = this.race;
+			this.race = null;
+			if (race != null) {
+				race.run();
+			}
+			return values;
+		}
+	}
+
+	private interface Unused {
+	}
 }
@@ -0,0 +1,69 @@
+package nova.core.component;
+
+import nova.core.component.exception.ComponentException;
+import nova.core.util.Direction;
+import org.junit.Before;
+import org.junit.Test;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+/**
+ * Tests adding and extracting sided components
+ */
+public class SidedComponentMapTest {
+
+	private SidedComponentProvider provider;
+
+	@Before
+	public void setUp() throws Exception {
+		provider = new SidedComponentProvider() {};
+	}
+
+	@Test
+	public void testSidedComponents() throws Exception {
+		Category unsided = provider.components.add(new Category("Unsided"));
+		Category north = provider.components.add(new Category("North"), Direction.NORTH);
+
+		assertThat(provider.components.get(Category.class, Direction.NORTH)).isSameAs(north);
+		assertThat(provider.components.get(Category.class, Direction.SOUTH)).isSameAs(unsided);
+		assertThat(provider.components.getSet(Category.class, Direction.NORTH)).containsOnly(unsided, north);
+		assertThat(provider.components.canRemove(Category.class, Direction.SOUTH)).isFalse();
+		assertThat(provider.components.getComponents(Direction.UNKNOWN)).isSameAs(provider.components);
+
+		provider.components.remove(Category.class, Direction.NORTH);
+		assertThat(provider.components.has(Category.class, Direction.NORTH)).isTrue();
+		assertThat(provider.components.getComponents(Direction.NORTH)).isEmpty();
+	}
+
+	@Test(expected = ComponentException.class)
+	public void testRemoveFromEmptySide() throws Exception {
+		provider.components.remove(Category.class, Direction.UP);
+	}
+
+	@Test
+	public void testReadsDoNotAllocate() throws Exception {
+		assertThat(provider.components.getOp(Category.class, Direction.EAST)).isEmpty();
+		assertThat(provider.components.getComponents(Direction.EAST)).isNotSameAs(provider.components.getComponents(Direction.WEST));
+		assertThat(provider.components.getComponents(Direction.EAST)).isSameAs(provider.components.getComponents(Direction.EAST));
+	}
+
+	@Test
+	public void testSidedComponentsDoNotAllocate() throws Exception {
+		Category north = provider.components.add(new Category("North"), Direction.NORTH);
+		assertThat(provider.sidedComponents().get(Direction.NORTH)).containsExactly(north);
+		assertThat(provider.sidedComponents().get(Direction.EAST)).isEmpty();
+
+		// Sides without components still share the empty view
+		assertThat(provider.components.peekComponents(Direction.EAST)).isSameAs(provider.components.peekComponents(Direction.WEST));
+		assertThat(provider.components.peekComponents(Direction.NORTH)).isSameAs(provider.components.getComponents(Direction.NORTH));
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedSideAccessors() throws Exception {
+		Category north = provider.components.add(new Category("North"), Direction.NORTH);
+		assertThat(provider.components.north().get(Category.class)).isSameAs(north);
+		assertThat(provider.components.up()).isSameAs(provider.components.getComponents(Direction.UP));
+		assertThat(provider.components.east()).isSameAs(provider.components.getComponents(Direction.EAST));
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event;
+
+import nova.core.event.bus.EventBus;
+import nova.core.event.bus.Subscribe;
+import nova.core.util.Profiler;
+import nova.internal.core.Game;
+
+/**
+ * Compares publishing to lambda listeners with publishing to generated {@link Subscribe} listeners.
+ */
+public class EventBusEfficiencyTest {
+	private static final int LISTENERS = 100;
+	private static final int EVENTS = 200_000;
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) {
+		EventBus<TestEvent> lambdaBus = new EventBus<>();
+		EventBus<TestEvent> subscriberBus = new EventBus<>();
+		Counter lambdaCounter = new Counter();
+		Counter subscriberCounter = new Counter();
+
+		for (int i = 0; i < LISTENERS; i++) {
+			lambdaBus.on(TestEvent.class).bind(lambdaCounter::onEvent);
+			subscriberBus.register(subscriberCounter);
+		}
+
+		Profiler lambdaProfiler = new Profiler("Lambda listeners");
+		Profiler subscriberProfiler = new Profiler("Subscriber listeners");
+		TestEvent event = new TestEvent();
+
+		for (int round = 0; round < ROUNDS; round++) {
+			lambdaProfiler.start();
+			for (int i = 0; i < EVENTS; i++) {
+				lambdaBus.publish(event);
+			}
+			lambdaProfiler.end();
+
+			subscriberProfiler.start();
+			for (int i = 0; i < EVENTS; i++) {
+				subscriberBus.publish(event);
+			}
+			subscriberProfiler.end();
+		}
+
+		Game.logger().info(lambdaProfiler.toString());
+		Game.logger().info(subscriberProfiler.toString());
+		Game.logger().info("Invocations: " + lambdaCounter.count + " / " + subscriberCounter.count);
+	}
+
+	public static class Counter {
+		long count;
+
+		@Subscribe
+		public void onEvent(TestEvent event) {
+			count++;
+		}
+	}
+}
@@ -21,14 +21,24 @@
 package nova.core.event;
 
 import nova.core.event.bus.EventBus;
+import nova.core.event.bus.EventException;
 import nova.core.event.bus.EventListenerHandle;
+import nova.core.event.bus.ListenerStatistics;
+import nova.core.event.bus.Subscribe;
 import nova.core.util.exception.NovaException;
 import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static nova.testutils.NovaAssertions.assertThat;
+import static nova.testutils.NovaAssertions.assertThatThrownBy;
 
 /**
  * @author Stan Hebben
@@ -177,4 +187,261 @@ public class EventBusTest {
 
 		bus.publish(new TestEvent());
 	}
+
+	@Test
+	public void testTypedDispatch() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.on(SubTestEvent.class).withPriority(1).bind(new TestEventListener("A")::onEvent);
+		bus.on().bind(new TestEventListener("B"));
+		bus.on(TestEvent.class).withPriority(2).bind(new TestEventListener("C")::onEvent);
+
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("CB");
+
+		TestEvent subEvent = new SubTestEvent();
+		bus.publish(subEvent);
+		assertThat(subEvent.toString()).isEqualTo("CAB");
+
+		EventListenerHandle<TestEvent> handle = bus.on(SubTestEvent.class).withPriority(3).bind(new TestEventListener("D")::onEvent);
+		subEvent = new SubTestEvent();
+		bus.publish(subEvent);
+		assertThat(subEvent.toString()).isEqualTo("DCAB");
+
+		handle.close();
+		subEvent = new SubTestEvent();
+		bus.publish(subEvent);
+		assertThat(subEvent.toString()).isEqualTo("CAB");
+	}
+
+	@Test
+	public void testHasListeners() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		assertThat(bus.hasListeners(TestEvent.class)).isFalse();
+		assertThat(bus.hasListeners(SubTestEvent.class)).isFalse();
+
+		EventListenerHandle<TestEvent> handle = bus.on(SubTestEvent.class).bind(new TestEventListener("A")::onEvent);
+		assertThat(bus.hasListeners(TestEvent.class)).isFalse();
+		assertThat(bus.hasListeners(SubTestEvent.class)).isTrue();
+
+		bus.on().bind(new TestEventListener("B"));
+		assertThat(bus.hasListeners(TestEvent.class)).isTrue();
+
+		bus.clear();
+		assertThat(bus.hasListeners(SubTestEvent.class)).isFalse();
+		handle.close();
+		assertThat(bus.isEmpty()).isTrue();
+
+		bus.on().bind(new TestEventListener("C"));
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("C");
+	}
+
+	@Test
+	public void testRegister() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.on().withName("B").bind(new TestEventListener("B"));
+		List<EventListenerHandle<TestEvent>> handles = bus.register(new TestSubscriber());
+
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("CAB");
+
+		TestEvent subEvent = new SubTestEvent();
+		bus.publish(subEvent);
+		assertThat(subEvent.toString()).isEqualTo("CASB");
+
+		handles.forEach(EventListenerHandle::close);
+		event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("B");
+	}
+
+	@Test
+	public void testRegisterPrivate() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.register(new PrivateSubscriber());
+
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("P");
+	}
+
+	@Test(expected = NovaException.class)
+	public void testRegisterInvalid() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.register(new Object() {
+			@Subscribe
+			public void onEvent(TestEvent event, TestEvent other) {
+			}
+		});
+	}
+
+	@Test
+	public void testRegisterWrongType() {
+		EventBus<TestEvent> bus = new EventBus<>(TestEvent.class);
+		assertThatThrownBy(() -> bus.register(new Object() {
+			@Subscribe
+			public void onEvent(TestEvent event) {
+			}
+
+			@Subscribe
+			public void onString(String event) {
+			}
+		})).isInstanceOf(EventException.class);
+		assertThat(bus.isEmpty()).isTrue();
+
+		bus.register(new Object() {
+			@Subscribe
+			public void onAny(Object event) {
+				((TestEvent) event).append("O");
+			}
+		});
+		TestEvent event = new TestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEqualTo("O");
+	}
+
+	@Test
+	public void testProfiling() {
+		EventBus<TestEvent> bus = new EventBus<>();
+		bus.on().withName("fast").bind(new TestEventListener("A"));
+		bus.on().withName("slow").bind(evt -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+
+		bus.publish(new TestEvent());
+		assertThat(bus.getStatistics()).isEmpty();
+
+		bus.enableProfiling(20, TimeUnit.MILLISECONDS);
+		for (int i = 0; i < 3; i++) {
+			bus.publish(new TestEvent());
+		}
+		bus.disableProfiling();
+		bus.publish(new TestEvent());
+
+		assertThat(bus.getStatistics()).hasSize(2);
+		ListenerStatistics slow = bus.getStatistics("slow").get();
+		assertThat(slow.getCount()).isEqualTo(3);
+		assertThat(slow.getMaxNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(slow.getPercentileNanos(0.5)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+		assertThat(slow.getOverBudgetCount()).isEqualTo(3);
+		assertThat(bus.getStatistics("fast").get().getCount()).isEqualTo(3);
+		// Scheduling pauses may push the fast listener over budget as well, so only check the slowest one.
+		assertThat(bus.getSlowListeners()).startsWith(slow);
+
+		bus.resetStatistics();
+		assertThat(bus.getStatistics()).isEmpty();
+	}
+
+	@Test
+	public void testConcurrentPublish() throws Exception {
+		final int publishers = 8;
+		final int mutators = 2;
+		final int events = 20000;
+
+		EventBus<TestEvent> bus = new EventBus<>();
+		AtomicInteger first = new AtomicInteger();
+		AtomicInteger last = new AtomicInteger();
+		bus.on(SubTestEvent.class).withPriority(EventBus.PRIORITY_HIGH).bind(evt -> first.incrementAndGet());
+		bus.on().withPriority(EventBus.PRIORITY_LOW).bind(evt -> last.incrementAndGet());
+
+		ExecutorService executor = Executors.newFixedThreadPool(publishers + mutators);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger running = new AtomicInteger(publishers);
+		AtomicInteger rounds = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+
+		for (int i = 0; i < publishers; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < events; j++) {
+					bus.publish(j % 2 == 0 ? new TestEvent() : new SubTestEvent());
+				}
+				running.decrementAndGet();
+				return null;
+			}));
+		}
+
+		for (int i = 0; i < mutators; i++) {
+			String marker = String.valueOf((char) ('x' + i));
+			futures.add(executor.submit(() -> {
+				start.await();
+				while (running.get() > 0) {
+					List<EventListenerHandle<TestEvent>> handles = new ArrayList<>();
+					for (int j = 0; j < 5; j++) {
+						handles.add(bus.on().bind(evt -> evt.append(marker)));
+						handles.add(bus.on(SubTestEvent.class).bind(evt -> evt.append(marker)));
+					}
+
+					// Listeners bound by this thread are visible to its next publish, typed ones only to sub events.
+					TestEvent event = new TestEvent();
+					bus.publish(event);
+					assertThat(count(event, marker)).isEqualTo(5);
+					TestEvent subEvent = new SubTestEvent();
+					bus.publish(subEvent);
+					assertThat(count(subEvent, marker)).isEqualTo(10);
+
+					// Closed listeners must not linger in a cached dispatch array.
+					handles.forEach(EventListenerHandle::close);
+					event = new SubTestEvent();
+					bus.publish(event);
+					assertThat(count(event, marker)).isEqualTo(0);
+					rounds.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+
+		// Every mutator round publishes one plain and two sub events.
+		assertThat(first.get()).isEqualTo(publishers * events / 2 + rounds.get() * 2);
+		assertThat(last.get()).isEqualTo(publishers * events + rounds.get() * 3);
+		assertThat(bus.count()).isEqualTo(2);
+
+		TestEvent event = new SubTestEvent();
+		bus.publish(event);
+		assertThat(event.toString()).isEmpty();
+	}
+
+	private static int count(TestEvent event, String marker) {
+		return event.toString().length() - event.toString().replace(marker, "").length();
+	}
+
+	public static class SubTestEvent extends TestEvent {
+	}
+
+	public static class TestSubscriber {
+		@Subscribe(name = "A", before = "B")
+		public void onEvent(TestEvent event) {
+			event.append("A");
+		}
+
+		@Subscribe(priority = 1)
+		public void onFirst(TestEvent event) {
+			event.append("C");
+		}
+
+		@Subscribe(after = "A", before = "B")
+		public void onSubEvent(SubTestEvent event) {
+			event.append("S");
+		}
+	}
+
+	private static class PrivateSubscriber {
+		@Subscribe
+		private void onEvent(TestEvent event) {
+			event.append("P");
+		}
+	}
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.event;
+
+import nova.core.event.bus.Event;
+import nova.core.event.bus.EventBus;
+import nova.core.event.bus.EventException;
+import nova.core.event.bus.GlobalEvents;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class GlobalEventsTest {
+	@Test
+	public void testPublishAsync() throws Exception {
+		GlobalEvents events = new GlobalEvents();
+		List<Thread> threads = new ArrayList<>();
+		events.on(TestGlobalEvent.class).bind(evt -> threads.add(Thread.currentThread()));
+
+		TestGlobalEvent event = new TestGlobalEvent();
+		CompletableFuture<TestGlobalEvent> future = events.publishAsync(event);
+
+		assertThat(future.get(10, TimeUnit.SECONDS)).isSameAs(event);
+		assertThat(threads).hasSize(1);
+		assertThat(threads.get(0)).isNotSameAs(Thread.currentThread());
+	}
+
+	@Test
+	public void testParallelTier() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		GlobalEvents events = new GlobalEvents();
+		events.setExecutor(executor);
+		events.setParallel(true);
+
+		// Both listeners only finish if they run at the same time.
+		CountDownLatch latch = new CountDownLatch(2);
+		List<String> result = Collections.synchronizedList(new ArrayList<>());
+		events.on(TestGlobalEvent.class).withPriority(EventBus.PRIORITY_HIGH).bind(evt -> result.add("first"));
+		for (int i = 0; i < 2; i++) {
+			events.on(TestGlobalEvent.class).parallel().bind(evt -> {
+				latch.countDown();
+				try {
+					assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+				} catch (InterruptedException e) {
+					throw new EventException(e);
+				}
+				result.add("parallel");
+			});
+		}
+		events.on(TestGlobalEvent.class).withPriority(EventBus.PRIORITY_LOW).bind(evt -> result.add("last"));
+
+		events.publish(new TestGlobalEvent());
+		executor.shutdown();
+
+		assertThat(result).containsExactly("first", "parallel", "parallel", "last");
+	}
+
+	@Test
+	public void testParallelOnBoundedExecutor() throws Exception {
+		// The publishing task holds the only thread, so it has to call the parallel listeners itself.
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		GlobalEvents events = new GlobalEvents();
+		events.setExecutor(executor);
+		events.setParallel(true);
+
+		List<String> result = Collections.synchronizedList(new ArrayList<>());
+		for (int i = 0; i < 3; i++) {
+			events.on(TestGlobalEvent.class).parallel().bind(evt -> result.add("parallel"));
+		}
+		events.on(TestGlobalEvent.class).withPriority(EventBus.PRIORITY_LOW).bind(evt -> result.add("last"));
+
+		events.publishAsync(new TestGlobalEvent()).get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+
+		assertThat(result).containsExactly("parallel", "parallel", "parallel", "last");
+	}
+
+	@Test
+	public void testOrderedListenersStaySequential() {
+		GlobalEvents events = new GlobalEvents();
+		events.setParallel(true);
+
+		List<String> result = Collections.synchronizedList(new ArrayList<>());
+		events.on(TestGlobalEvent.class).parallel().withName("B").after("A").bind(evt -> result.add("B"));
+		events.on(TestGlobalEvent.class).parallel().withName("A").bind(evt -> result.add("A"));
+
+		events.publish(new TestGlobalEvent());
+
+		assertThat(result).containsExactly("A", "B");
+	}
+
+	@Test
+	public void testParallelException() throws Exception {
+		GlobalEvents events = new GlobalEvents();
+		events.setParallel(true);
+		events.on(TestGlobalEvent.class).parallel().bind(evt -> {
+		});
+		events.on(TestGlobalEvent.class).parallel().bind(evt -> {
+			throw new EventException("Listener failed");
+		});
+
+		try {
+			events.publishAsync(new TestGlobalEvent()).get(10, TimeUnit.SECONDS);
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isInstanceOf(EventException.class).hasMessage("Listener failed");
+			return;
+		}
+		throw new AssertionError("Exception was not propagated");
+	}
+
+	public static class TestGlobalEvent extends Event {
+	}
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.entity.component.Player;
+import nova.core.network.handler.PacketHandler;
+import nova.testutils.FakePacket;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class NetworkManagerTest {
+
+	public static class Counter implements Syncable {
+		@Sync
+		public int count;
+		@Sync
+		public String label = "counter";
+		@Sync
+		public List<String> names = new ArrayList<>();
+	}
+
+	/**
+	 * Counters with the same count are equal.
+	 */
+	public static class EqualCounter extends Counter {
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof EqualCounter && ((EqualCounter) obj).count == count;
+		}
+
+		@Override
+		public int hashCode() {
+			return count;
+		}
+	}
+
+	public static class CounterPacket implements PacketHandler<Counter> {
+		public final Counter target = new Counter();
+
+		@Override
+		public void read(Packet packet) {
+			target.read(packet);
+		}
+
+		@Override
+		public void write(Counter counter, Packet packet) {
+			counter.write(packet);
+		}
+
+		@Override
+		public void writeChanges(Counter counter, Packet packet, SyncState state) {
+			SyncCodec.of(counter.getClass()).writeChanges(counter, packet, state);
+		}
+
+		@Override
+		public boolean isHandlerFor(Object handler) {
+			return handler instanceof Counter;
+		}
+	}
+
+	public static class TestNetworkManager extends NetworkManager {
+		public final List<FakePacket> sent = new ArrayList<>();
+		public int batches;
+
+		@Override
+		public Packet newPacket() {
+			return new FakePacket();
+		}
+
+		@Override
+		public void sendPacket(Packet packet) {
+			sent.add((FakePacket) packet);
+		}
+
+		@Override
+		public void sendPackets(List<Packet> packets) {
+			batches++;
+			super.sendPackets(packets);
+		}
+
+		@Override
+		public void sendChat(Player player, String message) {
+
+		}
+
+		@Override
+		public boolean isServer() {
+			return true;
+		}
+	}
+
+	private TestNetworkManager network;
+	private CounterPacket handler;
+
+	@Before
+	public void setUp() {
+		network = new TestNetworkManager();
+		handler = new CounterPacket();
+		network.register(handler);
+	}
+
+	private void receive(FakePacket packet) {
+		packet.flip();
+		assertThat(network.getPacketType(packet.readInt())).isSameAs(handler);
+		packet.setID(packet.readInt());
+		handler.read(packet);
+		assertThat(packet.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testSyncChanges() {
+		Counter counter = new Counter();
+		counter.count = 1;
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(1);
+		receive(network.sent.get(0));
+		assertThat(handler.target.count).isEqualTo(1);
+		assertThat(handler.target.label).isEqualTo("counter");
+
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(1);
+
+		counter.count = 2;
+		handler.target.label = "unchanged";
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(2);
+		receive(network.sent.get(1));
+		assertThat(handler.target.count).isEqualTo(2);
+		assertThat(handler.target.label).isEqualTo("unchanged");
+	}
+
+	@Test
+	public void testMarkDirty() {
+		Counter counter = new Counter();
+		network.syncChanges(counter);
+		receive(network.sent.get(0));
+
+		counter.names.add("a");
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(1);
+
+		network.markDirty(counter, "names");
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(2);
+		receive(network.sent.get(1));
+		assertThat(handler.target.names).containsExactly("a");
+	}
+
+	@Test
+	public void testFullSync() {
+		Counter counter = new Counter();
+		network.syncChanges(counter);
+		network.sync(counter);
+		network.sync(counter);
+		assertThat(network.sent).hasSize(3);
+
+		handler.target.count = 5;
+		handler.target.label = "stale";
+		receive(network.sent.get(2));
+		assertThat(handler.target.count).isEqualTo(0);
+		assertThat(handler.target.label).isEqualTo("counter");
+	}
+
+	@Test
+	public void testBatching() {
+		network.setBatching(true);
+		Counter first = new Counter();
+		Counter second = new Counter();
+		network.sync(first);
+		network.sync(second);
+		first.count = 1;
+		network.sync(first);
+		first.count = 2;
+		network.sync(1, first);
+		assertThat(network.sent).isEmpty();
+
+		network.flush();
+		assertThat(network.batches).isEqualTo(1);
+		assertThat(network.sent).hasSize(3);
+		receive(network.sent.get(0));
+		assertThat(handler.target.count).isEqualTo(2);
+		assertThat(network.sent.get(2).getID()).isEqualTo(1);
+
+		network.flush();
+		assertThat(network.batches).isEqualTo(1);
+	}
+
+	@Test
+	public void testBatchedChanges() {
+		network.setBatching(true);
+		Counter counter = new Counter();
+		network.syncChanges(counter);
+		network.flush();
+		assertThat(network.sent).hasSize(1);
+
+		network.syncChanges(counter);
+		network.flush();
+		assertThat(network.sent).hasSize(1);
+		assertThat(network.batches).isEqualTo(1);
+
+		counter.count = 3;
+		network.syncChanges(counter);
+		network.sync(counter);
+		network.syncChanges(counter);
+		network.flush();
+		assertThat(network.sent).hasSize(2);
+
+		handler.target.label = "stale";
+		receive(network.sent.get(1));
+		assertThat(handler.target.count).isEqualTo(3);
+		assertThat(handler.target.label).isEqualTo("counter");
+	}
+
+	@Test
+	public void testChangesAfterFullSync() {
+		Counter counter = new Counter();
+		counter.count = 1;
+		network.syncChanges(counter);
+		counter.count = 2;
+		network.sync(counter);
+		counter.count = 1;
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(3);
+
+		network.sent.forEach(this::receive);
+		assertThat(handler.target.count).isEqualTo(1);
+
+		network.syncChanges(counter);
+		assertThat(network.sent).hasSize(3);
+	}
+
+	@Test
+	public void testStatesByIdentity() {
+		EqualCounter first = new EqualCounter();
+		EqualCounter second = new EqualCounter();
+		assertThat(first).isEqualTo(second);
+		assertThat(network.getSyncState(first)).isNotSameAs(network.getSyncState(second));
+
+		network.syncChanges(first);
+		network.syncChanges(second);
+		assertThat(network.sent).hasSize(2);
+	}
+}
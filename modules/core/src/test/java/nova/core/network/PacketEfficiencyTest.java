@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import nova.core.util.Profiler;
+import nova.internal.core.Game;
+import nova.testutils.FakePacket;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Measures {@link Packet#write(Object)} and {@link Packet#read(Class)} through the codec registry,
+ * against the chain of type checks they used before, and {@link Packet#writeData(Data)}/{@link Packet#readData()}.
+ * Also compares the size of a typical block sync in the fixed width and {@link Packet#isCompact() compact} formats.
+ */
+public class PacketEfficiencyTest {
+	private static final int ITERATIONS = 200_000;
+	private static final int DATA_ITERATIONS = 20_000;
+	private static final int ROUNDS = 5;
+
+	private static final Object[] VALUES = {
+		42, 3.5, "tile", true, 7L, new Vector3D(1, 2, 3), Arrays.asList(1, 2, 3), Optional.of(2.5F)
+	};
+	private static final Class<?>[] TYPES = {
+		int.class, double.class, String.class, boolean.class, long.class, Vector3D.class, List.class, Optional.class
+	};
+
+	public enum Mode {
+		IDLE, RUNNING
+	}
+
+	public static class Machine implements Syncable {
+		@Sync
+		public boolean active = true;
+		@Sync
+		public int energy = 12000;
+		@Sync
+		public float progress = 0.5F;
+		@Sync
+		public Mode mode = Mode.RUNNING;
+		@Sync
+		public String owner = "player";
+		@Sync
+		public List<Integer> slots = Arrays.asList(1, 0, 64);
+	}
+
+	public static void main(String[] args) {
+		Data data = new Data();
+		for (int i = 0; i < 16; i++) {
+			data.put("energy" + i, 1000L * i);
+			data.put("progress" + i, i);
+			data.put("name" + i, "machine");
+		}
+
+		Profiler registryWrite = new Profiler("Registry write");
+		Profiler chainWrite = new Profiler("Type check chain write");
+		Profiler registryRead = new Profiler("Registry read");
+		Profiler chainRead = new Profiler("Type check chain read");
+		Profiler dataWrite = new Profiler("Data write");
+		Profiler dataRead = new Profiler("Data read");
+		Profiler compactWrite = new Profiler("Compact registry write");
+
+		FakePacket packet = new FakePacket();
+		long blackhole = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			registryWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.clear();
+				for (Object value : VALUES) {
+					packet.write(value);
+				}
+			}
+			registryWrite.end();
+
+			chainWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.clear();
+				for (Object value : VALUES) {
+					chainWrite(packet, value);
+				}
+			}
+			chainWrite.end();
+
+			packet.flip();
+			registryRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.rewind();
+				for (Class<?> type : TYPES) {
+					blackhole += packet.read(type).hashCode();
+				}
+			}
+			registryRead.end();
+
+			chainRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.rewind();
+				for (Class<?> type : TYPES) {
+					blackhole += chainRead(packet, type).hashCode();
+				}
+			}
+			chainRead.end();
+
+			dataWrite.start();
+			for (int i = 0; i < DATA_ITERATIONS; i++) {
+				packet.clear();
+				packet.writeData(data);
+			}
+			dataWrite.end();
+
+			packet.flip();
+			dataRead.start();
+			for (int i = 0; i < DATA_ITERATIONS; i++) {
+				packet.rewind();
+				blackhole += packet.readData().size();
+			}
+			dataRead.end();
+
+			FakePacket compact = new FakePacket(true);
+			compactWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				compact.clear();
+				for (Object value : VALUES) {
+					compact.write(value);
+				}
+			}
+			compactWrite.end();
+		}
+
+		Game.logger().info(registryWrite.toString());
+		Game.logger().info(chainWrite.toString());
+		Game.logger().info(registryRead.toString());
+		Game.logger().info(chainRead.toString());
+		Game.logger().info(dataWrite.toString());
+		Game.logger().info(dataRead.toString());
+		Game.logger().info(compactWrite.toString());
+
+		Machine machine = new Machine();
+		Game.logger().info("Bytes per block sync: {} fixed width, {} compact",
+			blockSync(new FakePacket(), machine), blockSync(new FakePacket(true), machine));
+		Game.logger().info("Checksum: " + blackhole);
+	}
+
+	/**
+	 * Writes a block sync the way {@link NetworkManager#writePacket(Object, Packet)} and the block packet handler do.
+	 * @return The size of the packet in bytes
+	 */
+	private static int blockSync(FakePacket packet, Machine machine) {
+		packet.writeInt(0).writeInt(0);
+		packet.writeInt(-1234).writeInt(64).writeInt(5678);
+		machine.write(packet);
+		return packet.position();
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static void chainWrite(Packet packet, Object data) {
+		if (data instanceof Boolean) {
+			packet.writeBoolean((boolean) data);
+		} else if (data instanceof Byte) {
+			packet.writeByte((byte) data);
+		} else if (data instanceof Short) {
+			packet.writeShort((short) data);
+		} else if (data instanceof Integer) {
+			packet.writeInt((int) data);
+		} else if (data instanceof Long) {
+			packet.writeLong((long) data);
+		} else if (data instanceof Character) {
+			packet.writeChar((Character) data);
+		} else if (data instanceof Float) {
+			packet.writeFloat((float) data);
+		} else if (data instanceof Double) {
+			packet.writeDouble((double) data);
+		} else if (data instanceof String) {
+			packet.writeString((String) data);
+		} else if (data instanceof Enum) {
+			packet.writeEnum((Enum) data);
+		} else if (data instanceof Optional) {
+			Optional<?> optional = (Optional<?>) data;
+			if (optional.isPresent()) {
+				packet.writeShort(chainType(optional.get().getClass()));
+				chainWrite(packet, optional.get());
+			} else {
+				packet.writeShort(-1);
+			}
+		} else if (data instanceof Data) {
+			packet.writeData((Data) data);
+		} else if (data instanceof Syncable) {
+			((Syncable) data).write(packet);
+		} else if (data instanceof Storable) {
+			packet.writeStorable((Storable) data);
+		} else if (data instanceof Collection) {
+			Collection<?> col = (Collection<?>) data;
+			packet.writeInt(col.size());
+			col.forEach(obj -> {
+				packet.writeShort(chainType(obj.getClass()));
+				chainWrite(packet, obj);
+			});
+		} else if (data instanceof Vector3D) {
+			packet.writeDouble(((Vector3D) data).getX());
+			packet.writeDouble(((Vector3D) data).getY());
+			packet.writeDouble(((Vector3D) data).getZ());
+		} else if (data instanceof Vector2D) {
+			packet.writeDouble(((Vector2D) data).getX());
+			packet.writeDouble(((Vector2D) data).getY());
+		} else {
+			throw new IllegalArgumentException("Packet attempt to write an invalid object: " + data);
+		}
+	}
+
+	private static int chainType(Class<?> compare) {
+		return IntStream
+			.range(0, Data.dataTypes.length)
+			.filter(i -> Data.dataTypes[i].isAssignableFrom(compare))
+			.findFirst()
+			.getAsInt();
+	}
+
+	private static Object chainRead(Packet packet, Class<?> clazz) {
+		if (clazz == Boolean.class || clazz == boolean.class) {
+			return packet.readBoolean();
+		} else if (clazz == Byte.class || clazz == byte.class) {
+			return packet.readByte();
+		} else if (clazz == Short.class || clazz == short.class) {
+			return packet.readShort();
+		} else if (clazz == Integer.class || clazz == int.class) {
+			return packet.readInt();
+		} else if (clazz == Long.class || clazz == long.class) {
+			return packet.readLong();
+		} else if (clazz == Character.class || clazz == char.class) {
+			return packet.readChar();
+		} else if (clazz == Float.class || clazz == float.class) {
+			return packet.readFloat();
+		} else if (clazz == Double.class || clazz == double.class) {
+			return packet.readDouble();
+		} else if (clazz == String.class) {
+			return packet.readString();
+		} else if (clazz == Optional.class) {
+			short type = packet.readShort();
+			return type != -1 ? Optional.of(chainRead(packet, Data.dataTypes[type])) : Optional.empty();
+		} else if (Enum.class.isAssignableFrom(clazz)) {
+			return packet.readEnum();
+		} else if (Data.class.isAssignableFrom(clazz)) {
+			return packet.readData();
+		} else if (Vector3D.class.isAssignableFrom(clazz)) {
+			return packet.readVector3D();
+		} else if (Vector2D.class.isAssignableFrom(clazz)) {
+			return packet.readVector2D();
+		} else if (List.class.isAssignableFrom(clazz)) {
+			int size = packet.readInt();
+			Object[] values = new Object[size];
+			for (int i = 0; i < size; i++) {
+				values[i] = chainRead(packet, Data.dataTypes[packet.readShort()]);
+			}
+			return Arrays.asList(values);
+		} else {
+			return packet.readStorable();
+		}
+	}
+}
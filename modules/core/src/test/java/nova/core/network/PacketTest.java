@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import nova.core.retention.Store;
+import nova.testutils.FakePacket;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.junit.Test;
+
+import java.nio.BufferUnderflowException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PacketTest {
+
+	public enum TestEnum {
+		A, B
+	}
+
+	public static class TestStorable implements Storable {
+		@Store
+		public int value = 5;
+	}
+
+	public static class TestSyncable implements Syncable, Storable {
+		public int value;
+
+		@Override
+		public void write(Packet packet) {
+			packet.writeInt(value);
+		}
+	}
+
+	public static final class Point {
+		final int x;
+		final int y;
+
+		Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		roundTrip(new FakePacket());
+	}
+
+	@Test
+	public void testCompactRoundTrip() {
+		roundTrip(new FakePacket(true));
+	}
+
+	private void roundTrip(FakePacket packet) {
+		packet.write(true)
+			.write((byte) -3)
+			.write((short) 300)
+			.write(-70000)
+			.write(Long.MIN_VALUE)
+			.write('x')
+			.write(1.5F)
+			.write(Math.PI)
+			.write("Hello ☃")
+			.write(TestEnum.B)
+			.write(Optional.of("present"))
+			.write(Optional.empty())
+			.write(new Vector3D(1, 2, 3))
+			.write(new Vector2D(4, 5))
+			.write(Arrays.asList(1, "two", 3.0))
+			.write(new HashSet<>(Arrays.asList("a", "b")))
+			.write(new TestStorable());
+		packet.flip();
+
+		assertThat(packet.read(boolean.class)).isTrue();
+		assertThat(packet.read(Byte.class)).isEqualTo((byte) -3);
+		assertThat(packet.read(short.class)).isEqualTo((short) 300);
+		assertThat(packet.read(int.class)).isEqualTo(-70000);
+		assertThat(packet.read(Long.class)).isEqualTo(Long.MIN_VALUE);
+		assertThat(packet.read(char.class)).isEqualTo('x');
+		assertThat(packet.read(float.class)).isEqualTo(1.5F);
+		assertThat(packet.read(Double.class)).isEqualTo(Math.PI);
+		assertThat(packet.read(String.class)).isEqualTo("Hello ☃");
+		assertThat(packet.read(TestEnum.class)).isEqualTo(TestEnum.B);
+		@SuppressWarnings("unchecked")
+		Optional<String> present = packet.read(Optional.class);
+		assertThat(present).contains("present");
+		assertThat(packet.read(Optional.class).isPresent()).isFalse();
+		assertThat(packet.read(Vector3D.class)).isEqualTo(new Vector3D(1, 2, 3));
+		assertThat(packet.read(Vector2D.class)).isEqualTo(new Vector2D(4, 5));
+		@SuppressWarnings("unchecked")
+		List<Object> list = packet.read(List.class);
+		assertThat(list).containsExactly(1, "two", 3.0);
+		@SuppressWarnings("unchecked")
+		Set<String> set = packet.read(Set.class);
+		assertThat(set).containsOnly("a", "b");
+		assertThat(packet.read(TestStorable.class).value).isEqualTo(5);
+		assertThat(packet.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testBogusListSize() {
+		FakePacket packet = new FakePacket();
+		packet.writeInt(Integer.MAX_VALUE);
+		packet.flip();
+		assertThatThrownBy(packet::readList).isInstanceOf(BufferUnderflowException.class);
+	}
+
+	@Test
+	public void testVarInt() {
+		FakePacket packet = new FakePacket();
+		int[] ints = { 0, 1, -1, 63, -64, 64, -65, 300, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		long[] longs = { 0, -1, 1L << 40, Long.MAX_VALUE, Long.MIN_VALUE };
+		for (int value : ints) {
+			packet.writeVarInt(value);
+		}
+		for (long value : longs) {
+			packet.writeVarLong(value);
+		}
+		packet.flip();
+		for (int value : ints) {
+			assertThat(packet.readVarInt()).isEqualTo(value);
+		}
+		for (long value : longs) {
+			assertThat(packet.readVarLong()).isEqualTo(value);
+		}
+		assertThat(packet.size()).isEqualTo(0);
+
+		packet.clear();
+		packet.writeVarInt(-64).writeVarInt(64).writeVarInt(Integer.MIN_VALUE).writeVarLong(Long.MIN_VALUE);
+		assertThat(packet.position()).isEqualTo(1 + 2 + 5 + 10);
+	}
+
+	@Test
+	public void testCompactWireFormat() {
+		FakePacket packet = new FakePacket(true);
+		packet.writeInt(1).writeShort(-1).writeLong(-2).writeChar('a');
+		assertThat(packet.position()).isEqualTo(5);
+
+		packet.clear();
+		packet.write(TestEnum.B);
+		int enumSize = packet.position();
+		packet.write(TestEnum.A);
+		assertThat(packet.position() - enumSize).isEqualTo(2);
+
+		packet.write("repeated").write("repeated");
+		packet.flip();
+		assertThat(packet.read(TestEnum.class)).isEqualTo(TestEnum.B);
+		assertThat(packet.read(TestEnum.class)).isEqualTo(TestEnum.A);
+		assertThat(packet.readString()).isEqualTo("repeated");
+		assertThat(packet.readByte()).isEqualTo((byte) 2);
+		assertThat(packet.size()).isEqualTo(0);
+
+		FakePacket invalid = new FakePacket(true);
+		invalid.writeString(TestEnum.class.getName()).writeVarInt(2);
+		invalid.flip();
+		assertThatThrownBy(invalid::readEnum).isInstanceOf(NetworkException.class);
+	}
+
+	@Test
+	public void testStringTable() {
+		FakePacket packet = new FakePacket();
+		StringTable writer = new StringTable(2);
+		for (String value : Arrays.asList("a", "b", "c", "a", "c", "b")) {
+			writer.write(packet, value);
+		}
+		assertThat(writer.size()).isEqualTo(2);
+		packet.flip();
+
+		StringTable reader = new StringTable(2);
+		for (String value : Arrays.asList("a", "b", "c", "a", "c", "b")) {
+			assertThat(reader.read(packet)).isEqualTo(value);
+		}
+		assertThat(packet.size()).isEqualTo(0);
+
+		packet.clear();
+		packet.writeVarInt(3);
+		packet.flip();
+		assertThatThrownBy(() -> new StringTable().read(packet)).isInstanceOf(NetworkException.class);
+
+		packet.clear();
+		packet.writeVarInt(0);
+		packet.writeVarInt(Integer.MAX_VALUE);
+		packet.writeByte('a');
+		packet.flip();
+		assertThatThrownBy(() -> new StringTable().read(packet)).isInstanceOf(NetworkException.class);
+		packet.rewind();
+		packet.readVarInt();
+		packet.readVarInt();
+		assertThatThrownBy(() -> packet.readBytes(2)).isInstanceOf(IndexOutOfBoundsException.class);
+	}
+
+	@Test
+	public void testWireFormat() {
+		FakePacket packet = new FakePacket();
+		packet.write(Collections.singletonList(7));
+		packet.write(Optional.of("s"));
+		packet.flip();
+
+		assertThat(packet.readInt()).isEqualTo(1);
+		assertThat(packet.readShort()).isEqualTo((short) Arrays.asList(Data.dataTypes).indexOf(Integer.class));
+		assertThat(packet.readInt()).isEqualTo(7);
+		assertThat(packet.readShort()).isEqualTo((short) Arrays.asList(Data.dataTypes).indexOf(String.class));
+		assertThat(packet.readString()).isEqualTo("s");
+
+		assertThat(packet.getType(Integer.class)).isEqualTo(3);
+		assertThat(packet.getType(TestStorable.class)).isEqualTo(Arrays.asList(Data.dataTypes).indexOf(Storable.class));
+		assertThat(packet.getType(Data.class)).isEqualTo(Arrays.asList(Data.dataTypes).indexOf(Data.class));
+	}
+
+	@Test
+	public void testData() {
+		Data data = new Data();
+		data.put("int", 1);
+		data.put("string", "value");
+		data.putDouble("double", 2.5);
+
+		FakePacket packet = new FakePacket();
+		packet.write(data);
+		packet.flip();
+		assertThat(packet.read(Data.class)).isEqualTo(data);
+	}
+
+	@Test
+	public void testSyncableBeforeStorable() {
+		TestSyncable syncable = new TestSyncable();
+		syncable.value = 42;
+		FakePacket packet = new FakePacket();
+		packet.write(syncable);
+		packet.flip();
+		assertThat(packet.size()).isEqualTo(4);
+		assertThat(packet.readInt()).isEqualTo(42);
+
+		assertThatThrownBy(() -> packet.read(TestSyncable.class)).isInstanceOf(NetworkException.class);
+	}
+
+	@Test
+	public void testInvalid() {
+		FakePacket packet = new FakePacket();
+		assertThatThrownBy(() -> packet.write(new Object())).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> packet.write((Object) null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> packet.write(Collections.singletonList(Optional.empty()))).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testCustomCodec() {
+		FakePacket packet = new FakePacket();
+		assertThatThrownBy(() -> packet.write(new Point(1, 2))).isInstanceOf(IllegalArgumentException.class);
+
+		PacketCodecs.register(1000, Point.class, PacketCodecs.Codec.of(
+			(p, point) -> p.writeInt(point.x).writeInt(point.y),
+			(p, type) -> new Point(p.readInt(), p.readInt())));
+		assertThatThrownBy(() -> PacketCodecs.register(1000, Point.class, null)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> PacketCodecs.register(3, Point.class, null)).isInstanceOf(IllegalArgumentException.class);
+
+		packet.write(new Point(1, 2));
+		packet.write(Arrays.asList(new Point(3, 4), 5));
+		packet.flip();
+
+		Point point = packet.read(Point.class);
+		assertThat(point.x).isEqualTo(1);
+		assertThat(point.y).isEqualTo(2);
+		List<Object> list = packet.readList();
+		assertThat(((Point) list.get(0)).y).isEqualTo(4);
+		assertThat(list.get(1)).isEqualTo(5);
+		assertThat(packet.getType(Point.class)).isEqualTo(1000);
+	}
+}
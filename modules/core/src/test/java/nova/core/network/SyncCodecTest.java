@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.testutils.FakePacket;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SyncCodecTest {
+
+	public static class Base implements Syncable {
+		@Sync
+		public boolean active;
+		@Sync(ids = {0, 1})
+		public int energy;
+	}
+
+	public static class Machine extends Base {
+		@Sync
+		public byte mode;
+		@Sync
+		public short heat;
+		@Sync(ids = 1)
+		public long ticks;
+		@Sync
+		public char symbol;
+		@Sync
+		public float progress;
+		@Sync
+		public double temperature;
+		@Sync
+		public String name = "";
+		@Sync
+		public Integer boxed = 0;
+		@Sync
+		public Optional<String> owner = Optional.empty();
+		@Sync
+		public Vector3D position = Vector3D.ZERO;
+		@Sync(ids = 2)
+		public Inner inner = new Inner();
+		public int notSynced;
+	}
+
+	public static class Inner implements Syncable {
+		@Sync(ids = 2)
+		public int value;
+	}
+
+	public enum Mode {
+		OFF, ON
+	}
+
+	public static class Switch implements Syncable {
+		@Sync
+		public Mode mode = Mode.OFF;
+		@Sync
+		public int power;
+	}
+
+	private static Machine machine() {
+		Machine machine = new Machine();
+		machine.active = true;
+		machine.energy = 1000;
+		machine.mode = 3;
+		machine.heat = -5;
+		machine.ticks = 1L << 40;
+		machine.symbol = 'ß';
+		machine.progress = 0.5F;
+		machine.temperature = 36.6;
+		machine.name = "furnace";
+		machine.boxed = 7;
+		machine.owner = Optional.of("player");
+		machine.position = new Vector3D(1, 2, 3);
+		machine.inner.value = 9;
+		machine.notSynced = 4;
+		return machine;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		FakePacket packet = new FakePacket();
+		machine().write(packet);
+		packet.flip();
+
+		Machine read = new Machine();
+		read.read(packet);
+		assertThat(packet.size()).isEqualTo(0);
+		assertThat(read.active).isTrue();
+		assertThat(read.energy).isEqualTo(1000);
+		assertThat(read.mode).isEqualTo((byte) 3);
+		assertThat(read.heat).isEqualTo((short) -5);
+		assertThat(read.ticks).isEqualTo(0L);
+		assertThat(read.symbol).isEqualTo('ß');
+		assertThat(read.progress).isEqualTo(0.5F);
+		assertThat(read.temperature).isEqualTo(36.6);
+		assertThat(read.name).isEqualTo("furnace");
+		assertThat(read.boxed).isEqualTo(7);
+		assertThat(read.owner).contains("player");
+		assertThat(read.position).isEqualTo(new Vector3D(1, 2, 3));
+		assertThat(read.inner.value).isEqualTo(0);
+		assertThat(read.notSynced).isEqualTo(0);
+	}
+
+	@Test
+	public void testCompactRoundTrip() {
+		FakePacket packet = new FakePacket(true);
+		machine().write(packet);
+		Switch on = new Switch();
+		on.mode = Mode.ON;
+		on.power = -3;
+		on.write(packet);
+		packet.flip();
+
+		Machine read = new Machine();
+		read.read(packet);
+		assertThat(read.ticks).isEqualTo(0L);
+		assertThat(read.energy).isEqualTo(1000);
+		assertThat(read.symbol).isEqualTo('ß');
+		assertThat(read.name).isEqualTo("furnace");
+		assertThat(read.owner).contains("player");
+		assertThat(read.position).isEqualTo(new Vector3D(1, 2, 3));
+
+		int enumStart = packet.position();
+		Switch readSwitch = new Switch();
+		readSwitch.read(packet);
+		assertThat(packet.position() - enumStart).isEqualTo(3);
+		assertThat(readSwitch.mode).isEqualTo(Mode.ON);
+		assertThat(readSwitch.power).isEqualTo(-3);
+		assertThat(packet.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testWireFormat() {
+		Machine machine = machine();
+		FakePacket packet = new FakePacket();
+		machine.write(packet);
+
+		FakePacket expected = new FakePacket();
+		expected.writeByte(0xFF)
+			.writeByte(0x07)
+			.write(machine.mode)
+			.write(machine.heat)
+			.write(machine.symbol)
+			.write(machine.progress)
+			.write(machine.temperature)
+			.write(machine.name)
+			.write(machine.boxed)
+			.write(machine.owner)
+			.write(machine.position)
+			.write(machine.active)
+			.write(machine.energy);
+		assertThat(packet.toByteArray()).isEqualTo(expected.toByteArray());
+	}
+
+	@Test
+	public void testIds() {
+		assertThat(SyncCodec.of(Machine.class).getFieldNames(1)).containsExactly("ticks", "energy");
+		assertThat(SyncCodec.of(Machine.class).getFieldNames(2)).containsExactly("inner");
+		assertThat(SyncCodec.of(Machine.class).getFieldNames(5)).isEmpty();
+
+		FakePacket packet = new FakePacket();
+		packet.setID(1);
+		machine().write(packet);
+		packet.flip();
+		assertThat(packet.readByte()).isEqualTo((byte) 0x03);
+		assertThat(packet.readLong()).isEqualTo(1L << 40);
+		assertThat(packet.readInt()).isEqualTo(1000);
+		assertThat(packet.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void testNestedSyncable() {
+		FakePacket packet = new FakePacket();
+		packet.setID(2);
+		machine().write(packet);
+		packet.flip();
+
+		Machine read = new Machine();
+		Inner inner = read.inner;
+		read.read(packet);
+		assertThat(read.inner).isSameAs(inner);
+		assertThat(inner.value).isEqualTo(9);
+	}
+
+	@Test
+	public void testChanges() {
+		Machine machine = machine();
+		SyncState state = SyncCodec.of(Machine.class).newState();
+		Machine read = new Machine();
+
+		FakePacket packet = new FakePacket();
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isTrue();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		FakePacket full = new FakePacket();
+		machine.write(full);
+		assertThat(packet.toByteArray()).isEqualTo(full.toByteArray());
+		packet.flip();
+		read.read(packet);
+		assertThat(read.name).isEqualTo("furnace");
+
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isFalse();
+		packet.clear();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		assertThat(packet.toByteArray()).isEqualTo(new byte[2]);
+
+		machine.energy = 999;
+		machine.position = new Vector3D(1, 2, 3);
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isTrue();
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isTrue();
+		packet.clear();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		FakePacket expected = new FakePacket();
+		expected.writeByte(0x00).writeByte(0x04).writeInt(999);
+		assertThat(packet.toByteArray()).isEqualTo(expected.toByteArray());
+
+		read.name = "other";
+		packet.flip();
+		read.read(packet);
+		assertThat(packet.size()).isEqualTo(0);
+		assertThat(read.energy).isEqualTo(999);
+		assertThat(read.name).isEqualTo("other");
+
+		// Other packet IDs keep their own state
+		packet.clear();
+		packet.setID(1);
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		packet.flip();
+		assertThat(packet.readByte()).isEqualTo((byte) 0x03);
+	}
+
+	@Test
+	public void testMarkDirty() {
+		Machine machine = machine();
+		SyncState state = SyncCodec.of(Machine.class).newState();
+		FakePacket packet = new FakePacket();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+
+		state.markDirty("temperature");
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isTrue();
+		packet.clear();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		FakePacket expected = new FakePacket();
+		expected.writeByte(0x10).writeByte(0x00).writeDouble(36.6);
+		assertThat(packet.toByteArray()).isEqualTo(expected.toByteArray());
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 0, state)).isFalse();
+
+		state.reset();
+		packet.clear();
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		packet.flip();
+		assertThat(packet.readByte()).isEqualTo((byte) 0xFF);
+
+		assertThatThrownBy(() -> state.markDirty("notSynced")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> SyncCodec.of(Base.class).writeChanges(new Base(), new FakePacket(), state))
+			.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testNestedChanges() {
+		Machine machine = machine();
+		SyncState state = SyncCodec.of(Machine.class).newState();
+		FakePacket packet = new FakePacket();
+		packet.setID(2);
+		SyncCodec.of(Machine.class).writeChanges(machine, packet, state);
+		assertThat(SyncCodec.of(Machine.class).hasChanges(machine, 2, state)).isTrue();
+	}
+
+	@Test
+	public void testNull() {
+		Machine machine = machine();
+		machine.name = null;
+		assertThatThrownBy(() -> machine.write(new FakePacket())).isInstanceOf(NullPointerException.class);
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.network;
+
+import nova.core.util.Profiler;
+import nova.core.util.ReflectionUtil;
+import nova.internal.core.Game;
+import nova.testutils.FakePacket;
+
+import java.util.Arrays;
+
+/**
+ * Compares synchronizing {@link Sync @Sync} fields through the compiled {@link SyncCodec}
+ * against walking the annotated fields reflectively on every packet.
+ */
+public class SyncEfficiencyTest {
+	private static final int ITERATIONS = 1_000_000;
+	private static final int ROUNDS = 5;
+
+	public static class Machine implements Syncable {
+		@Sync
+		public int energy = 1000;
+		@Sync
+		public int progress = 20;
+		@Sync
+		public double temperature = 36.6;
+		@Sync
+		public boolean active = true;
+		@Sync
+		public long ticks = 123456789L;
+		@Sync(ids = 1)
+		public String owner = "player";
+	}
+
+	public static void main(String[] args) {
+		Machine machine = new Machine();
+		FakePacket packet = new FakePacket();
+
+		Profiler compiledWrite = new Profiler("Compiled write");
+		Profiler reflectiveWrite = new Profiler("Reflective write");
+		Profiler compiledRead = new Profiler("Compiled read");
+		Profiler reflectiveRead = new Profiler("Reflective read");
+
+		long blackhole = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			compiledWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.clear();
+				machine.write(packet);
+			}
+			compiledWrite.end();
+
+			reflectiveWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.clear();
+				reflectiveWrite(machine, packet);
+			}
+			reflectiveWrite.end();
+
+			packet.flip();
+			compiledRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.rewind();
+				machine.read(packet);
+				blackhole += machine.energy;
+			}
+			compiledRead.end();
+
+			reflectiveRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				packet.rewind();
+				reflectiveRead(machine, packet);
+				blackhole += machine.energy;
+			}
+			reflectiveRead.end();
+		}
+
+		Game.logger().info(compiledWrite.toString());
+		Game.logger().info(reflectiveWrite.toString());
+		Game.logger().info(compiledRead.toString());
+		Game.logger().info(reflectiveRead.toString());
+		Game.logger().info("Checksum: " + blackhole);
+	}
+
+	private static void reflectiveWrite(Object syncable, Packet packet) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, syncable.getClass(), (field, annotation) -> {
+			if (Arrays.stream(annotation.ids()).anyMatch(i -> i == packet.getID())) {
+				try {
+					packet.write(field.get(syncable));
+				} catch (IllegalAccessException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+
+	private static void reflectiveRead(Object syncable, Packet packet) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Sync.class, syncable.getClass(), (field, annotation) -> {
+			if (Arrays.stream(annotation.ids()).anyMatch(i -> i == packet.getID())) {
+				try {
+					field.set(syncable, packet.read(field.getType()));
+				} catch (IllegalAccessException e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncFileWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final List<Path> failures = new ArrayList<>();
+	private AsyncFileWriter writer;
+
+	@Before
+	public void setUp() {
+		writer = new AsyncFileWriter("Test Writer", 2, AsyncFileWriter.SyncPolicy.FILE_AND_DIRECTORY, (path, e) -> {
+			synchronized (failures) {
+				failures.add(path);
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		writer.close();
+	}
+
+	private static AsyncFileWriter.Output text(String text) {
+		return out -> {
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+			out.close();
+		};
+	}
+
+	private static String read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testWrite() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("sub").resolve("a.nbt");
+		writer.write(path, text("first"));
+		writer.flush(path);
+		assertThat(read(path)).isEqualTo("first");
+
+		writer.write(path, text("second"));
+		writer.flush();
+		assertThat(read(path)).isEqualTo("second");
+		assertThat(writer.getWrittenCount()).isEqualTo(2);
+		assertThat(writer.getPendingCount()).isEqualTo(0);
+		assertThat(path.getParent().toFile().list()).containsOnly("a.nbt");
+	}
+
+	@Test
+	public void testCoalescing() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Path blocker = folder.getRoot().toPath().resolve("blocker");
+		Path path = folder.getRoot().toPath().resolve("b");
+
+		writer.write(blocker, out -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+		});
+		started.await();
+		writer.write(path, text("old"));
+		writer.write(path, text("new"));
+		assertThat(writer.getCoalescedCount()).isEqualTo(1);
+		assertThat(writer.getPendingCount()).isEqualTo(2);
+
+		release.countDown();
+		writer.flush();
+		assertThat(read(path)).isEqualTo("new");
+		assertThat(writer.getWrittenCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Path root = folder.getRoot().toPath();
+
+		writer.write(root.resolve("blocker"), out -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+		});
+		started.await();
+		writer.write(root.resolve("1"), text("1"));
+		writer.write(root.resolve("2"), text("2"));
+
+		CountDownLatch queued = new CountDownLatch(1);
+		Thread producer = new Thread(() -> {
+			writer.write(root.resolve("3"), text("3"));
+			queued.countDown();
+		});
+		producer.start();
+		assertThat(queued.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+		release.countDown();
+		assertThat(queued.await(10, TimeUnit.SECONDS)).isTrue();
+		writer.flush();
+		assertThat(read(root.resolve("3"))).isEqualTo("3");
+	}
+
+	@Test
+	public void testFailure() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("c");
+		writer.write(path, text("kept"));
+		writer.write(path.resolveSibling("d"), text("other"));
+		writer.flush();
+
+		writer.write(path, out -> {
+			out.write(1);
+			throw new IOException("Disk full");
+		});
+		writer.flush();
+
+		assertThat(read(path)).isEqualTo("kept");
+		assertThat(writer.getFailedCount()).isEqualTo(1);
+		assertThat(failures).containsExactly(path.toAbsolutePath());
+		assertThat(folder.getRoot().list()).containsOnly("c", "d");
+	}
+
+	@Test
+	public void testClose() throws IOException {
+		Path path = folder.getRoot().toPath().resolve("e");
+		writer.write(path, text("closing"));
+		writer.close();
+		assertThat(read(path)).isEqualTo("closing");
+		assertThatThrownBy(() -> writer.write(path, text("closed"))).isInstanceOf(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BinaryDataTest {
+
+	public enum TestEnum {
+		A, B
+	}
+
+	public static class TestStorable implements Storable {
+		@Store
+		private int value = 5;
+	}
+
+	private static Data createData() {
+		Data data = new Data(TestStorable.class);
+		data.put("boolean", true);
+		data.put("byte", (byte) -12);
+		data.put("short", (short) -1234);
+		data.put("int", Integer.MIN_VALUE);
+		data.put("smallInt", 3);
+		data.put("long", Long.MAX_VALUE);
+		data.put("char", 'é');
+		data.put("float", 1.5F);
+		data.put("double", -Math.PI);
+		data.put("nan", Double.NaN);
+		data.put("string", "Hello ☃ world");
+		data.put("emptyString", "");
+		data.put("bigInteger", new BigInteger("-123456789012345678901234567890"));
+		data.put("bigDecimal", new BigDecimal("12345678901234567890.0987654321"));
+		data.put("enum", TestEnum.B);
+		data.put("storable", new TestStorable());
+		data.put("collection", Arrays.asList("a", "b", "a"));
+		data.put("vector3D", new Vector3D(1, 2, 3));
+		data.put("vector2D", new Vector2D(4, 5));
+
+		Data nested = new Data();
+		nested.put("string", "Hello ☃ world");
+		nested.put("deeper", new Data());
+		data.put("nested", nested);
+		return data;
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Data data = createData();
+		Data read = Data.fromBinary(data.toBinary());
+
+		assertThat(read).isEqualTo(data);
+		assertThat(read.className).isEqualTo(TestStorable.class.getName());
+		assertThat(read.<Data>get("enum").className).isEqualTo(TestEnum.class.getName());
+		assertThat(read.getVector3D("vector3D")).isEqualTo(new Vector3D(1, 2, 3));
+		assertThat(read.<Data>get("nested").className).isNull();
+		assertThat((Object) read.getStorable("storable")).isInstanceOf(TestStorable.class);
+	}
+
+	@Test
+	public void testStreams() throws Exception {
+		Data data = createData();
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryData.write(data, new DataOutputStream(bytes));
+		assertThat(bytes.toByteArray()).isEqualTo(data.toBinary());
+		assertThat(BinaryData.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isEqualTo(data);
+
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		BinaryData.write(data, buffer);
+		buffer.flip();
+		assertThat(buffer.remaining()).isEqualTo(bytes.size());
+		assertThat(BinaryData.read(buffer)).isEqualTo(data);
+		assertThat(buffer.hasRemaining()).isFalse();
+	}
+
+	@Test
+	public void testStringsAreInterned() {
+		Data once = new Data();
+		once.put("key", "some long repeated value");
+		Data twice = new Data();
+		twice.put("key", "some long repeated value");
+		twice.put("other", "some long repeated value");
+
+		// The repeated value is written as a one byte reference, plus the new key and its tag.
+		assertThat(twice.toBinary().length - once.toBinary().length).isEqualTo(1 + 1 + "other".length() + 1 + 1);
+	}
+
+	@Test
+	public void testVarInts() {
+		Data data = new Data();
+		data.put("i", 1);
+		assertThat(data.toBinary()).hasSize(1 + 1 + 3 + 1 + 1);
+	}
+
+	@Test
+	public void testUnsupportedVersion() {
+		byte[] bytes = new Data().toBinary();
+		bytes[0] = (byte) (BinaryData.VERSION + 1);
+		assertThatThrownBy(() -> Data.fromBinary(bytes)).isInstanceOf(DataException.class);
+	}
+
+	@Test
+	public void testInvalidLengths() {
+		// One entry whose key is a new string of length Integer.MAX_VALUE, then -1.
+		byte[] huge = { BinaryData.VERSION, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 'a' };
+		byte[] negative = { BinaryData.VERSION, 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 'a' };
+		assertThatThrownBy(() -> Data.fromBinary(huge)).isInstanceOf(DataException.class);
+		assertThatThrownBy(() -> Data.fromBinary(negative)).isInstanceOf(DataException.class);
+
+		// A stream can not tell how much is left, so it runs out instead.
+		assertThatThrownBy(() -> BinaryData.read(new DataInputStream(new ByteArrayInputStream(huge)))).isInstanceOf(EOFException.class);
+		assertThatThrownBy(() -> BinaryData.read(new DataInputStream(new ByteArrayInputStream(negative)))).isInstanceOf(DataException.class);
+	}
+
+	@Test
+	public void testLongStringFromStream() throws IOException {
+		char[] chars = new char[20000];
+		Arrays.fill(chars, 'x');
+		Data data = new Data();
+		data.put("key", new String(chars));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryData.write(data, new DataOutputStream(bytes));
+		assertThat(BinaryData.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isEqualTo(data);
+	}
+
+	@Test
+	public void testNestingDepth() {
+		Data data = new Data();
+		for (int i = 0; i < 1000; i++) {
+			Data outer = new Data();
+			outer.put("inner", data);
+			data = outer;
+		}
+		byte[] bytes = data.toBinary();
+		assertThatThrownBy(() -> Data.fromBinary(bytes)).isInstanceOf(DataException.class);
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.Profiler;
+import nova.internal.core.Game;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares the size and speed of the JSON and the binary {@link Data} formats, using data shaped like a saved region of tiles,
+ * and the cost of saving numeric tile state through boxed and typed puts.
+ */
+public class DataEfficiencyTest {
+	private static final int TILES = 1024;
+	private static final int ITERATIONS = 200;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) {
+		Data data = createSave();
+		String json = Data.toJSON(data);
+		byte[] binary = data.toBinary();
+		Game.logger().info(String.format("JSON: %d bytes, binary: %d bytes", json.getBytes(StandardCharsets.UTF_8).length, binary.length));
+
+		Profiler jsonWrite = new Profiler("JSON write");
+		Profiler jsonRead = new Profiler("JSON read");
+		Profiler binaryWrite = new Profiler("Binary write");
+		Profiler binaryRead = new Profiler("Binary read");
+		Profiler boxedSave = new Profiler("Boxed tile save");
+		Profiler typedSave = new Profiler("Typed tile save");
+
+		long blackhole = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			jsonWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				blackhole += Data.toJSON(data).length();
+			}
+			jsonWrite.end();
+
+			jsonRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				blackhole += Data.fromJSON(json).size();
+			}
+			jsonRead.end();
+
+			binaryWrite.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				blackhole += data.toBinary().length;
+			}
+			binaryWrite.end();
+
+			binaryRead.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				blackhole += Data.fromBinary(binary).size();
+			}
+			binaryRead.end();
+
+			boxedSave.start();
+			for (int i = 0; i < ITERATIONS * TILES; i++) {
+				Data tile = new Data();
+				tile.put("energy", 1000L * i);
+				tile.put("progress", i % 200);
+				tile.put("temperature", 20.5 + i);
+				tile.put("active", i % 2 == 0);
+				blackhole += tile.size();
+			}
+			boxedSave.end();
+
+			typedSave.start();
+			for (int i = 0; i < ITERATIONS * TILES; i++) {
+				Data tile = new Data();
+				tile.putLong("energy", 1000L * i);
+				tile.putInt("progress", i % 200);
+				tile.putDouble("temperature", 20.5 + i);
+				tile.putBoolean("active", i % 2 == 0);
+				blackhole += tile.size();
+			}
+			typedSave.end();
+		}
+
+		Game.logger().info(jsonWrite.toString());
+		Game.logger().info(binaryWrite.toString());
+		Game.logger().info(jsonRead.toString());
+		Game.logger().info(binaryRead.toString());
+		Game.logger().info(boxedSave.toString());
+		Game.logger().info(typedSave.toString());
+		Game.logger().info("Checksum: " + blackhole);
+	}
+
+	static Data createSave() {
+		Data region = new Data();
+		for (int i = 0; i < TILES; i++) {
+			Data tile = new Data();
+			tile.put("id", "nova_example:machine");
+			tile.put("x", i % 16);
+			tile.put("y", 64 + i / 256);
+			tile.put("z", (i / 16) % 16);
+			tile.put("energy", 1000L * i);
+			tile.put("temperature", 20.5 + i);
+			tile.put("active", i % 2 == 0);
+			tile.put("owner", "owner-" + (i % 4));
+
+			Data inventory = new Data();
+			for (int slot = 0; slot < 4; slot++) {
+				Data stack = new Data();
+				stack.put("id", "minecraft:iron_ingot");
+				stack.put("count", slot * 16);
+				inventory.put(Integer.toString(slot), stack);
+			}
+			tile.put("inventory", inventory);
+			region.put(Integer.toString(i), tile);
+		}
+		return region;
+	}
+}
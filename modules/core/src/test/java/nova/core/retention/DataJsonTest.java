@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.junit.Test;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataJsonTest {
+
+	private static String toJSONWithGenerator(Data data) {
+		StringWriter writer = new StringWriter();
+		try (JsonGenerator generator = Json.createGenerator(writer)) {
+			Data.toJSON(data, generator);
+		}
+		return writer.toString();
+	}
+
+	@Test
+	public void testWriterMatchesGenerator() {
+		Data data = new Data();
+		data.put("byte", (byte) -3);
+		data.put("short", (short) 300);
+		data.put("int", Integer.MIN_VALUE);
+		data.put("long", Long.MAX_VALUE);
+		data.put("float", 0.1F);
+		data.put("double", 1e-300);
+		data.put("bigInteger", new BigInteger("123456789012345678901234567890"));
+		data.put("bigDecimal", new BigDecimal("1.50E+400"));
+		data.put("boolean", false);
+		data.put("char", 'x');
+		data.put("escapes", "quote \" backslash \\ slash / \b\f\n\r\t \u0000\u001f\u007f   ☃ 😀");
+		data.put("key \"with\"\nescapes", "value");
+		data.put("collection", Arrays.asList(1, "two", 3.0, Arrays.asList(true, false)));
+		data.put("empty", new Data());
+
+		Data nested = new Data(Data.class);
+		nested.put("value", 1);
+		data.put("nested", nested);
+
+		assertThat(Data.toJSON(data)).isEqualTo(toJSONWithGenerator(data));
+	}
+
+	@Test
+	public void testWriterMatchesGeneratorRandom() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			Data data = randomData(random, 0);
+			assertThat(Data.toJSON(data)).isEqualTo(toJSONWithGenerator(data));
+		}
+	}
+
+	private static Data randomData(Random random, int depth) {
+		Data data = new Data();
+		int size = random.nextInt(8);
+		for (int i = 0; i < size; i++) {
+			String key = randomString(random);
+			switch (random.nextInt(depth < 3 ? 9 : 7)) {
+				case 0:
+					data.put(key, random.nextInt());
+					break;
+				case 1:
+					data.put(key, random.nextLong());
+					break;
+				case 2:
+					data.put(key, random.nextDouble() * Math.pow(10, random.nextInt(40) - 20));
+					break;
+				case 3:
+					data.put(key, random.nextFloat());
+					break;
+				case 4:
+					data.put(key, random.nextBoolean());
+					break;
+				case 5:
+					data.put(key, randomString(random));
+					break;
+				case 6:
+					data.put(key, (char) random.nextInt(0x3000));
+					break;
+				case 7:
+					data.put(key, randomData(random, depth + 1));
+					break;
+				default:
+					data.put(key, Arrays.asList(random.nextInt(), randomString(random), randomData(random, depth + 1)));
+			}
+		}
+		return data;
+	}
+
+	private static String randomString(Random random) {
+		char[] chars = new char[random.nextInt(12)];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) (random.nextBoolean() ? 'a' + random.nextInt(26) : random.nextInt(0x3000));
+		}
+		return new String(chars);
+	}
+
+	@Test
+	public void testNonFiniteNumbers() {
+		Data data = new Data();
+		data.put("nan", Double.NaN);
+		assertThatThrownBy(() -> Data.toJSON(data)).isInstanceOf(NumberFormatException.class);
+		assertThatThrownBy(() -> toJSONWithGenerator(data)).isInstanceOf(NumberFormatException.class);
+	}
+
+	@Test
+	public void testReadNumbers() {
+		Data data = Data.fromJSON("{\"int\":-123456789,\"long\":-1234567890123,\"intAsLong\":1234567890," +
+			"\"big\":123456789012345678901234567890,\"double\":-1.5e-3,\"infinite\":1e400,\"integralExponent\":1.00e2}");
+
+		assertThat(data.<Object>get("int")).isEqualTo(-123456789);
+		assertThat(data.<Object>get("long")).isEqualTo(-1234567890123L);
+		assertThat(data.<Object>get("intAsLong")).isEqualTo(1234567890);
+		assertThat(data.<Object>get("big")).isEqualTo(new BigInteger("123456789012345678901234567890"));
+		assertThat(data.<Object>get("double")).isEqualTo(-1.5e-3);
+		assertThat(data.<Object>get("infinite")).isEqualTo(new BigDecimal("1e400"));
+		assertThat(data.<Object>get("integralExponent")).isEqualTo(100);
+	}
+
+	@Test
+	public void testReadCollections() {
+		Data data = Data.fromJSON("{\"list\":[1,null,\"two\",{\"three\":3},[4]],\"after\":true}");
+
+		Data list = data.get("list");
+		assertThat(list.<Object>get("isCollection")).isEqualTo(true);
+		assertThat(list.<Object>get("0")).isEqualTo(1);
+		assertThat(list.containsKey("1")).isFalse();
+		assertThat(list.<Object>get("2")).isEqualTo("two");
+		assertThat(list.<Data>get("3").<Object>get("three")).isEqualTo(3);
+		assertThat(list.<Data>get("4").<Object>get("0")).isEqualTo(4);
+		assertThat(data.<Object>get("after")).isEqualTo(true);
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Data data = new Data();
+		data.put("int", 5);
+		data.put("long", 1L << 40);
+		data.put("double", 0.25);
+		data.put("string", "line\nbreak \"quoted\" ☃");
+		data.put("boolean", true);
+		Data nested = new Data();
+		nested.put("value", -1);
+		data.put("nested", nested);
+
+		assertThat(Data.fromJSON(Data.toJSON(data))).isEqualTo(data);
+	}
+}
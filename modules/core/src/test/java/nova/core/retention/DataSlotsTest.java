@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.geometry.euclidean.twod.Vector2D;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataSlotsTest {
+
+	private static Data typedData() {
+		Data data = new Data();
+		data.putInt("int", -42);
+		data.putLong("long", Long.MIN_VALUE);
+		data.putFloat("float", 1.5F);
+		data.putDouble("double", Math.PI);
+		data.putBoolean("boolean", true);
+		data.putVector3D("vector3D", new Vector3D(1, 2, 3));
+		data.putVector2D("vector2D", new Vector2D(4, 5));
+		data.put("string", "value");
+		return data;
+	}
+
+	private static Data boxedData() {
+		Data data = new Data();
+		data.put("int", -42);
+		data.put("long", Long.MIN_VALUE);
+		data.put("float", 1.5F);
+		data.put("double", Math.PI);
+		data.put("boolean", true);
+		data.put("vector3D", new Vector3D(1, 2, 3));
+		data.put("vector2D", new Vector2D(4, 5));
+		data.put("string", "value");
+		return data;
+	}
+
+	@Test
+	public void testTypedAccess() {
+		Data data = typedData();
+		assertThat(data.getInt("int")).isEqualTo(-42);
+		assertThat(data.getLong("long")).isEqualTo(Long.MIN_VALUE);
+		assertThat(data.getLong("int")).isEqualTo(-42L);
+		assertThat(data.getFloat("float")).isEqualTo(1.5F);
+		assertThat(data.getDouble("double")).isEqualTo(Math.PI);
+		assertThat(data.getDouble("int")).isEqualTo(-42D);
+		assertThat(data.getBoolean("boolean")).isTrue();
+		assertThat(data.getVector3D("vector3D")).isEqualTo(new Vector3D(1, 2, 3));
+		assertThat(data.getVector2D("vector2D")).isEqualTo(new Vector2D(4, 5));
+	}
+
+	@Test
+	public void testTypedAccessOfBoxedValues() {
+		Data data = boxedData();
+		assertThat(data.getInt("int")).isEqualTo(-42);
+		assertThat(data.getLong("long")).isEqualTo(Long.MIN_VALUE);
+		assertThat(data.getFloat("float")).isEqualTo(1.5F);
+		assertThat(data.getDouble("double")).isEqualTo(Math.PI);
+		assertThat(data.getBoolean("boolean")).isTrue();
+		assertThat(data.getVector3D("vector3D")).isEqualTo(new Vector3D(1, 2, 3));
+
+		assertThatThrownBy(() -> data.getInt("string")).isInstanceOf(DataException.class);
+		assertThatThrownBy(() -> data.getInt("missing")).isInstanceOf(DataException.class);
+		assertThatThrownBy(() -> data.getBoolean("int")).isInstanceOf(DataException.class);
+	}
+
+	@Test
+	public void testMapView() {
+		Data data = typedData();
+		assertThat(data.size()).isEqualTo(8);
+		assertThat(data.containsKey("int")).isTrue();
+		assertThat(data.<Integer>get("int")).isEqualTo(-42);
+		assertThat(data.<Data>get("vector3D").className).isEqualTo(Vector3D.class.getName());
+		assertThat(data.getOrDefault("missing", 1)).isEqualTo(1);
+
+		assertThat(data).isEqualTo(boxedData());
+		assertThat(boxedData()).isEqualTo(typedData());
+		assertThat(data.hashCode()).isEqualTo(boxedData().hashCode());
+		assertThat(data.keySet()).containsOnly("int", "long", "float", "double", "boolean", "vector3D", "vector2D", "string");
+
+		Map<String, Object> copy = new HashMap<>(typedData());
+		assertThat(copy).isEqualTo(boxedData());
+	}
+
+	@Test
+	public void testOverwrite() {
+		Data data = new Data();
+		data.put("value", "string");
+		data.putInt("value", 1);
+		assertThat(data.size()).isEqualTo(1);
+		assertThat(data.<Integer>get("value")).isEqualTo(1);
+
+		assertThat(data.put("value", "string")).isEqualTo(1);
+		assertThat(data.size()).isEqualTo(1);
+		assertThat(data.<String>get("value")).isEqualTo("string");
+
+		data.putInt("value", 1);
+		data.putDouble("value", 2);
+		assertThat(data.size()).isEqualTo(1);
+		assertThat(data.<Double>get("value")).isEqualTo(2D);
+	}
+
+	@Test
+	public void testRemove() {
+		Data data = new Data();
+		for (int i = 0; i < 1000; i++) {
+			data.putInt("key" + i, i);
+		}
+		assertThat(data.size()).isEqualTo(1000);
+
+		for (int i = 0; i < 1000; i += 2) {
+			assertThat(data.remove("key" + i)).isEqualTo(i);
+		}
+		assertThat(data.size()).isEqualTo(500);
+		for (int i = 0; i < 1000; i++) {
+			assertThat(data.containsKey("key" + i)).isEqualTo(i % 2 == 1);
+			if (i % 2 == 1) {
+				assertThat(data.getInt("key" + i)).isEqualTo(i);
+			}
+		}
+
+		data.clear();
+		assertThat(data.isEmpty()).isTrue();
+		assertThat(data.containsKey("key1")).isFalse();
+	}
+
+	@Test
+	public void testBulkOperations() {
+		Data data = typedData();
+		data.computeIfPresent("int", (key, value) -> (Integer) value + 1);
+		assertThat(data.getInt("int")).isEqualTo(-41);
+		assertThat(data.putIfAbsent("long", 0L)).isEqualTo(Long.MIN_VALUE);
+
+		data.putInt("int", 7);
+		assertThat(data.values()).contains(7);
+		data.entrySet().removeIf(entry -> entry.getKey().equals("int"));
+		assertThat(data.containsKey("int")).isFalse();
+	}
+
+	@Test
+	public void testClone() {
+		Data data = typedData();
+		Data clone = (Data) data.clone();
+		clone.putInt("int", 1);
+		assertThat(data.getInt("int")).isEqualTo(-42);
+		assertThat(clone.getInt("int")).isEqualTo(1);
+	}
+
+	@Test
+	public void testFormats() throws Exception {
+		assertThat(Data.fromBinary(typedData().toBinary())).isEqualTo(boxedData());
+		assertThat(typedData().toBinary()).hasSameSizeAs(boxedData().toBinary());
+		assertThat(Data.fromJSON(Data.toJSON(typedData()))).isEqualTo(Data.fromJSON(Data.toJSON(boxedData())));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(typedData());
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertThat(in.readObject()).isEqualTo(boxedData());
+		}
+	}
+
+	@Test
+	public void testBinaryReadUsesSlots() {
+		Data data = Data.fromBinary(boxedData().toBinary());
+		data.putInt("int", 3);
+		assertThat(data.getInt("int")).isEqualTo(3);
+		assertThat(data.size()).isEqualTo(8);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.Profiler;
+import nova.internal.core.Game;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares saving and loading many small storables as loose compressed files, one per key,
+ * against saving them into a {@link RegionStore}.
+ */
+public class RegionStoreEfficiencyTest {
+	private static final int KEYS = 2048;
+	private static final int ROUNDS = 3;
+
+	public static void main(String[] args) throws IOException {
+		Data tiles = DataEfficiencyTest.createSave();
+		byte[][] values = new byte[KEYS][];
+		for (int i = 0; i < KEYS; i++) {
+			values[i] = tiles.<Data>get(Integer.toString(i % tiles.size())).toBinary();
+		}
+
+		Path root = Files.createTempDirectory("nova-regions");
+		Path loose = Files.createDirectories(root.resolve("loose"));
+		Path regions = root.resolve("regions");
+
+		Profiler looseWrite = new Profiler("Loose file write");
+		Profiler looseRead = new Profiler("Loose file read");
+		Profiler regionWrite = new Profiler("Region write");
+		Profiler regionRead = new Profiler("Region read");
+
+		long blackhole = 0;
+		try (RegionStore store = new RegionStore(regions)) {
+			for (int round = 0; round < ROUNDS; round++) {
+				looseWrite.start();
+				for (int i = 0; i < KEYS; i++) {
+					Path file = loose.resolve("storable" + i + ".nbt");
+					Path temp = loose.resolve("storable" + i + ".tmp");
+					try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+						out.write(values[i]);
+					}
+					Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+				}
+				looseWrite.end();
+
+				looseRead.start();
+				for (int i = 0; i < KEYS; i++) {
+					try (InputStream in = new GZIPInputStream(Files.newInputStream(loose.resolve("storable" + i + ".nbt")))) {
+						ByteArrayOutputStream out = new ByteArrayOutputStream();
+						byte[] buffer = new byte[4096];
+						int read;
+						while ((read = in.read(buffer)) >= 0) {
+							out.write(buffer, 0, read);
+						}
+						blackhole += out.size();
+					}
+				}
+				looseRead.end();
+
+				regionWrite.start();
+				for (int i = 0; i < KEYS; i++) {
+					store.write("storable" + i, values[i]);
+				}
+				store.force();
+				regionWrite.end();
+
+				regionRead.start();
+				for (int i = 0; i < KEYS; i++) {
+					blackhole += store.read("storable" + i).length;
+				}
+				regionRead.end();
+			}
+		}
+
+		Game.logger().info(String.format("Loose files: %d files, %d bytes", count(loose), size(loose)));
+		Game.logger().info(String.format("Regions: %d files, %d bytes", count(regions), size(regions)));
+		Game.logger().info(looseWrite.toString());
+		Game.logger().info(regionWrite.toString());
+		Game.logger().info(looseRead.toString());
+		Game.logger().info(regionRead.toString());
+		Game.logger().info("Checksum: " + blackhole);
+
+		try (Stream<Path> files = Files.walk(root)) {
+			files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	private static long count(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.count();
+		}
+	}
+
+	private static long size(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static nova.testutils.NovaAssertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RegionStoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		try (RegionStore store = new RegionStore(folder.getRoot().toPath(), 4)) {
+			assertThat(store.read("missing")).isNull();
+			assertThat(store.contains("missing")).isFalse();
+
+			store.write("a", bytes("first"));
+			store.write("b", new byte[0]);
+			store.write("c", bytes("raw"), RegionStore.Compression.NONE);
+			assertThat(store.read("a")).isEqualTo(bytes("first"));
+			assertThat(store.read("b")).isEmpty();
+			assertThat(store.read("c")).isEqualTo(bytes("raw"));
+			assertThat(store.contains("a")).isTrue();
+			assertThat(store.size()).isEqualTo(3);
+
+			store.write("a", bytes("second"));
+			assertThat(store.read("a")).isEqualTo(bytes("second"));
+			assertThat(store.size()).isEqualTo(3);
+		}
+	}
+
+	@Test
+	public void testReopen() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		Random random = new Random(0);
+		byte[][] values = new byte[500][];
+		try (RegionStore store = new RegionStore(directory, 2)) {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = new byte[random.nextInt(3 * RegionFile.SECTOR_SIZE)];
+				random.nextBytes(values[i]);
+				store.write("key" + i, values[i], RegionStore.Compression.NONE);
+			}
+		}
+
+		try (RegionStore store = new RegionStore(directory, 2)) {
+			for (int i = 0; i < values.length; i++) {
+				assertThat(store.read("key" + i)).isEqualTo(values[i]);
+			}
+			assertThat(store.size()).isEqualTo(values.length);
+		}
+		assertThat(directory.toFile().list()).containsOnly("region.0" + RegionStore.EXTENSION, "region.1" + RegionStore.EXTENSION);
+	}
+
+	@Test
+	public void testSectorReuse() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("test" + RegionStore.EXTENSION);
+		try (RegionFile region = new RegionFile(file)) {
+			int header = region.usedSectors();
+			byte[] large = new byte[RegionFile.SECTOR_SIZE * 3];
+			region.write("a", (byte) 0, large);
+			region.write("b", (byte) 0, new byte[10]);
+			assertThat(region.usedSectors()).isEqualTo(header + 5);
+
+			// The new record is written before the old one is freed,
+			// and the old sectors are only reused once the index no longer points to them on the disk.
+			region.write("a", (byte) 0, new byte[10]);
+			assertThat(region.usedSectors()).isEqualTo(header + 6);
+			region.force();
+			assertThat(region.usedSectors()).isEqualTo(header + 2);
+			long length = Files.size(file);
+			region.write("c", (byte) 0, new byte[RegionFile.SECTOR_SIZE * 2]);
+			assertThat(Files.size(file)).isEqualTo(length);
+			assertThat(region.read("a").payload).hasSize(10);
+		}
+	}
+
+	@Test
+	public void testSyncedSectorReuse() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("synced" + RegionStore.EXTENSION);
+		try (RegionFile region = new RegionFile(file, AsyncFileWriter.SyncPolicy.FILE_AND_DIRECTORY)) {
+			int header = region.usedSectors();
+			region.write("a", (byte) 0, new byte[RegionFile.SECTOR_SIZE * 3]);
+			// Every write forces the index, so the old sectors are free right away.
+			region.write("a", (byte) 0, new byte[10]);
+			assertThat(region.usedSectors()).isEqualTo(header + 1);
+		}
+	}
+
+	@Test
+	public void testReclaimWithoutForce() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("reclaim" + RegionStore.EXTENSION);
+		try (RegionFile region = new RegionFile(file)) {
+			for (int i = 0; i < 100; i++) {
+				region.write("key" + i, (byte) 0, new byte[10]);
+			}
+			long length = Files.size(file);
+			// Replacing records over and over forces the index now and then, instead of growing the file forever.
+			for (int round = 0; round < 10; round++) {
+				for (int i = 0; i < 100; i++) {
+					region.write("key" + i, (byte) 0, new byte[10]);
+				}
+			}
+			assertThat(Files.size(file)).isLessThan(length * 3);
+		}
+	}
+
+	@Test
+	public void testOverflow() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		int count = RegionFile.MAX_ENTRIES + 100;
+		try (RegionStore store = new RegionStore(directory, 1)) {
+			for (int i = 0; i < count; i++) {
+				store.write("key" + i, bytes("value" + i), RegionStore.Compression.NONE);
+			}
+			assertThat(store.size()).isEqualTo(count);
+			store.write("key0", bytes("replaced"), RegionStore.Compression.NONE);
+			assertThat(store.size()).isEqualTo(count);
+		}
+
+		try (RegionStore store = new RegionStore(directory, 1)) {
+			assertThat(store.size()).isEqualTo(0);
+			assertThat(store.read("key0")).isEqualTo(bytes("replaced"));
+			for (int i = 1; i < count; i++) {
+				assertThat(store.read("key" + i)).isEqualTo(bytes("value" + i));
+			}
+			assertThat(store.size()).isEqualTo(count);
+		}
+		assertThat(directory.toFile().list()).containsOnly("region.0" + RegionStore.EXTENSION, "region.0.1" + RegionStore.EXTENSION);
+	}
+
+	@Test
+	public void testFull() throws IOException {
+		try (RegionFile region = new RegionFile(folder.getRoot().toPath().resolve("full" + RegionStore.EXTENSION))) {
+			int i = 0;
+			while (region.size() < RegionFile.SLOTS * 3 / 4) {
+				region.write("key" + i++, (byte) 0, new byte[0]);
+			}
+			assertThatThrownBy(() -> region.write("overflow", (byte) 0, new byte[0])).isInstanceOf(IOException.class);
+			region.write("key0", (byte) 0, new byte[1]);
+			assertThat(region.read("key0").payload).hasSize(1);
+		}
+	}
+
+	@Test
+	public void testInvalidFile() throws IOException {
+		Path file = folder.newFile("invalid" + RegionStore.EXTENSION).toPath();
+		try (RandomAccessFile out = new RandomAccessFile(file.toFile(), "rw")) {
+			out.setLength(RegionFile.SECTOR_SIZE * 20);
+		}
+		assertThatThrownBy(() -> new RegionFile(file)).isInstanceOf(IOException.class);
+	}
+
+	@Test
+	public void testMigration() throws IOException {
+		Path directory = folder.getRoot().toPath();
+		byte[] first = bytes("first file");
+		byte[] second = new byte[10000];
+		Arrays.fill(second, (byte) 7);
+		Files.write(directory.resolve("first.nbt"), gzip(first));
+		Files.write(directory.resolve("second.nbt"), gzip(second));
+		Files.write(directory.resolve("other.dat"), first);
+		folder.newFolder("structures");
+		Files.write(directory.resolve("structures").resolve("nested.nbt"), gzip(first));
+
+		Path regions = directory.resolve(RegionMigration.DEFAULT_DIRECTORY);
+		try (RegionStore store = new RegionStore(regions)) {
+			assertThat(RegionMigration.migrate(directory, store, true)).isEqualTo(2);
+			assertThat(store.read("first")).isEqualTo(first);
+			assertThat(store.read("second")).isEqualTo(second);
+			assertThat(store.contains("nested")).isFalse();
+		}
+		assertThat(directory.toFile().list()).containsOnly("other.dat", "structures", RegionMigration.DEFAULT_DIRECTORY);
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(data);
+		}
+		return bytes.toByteArray();
+	}
+}
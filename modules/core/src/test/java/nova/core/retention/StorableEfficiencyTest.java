@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.retention;
+
+import nova.core.util.Profiler;
+import nova.core.util.ReflectionUtil;
+import nova.internal.core.Game;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares saving and loading through {@link StorableCodec} with iterating the fields reflectively on every call.
+ */
+public class StorableEfficiencyTest {
+	private static final int ITERATIONS = 500_000;
+	private static final int ROUNDS = 10;
+	private static final Map<Field, Field> PRIVATE_FIELDS = new HashMap<>();
+
+	public static void main(String[] args) {
+		Profiler reflectiveSave = new Profiler("Reflective save");
+		Profiler codecSave = new Profiler("Codec save");
+		Profiler reflectiveLoad = new Profiler("Reflective load");
+		Profiler codecLoad = new Profiler("Codec load");
+		TestStorable storable = new TestStorable();
+		Data saved = new Data();
+		storable.save(saved);
+
+		long blackhole = 0;
+		for (int round = 0; round < ROUNDS; round++) {
+			reflectiveSave.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				Data data = new Data();
+				saveReflectively(storable, data);
+				blackhole += data.size();
+			}
+			reflectiveSave.end();
+
+			codecSave.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				Data data = new Data();
+				storable.save(data);
+				blackhole += data.size();
+			}
+			codecSave.end();
+
+			reflectiveLoad.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				TestStorable loaded = new TestStorable();
+				loadReflectively(loaded, saved);
+				blackhole += loaded.energy;
+			}
+			reflectiveLoad.end();
+
+			codecLoad.start();
+			for (int i = 0; i < ITERATIONS; i++) {
+				TestStorable loaded = new TestStorable();
+				loaded.load(saved);
+				blackhole += loaded.energy;
+			}
+			codecLoad.end();
+		}
+
+		Game.logger().info(reflectiveSave.toString());
+		Game.logger().info(codecSave.toString());
+		Game.logger().info(reflectiveLoad.toString());
+		Game.logger().info(codecLoad.toString());
+		Game.logger().info("Checksum: " + blackhole);
+	}
+
+	/**
+	 * The reflective implementation {@link Storable#save(Data)} used before codecs.
+	 */
+	private static void saveReflectively(Object storable, Data data) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, storable.getClass(), (shared, annotation) -> {
+			Field field = privateCopy(shared);
+			try {
+				field.setAccessible(true);
+				String name = annotation.key().isEmpty() ? field.getName() : annotation.key();
+				data.put(name, field.get(storable));
+				field.setAccessible(false);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * The reflective implementation {@link Storable#load(Data)} used before codecs, for plain values only.
+	 */
+	private static void loadReflectively(Object storable, Data data) {
+		ReflectionUtil.forEachRecursiveAnnotatedField(Store.class, storable.getClass(), (shared, annotation) -> {
+			Field field = privateCopy(shared);
+			String name = annotation.key().isEmpty() ? field.getName() : annotation.key();
+			if (data.containsKey(name)) {
+				try {
+					field.setAccessible(true);
+					field.set(storable, data.get(name));
+					field.setAccessible(false);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Gets a copy of a field that is not shared with the caches of {@link ReflectionUtil},
+	 * so toggling its accessibility doesn't affect the codecs under test.
+	 */
+	private static Field privateCopy(Field field) {
+		return PRIVATE_FIELDS.computeIfAbsent(field, shared -> {
+			try {
+				return shared.getDeclaringClass().getDeclaredField(shared.getName());
+			} catch (NoSuchFieldException e) {
+				throw new ReflectionUtil.ReflectionException(e);
+			}
+		});
+	}
+
+	public static class BaseStorable implements Storable {
+		@Store
+		protected int energy = 100;
+		@Store
+		protected boolean active = true;
+	}
+
+	public static class TestStorable extends BaseStorable {
+		@Store
+		private double temperature = 20.5;
+		@Store
+		private long ticks = 1234567L;
+		@Store
+		private String owner = "owner";
+		@Store(key = "mode")
+		private short redstoneMode = 2;
+	}
+}
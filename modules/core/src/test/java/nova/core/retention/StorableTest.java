@@ -22,6 +22,8 @@ package nova.core.retention;
 
 import org.junit.Test;
 
+import java.math.BigDecimal;
+
 import static nova.testutils.NovaAssertions.assertThat;
 
 
@@ -117,4 +119,109 @@ public class StorableTest {
         assertThat(test.integer).isEqualTo(256);
         assertThat(test.string).isEqualTo("test");
     }
+
+    public static class BaseTestCase implements Storable {
+        @Store
+        protected long count = 0;
+
+        @Store(key = "shared")
+        protected String baseValue = "base";
+    }
+
+    public static class DerivedTestCase extends BaseTestCase {
+        @Store
+        private double ratio = 0;
+    }
+
+    @Test
+    public void testInheritedStorable() {
+        DerivedTestCase test = new DerivedTestCase();
+        test.count = 1L << 40;
+        test.ratio = 0.5;
+        test.baseValue = "changed";
+
+        Data data = new Data();
+        test.save(data);
+        assertThat(data).containsOnlyKeys("count", "shared", "ratio");
+
+        test = new DerivedTestCase();
+        test.load(data);
+
+        assertThat(test.count).isEqualTo(1L << 40);
+        assertThat(test.ratio).isEqualTo(0.5);
+        assertThat(test.baseValue).isEqualTo("changed");
+    }
+
+    @Test
+    public void testWideningLoad() {
+        Data data = new Data();
+        data.put("count", 42);
+        data.put("ratio", new BigDecimal("1.5"));
+
+        DerivedTestCase test = new DerivedTestCase();
+        test.load(data);
+
+        assertThat(test.count).isEqualTo(42L);
+        assertThat(test.ratio).isEqualTo(1.5);
+        assertThat(test.baseValue).isEqualTo("base");
+    }
+
+    @Test
+    public void testNarrowingLoadIsRejected() {
+        Data data = new Data();
+        data.put("count", 1.5);
+        data.put("ratio", 'c');
+
+        DerivedTestCase test = new DerivedTestCase();
+        test.load(data);
+
+        assertThat(test.count).isEqualTo(0L);
+        assertThat(test.ratio).isEqualTo(99.0);
+    }
+
+    public static class PrimitiveTestCase implements Storable {
+        @Store
+        public int intValue = -42;
+        @Store
+        public long longValue = Long.MIN_VALUE;
+        @Store
+        public float floatValue = 1.5F;
+        @Store
+        public double doubleValue = Math.PI;
+        @Store
+        public boolean booleanValue = true;
+        @Store
+        public short shortValue = 7;
+        @Store
+        public Integer boxedValue = 9;
+    }
+
+    @Test
+    public void testPrimitiveSave() {
+        Data data = new Data();
+        new PrimitiveTestCase().save(data);
+
+        Data boxed = new Data();
+        boxed.put("intValue", -42);
+        boxed.put("longValue", Long.MIN_VALUE);
+        boxed.put("floatValue", 1.5F);
+        boxed.put("doubleValue", Math.PI);
+        boxed.put("booleanValue", true);
+        boxed.put("shortValue", (short) 7);
+        boxed.put("boxedValue", 9);
+        assertThat(data).isEqualTo(boxed);
+        assertThat((Object) data.get("longValue")).isInstanceOf(Long.class);
+        assertThat((Object) data.get("booleanValue")).isInstanceOf(Boolean.class);
+        assertThat(data.getInt("intValue")).isEqualTo(-42);
+        assertThat(data.getDouble("doubleValue")).isEqualTo(Math.PI);
+
+        PrimitiveTestCase test = new PrimitiveTestCase();
+        test.intValue = 0;
+        test.longValue = 0;
+        test.booleanValue = false;
+        test.load(data);
+        assertThat(test.intValue).isEqualTo(-42);
+        assertThat(test.longValue).isEqualTo(Long.MIN_VALUE);
+        assertThat(test.booleanValue).isTrue();
+    }
 }
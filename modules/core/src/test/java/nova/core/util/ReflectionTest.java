@@ -20,9 +20,11 @@
 
 package nova.core.util;
 
+import nova.core.retention.Store;
 import org.junit.Test;
 
 import java.lang.reflect.Constructor;
+import java.util.List;
 
 import static nova.core.util.ReflectionUtil.findMatchingConstructor;
 import static nova.core.util.ReflectionUtil.newInstanceMatching;
@@ -102,4 +104,31 @@ public class ReflectionTest {
 			.isEqualTo(con_DDD);
 		assertThat(newInstanceMatching(constr, Double.valueOf(1), Double.valueOf(1), Double.valueOf(1))).isNotNull();
 	}
+
+	static class AnnotatedParent {
+		@Store
+		private int parentValue;
+	}
+
+	static class AnnotatedChild extends AnnotatedParent {
+		@Store
+		private int childValue;
+		@Store(key = "other")
+		private String otherValue;
+		private int ignored;
+	}
+
+	@Test
+	public void testAnnotatedFields() throws Exception {
+		List<ReflectionUtil.AnnotatedField<Store>> fields = ReflectionUtil.getRecursiveAnnotatedFields(Store.class, AnnotatedChild.class);
+		assertThat(fields).extracting(field -> field.field.getName()).containsExactly("childValue", "otherValue", "parentValue");
+		assertThat(fields.get(1).annotation.key()).isEqualTo("other");
+		assertThat(fields.get(0).field.isAccessible()).isTrue();
+		assertThat(ReflectionUtil.getRecursiveAnnotatedFields(Store.class, AnnotatedChild.class)).isSameAs(fields);
+
+		assertThat(ReflectionUtil.getDeclaredAnnotatedFields(Store.class, AnnotatedChild.class)).hasSize(2);
+		assertThat(ReflectionUtil.getAnnotatedFields(Store.class, AnnotatedChild.class).keySet())
+			.containsExactly(fields.get(0).field, fields.get(1).field, fields.get(2).field);
+		assertThat(ReflectionUtil.getRecursiveAnnotatedFields(Deprecated.class, AnnotatedChild.class)).isEmpty();
+	}
 }
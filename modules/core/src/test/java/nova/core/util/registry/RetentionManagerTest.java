@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2017 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.util.registry;
+
+import nova.core.retention.Data;
+import nova.core.retention.Storable;
+import nova.core.retention.Store;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class RetentionManagerTest {
+
+	private MemoryRetentionManager manager;
+
+	@Before
+	public void setUp() {
+		manager = new MemoryRetentionManager();
+	}
+
+	@Test
+	public void testSaveAll() {
+		manager.queueSave("a", new AlwaysDirty());
+		manager.queueSave("b", new AlwaysDirty());
+
+		RetentionManager.SaveReport report = manager.saveAll();
+		assertThat(report.saved).isEqualTo(2);
+		assertThat(report.skipped).isEqualTo(0);
+		assertThat(manager.writes).isEqualTo(2);
+		assertThat(manager.files.get("a").<Integer>get("value")).isEqualTo(1);
+		assertThat(manager.getLastReport()).isSameAs(report);
+
+		assertThat(manager.saveAll().saved).isEqualTo(0);
+	}
+
+	@Test
+	public void testSkipsClean() {
+		Tracked tracked = new Tracked();
+		manager.queueSave("tracked", tracked);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		assertThat(tracked.isDirty()).isFalse();
+
+		manager.queueSave("tracked", tracked);
+		RetentionManager.SaveReport report = manager.saveAll();
+		assertThat(report.saved).isEqualTo(0);
+		assertThat(report.skipped).isEqualTo(1);
+
+		tracked.setValue(5);
+		manager.queueSave("tracked", tracked);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		assertThat(manager.files.get("tracked").<Integer>get("value")).isEqualTo(5);
+		assertThat(manager.writes).isEqualTo(2);
+	}
+
+	@Test
+	public void testContentHashing() {
+		manager.setContentHashing(true);
+		AlwaysDirty storable = new AlwaysDirty();
+
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+
+		manager.queueSave("a", storable);
+		RetentionManager.SaveReport report = manager.saveAll();
+		assertThat(report.saved).isEqualTo(0);
+		assertThat(report.skipped).isEqualTo(1);
+		assertThat(manager.writes).isEqualTo(1);
+
+		storable.value = 2;
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+
+		manager.invalidate("a");
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		assertThat(manager.writes).isEqualTo(3);
+	}
+
+	@Test
+	public void testFailedWrite() {
+		manager.setContentHashing(true);
+		Tracked tracked = new Tracked();
+		manager.failWrites = true;
+
+		manager.queueSave("tracked", tracked);
+		assertThat(manager.saveAll().failed).isEqualTo(1);
+		assertThat(tracked.isDirty()).isTrue();
+
+		manager.failWrites = false;
+		manager.queueSave("tracked", tracked);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		assertThat(tracked.isDirty()).isFalse();
+	}
+
+	@Test
+	public void testFailedBackgroundWrite() {
+		manager.setContentHashing(true);
+		Tracked tracked = new Tracked();
+		manager.deferWrites = true;
+
+		manager.queueSave("tracked", tracked);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		assertThat(tracked.isDirty()).isFalse();
+
+		// The write fails after the storable was marked clean, the next cycle saves it again without queueing it.
+		manager.failPending();
+		assertThat(manager.files).doesNotContainKey("tracked");
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		manager.completePending();
+		assertThat(manager.files.get("tracked").<Integer>get("value")).isEqualTo(1);
+
+		assertThat(manager.saveAll().saved).isEqualTo(0);
+	}
+
+	@Test
+	public void testWriteFailingImmediately() {
+		manager.setContentHashing(true);
+		AlwaysDirty storable = new AlwaysDirty();
+		manager.deferWrites = true;
+		manager.failInBackground = true;
+
+		// The failure is reported before saveData returns, its hash must not be kept.
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+
+		manager.failInBackground = false;
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		manager.completePending();
+		assertThat(manager.files).containsKey("a");
+	}
+
+	@Test
+	public void testSaveDirectoryChange() {
+		manager.setContentHashing(true);
+		AlwaysDirty storable = new AlwaysDirty();
+		manager.directory = new File("world");
+
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().skipped).isEqualTo(1);
+
+		// Another world has its own files, the hash of the last world must not skip the write.
+		manager.directory = new File("other");
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().saved).isEqualTo(1);
+
+		// The same directory through another path is the same world.
+		manager.directory = new File(new File("other").getAbsoluteFile(), ".");
+		manager.queueSave("a", storable);
+		assertThat(manager.saveAll().skipped).isEqualTo(1);
+	}
+
+	public static class AlwaysDirty implements Storable {
+		@Store
+		private int value = 1;
+	}
+
+	public static class Tracked implements Storable {
+		@Store
+		private int value = 1;
+		private boolean dirty = true;
+
+		public void setValue(int value) {
+			this.value = value;
+			this.dirty = true;
+		}
+
+		@Override
+		public boolean isDirty() {
+			return dirty;
+		}
+
+		@Override
+		public void markClean() {
+			dirty = false;
+		}
+	}
+
+	public static class MemoryRetentionManager extends RetentionManager {
+		final Map<String, Data> files = new HashMap<>();
+		final Map<String, Data> pending = new HashMap<>();
+		final Map<String, Runnable> failures = new HashMap<>();
+		int writes;
+		boolean failWrites;
+		boolean deferWrites;
+		boolean failInBackground;
+		File directory;
+
+		@Override
+		public void save(String filename, Storable storable) {
+			Data data = new Data();
+			storable.save(data);
+			saveData(filename, data);
+		}
+
+		@Override
+		protected boolean saveData(String filename, Data data) {
+			if (failWrites) {
+				return false;
+			}
+			files.put(filename, data);
+			writes++;
+			return true;
+		}
+
+		/**
+		 * Optionally defers the write, like a manager writing in the background.
+		 */
+		@Override
+		protected boolean saveData(String filename, Data data, Runnable onFailure) {
+			if (failInBackground) {
+				onFailure.run();
+				return true;
+			}
+			if (!deferWrites) {
+				return super.saveData(filename, data, onFailure);
+			}
+			pending.put(filename, data);
+			failures.put(filename, onFailure);
+			return true;
+		}
+
+		void completePending() {
+			pending.forEach(this::saveData);
+			pending.clear();
+			failures.clear();
+		}
+
+		void failPending() {
+			failures.values().forEach(Runnable::run);
+			pending.clear();
+			failures.clear();
+		}
+
+		@Override
+		public void load(String filename, Storable storable) {
+			storable.load(files.get(filename));
+		}
+
+		@Override
+		public File getSaveDirectory() {
+			return directory;
+		}
+
+		@Override
+		public void init() {
+
+		}
+	}
+}
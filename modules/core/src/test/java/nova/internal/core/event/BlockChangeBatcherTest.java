@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.internal.core.event;
+
+import nova.core.block.Block;
+import nova.core.event.BlockEvent;
+import nova.core.event.bus.Event;
+import nova.core.event.bus.EventBus;
+import nova.testutils.FakeWorld;
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class BlockChangeBatcherTest {
+	@Test
+	public void testLazyBlocks() {
+		AtomicInteger built = new AtomicInteger();
+		Block block = new Block();
+		BlockEvent.Change change = new BlockEvent.Change(new FakeWorld(), Vector3D.ZERO, () -> {
+			built.incrementAndGet();
+			return block;
+		}, () -> null);
+
+		assertThat(built.get()).isEqualTo(0);
+		assertThat(change.oldBlock()).isSameAs(block);
+		assertThat(change.oldBlock()).isSameAs(block);
+		assertThat(built.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testBatchPerChunk() {
+		FakeWorld world = new FakeWorld();
+		BlockChangeBatcher batcher = new BlockChangeBatcher();
+		EventBus<Event> events = new EventBus<>();
+		List<BlockEvent.ChangeBatch> batches = new ArrayList<>();
+		events.on(BlockEvent.ChangeBatch.class).bind(batches::add);
+
+		BlockEvent.Change first = change(world, new Vector3D(1, 64, 2));
+		BlockEvent.Change second = change(world, new Vector3D(-1, 64, 2));
+		BlockEvent.Change third = change(world, new Vector3D(15, 10, 15));
+		batcher.queue(first);
+		batcher.queue(second);
+		batcher.queue(third);
+
+		batcher.flush(events);
+
+		assertThat(batches).hasSize(2);
+		assertThat(batches.get(0).world).isSameAs(world);
+		assertThat(batches.get(0).position).isEqualTo(new Vector3D(0, 0, 0));
+		assertThat(batches.get(0).changes).containsExactly(first, third);
+		assertThat(batches.get(1).position).isEqualTo(new Vector3D(-16, 0, 0));
+		assertThat(batches.get(1).changes).containsExactly(second);
+
+		batcher.flush(events);
+		assertThat(batches).hasSize(2);
+	}
+
+	@Test
+	public void testHasListeners() {
+		EventBus<Event> events = new EventBus<>();
+		assertThat(events.hasListeners(BlockEvent.Change.class)).isFalse();
+
+		events.on(BlockEvent.class).bind(evt -> {
+		});
+
+		assertThat(events.hasListeners(BlockEvent.Change.class)).isTrue();
+		assertThat(events.hasListeners(BlockEvent.Register.class)).isFalse();
+		// Batches aren't block events, so they are only built for their own listeners
+		assertThat(events.hasListeners(BlockEvent.ChangeBatch.class)).isFalse();
+	}
+
+	private BlockEvent.Change change(FakeWorld world, Vector3D position) {
+		return new BlockEvent.Change(world, position, () -> null, () -> null);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.internal.core.util;
+
+import nova.core.util.exception.NovaException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static nova.testutils.NovaAssertions.assertThat;
+
+public class TopologicalSortTest {
+	@Test
+	public void testInsertionOrder() {
+		TopologicalSort.DirectedGraph<String> graph = new TopologicalSort.DirectedGraph<>();
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+
+		assertThat(TopologicalSort.topologicalSort(graph)).containsExactly("A", "B", "C");
+	}
+
+	@Test
+	public void testEdges() {
+		TopologicalSort.DirectedGraph<String> graph = new TopologicalSort.DirectedGraph<>();
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addNode("D");
+		graph.addEdge("C", "A");
+		graph.addEdge("D", "C");
+		graph.addEdge("B", "A");
+
+		assertThat(TopologicalSort.topologicalSort(graph)).containsExactly("B", "D", "C", "A");
+	}
+
+	@Test(expected = NovaException.class)
+	public void testCycle() {
+		TopologicalSort.DirectedGraph<String> graph = new TopologicalSort.DirectedGraph<>();
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addNode("C");
+		graph.addEdge("A", "B");
+		graph.addEdge("B", "C");
+		graph.addEdge("C", "A");
+
+		TopologicalSort.topologicalSort(graph);
+	}
+
+	@Test
+	public void testRemoveNode() {
+		TopologicalSort.DirectedGraph<String> graph = new TopologicalSort.DirectedGraph<>();
+		graph.addNode("A");
+		graph.addNode("B");
+		graph.addEdge("B", "A");
+		graph.removeNode("B");
+
+		assertThat(TopologicalSort.topologicalSort(graph)).containsExactly("A");
+	}
+
+	@Test
+	public void testLongChain() {
+		final int size = 100000;
+		TopologicalSort.DirectedGraph<Integer> graph = new TopologicalSort.DirectedGraph<>();
+		for (int i = 0; i < size; i++) {
+			graph.addNode(i);
+		}
+		for (int i = 1; i < size; i++) {
+			graph.addEdge(i, i - 1);
+		}
+
+		List<Integer> expected = new ArrayList<>();
+		for (int i = size - 1; i >= 0; i--) {
+			expected.add(i);
+		}
+
+		assertThat(TopologicalSort.topologicalSort(graph)).isEqualTo(expected);
+	}
+}
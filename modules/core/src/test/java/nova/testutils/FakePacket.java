@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2017 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.testutils;
+
+import nova.core.entity.component.Player;
+import nova.core.network.Packet;
+import nova.core.network.StringTable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A packet backed by a growable byte array, with the same layout as a Netty buffer.
+ * Compact packets keep separate string tables for writing and reading.
+ */
+public class FakePacket implements Packet {
+
+	private final boolean compact;
+	private ByteBuffer buffer = ByteBuffer.allocate(64);
+	private int id = 0;
+	private StringTable writeStrings = new StringTable();
+	private StringTable readStrings = new StringTable();
+
+	public FakePacket() {
+		this(false);
+	}
+
+	public FakePacket(boolean compact) {
+		this.compact = compact;
+	}
+
+	/**
+	 * Starts reading what was written.
+	 * @return This packet
+	 */
+	public FakePacket flip() {
+		buffer.flip();
+		readStrings = new StringTable();
+		return this;
+	}
+
+	/**
+	 * Starts reading from the beginning again.
+	 * @return This packet
+	 */
+	public FakePacket rewind() {
+		buffer.rewind();
+		readStrings = new StringTable();
+		return this;
+	}
+
+	/**
+	 * Discards everything, so the packet can be written again.
+	 * @return This packet
+	 */
+	public FakePacket clear() {
+		buffer.clear();
+		writeStrings = new StringTable();
+		readStrings = new StringTable();
+		return this;
+	}
+
+	/**
+	 * @return The number of bytes written, or left to read
+	 */
+	public int size() {
+		return buffer.remaining();
+	}
+
+	public int position() {
+		return buffer.position();
+	}
+
+	public byte[] toByteArray() {
+		return Arrays.copyOf(buffer.array(), buffer.position());
+	}
+
+	private ByteBuffer ensure(int bytes) {
+		if (buffer.remaining() < bytes) {
+			ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+			buffer.flip();
+			grown.put(buffer);
+			buffer = grown;
+		}
+		return buffer;
+	}
+
+	@Override
+	public int getID() {
+		return id;
+	}
+
+	@Override
+	public Packet setID(int id) {
+		this.id = id;
+		return this;
+	}
+
+	@Override
+	public boolean isCompact() {
+		return compact;
+	}
+
+	@Override
+	public Player player() {
+		throw new RuntimeException("Attempt to get player in packet when it does not exist!");
+	}
+
+	@Override
+	public Packet writeBoolean(boolean value) {
+		ensure(1).put((byte) (value ? 1 : 0));
+		return this;
+	}
+
+	@Override
+	public Packet writeByte(int value) {
+		ensure(1).put((byte) value);
+		return this;
+	}
+
+	@Override
+	public Packet writeShort(int value) {
+		if (compact) {
+			return writeVarInt((short) value);
+		}
+		ensure(2).putShort((short) value);
+		return this;
+	}
+
+	@Override
+	public Packet writeInt(int value) {
+		if (compact) {
+			return writeVarInt(value);
+		}
+		ensure(4).putInt(value);
+		return this;
+	}
+
+	@Override
+	public Packet writeLong(long value) {
+		if (compact) {
+			return writeVarLong(value);
+		}
+		ensure(8).putLong(value);
+		return this;
+	}
+
+	@Override
+	public Packet writeChar(int value) {
+		if (compact) {
+			return writeVarInt((char) value);
+		}
+		ensure(2).putChar((char) value);
+		return this;
+	}
+
+	@Override
+	public Packet writeFloat(float value) {
+		ensure(4).putFloat(value);
+		return this;
+	}
+
+	@Override
+	public Packet writeDouble(double value) {
+		ensure(8).putDouble(value);
+		return this;
+	}
+
+	@Override
+	public Packet writeString(String value) {
+		if (compact) {
+			writeStrings.write(this, value);
+			return this;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeInt(bytes.length);
+		return writeBytes(bytes);
+	}
+
+	@Override
+	public Packet writeBytes(byte[] array) {
+		ensure(array.length).put(array);
+		return this;
+	}
+
+	@Override
+	public byte[] readBytes(int length) {
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IndexOutOfBoundsException("Cannot read " + length + " bytes, " + buffer.remaining() + " readable");
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	@Override
+	public int readableBytes() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean readBoolean() {
+		return buffer.get() != 0;
+	}
+
+	@Override
+	public byte readByte() {
+		return buffer.get();
+	}
+
+	@Override
+	public short readUnsignedByte() {
+		return (short) (buffer.get() & 0xFF);
+	}
+
+	@Override
+	public short readShort() {
+		return compact ? (short) readVarInt() : buffer.getShort();
+	}
+
+	@Override
+	public int readInt() {
+		return compact ? readVarInt() : buffer.getInt();
+	}
+
+	@Override
+	public long readUnsignedInt() {
+		return readInt() & 0xFFFFFFFFL;
+	}
+
+	@Override
+	public long readLong() {
+		return compact ? readVarLong() : buffer.getLong();
+	}
+
+	@Override
+	public char readChar() {
+		return compact ? (char) readVarInt() : buffer.getChar();
+	}
+
+	@Override
+	public float readFloat() {
+		return buffer.getFloat();
+	}
+
+	@Override
+	public double readDouble() {
+		return buffer.getDouble();
+	}
+
+	@Override
+	public String readString() {
+		if (compact) {
+			return readStrings.read(this);
+		}
+		return new String(readBytes(readInt()), StandardCharsets.UTF_8);
+	}
+}
@@ -108,6 +108,11 @@ public class FakeNetworkModule extends BinderModule {
 					return new byte[0];
 				}
 
+				@Override
+				public int readableBytes() {
+					return 0;
+				}
+
 				@Override
 				public boolean readBoolean() {
 					return false;
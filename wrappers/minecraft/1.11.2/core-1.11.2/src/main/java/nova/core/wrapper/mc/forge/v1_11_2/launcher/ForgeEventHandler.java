@@ -23,6 +23,7 @@ package nova.core.wrapper.mc.forge.v1_11_2.launcher;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent.RightClickBlock;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent.LeftClickBlock;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -32,6 +33,7 @@ import nova.core.item.ItemDictionary;
 import nova.core.wrapper.mc.forge.v1_11_2.wrapper.VectorConverter;
 import nova.core.wrapper.mc.forge.v1_11_2.wrapper.block.world.WorldConverter;
 import nova.core.wrapper.mc.forge.v1_11_2.wrapper.entity.EntityConverter;
+import nova.core.wrapper.mc.forge.v1_11_2.wrapper.entity.forward.FWEntity;
 import nova.core.wrapper.mc.forge.v1_11_2.wrapper.item.ItemConverter;
 import nova.internal.core.Game;
 
@@ -48,6 +50,14 @@ public class ForgeEventHandler {
 	@SubscribeEvent
 	public void worldLoad(WorldEvent.Unload evt) {
 		Game.events().publish(new nova.core.event.WorldEvent.Unload(WorldConverter.instance().toNova(evt.getWorld())));
+		FWEntity.untrack(evt.getWorld().loadedEntityList);
+	}
+
+	@SubscribeEvent
+	public void chunkUnload(ChunkEvent.Unload evt) {
+		for (Iterable<?> entities : evt.getChunk().getEntityLists()) {
+			FWEntity.untrack(entities);
+		}
 	}
 
 	@SubscribeEvent
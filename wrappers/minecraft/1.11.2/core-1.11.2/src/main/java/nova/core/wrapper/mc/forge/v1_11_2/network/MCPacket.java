@@ -24,25 +24,38 @@ import io.netty.buffer.ByteBuf;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import nova.core.entity.component.Player;
 import nova.core.network.Packet;
+import nova.core.network.StringTable;
 
 /**
  * Wraps ByteBuf into a NOVA Packet.
+ * Packets are compact unless created otherwise, with a string table for the packet alone,
+ * as the same packet may be sent to several players.
  * @author Calclavia
  */
 public class MCPacket implements Packet {
 
 	public final ByteBuf buf;
 	public final Player player;
+	private final StringTable strings;
 	private int id = 0;
 
 	public MCPacket(ByteBuf buf) {
-		this.buf = buf;
-		player = null;
+		this(buf, null);
 	}
 
 	public MCPacket(ByteBuf buf, Player player) {
+		this(buf, player, true);
+	}
+
+	public MCPacket(ByteBuf buf, Player player, boolean compact) {
 		this.buf = buf;
 		this.player = player;
+		this.strings = compact ? new StringTable() : null;
+	}
+
+	@Override
+	public boolean isCompact() {
+		return strings != null;
 	}
 
 	@Override
@@ -79,24 +92,36 @@ public class MCPacket implements Packet {
 
 	@Override
 	public Packet writeShort(int value) {
+		if (isCompact()) {
+			return writeVarInt((short) value);
+		}
 		buf.writeShort(value);
 		return this;
 	}
 
 	@Override
 	public Packet writeInt(int value) {
+		if (isCompact()) {
+			return writeVarInt(value);
+		}
 		buf.writeInt(value);
 		return this;
 	}
 
 	@Override
 	public Packet writeLong(long value) {
+		if (isCompact()) {
+			return writeVarLong(value);
+		}
 		buf.writeLong(value);
 		return this;
 	}
 
 	@Override
 	public Packet writeChar(int value) {
+		if (isCompact()) {
+			return writeVarInt((char) value);
+		}
 		buf.writeChar(value);
 		return this;
 	}
@@ -115,7 +140,11 @@ public class MCPacket implements Packet {
 
 	@Override
 	public Packet writeString(String value) {
-		ByteBufUtils.writeUTF8String(buf, value);
+		if (isCompact()) {
+			strings.write(this, value);
+		} else {
+			ByteBufUtils.writeUTF8String(buf, value);
+		}
 		return this;
 	}
 
@@ -127,12 +156,19 @@ public class MCPacket implements Packet {
 
 	@Override
 	public byte[] readBytes(int length) {
+		if (length < 0 || length > buf.readableBytes()) {
+			throw new IndexOutOfBoundsException("Cannot read " + length + " bytes, " + buf.readableBytes() + " readable");
+		}
 		byte[] array = new byte[length];
-		for (int i = 0; i < length; i++)
-			array[i] = buf.readByte();
+		buf.readBytes(array);
 		return array;
 	}
 
+	@Override
+	public int readableBytes() {
+		return buf.readableBytes();
+	}
+
 	@Override
 	public boolean readBoolean() {
 		return buf.readBoolean();
@@ -150,27 +186,27 @@ public class MCPacket implements Packet {
 
 	@Override
 	public short readShort() {
-		return buf.readShort();
+		return isCompact() ? (short) readVarInt() : buf.readShort();
 	}
 
 	@Override
 	public int readInt() {
-		return buf.readInt();
+		return isCompact() ? readVarInt() : buf.readInt();
 	}
 
 	@Override
 	public long readUnsignedInt() {
-		return buf.readUnsignedInt();
+		return isCompact() ? readInt() & 0xFFFFFFFFL : buf.readUnsignedInt();
 	}
 
 	@Override
 	public long readLong() {
-		return buf.readLong();
+		return isCompact() ? readVarLong() : buf.readLong();
 	}
 
 	@Override
 	public char readChar() {
-		return buf.readChar();
+		return isCompact() ? (char) readVarInt() : buf.readChar();
 	}
 
 	@Override
@@ -185,7 +221,7 @@ public class MCPacket implements Packet {
 
 	@Override
 	public String readString() {
-		return ByteBufUtils.readUTF8String(buf);
+		return isCompact() ? strings.read(this) : ByteBufUtils.readUTF8String(buf);
 	}
 
 	public void writeTo(ByteBuf other) {
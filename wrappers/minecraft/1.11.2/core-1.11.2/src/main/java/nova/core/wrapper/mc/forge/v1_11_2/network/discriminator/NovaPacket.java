@@ -60,13 +60,16 @@ public class NovaPacket extends PacketAbstract {
 	}
 
 	public void handle(EntityPlayer player) {
+		handle(data, player);
+	}
+
+	protected void handle(ByteBuf data, EntityPlayer player) {
 		try {
 			MCNetworkManager network = (MCNetworkManager) Game.network();
-			PacketHandler<?> packetHandler = network.getPacketType(data.readInt());
-			int subId = data.readInt();
 			MCPacket packet = new MCPacket(data.slice(), WrapUtility.getNovaPlayer(player).get());
+			PacketHandler<?> packetHandler = network.getPacketType(packet.readInt());
 			//Set the ID of the packet
-			packet.setID(subId);
+			packet.setID(packet.readInt());
 			packetHandler.read(packet);
 		} catch (Exception e) {
 			e.printStackTrace();
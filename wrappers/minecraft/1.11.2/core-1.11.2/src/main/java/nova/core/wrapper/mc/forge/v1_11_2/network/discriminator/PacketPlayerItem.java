@@ -65,7 +65,7 @@ public class PacketPlayerItem extends PacketAbstract {
 
 		if (stack != null && stack.getItem() instanceof Syncable) {
 			MCPacket mcPacket = new MCPacket(data);
-			mcPacket.setID(data.readInt());
+			mcPacket.setID(mcPacket.readInt());
 			((Syncable) stack.getItem()).read(mcPacket);
 		}
 	}
@@ -76,7 +76,7 @@ public class PacketPlayerItem extends PacketAbstract {
 
 		if (stack != null && stack.getItem() instanceof Syncable) {
 			MCPacket mcPacket = new MCPacket(data);
-			mcPacket.setID(data.readInt());
+			mcPacket.setID(mcPacket.readInt());
 			((Syncable) stack.getItem()).read(mcPacket);
 		}
 	}
@@ -120,6 +120,22 @@ public class FWEntity extends net.minecraft.entity.Entity implements IEntityAddi
 	private void setWrapped(Entity wrapped) {
 		this.wrapped = wrapped;
 		wrapped.components.add(transform);
+		//Server entities can be found by component queries while they are loaded.
+		if (getEntityWorld() != null && !getEntityWorld().isRemote) {
+			Game.components().track(wrapped);
+		}
+	}
+
+	/**
+	 * Stops tracking the NOVA entities among unloaded Minecraft entities.
+	 * @param entities The unloaded entities
+	 */
+	public static void untrack(Iterable<?> entities) {
+		for (Object entity : entities) {
+			if (entity instanceof FWEntity && ((FWEntity) entity).wrapped != null) {
+				Game.components().untrack(((FWEntity) entity).wrapped);
+			}
+		}
 	}
 
 	public EntityTransform getTransform() {
@@ -228,6 +244,7 @@ public class FWEntity extends net.minecraft.entity.Entity implements IEntityAddi
 	@Override
 	public void setDead() {
 		wrapped.events.publish(new Stateful.UnloadEvent());
+		Game.components().untrack(wrapped);
 		super.setDead();
 	}
 
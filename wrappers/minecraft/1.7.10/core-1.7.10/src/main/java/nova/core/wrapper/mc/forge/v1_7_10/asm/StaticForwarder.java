@@ -26,6 +26,8 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.world.chunk.Chunk;
 import nova.core.component.misc.FactoryProvider;
 import nova.core.event.BlockEvent;
+import nova.core.event.bus.GlobalEvents;
+import nova.core.network.NetworkTarget.Side;
 import nova.core.wrapper.mc.forge.v1_7_10.launcher.NovaMinecraft;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.backward.BWBlock;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.forward.FWBlock;
@@ -34,6 +36,7 @@ import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.forward.FWTileLoader;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.forward.MCBlockTransform;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.world.WorldConverter;
 import nova.internal.core.Game;
+import nova.internal.core.event.BlockChangeBatcher;
 import nova.internal.core.launch.NovaLauncher;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
@@ -43,34 +46,57 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
  */
 public class StaticForwarder {
 
+	private static final BlockChangeBatcher serverChanges = new BlockChangeBatcher();
+	private static final BlockChangeBatcher clientChanges = new BlockChangeBatcher();
+
 	private StaticForwarder() {}
 
 	public static void chunkSetBlockEvent(Chunk chunk, int x, int y, int z, Block oldBlock, int oldMeta, Block newBlock, int newMeta) {
+		GlobalEvents events = Game.events();
+		boolean publishChange = events.hasListeners(BlockEvent.Change.class);
+		boolean queueChange = events.hasListeners(BlockEvent.ChangeBatch.class);
+
+		// Skip building the blocks and the event if nobody listens.
+		if (!publishChange && !queueChange) {
+			return;
+		}
+
 		nova.core.world.World world = WorldConverter.instance().toNova(chunk.worldObj);
 		Vector3D position = new Vector3D((chunk.xPosition << 4) + x, y, (chunk.zPosition << 4) + z);
-		nova.core.block.Block oldBlockInstance;
-		nova.core.block.Block newBlockInstance;
+		BlockEvent.Change event = new BlockEvent.Change(world, position,
+			() -> toNovaBlock(oldBlock, oldMeta, world, position),
+			() -> toNovaBlock(newBlock, newMeta, world, position));
 
-		if (oldBlock instanceof FWBlock) {
-			oldBlockInstance = ((FWBlock) oldBlock).getFactory().build();
-			oldBlockInstance.components.add(new MCBlockTransform(oldBlockInstance, world, position));
-		} else {
-			oldBlockInstance = new BWBlock(oldBlock, world, position);
-			Game.blocks().get(net.minecraft.block.Block.blockRegistry.getNameForObject(oldBlock))
-				.ifPresent(blockFactory -> oldBlockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		// Publish the event
+		if (publishChange) {
+			events.publish(event);
 		}
 
-		if (newBlock instanceof FWBlock) {
-			newBlockInstance = ((FWBlock) newBlock).getFactory().build();
-			newBlockInstance.components.add(new MCBlockTransform(newBlockInstance, world, position));
-		} else {
-			newBlockInstance = new BWBlock(newBlock, world, position);
-			Game.blocks().get(net.minecraft.block.Block.blockRegistry.getNameForObject(newBlock))
-				.ifPresent(blockFactory -> newBlockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		if (queueChange) {
+			(chunk.worldObj.isRemote ? clientChanges : serverChanges).queue(event);
 		}
+	}
 
-		// Publish the event
-		Game.events().publish(new BlockEvent.Change(world, position, oldBlockInstance, newBlockInstance));
+	/**
+	 * Publishes the block changes queued during this tick as {@link BlockEvent.ChangeBatch} events.
+	 * @param side The side whose tick ended, only its own changes are published.
+	 */
+	public static void flushBlockChanges(Side side) {
+		(side == Side.CLIENT ? clientChanges : serverChanges).flush(Game.events());
+	}
+
+	private static nova.core.block.Block toNovaBlock(Block block, int metadata, nova.core.world.World world, Vector3D position) {
+		if (block instanceof FWBlock) {
+			nova.core.block.Block blockInstance = ((FWBlock) block).getFactory().build();
+			blockInstance.components.add(new MCBlockTransform(blockInstance, world, position));
+			return blockInstance;
+		}
+
+		// The blocks may only be built after the tick, so keep the metadata of the change.
+		nova.core.block.Block blockInstance = new BWBlock(block, metadata, world, position);
+		Game.blocks().get(net.minecraft.block.Block.blockRegistry.getNameForObject(block))
+			.ifPresent(blockFactory -> blockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		return blockInstance;
 	}
 
 	/**
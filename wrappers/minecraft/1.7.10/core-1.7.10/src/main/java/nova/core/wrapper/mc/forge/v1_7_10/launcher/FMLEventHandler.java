@@ -23,6 +23,8 @@ package nova.core.wrapper.mc.forge.v1_7_10.launcher;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import cpw.mods.fml.common.gameevent.TickEvent;
 import nova.core.event.PlayerEvent;
+import nova.core.network.NetworkTarget.Side;
+import nova.core.wrapper.mc.forge.v1_7_10.asm.StaticForwarder;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.entity.EntityConverter;
 import nova.internal.core.Game;
 
@@ -44,14 +46,18 @@ public class FMLEventHandler {
 	@SubscribeEvent
 	public void tickEnd(TickEvent.ServerTickEvent event) {
 		if (event.phase == TickEvent.Phase.END) {
+			StaticForwarder.flushBlockChanges(Side.SERVER);
 			Game.syncTicker().update();
+			Game.network().flush();
 		}
 	}
 
 	@SubscribeEvent
 	public void tickEnd(TickEvent.ClientTickEvent event) {
 		if (event.phase == TickEvent.Phase.END) {
+			StaticForwarder.flushBlockChanges(Side.CLIENT);
 			Game.syncTicker().update();
+			Game.network().flush();
 		}
 	}
 }
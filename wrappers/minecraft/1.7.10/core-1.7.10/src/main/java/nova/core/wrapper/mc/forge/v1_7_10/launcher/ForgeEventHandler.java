@@ -23,6 +23,7 @@ package nova.core.wrapper.mc.forge.v1_7_10.launcher;
 import cpw.mods.fml.common.eventhandler.Event;
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.oredict.OreDictionary;
 import nova.core.event.PlayerEvent;
@@ -30,6 +31,7 @@ import nova.core.item.Item;
 import nova.core.item.ItemDictionary;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.block.world.WorldConverter;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.entity.EntityConverter;
+import nova.core.wrapper.mc.forge.v1_7_10.wrapper.entity.forward.FWEntity;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.item.ItemConverter;
 import nova.internal.core.Game;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -46,6 +48,14 @@ public class ForgeEventHandler {
 	@SubscribeEvent
 	public void worldLoad(WorldEvent.Unload evt) {
 		Game.events().publish(new nova.core.event.WorldEvent.Unload(WorldConverter.instance().toNova(evt.world)));
+		FWEntity.untrack(evt.world.loadedEntityList);
+	}
+
+	@SubscribeEvent
+	public void chunkUnload(ChunkEvent.Unload evt) {
+		for (Iterable<?> entities : evt.getChunk().entityLists) {
+			FWEntity.untrack(entities);
+		}
 	}
 
 	@SubscribeEvent
@@ -280,6 +280,11 @@ public class NovaMinecraft implements ForgeLoadable {
 	@Mod.EventHandler
 	public void serverStopping(FMLServerStoppingEvent event) {
 		Game.events().publish(new ServerEvent.Stop());
+		// Save everything queued during shutdown, and wait until it is on disk before the server exits.
+		Game.retention().saveAll();
+		Game.retention().flush();
+		// Release the region files, so the world folder can be deleted or renamed from the menu.
+		Game.retention().close();
 	}
 
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2015 NOVA, All rights reserved.
+ * This library is free software, licensed under GNU Lesser General Public License version 3
+ *
+ * This file is part of NOVA.
+ *
+ * NOVA is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * NOVA is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with NOVA.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package nova.core.wrapper.mc.forge.v1_7_10.network.discriminator;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayer;
+import nova.core.wrapper.mc.forge.v1_7_10.network.MCPacket;
+
+/**
+ * The NOVA packets synced during a tick, sent together.
+ *
+ * NOVA Batch Packet Structure, for each NOVA packet:
+ *
+ * 1. Length
+ * 2. NOVA Packet
+ */
+public class NovaBatchPacket extends NovaPacket {
+	/**
+	 * The largest batch sent to the server, whose custom payloads from clients are limited to 32767 bytes
+	 * including the channel and discriminator.
+	 */
+	public static final int MAX_SERVER_BOUND_SIZE = 32000;
+	/**
+	 * The largest batch sent to clients, below the limit of custom payloads from the server.
+	 */
+	public static final int MAX_CLIENT_BOUND_SIZE = 1000000;
+
+	public NovaBatchPacket add(MCPacket packet) {
+		data.writeInt(packet.buf.readableBytes());
+		data.writeBytes(packet.buf);
+		return this;
+	}
+
+	/**
+	 * @return The number of bytes in this batch
+	 */
+	public int size() {
+		return data.readableBytes();
+	}
+
+	/**
+	 * @param packet The packet
+	 * @return The number of bytes the packet takes up in a batch
+	 */
+	public static int sizeOf(MCPacket packet) {
+		return 4 + packet.buf.readableBytes();
+	}
+
+	@Override
+	public void handle(EntityPlayer player) {
+		while (data.isReadable()) {
+			ByteBuf frame = data.readSlice(data.readInt());
+			handle(frame, player);
+		}
+	}
+}
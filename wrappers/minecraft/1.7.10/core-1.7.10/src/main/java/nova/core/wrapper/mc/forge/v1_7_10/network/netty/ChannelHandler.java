@@ -23,6 +23,7 @@ package nova.core.wrapper.mc.forge.v1_7_10.network.netty;
 import cpw.mods.fml.common.network.FMLIndexedMessageToMessageCodec;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.NovaBatchPacket;
 import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.NovaPacket;
 import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.PacketAbstract;
 import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.PacketPlayerItem;
@@ -35,6 +36,7 @@ public class ChannelHandler extends FMLIndexedMessageToMessageCodec<PacketAbstra
 	public ChannelHandler() {
 		addDiscriminator(0, NovaPacket.class);
 		addDiscriminator(1, PacketPlayerItem.class);
+		addDiscriminator(2, NovaBatchPacket.class);
 	}
 
 	@Override
@@ -37,12 +37,14 @@ import nova.core.network.NetworkManager;
 import nova.core.network.Syncable;
 import nova.core.wrapper.mc.forge.v1_7_10.launcher.NovaMinecraft;
 import nova.core.wrapper.mc.forge.v1_7_10.network.MCPacket;
+import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.NovaBatchPacket;
 import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.NovaPacket;
 import nova.core.wrapper.mc.forge.v1_7_10.network.discriminator.PacketAbstract;
 import nova.core.wrapper.mc.forge.v1_7_10.wrapper.entity.backward.BWEntity;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
 import java.util.EnumMap;
+import java.util.List;
 
 /**
  * The implementation of NetworkManager that will be injected.
@@ -57,6 +59,10 @@ public class MCNetworkManager extends NetworkManager {
 		return channelEnumMap.get(FMLCommonHandler.instance().getEffectiveSide()).generatePacketFrom(packet);
 	}
 
+	public MCNetworkManager() {
+		setBatching(true);
+	}
+
 	@Override
 	public nova.core.network.Packet newPacket() {
 		return new MCPacket(Unpooled.buffer());
@@ -68,7 +74,34 @@ public class MCNetworkManager extends NetworkManager {
 		PacketAbstract discriminator = new NovaPacket();
 		//Write packet
 		discriminator.data.writeBytes(((MCPacket) packet).buf);
+		send(discriminator);
+	}
+
+	/**
+	 * Sends the packets synced during a tick as batches,
+	 * starting a new batch whenever the current one would exceed the payload limit.
+	 */
+	@Override
+	public void sendPackets(List<nova.core.network.Packet> packets) {
+		if (packets.size() == 1) {
+			sendPacket(packets.get(0));
+			return;
+		}
+
+		int maxSize = isServer() ? NovaBatchPacket.MAX_CLIENT_BOUND_SIZE : NovaBatchPacket.MAX_SERVER_BOUND_SIZE;
+		NovaBatchPacket batch = new NovaBatchPacket();
+		for (nova.core.network.Packet packet : packets) {
+			MCPacket mcPacket = (MCPacket) packet;
+			if (batch.size() > 0 && batch.size() + NovaBatchPacket.sizeOf(mcPacket) > maxSize) {
+				send(batch);
+				batch = new NovaBatchPacket();
+			}
+			batch.add(mcPacket);
+		}
+		send(batch);
+	}
 
+	private void send(PacketAbstract discriminator) {
 		if (isServer()) {
 			sendToAll(discriminator);
 		} else {
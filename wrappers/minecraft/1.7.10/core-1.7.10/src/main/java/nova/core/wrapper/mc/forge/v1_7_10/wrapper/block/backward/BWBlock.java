@@ -61,13 +61,31 @@ public class BWBlock extends Block implements Storable {
 	@Store
 	public int metadata;
 	private TileEntity mcTileEntity;
+	/**
+	 * The metadata the block had when it was changed, or -1 if it is read from the world.
+	 */
+	private final int capturedMetadata;
 
 	public BWBlock(net.minecraft.block.Block block) {
 		this.mcBlock = block;
+		this.capturedMetadata = -1;
 	}
 
 	public BWBlock(net.minecraft.block.Block block, World world, Vector3D pos) {
+		this(block, -1, world, pos);
+	}
+
+	/**
+	 * Creates a block which keeps the metadata it had when it was changed,
+	 * instead of reading it from the world once the world may hold something else.
+	 * @param block The block
+	 * @param metadata The metadata at the time of the change, or -1 to read it from the world
+	 * @param world The world
+	 * @param pos The position
+	 */
+	public BWBlock(net.minecraft.block.Block block, int metadata, World world, Vector3D pos) {
 		this.mcBlock = block;
+		this.capturedMetadata = metadata;
 		components.add(new BWBlockTransform(this, world, pos));
 		components.add(new BlockProperty.Opacity()).setOpacity(() -> mcBlock.getMaterial().isOpaque() ? 1 : 0);
 		BlockProperty.Replaceable replaceable = components.add(new BlockProperty.Replaceable());
@@ -139,11 +157,12 @@ public class BWBlock extends Block implements Storable {
 	}
 
 	public int getMetadata() {
-		return blockAccess().getBlockMetadata(xi(), yi(), zi());
+		return capturedMetadata >= 0 ? capturedMetadata : blockAccess().getBlockMetadata(xi(), yi(), zi());
 	}
 
 	public Optional<TileEntity> getTileEntity() {
-		if (mcTileEntity == null && mcBlock.hasTileEntity(getMetadata())) {
+		// A captured block only owns the tile entity in the world if the world still holds the block.
+		if (mcTileEntity == null && mcBlock.hasTileEntity(getMetadata()) && (capturedMetadata < 0 || blockAccess().getBlock(xi(), yi(), zi()) == mcBlock)) {
 			mcTileEntity = blockAccess().getTileEntity(xi(), yi(), zi());
 		}
 		return  Optional.ofNullable(mcTileEntity);
@@ -151,7 +170,7 @@ public class BWBlock extends Block implements Storable {
 
 	@Override
 	public boolean shouldDisplacePlacement() {
-		if (mcBlock == Blocks.snow_layer && (blockAccess().getBlockMetadata(xi(), yi(), zi()) & 7) < 1) {
+		if (mcBlock == Blocks.snow_layer && (getMetadata() & 7) < 1) {
 			return false;
 		}
 
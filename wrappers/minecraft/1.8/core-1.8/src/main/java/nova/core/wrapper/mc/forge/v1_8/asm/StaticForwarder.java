@@ -28,6 +28,8 @@ import net.minecraft.world.chunk.Chunk;
 import nova.core.block.Block;
 import nova.core.component.misc.FactoryProvider;
 import nova.core.event.BlockEvent;
+import nova.core.event.bus.GlobalEvents;
+import nova.core.network.NetworkTarget.Side;
 import nova.core.wrapper.mc.forge.v1_8.launcher.NovaMinecraft;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.block.backward.BWBlock;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.block.forward.FWBlock;
@@ -36,6 +38,7 @@ import nova.core.wrapper.mc.forge.v1_8.wrapper.block.forward.FWTileLoader;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.block.forward.MCBlockTransform;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.block.world.WorldConverter;
 import nova.internal.core.Game;
+import nova.internal.core.event.BlockChangeBatcher;
 import nova.internal.core.launch.NovaLauncher;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 
@@ -47,34 +50,57 @@ import java.util.Objects;
  */
 public class StaticForwarder {
 
+	private static final BlockChangeBatcher serverChanges = new BlockChangeBatcher();
+	private static final BlockChangeBatcher clientChanges = new BlockChangeBatcher();
+
 	private StaticForwarder() {}
 
 	public static void chunkSetBlockEvent(Chunk chunk, BlockPos pos, IBlockState oldBlockState, IBlockState newBlockState) {
+		GlobalEvents events = Game.events();
+		boolean publishChange = events.hasListeners(BlockEvent.Change.class);
+		boolean queueChange = events.hasListeners(BlockEvent.ChangeBatch.class);
+
+		// Skip building the blocks and the event if nobody listens.
+		if (!publishChange && !queueChange) {
+			return;
+		}
+
 		nova.core.world.World world = WorldConverter.instance().toNova(chunk.getWorld());
 		Vector3D position = new Vector3D((chunk.xPosition << 4) + pos.getX(), pos.getY(), (chunk.zPosition << 4) + pos.getZ());
-		Block oldBlockInstance;
-		Block newBlockInstance;
+		BlockEvent.Change event = new BlockEvent.Change(world, position,
+			() -> toNovaBlock(oldBlockState, world, position),
+			() -> toNovaBlock(newBlockState, world, position));
 
-		if (oldBlockState.getBlock() instanceof FWBlock) {
-			oldBlockInstance = ((FWBlock) oldBlockState.getBlock()).getFactory().build();
-			oldBlockInstance.components.add(new MCBlockTransform(oldBlockInstance, world, position));
-		} else {
-			oldBlockInstance = new BWBlock(oldBlockState.getBlock(), world, position);
-			Game.blocks().get(Objects.toString(net.minecraft.block.Block.blockRegistry.getNameForObject(oldBlockState.getBlock())))
-				.ifPresent(blockFactory -> oldBlockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		// Publish the event
+		if (publishChange) {
+			events.publish(event);
 		}
 
-		if (newBlockState.getBlock() instanceof FWBlock) {
-			newBlockInstance = ((FWBlock) newBlockState.getBlock()).getFactory().build();
-			oldBlockInstance.components.add(new MCBlockTransform(oldBlockInstance, world, position));
-		} else {
-			newBlockInstance = new BWBlock(newBlockState.getBlock());
-			Game.blocks().get(Objects.toString(net.minecraft.block.Block.blockRegistry.getNameForObject(newBlockState.getBlock())))
-				.ifPresent(blockFactory -> newBlockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		if (queueChange) {
+			(chunk.getWorld().isRemote ? clientChanges : serverChanges).queue(event);
 		}
+	}
 
-		// Publish the event
-		Game.events().publish(new BlockEvent.Change(world, position, oldBlockInstance, newBlockInstance));
+	/**
+	 * Publishes the block changes queued during this tick as {@link BlockEvent.ChangeBatch} events.
+	 * @param side The side whose tick ended, only its own changes are published.
+	 */
+	public static void flushBlockChanges(Side side) {
+		(side == Side.CLIENT ? clientChanges : serverChanges).flush(Game.events());
+	}
+
+	private static Block toNovaBlock(IBlockState blockState, nova.core.world.World world, Vector3D position) {
+		if (blockState.getBlock() instanceof FWBlock) {
+			Block blockInstance = ((FWBlock) blockState.getBlock()).getFactory().build();
+			blockInstance.components.add(new MCBlockTransform(blockInstance, world, position));
+			return blockInstance;
+		}
+
+		// The blocks may only be built after the tick, so keep the state of the change.
+		Block blockInstance = new BWBlock(blockState, world, position);
+		Game.blocks().get(Objects.toString(net.minecraft.block.Block.blockRegistry.getNameForObject(blockState.getBlock())))
+			.ifPresent(blockFactory -> blockInstance.components.getOrAdd(new FactoryProvider(blockFactory)));
+		return blockInstance;
 	}
 
 	/**
@@ -21,6 +21,7 @@
 package nova.core.wrapper.mc.forge.v1_8.launcher;
 
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -30,6 +31,7 @@ import nova.core.item.ItemDictionary;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.VectorConverter;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.block.world.WorldConverter;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.entity.EntityConverter;
+import nova.core.wrapper.mc.forge.v1_8.wrapper.entity.forward.FWEntity;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.item.ItemConverter;
 import nova.internal.core.Game;
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
@@ -47,6 +49,14 @@ public class ForgeEventHandler {
 	@SubscribeEvent
 	public void worldLoad(WorldEvent.Unload evt) {
 		Game.events().publish(new nova.core.event.WorldEvent.Unload(WorldConverter.instance().toNova(evt.world)));
+		FWEntity.untrack(evt.world.loadedEntityList);
+	}
+
+	@SubscribeEvent
+	public void chunkUnload(ChunkEvent.Unload evt) {
+		for (Iterable<?> entities : evt.getChunk().getEntityLists()) {
+			FWEntity.untrack(entities);
+		}
 	}
 
 	@SubscribeEvent
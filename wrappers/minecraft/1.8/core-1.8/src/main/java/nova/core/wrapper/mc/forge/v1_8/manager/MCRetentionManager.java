@@ -27,18 +27,30 @@ import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.FMLClientHandler;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import nova.core.retention.AsyncFileWriter;
 import nova.core.retention.Data;
+import nova.core.retention.RegionMigration;
+import nova.core.retention.RegionStore;
 import nova.core.retention.Storable;
 import nova.core.util.registry.RetentionManager;
 import nova.core.wrapper.mc.forge.v1_8.wrapper.data.DataConverter;
 import nova.internal.core.Game;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * A manager that handles external file saving.
+ *
+ * Queued saves are kept in region files in the world folder, see {@link RegionStore}.
+ * Loose .nbt files from older versions are still loaded, until they are saved into a region.
  * @author Calclavia
  */
 public class MCRetentionManager extends RetentionManager {
@@ -49,45 +61,146 @@ public class MCRetentionManager extends RetentionManager {
 	private long lastSaveTime = 0;
 
 	/**
-	 * Save all storable queued
+	 * Compresses and writes the saved NBT off the server thread.
+	 */
+	private final AsyncFileWriter writer;
+
+	/**
+	 * The region files of the current world.
+	 */
+	private RegionStore regions;
+
+	public MCRetentionManager() {
+		this(1024, AsyncFileWriter.SyncPolicy.FILE);
+	}
+
+	/**
+	 * @param capacity The number of files that may wait to be written before saving blocks
+	 * @param syncPolicy When to force written files to the disk
 	 */
-	public void saveAll() {
-		saveQueue.forEach(this::save);
-		saveQueue.clear();
+	public MCRetentionManager(int capacity, AsyncFileWriter.SyncPolicy syncPolicy) {
+		setContentHashing(true);
+		writer = new AsyncFileWriter("NOVA Save Writer", capacity, syncPolicy);
 	}
 
 	@Override
 	public void save(String filename, Storable storable) {
 		Data saveMap = new Data();
 		storable.save(saveMap);
-		saveFile(filename, DataConverter.instance().toNative(saveMap));
+		invalidate(filename);
+		saveData(filename, saveMap);
+	}
+
+	@Override
+	protected boolean saveData(String filename, Data data) {
+		return saveData(filename, data, () -> invalidate(filename));
+	}
+
+	@Override
+	protected boolean saveData(String filename, Data data, Runnable onFailure) {
+		RegionStore store = getRegions();
+		Path path = store.getDirectory().resolve(filename).toAbsolutePath();
+		NBTTagCompound nbt = DataConverter.instance().toNative(data);
+		try {
+			writer.submit(path, () -> {
+				try {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					CompressedStreamTools.write(nbt, new DataOutputStream(bytes));
+					store.write(filename, bytes.toByteArray());
+				} catch (IOException | RuntimeException e) {
+					onFailure.run();
+					throw e;
+				}
+			});
+			return true;
+		} catch (IllegalStateException e) {
+			Game.logger().error("Failed to queueSave {}!", filename, e);
+			return false;
+		}
+	}
+
+	@Override
+	public void flush() {
+		writer.flush();
+		if (regions != null) {
+			try {
+				regions.force();
+			} catch (IOException e) {
+				Game.logger().error("Failed to flush {}!", regions.getDirectory(), e);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		flush();
+		if (regions != null) {
+			try {
+				regions.close();
+			} catch (IOException e) {
+				Game.logger().error("Failed to close {}!", regions.getDirectory(), e);
+			}
+			regions = null;
+		}
 	}
 
 	@Override
 	public void load(String filename, Storable storable) {
-		NBTTagCompound nbt = loadFile(filename);
+		NBTTagCompound nbt = loadRegion(filename);
+		if (nbt == null) {
+			nbt = loadFile(filename);
+		}
 		storable.load(DataConverter.instance().toNova(nbt));
 	}
 
 	/**
-	 * Saves NBT data in the world folder.
-	 * @param file File to save data to
-	 * @param data Data to save
-	 * @return True on success.
+	 * Reads NBT data from the region files of the world.
+	 * @param filename The key the data was saved as
+	 * @return The NBT data, or null if it is not in a region
 	 */
-	public boolean saveFile(File file, NBTTagCompound data) {
+	public NBTTagCompound loadRegion(String filename) {
+		RegionStore store = getRegions();
+		writer.flush(store.getDirectory().resolve(filename));
 		try {
-			File tempFile = new File(file.getParent(), file.getName().replaceFirst("\\.nbt$", ".tmp.nbt"));
-
-			CompressedStreamTools.writeCompressed(data, new FileOutputStream(tempFile));
+			byte[] bytes = store.read(filename);
+			return bytes != null ? CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(bytes))) : null;
+		} catch (IOException e) {
+			Game.logger().error("Failed to load {}!", filename, e);
+			return null;
+		}
+	}
 
-			if (file.exists()) {
-				file.delete();
+	/**
+	 * @return The region files of the current world, reopened when the world changes
+	 */
+	public RegionStore getRegions() {
+		Path directory = new File(getSaveDirectory(), RegionMigration.DEFAULT_DIRECTORY).toPath().toAbsolutePath();
+		if (regions == null || !regions.getDirectory().equals(directory)) {
+			if (regions != null) {
+				writer.flush();
+				try {
+					regions.close();
+				} catch (IOException e) {
+					Game.logger().error("Failed to close {}!", regions.getDirectory(), e);
+				}
 			}
+			regions = new RegionStore(directory, writer.getSyncPolicy());
+		}
+		return regions;
+	}
 
-			tempFile.renameTo(file);
+	/**
+	 * Saves NBT data in the world folder.
+	 * The data is compressed and written on a background thread, use {@link #flush()} to wait for it.
+	 * @param file File to save data to
+	 * @param data Data to save, must not be modified afterwards
+	 * @return True if the data was queued to be written.
+	 */
+	public boolean saveFile(File file, NBTTagCompound data) {
+		try {
+			writer.write(file.toPath(), out -> CompressedStreamTools.writeCompressed(data, out));
 			return true;
-		} catch (Exception e) {
+		} catch (IllegalStateException e) {
 			Game.logger().error("Failed to queueSave {}!", file.getName(), e);
 			e.printStackTrace();
 			return false;
@@ -104,12 +217,15 @@ public class MCRetentionManager extends RetentionManager {
 
 	public NBTTagCompound loadFile(File file) {
 		try {
+			writer.flush(file.toPath());
 			if (file.exists()) {
-				return CompressedStreamTools.readCompressed(new FileInputStream(file));
+				try (InputStream in = Files.newInputStream(file.toPath())) {
+					return CompressedStreamTools.readCompressed(in);
+				}
 			} else {
 				return new NBTTagCompound();
 			}
-		} catch (Exception e) {
+		} catch (IOException e) {
 			Game.logger().error("Failed to load {}!", file.getName(), e);
 			e.printStackTrace();
 			return null;
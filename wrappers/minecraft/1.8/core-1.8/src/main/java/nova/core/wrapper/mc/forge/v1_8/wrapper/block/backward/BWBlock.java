@@ -66,13 +66,34 @@ public class BWBlock extends Block implements Storable {
 	@Store
 	public int metadata;
 	private TileEntity mcTileEntity;
+	/**
+	 * The state the block had when it was changed, or null if it is read from the world.
+	 */
+	private final IBlockState capturedState;
 
 	public BWBlock(net.minecraft.block.Block block) {
 		this.mcBlock = block;
+		this.capturedState = null;
 	}
 
 	public BWBlock(net.minecraft.block.Block block, World world, Vector3D pos) {
+		this(block, null, world, pos);
+	}
+
+	/**
+	 * Creates a block which keeps the state it had when it was changed,
+	 * instead of reading it from the world once the world may hold something else.
+	 * @param blockState The state at the time of the change
+	 * @param world The world
+	 * @param pos The position
+	 */
+	public BWBlock(IBlockState blockState, World world, Vector3D pos) {
+		this(blockState.getBlock(), blockState, world, pos);
+	}
+
+	private BWBlock(net.minecraft.block.Block block, IBlockState capturedState, World world, Vector3D pos) {
 		this.mcBlock = block;
+		this.capturedState = capturedState;
 		components.add(new BWBlockTransform(this, world, pos));
 		components.add(new BlockProperty.Opacity()).setOpacity(() -> mcBlock.getMaterial().isOpaque() ? 1 : 0);
 		BlockProperty.Replaceable replaceable = components.add(new BlockProperty.Replaceable());
@@ -156,11 +177,12 @@ public class BWBlock extends Block implements Storable {
 	}
 
 	public IBlockState blockState() {
-		return blockAccess().getBlockState(new BlockPos(x(), y(), z()));
+		return capturedState != null ? capturedState : blockAccess().getBlockState(new BlockPos(x(), y(), z()));
 	}
 
 	public Optional<TileEntity> getTileEntity() {
-		if (mcTileEntity == null && mcBlock.hasTileEntity(blockState())) {
+		// A captured block only owns the tile entity in the world if the world still holds the block.
+		if (mcTileEntity == null && mcBlock.hasTileEntity(blockState()) && (capturedState == null || blockAccess().getBlockState(blockPos()).getBlock() == mcBlock)) {
 			mcTileEntity = blockAccess().getTileEntity(blockPos());
 		}
 		return Optional.ofNullable(mcTileEntity);